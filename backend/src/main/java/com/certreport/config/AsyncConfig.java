@@ -1,7 +1,10 @@
 package com.certreport.config;
 
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
@@ -9,17 +12,53 @@ import java.util.concurrent.Executor;
 @Configuration
 public class AsyncConfig {
     
+    /**
+     * Worker pool for report jobs. The job dispatcher never has more jobs running than there are
+     * workers - waiting jobs stay in the report_jobs table - so the queue only covers the moment
+     * a finishing worker hands its thread to the next job.
+     *
+     * With spring.threads.virtual.enabled on Java 21+ each job gets its own virtual thread
+     * instead, so jobs blocked on JDBC or file I/O no longer hold a platform thread.
+     */
     @Bean("reportTaskExecutor")
-    public Executor reportTaskExecutor() {
+    public Executor reportTaskExecutor(ReportJobProperties jobProperties, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("report-generator-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(Math.max(1, jobProperties.getVirtualMaxConcurrentJobs()));
+            executor.setTaskTerminationTimeout(60000);
+            return executor;
+        }
+        
+        int workers = Math.max(1, jobProperties.getWorkerThreads());
+        
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(10);    // Handle typical load efficiently
-        executor.setMaxPoolSize(20);     // Maximum concurrent reports (up to 20 parallel requests)
-        executor.setQueueCapacity(15);   // Small queue to prevent memory issues
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
         executor.setThreadNamePrefix("report-generator-");
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
-        // Use CallerRunsPolicy for graceful degradation when overwhelmed
-        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Pool for filling report chunks in parallel. Sized to the configured fill threads
+     * (all cores by default); callers bound the number of queued chunks themselves.
+     */
+    @Bean("reportFillExecutor")
+    public Executor reportFillExecutor(PdfGenerationProperties pdfProperties) {
+        int threads = pdfProperties.getParallelFillThreads() > 0
+                ? pdfProperties.getParallelFillThreads()
+                : Runtime.getRuntime().availableProcessors();
+        
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("report-fill-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
         executor.initialize();
         return executor;
     }
@@ -30,6 +30,86 @@ public class PdfGenerationProperties {
      */
     private int gcFrequency = 5;
     
+    /**
+     * Fill large reports from a forward-only database cursor instead of loading all data up front
+     */
+    private boolean streamingEnabled = true;
+    
+    /**
+     * Employee count at or above which the streaming data source is used
+     */
+    private int streamingThresholdEmployees = 1000;
+    
+    /**
+     * Page filled reports out to a swap file on local disk instead of keeping every page on the heap
+     */
+    private boolean virtualizerEnabled = true;
+    
+    /**
+     * Maximum number of filled pages kept in memory before older pages are swapped to disk
+     */
+    private int virtualizerMaxPagesInMemory = 50;
+    
+    /**
+     * Directory for virtualizer swap files (defaults to java.io.tmpdir)
+     */
+    private String virtualizerSwapDirectory = System.getProperty("java.io.tmpdir");
+    
+    /**
+     * Swap file block size in bytes
+     */
+    private int virtualizerBlockSize = 4096;
+    
+    /**
+     * Minimum number of blocks the swap file grows by when it is full
+     */
+    private int virtualizerMinGrowCount = 100;
+    
+    /**
+     * Fill chunks concurrently on a dedicated pool in memory-efficient mode
+     */
+    private boolean parallelFillEnabled = true;
+    
+    /**
+     * Maximum number of chunks filled at once (0 = number of available processors)
+     */
+    private int parallelFillThreads = 0;
+    
+    /**
+     * Estimated heap in MB needed per chunk being filled, used to cap parallel fill concurrency
+     */
+    private int parallelFillHeapPerChunkMb = 32;
+    
+    /**
+     * Split large reports into department shards that are loaded and filled concurrently
+     */
+    private boolean shardingEnabled = true;
+    
+    /**
+     * Employee count at or above which a report is generated in department shards
+     */
+    private int shardingThresholdEmployees = 2000;
+    
+    /**
+     * Maximum number of department shards per report (0 = number of available processors)
+     */
+    private int shardingMaxShards = 0;
+    
+    /**
+     * Export large filled reports as page ranges in parallel and merge the ranges into one PDF
+     */
+    private boolean parallelExportEnabled = true;
+    
+    /**
+     * Page count at or above which a filled report is exported in parallel page ranges
+     */
+    private int parallelExportThresholdPages = 500;
+    
+    /**
+     * Minimum number of pages per exported range
+     */
+    private int parallelExportMinRangePages = 100;
+    
     // Getters and setters
     public boolean isEnabled() {
         return enabled;
@@ -62,4 +142,132 @@ public class PdfGenerationProperties {
     public void setGcFrequency(int gcFrequency) {
         this.gcFrequency = gcFrequency;
     }
+    
+    public boolean isStreamingEnabled() {
+        return streamingEnabled;
+    }
+    
+    public void setStreamingEnabled(boolean streamingEnabled) {
+        this.streamingEnabled = streamingEnabled;
+    }
+    
+    public int getStreamingThresholdEmployees() {
+        return streamingThresholdEmployees;
+    }
+    
+    public void setStreamingThresholdEmployees(int streamingThresholdEmployees) {
+        this.streamingThresholdEmployees = streamingThresholdEmployees;
+    }
+    
+    public boolean isVirtualizerEnabled() {
+        return virtualizerEnabled;
+    }
+    
+    public void setVirtualizerEnabled(boolean virtualizerEnabled) {
+        this.virtualizerEnabled = virtualizerEnabled;
+    }
+    
+    public int getVirtualizerMaxPagesInMemory() {
+        return virtualizerMaxPagesInMemory;
+    }
+    
+    public void setVirtualizerMaxPagesInMemory(int virtualizerMaxPagesInMemory) {
+        this.virtualizerMaxPagesInMemory = virtualizerMaxPagesInMemory;
+    }
+    
+    public String getVirtualizerSwapDirectory() {
+        return virtualizerSwapDirectory;
+    }
+    
+    public void setVirtualizerSwapDirectory(String virtualizerSwapDirectory) {
+        this.virtualizerSwapDirectory = virtualizerSwapDirectory;
+    }
+    
+    public int getVirtualizerBlockSize() {
+        return virtualizerBlockSize;
+    }
+    
+    public void setVirtualizerBlockSize(int virtualizerBlockSize) {
+        this.virtualizerBlockSize = virtualizerBlockSize;
+    }
+    
+    public int getVirtualizerMinGrowCount() {
+        return virtualizerMinGrowCount;
+    }
+    
+    public void setVirtualizerMinGrowCount(int virtualizerMinGrowCount) {
+        this.virtualizerMinGrowCount = virtualizerMinGrowCount;
+    }
+    
+    public boolean isParallelFillEnabled() {
+        return parallelFillEnabled;
+    }
+    
+    public void setParallelFillEnabled(boolean parallelFillEnabled) {
+        this.parallelFillEnabled = parallelFillEnabled;
+    }
+    
+    public int getParallelFillThreads() {
+        return parallelFillThreads;
+    }
+    
+    public void setParallelFillThreads(int parallelFillThreads) {
+        this.parallelFillThreads = parallelFillThreads;
+    }
+    
+    public int getParallelFillHeapPerChunkMb() {
+        return parallelFillHeapPerChunkMb;
+    }
+    
+    public void setParallelFillHeapPerChunkMb(int parallelFillHeapPerChunkMb) {
+        this.parallelFillHeapPerChunkMb = parallelFillHeapPerChunkMb;
+    }
+    
+    public boolean isShardingEnabled() {
+        return shardingEnabled;
+    }
+    
+    public void setShardingEnabled(boolean shardingEnabled) {
+        this.shardingEnabled = shardingEnabled;
+    }
+    
+    public int getShardingThresholdEmployees() {
+        return shardingThresholdEmployees;
+    }
+    
+    public void setShardingThresholdEmployees(int shardingThresholdEmployees) {
+        this.shardingThresholdEmployees = shardingThresholdEmployees;
+    }
+    
+    public int getShardingMaxShards() {
+        return shardingMaxShards;
+    }
+    
+    public void setShardingMaxShards(int shardingMaxShards) {
+        this.shardingMaxShards = shardingMaxShards;
+    }
+    
+    public boolean isParallelExportEnabled() {
+        return parallelExportEnabled;
+    }
+    
+    public void setParallelExportEnabled(boolean parallelExportEnabled) {
+        this.parallelExportEnabled = parallelExportEnabled;
+    }
+    
+    public int getParallelExportThresholdPages() {
+        return parallelExportThresholdPages;
+    }
+    
+    public void setParallelExportThresholdPages(int parallelExportThresholdPages) {
+        this.parallelExportThresholdPages = parallelExportThresholdPages;
+    }
+    
+    public int getParallelExportMinRangePages() {
+        return parallelExportMinRangePages;
+    }
+    
+    public void setParallelExportMinRangePages(int parallelExportMinRangePages) {
+        this.parallelExportMinRangePages = parallelExportMinRangePages;
+    }
 }
@@ -0,0 +1,118 @@
+package com.certreport.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for reusing generated reports, rendered employee pages and filled reports
+ */
+@Component
+@ConfigurationProperties(prefix = "report.result-cache")
+public class ReportCacheProperties {
+    
+    /**
+     * Serve identical requests from a completed or in-flight report when the underlying data is unchanged
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Hours a completed report may be reused for (0 = as long as its file exists)
+     */
+    private int maxAgeHours = 24;
+    
+    /**
+     * Cache the rendered pages of each employee and re-fill only employees whose data changed
+     */
+    private boolean fragmentsEnabled = true;
+    
+    /**
+     * Directory for cached employee page fragments, created accessible to the application's user only
+     */
+    private String fragmentDirectory = System.getProperty("user.home") + "/.certreport/report-fragments";
+    
+    /**
+     * Hours an unused employee fragment is kept on disk
+     */
+    private int fragmentMaxAgeHours = 72;
+    
+    /**
+     * Keep the filled report of completed reports so other formats can be exported without filling again
+     */
+    private boolean printsEnabled = true;
+    
+    /**
+     * Directory for stored filled reports and the formats exported from them, created accessible
+     * to the application's user only
+     */
+    private String printDirectory = System.getProperty("user.home") + "/.certreport/report-prints";
+    
+    /**
+     * Hours a stored filled report and its exports are kept on disk
+     */
+    private int printRetentionHours = 24;
+    
+    // Getters and setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getMaxAgeHours() {
+        return maxAgeHours;
+    }
+    
+    public void setMaxAgeHours(int maxAgeHours) {
+        this.maxAgeHours = maxAgeHours;
+    }
+    
+    public boolean isFragmentsEnabled() {
+        return fragmentsEnabled;
+    }
+    
+    public void setFragmentsEnabled(boolean fragmentsEnabled) {
+        this.fragmentsEnabled = fragmentsEnabled;
+    }
+    
+    public String getFragmentDirectory() {
+        return fragmentDirectory;
+    }
+    
+    public void setFragmentDirectory(String fragmentDirectory) {
+        this.fragmentDirectory = fragmentDirectory;
+    }
+    
+    public int getFragmentMaxAgeHours() {
+        return fragmentMaxAgeHours;
+    }
+    
+    public void setFragmentMaxAgeHours(int fragmentMaxAgeHours) {
+        this.fragmentMaxAgeHours = fragmentMaxAgeHours;
+    }
+    
+    public boolean isPrintsEnabled() {
+        return printsEnabled;
+    }
+    
+    public void setPrintsEnabled(boolean printsEnabled) {
+        this.printsEnabled = printsEnabled;
+    }
+    
+    public String getPrintDirectory() {
+        return printDirectory;
+    }
+    
+    public void setPrintDirectory(String printDirectory) {
+        this.printDirectory = printDirectory;
+    }
+    
+    public int getPrintRetentionHours() {
+        return printRetentionHours;
+    }
+    
+    public void setPrintRetentionHours(int printRetentionHours) {
+        this.printRetentionHours = printRetentionHours;
+    }
+}
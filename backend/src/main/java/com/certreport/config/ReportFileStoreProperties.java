@@ -0,0 +1,52 @@
+package com.certreport.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the directory tree that holds generated report files
+ */
+@Component
+@ConfigurationProperties(prefix = "report.file-store")
+public class ReportFileStoreProperties {
+    
+    /**
+     * Root directory of the report file store
+     */
+    private String directory = System.getProperty("java.io.tmpdir") + "/report-files";
+    
+    /**
+     * Levels of hash-named subdirectories below the root, 256 per level
+     */
+    private int shardLevels = 1;
+    
+    /**
+     * Total size in MB of stored report files before the oldest reports are deleted (0 = no limit)
+     */
+    private long quotaMb = 10240;
+    
+    // Getters and setters
+    public String getDirectory() {
+        return directory;
+    }
+    
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+    
+    public int getShardLevels() {
+        return shardLevels;
+    }
+    
+    public void setShardLevels(int shardLevels) {
+        this.shardLevels = shardLevels;
+    }
+    
+    public long getQuotaMb() {
+        return quotaMb;
+    }
+    
+    public void setQuotaMb(long quotaMb) {
+        this.quotaMb = quotaMb;
+    }
+}
@@ -0,0 +1,130 @@
+package com.certreport.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the persistent report job queue
+ */
+@Component
+@ConfigurationProperties(prefix = "report.jobs")
+public class ReportJobProperties {
+    
+    /**
+     * Number of report jobs executed concurrently on this instance
+     */
+    private int workerThreads = 4;
+    
+    /**
+     * Interval in milliseconds between polls of the job queue
+     */
+    private long pollIntervalMs = 1000;
+    
+    /**
+     * Priority given to jobs submitted without one (higher runs first)
+     */
+    private int defaultPriority = 5;
+    
+    /**
+     * Number of report jobs run at once when virtual threads are enabled (spring.threads.virtual.enabled)
+     */
+    private int virtualMaxConcurrentJobs = 64;
+    
+    /**
+     * Number of reports allowed in Jasper fill/export at once (0 = number of CPUs)
+     */
+    private int renderPermits = 0;
+    
+    /**
+     * Time a report job may run regardless of its size, in seconds
+     */
+    private int deadlineBaseSeconds = 60;
+    
+    /**
+     * Additional run time allowed per employee in the report, in milliseconds
+     */
+    private int deadlineMsPerEmployee = 200;
+    
+    /**
+     * Upper limit of a report job's run time in seconds; keep below the 30 minute stuck report cleanup
+     */
+    private int deadlineMaxSeconds = 1200;
+    
+    /**
+     * Number of row exports streamed into responses at once; further requests wait for a slot until their deadline
+     */
+    private int maxConcurrentExports = 4;
+    
+    // Getters and setters
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+    
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+    
+    public long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
+    
+    public void setPollIntervalMs(long pollIntervalMs) {
+        this.pollIntervalMs = pollIntervalMs;
+    }
+    
+    public int getDefaultPriority() {
+        return defaultPriority;
+    }
+    
+    public void setDefaultPriority(int defaultPriority) {
+        this.defaultPriority = defaultPriority;
+    }
+    
+    public int getVirtualMaxConcurrentJobs() {
+        return virtualMaxConcurrentJobs;
+    }
+    
+    public void setVirtualMaxConcurrentJobs(int virtualMaxConcurrentJobs) {
+        this.virtualMaxConcurrentJobs = virtualMaxConcurrentJobs;
+    }
+    
+    public int getRenderPermits() {
+        return renderPermits;
+    }
+    
+    public void setRenderPermits(int renderPermits) {
+        this.renderPermits = renderPermits;
+    }
+    
+    public int getDeadlineBaseSeconds() {
+        return deadlineBaseSeconds;
+    }
+    
+    public void setDeadlineBaseSeconds(int deadlineBaseSeconds) {
+        this.deadlineBaseSeconds = deadlineBaseSeconds;
+    }
+    
+    public int getDeadlineMsPerEmployee() {
+        return deadlineMsPerEmployee;
+    }
+    
+    public void setDeadlineMsPerEmployee(int deadlineMsPerEmployee) {
+        this.deadlineMsPerEmployee = deadlineMsPerEmployee;
+    }
+    
+    public int getDeadlineMaxSeconds() {
+        return deadlineMaxSeconds;
+    }
+    
+    public void setDeadlineMaxSeconds(int deadlineMaxSeconds) {
+        this.deadlineMaxSeconds = deadlineMaxSeconds;
+    }
+    
+    public int getMaxConcurrentExports() {
+        return maxConcurrentExports;
+    }
+    
+    public void setMaxConcurrentExports(int maxConcurrentExports) {
+        this.maxConcurrentExports = maxConcurrentExports;
+    }
+}
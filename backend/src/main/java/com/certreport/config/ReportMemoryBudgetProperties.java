@@ -0,0 +1,91 @@
+package com.certreport.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the global heap budget shared by concurrent reports
+ */
+@Component
+@ConfigurationProperties(prefix = "report.memory-budget")
+public class ReportMemoryBudgetProperties {
+    
+    /**
+     * Reserve estimated heap per report before generation and hold reports that don't fit
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Heap in MB that concurrent reports may reserve in total (0 = 70% of the maximum heap)
+     */
+    private long heapBudgetMb = 0;
+    
+    /**
+     * Milliseconds a report waits for a full in-memory reservation before it is downgraded to the memory-efficient path
+     */
+    private long maxWaitMs = 30000;
+    
+    /**
+     * Estimated heap in KB per employee when the whole report is filled in memory
+     */
+    private int fullFillKbPerEmployee = 580;
+    
+    /**
+     * Part of the full-fill estimate in KB per employee taken by the loaded rows, released once the fill is done
+     */
+    private int loadedDataKbPerEmployee = 200;
+    
+    /**
+     * Estimated heap in KB per employee on the streaming / virtualized memory-efficient path
+     */
+    private int memoryEfficientKbPerEmployee = 64;
+    
+    // Getters and setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public long getHeapBudgetMb() {
+        return heapBudgetMb;
+    }
+    
+    public void setHeapBudgetMb(long heapBudgetMb) {
+        this.heapBudgetMb = heapBudgetMb;
+    }
+    
+    public long getMaxWaitMs() {
+        return maxWaitMs;
+    }
+    
+    public void setMaxWaitMs(long maxWaitMs) {
+        this.maxWaitMs = maxWaitMs;
+    }
+    
+    public int getFullFillKbPerEmployee() {
+        return fullFillKbPerEmployee;
+    }
+    
+    public void setFullFillKbPerEmployee(int fullFillKbPerEmployee) {
+        this.fullFillKbPerEmployee = fullFillKbPerEmployee;
+    }
+    
+    public int getLoadedDataKbPerEmployee() {
+        return loadedDataKbPerEmployee;
+    }
+    
+    public void setLoadedDataKbPerEmployee(int loadedDataKbPerEmployee) {
+        this.loadedDataKbPerEmployee = loadedDataKbPerEmployee;
+    }
+    
+    public int getMemoryEfficientKbPerEmployee() {
+        return memoryEfficientKbPerEmployee;
+    }
+    
+    public void setMemoryEfficientKbPerEmployee(int memoryEfficientKbPerEmployee) {
+        this.memoryEfficientKbPerEmployee = memoryEfficientKbPerEmployee;
+    }
+}
@@ -0,0 +1,27 @@
+package com.certreport.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for how report queries bind their employee IDs
+ */
+@Component
+@ConfigurationProperties(prefix = "report.query")
+public class ReportQueryProperties {
+    
+    /**
+     * Employee ID lists at least this long are bound as a single array parameter rather than an
+     * IN list with one parameter per ID (0 = always IN lists)
+     */
+    private int idArrayThreshold = 1000;
+    
+    // Getters and setters
+    public int getIdArrayThreshold() {
+        return idArrayThreshold;
+    }
+    
+    public void setIdArrayThreshold(int idArrayThreshold) {
+        this.idArrayThreshold = idArrayThreshold;
+    }
+}
@@ -2,31 +2,63 @@ package com.certreport.controller;
 
 import com.certreport.dto.ReportRequestDto;
 import com.certreport.model.Report;
+import com.certreport.service.ActuatorPerformanceMonitor;
 import com.certreport.service.ReportService;
 import com.certreport.service.ReportCleanupService;
+import com.certreport.service.ReportProgressBoard;
+import com.certreport.service.ReportProgressBoard.ReportProgress;
+import com.certreport.service.ReportPrintStore;
+import com.certreport.service.TabularReportExporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.FileSystemResource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @RestController
 @RequestMapping("/api/reports")
 public class ReportController {
     
     private static final Logger logger = LoggerFactory.getLogger(ReportController.class);
+    
+    // Clients reconnect after this and get a fresh snapshot
+    private static final long PROGRESS_STREAM_TIMEOUT_MS = 300000; // 5 minutes
+    
+    // How often streams of reports that are not generating on this instance are refreshed from the database
+    private static final long REMOTE_STATUS_POLL_MS = 2000;
+    
     private final ReportService reportService;
     private final ReportCleanupService reportCleanupService;
+    private final ReportProgressBoard reportProgressBoard;
+    private final ActuatorPerformanceMonitor actuatorPerformanceMonitor;
     
-    public ReportController(ReportService reportService, ReportCleanupService reportCleanupService) {
+    // Open streams of reports queued or generating on another instance, with the status last sent on each
+    private final Map<SseEmitter, ReportStatusResponse> remoteStreams = new ConcurrentHashMap<>();
+    
+    public ReportController(ReportService reportService, ReportCleanupService reportCleanupService,
+                            ReportProgressBoard reportProgressBoard, ActuatorPerformanceMonitor actuatorPerformanceMonitor) {
         this.reportService = reportService;
         this.reportCleanupService = reportCleanupService;
+        this.reportProgressBoard = reportProgressBoard;
+        this.actuatorPerformanceMonitor = actuatorPerformanceMonitor;
     }    @PostMapping("/generate")    public ResponseEntity<Report> generateReport(@RequestBody ReportRequestDto request) {
         logger.info("Received report generation request: reportType={}, employeeIds={}", 
                    request.getReportType(), request.getEmployeeIds());
@@ -47,33 +79,203 @@ public class ReportController {
         }
     }@GetMapping("/{id}/status")
     public ResponseEntity<ReportStatusResponse> getReportStatus(@PathVariable String id) {
+        // Reports generating on this instance are answered from the progress board, without a database read
+        Optional<ReportProgress> progress = reportProgressBoard.getProgress(id);
+        if (progress.isPresent()) {
+            return ResponseEntity.ok(toStatusResponse(progress.get()));
+        }
         try {
-            Report report = reportService.getReportStatus(id);
-            return ResponseEntity.ok(new ReportStatusResponse(
-                    report.getId(),
-                    report.getStatus(),
-                    calculateProgress(report),
-                    report.getCompletedAt(),
-                    getStatusMessage(report)
-            ));
+            return ResponseEntity.ok(toStatusResponse(reportService.getReportStatus(id)));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Stream status updates of a report as Server-Sent Events
+     *
+     * The current status is sent first, then every phase or percentage change until the report
+     * completes or fails, at which point the stream is closed. Only reports generating on this
+     * instance are on its progress board; a report queued or generating elsewhere has its status
+     * read from the database every couple of seconds instead, without fill percentages.
+     */
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamReportStatus(@PathVariable String id) {
+        ReportStatusResponse current;
+        SseEmitter emitter = new SseEmitter(PROGRESS_STREAM_TIMEOUT_MS);
+        // Subscribed before reading the current status so no change in between is missed
+        Runnable unsubscribe = reportProgressBoard.subscribe(id, progress -> sendStatus(emitter, toStatusResponse(progress)));
+        boolean onBoard;
+        try {
+            Optional<ReportProgress> progress = reportProgressBoard.getProgress(id);
+            onBoard = progress.isPresent();
+            current = progress
+                    .map(this::toStatusResponse)
+                    .orElseGet(() -> toStatusResponse(reportService.getReportStatus(id)));
         } catch (Exception e) {
+            unsubscribe.run();
             return ResponseEntity.notFound().build();
         }
+        Runnable close = () -> {
+            unsubscribe.run();
+            remoteStreams.remove(emitter);
+        };
+        emitter.onCompletion(close);
+        emitter.onTimeout(close);
+        emitter.onError(error -> close.run());
+        
+        if (!onBoard && !isFinal(current)) {
+            remoteStreams.put(emitter, current);
+        }
+        sendStatus(emitter, current);
+        return ResponseEntity.ok(emitter);
+    }
+    
+    /**
+     * Push database status changes to streams of reports that are not generating on this instance
+     */
+    @Scheduled(fixedDelay = REMOTE_STATUS_POLL_MS)
+    public void refreshRemoteStreams() {
+        Map<String, Optional<ReportStatusResponse>> statusById = new HashMap<>();
+        for (Map.Entry<SseEmitter, ReportStatusResponse> stream : remoteStreams.entrySet()) {
+            String reportId = stream.getValue().reportId();
+            if (reportProgressBoard.getProgress(reportId).isPresent()) {
+                // Claimed by this instance since; the progress board pushes its updates now
+                remoteStreams.remove(stream.getKey());
+                continue;
+            }
+            Optional<ReportStatusResponse> status = statusById.computeIfAbsent(reportId, id -> {
+                try {
+                    return Optional.of(toStatusResponse(reportService.getReportStatus(id)));
+                } catch (RuntimeException e) {
+                    return Optional.empty();
+                }
+            });
+            if (status.isEmpty()) {
+                // Deleted while streaming
+                remoteStreams.remove(stream.getKey());
+                stream.getKey().complete();
+            } else if (!status.get().equals(stream.getValue())) {
+                stream.setValue(status.get());
+                sendStatus(stream.getKey(), status.get());
+                if (isFinal(status.get())) {
+                    remoteStreams.remove(stream.getKey());
+                }
+            }
+        }
+    }
+
+    private static boolean isFinal(ReportStatusResponse status) {
+        return status.status() == Report.ReportStatus.COMPLETED || status.status() == Report.ReportStatus.FAILED
+                || status.status() == Report.ReportStatus.CANCELLED;
+    }
+    
+    private void sendStatus(SseEmitter emitter, ReportStatusResponse status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status));
+            if (isFinal(status)) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the stream was already closed by a final status
+            logger.debug("Could not send status of report {}: {}", status.reportId(), e.getMessage());
+        }
     }    @GetMapping("/{id}/download")
-    public ResponseEntity<?> downloadReport(@PathVariable String id) {
+    public ResponseEntity<?> downloadReport(@PathVariable String id,
+                                            @RequestParam(required = false) String format,
+                                            HttpServletRequest request, HttpServletResponse response) {
+        File reportFile;
+        String contentHash;
         try {
-            File reportFile = reportService.getReportFile(id);
-            FileSystemResource resource = new FileSystemResource(reportFile);
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + reportFile.getName())
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(resource);
+            // Without a format the report is served as generated; other formats come from its filled report
+            if (format == null) {
+                reportFile = reportService.getReportFile(id);
+            } else {
+                Optional<ReportPrintStore.ExportFormat> exportFormat = ReportPrintStore.ExportFormat.fromName(format);
+                if (exportFormat.isEmpty()) {
+                    return ResponseEntity.badRequest()
+                        .body(Map.of("error", "Unsupported export format: " + format, "reportId", id));
+                }
+                reportFile = reportService.getReportFile(id, exportFormat.get());
+            }
+            contentHash = reportService.getContentHash(id, reportFile).orElse(null);
         } catch (Exception e) {
             logger.error("Error downloading report {}: {}", id, e.getMessage());
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage(), "reportId", id));
         }
+        
+        // Written straight to the response: conditional requests, ranges and sendfile need the servlet objects
+        try {
+            ReportFileResponder.Outcome outcome = ReportFileResponder.serve(
+                    request, response, reportFile, contentHash, contentTypeOf(reportFile.getName()));
+            actuatorPerformanceMonitor.recordReportDownload(outcome.result(), outcome.bytes());
+        } catch (IOException e) {
+            // Usually the client went away mid-download; it can resume with a Range request
+            logger.debug("Download of report {} was interrupted: {}", id, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Export a completed report to several formats at once, from its filled report and in parallel,
+     * so the downloads that follow are served from disk
+     */
+    @PostMapping("/{id}/exports")
+    public ResponseEntity<?> exportReport(@PathVariable String id, @RequestParam List<String> formats) {
+        List<ReportPrintStore.ExportFormat> exportFormats = new ArrayList<>();
+        for (String format : formats) {
+            Optional<ReportPrintStore.ExportFormat> exportFormat = ReportPrintStore.ExportFormat.fromName(format);
+            if (exportFormat.isEmpty()) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Unsupported export format: " + format, "reportId", id));
+            }
+            exportFormats.add(exportFormat.get());
+        }
+        try {
+            Map<String, Object> exports = new LinkedHashMap<>();
+            reportService.getReportFiles(id, exportFormats).forEach((format, file) -> exports.put(format.name(), Map.of(
+                "sizeBytes", file.length(),
+                "downloadUrl", "/api/reports/" + id + "/download?format=" + format.name().toLowerCase())));
+            return ResponseEntity.ok(exports);
+        } catch (Exception e) {
+            logger.error("Error exporting report {} as {}: {}", id, formats, e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", String.valueOf(e.getMessage()), "reportId", id));
+        }
+    }
+
+    /**
+     * Stream the rows of a CSV or JSON Lines report straight from the database into the response
+     *
+     * Nothing is queued or stored, so this suits analysts pulling data into a spreadsheet. Other
+     * report types are rejected; they are generated through /generate.
+     */
+    @PostMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReportRows(@RequestBody ReportRequestDto request) {
+        Optional<TabularReportExporter.Format> format = TabularReportExporter.Format.forReportType(request.getReportType());
+        if (format.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        String fileName = "certification_report." + format.get().getExtension() + (request.isGzip() ? ".gz" : "");
+        StreamingResponseBody body = out -> reportService.exportReportRows(request, format.get(), out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .contentType(contentTypeOf(fileName))
+                .body(body);
+    }
+    
+    private static MediaType contentTypeOf(String fileName) {
+        if (fileName.endsWith(".gz")) {
+            return MediaType.parseMediaType("application/gzip");
+        }
+        Optional<String> contentType = TabularReportExporter.Format.forFileName(fileName)
+                .map(TabularReportExporter.Format::getContentType)
+                .or(() -> Arrays.stream(ReportPrintStore.ExportFormat.values())
+                        .filter(format -> fileName.endsWith("." + format.getExtension()))
+                        .map(ReportPrintStore.ExportFormat::getContentType)
+                        .findFirst());
+        return contentType.map(MediaType::parseMediaType).orElse(MediaType.APPLICATION_PDF);
     }
 
     @GetMapping
@@ -81,12 +283,32 @@ public class ReportController {
         return ResponseEntity.ok(reportService.getAllReports());
     }
 
+    /**
+     * Cancel generation of a queued or in-progress report
+     */
+    @DeleteMapping("/{id}/run")
+    public ResponseEntity<?> cancelReport(@PathVariable String id) {
+        Report report;
+        try {
+            report = reportService.cancelReport(id);
+        } catch (Exception e) {
+            logger.error("Error cancelling report {}: {}", id, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+        if (report.getStatus() != Report.ReportStatus.CANCELLED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Report is no longer running: Status is " + report.getStatus(), "reportId", id));
+        }
+        return ResponseEntity.ok(toStatusResponse(report));
+    }
+
     /**
      * Delete a specific report
      */    @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, String>> deleteReport(@PathVariable String id) {
         try {
             boolean deleted = reportCleanupService.deleteReport(id);
+            reportProgressBoard.remove(id);
             return deleted 
                 ? ResponseEntity.ok(Map.of("message", "Report deleted successfully"))
                 : ResponseEntity.notFound().build();
@@ -129,12 +351,55 @@ public class ReportController {
         }
     }
     
+    private ReportStatusResponse toStatusResponse(Report report) {
+        return new ReportStatusResponse(
+                report.getId(),
+                report.getStatus(),
+                calculateProgress(report),
+                report.getCompletedAt(),
+                getStatusMessage(report)
+        );
+    }
+    
+    private ReportStatusResponse toStatusResponse(ReportProgress progress) {
+        Report.ReportStatus status;
+        String message;
+        switch (progress.phase()) {
+            case LOADING:
+                status = Report.ReportStatus.IN_PROGRESS;
+                message = "Loading report data...";
+                break;
+            case FILLING:
+                status = Report.ReportStatus.IN_PROGRESS;
+                message = "Filling report pages (" + progress.pagesFilled() + " pages)...";
+                break;
+            case EXPORTING:
+                status = Report.ReportStatus.IN_PROGRESS;
+                message = "Writing PDF (" + progress.bytesExported() / 1024 + " KB)...";
+                break;
+            case COMPLETED:
+                status = Report.ReportStatus.COMPLETED;
+                message = "Report generated successfully";
+                break;
+            case CANCELLED:
+                status = Report.ReportStatus.CANCELLED;
+                message = "Report generation was cancelled";
+                break;
+            default:
+                status = Report.ReportStatus.FAILED;
+                message = "Report generation failed: " + 
+                          (progress.message() != null ? progress.message() : "Unknown error");
+        }
+        return new ReportStatusResponse(progress.reportId(), status, progress.percent(),
+                progress.isFinished() ? progress.updatedAt() : null, message);
+    }
+    
     private int calculateProgress(Report report) {
         switch (report.getStatus()) {
             case QUEUED:
                 return 0;
             case IN_PROGRESS:
-                return 50; // Simple progress calculation for MVP
+                return 0; // Not generating on this instance, so there is no fill progress to report
             case COMPLETED:
                 return 100;
             case FAILED:
@@ -155,6 +420,8 @@ public class ReportController {
             case FAILED:
                 return "Report generation failed: " + 
                        (report.getErrorMessage() != null ? report.getErrorMessage() : "Unknown error");
+            case CANCELLED:
+                return "Report generation was cancelled";
             default:
                 return "Unknown status";
         }
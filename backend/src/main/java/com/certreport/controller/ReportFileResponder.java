@@ -0,0 +1,154 @@
+package com.certreport.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes a report file to a download response, with conditional requests and byte ranges
+ *
+ * The ETag is the SHA-256 of the file recorded when it was written, so a client holding the
+ * same report revalidates with a 304 instead of downloading it again. A single byte range is
+ * served as a 206, which lets interrupted downloads of large reports resume. The body is handed
+ * to Tomcat's sendfile where the connector supports it, so the file goes from the page cache to
+ * the socket without passing through the heap; otherwise it is copied with FileChannel.transferTo.
+ */
+final class ReportFileResponder {
+
+    static final String FULL = "full";
+    static final String PARTIAL = "partial";
+    static final String NOT_MODIFIED = "not_modified";
+    static final String PRECONDITION_FAILED = "precondition_failed";
+    static final String RANGE_NOT_SATISFIABLE = "range_not_satisfiable";
+
+    // Request attributes of Tomcat's sendfile support, see org.apache.catalina.Globals
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * How a download was answered and how many body bytes were sent
+     */
+    record Outcome(String result, long bytes) {}
+
+    private ReportFileResponder() {}
+
+    /**
+     * @param contentHash SHA-256 of the file, or null to fall back to a weak ETag from its size and modification time
+     */
+    static Outcome serve(HttpServletRequest request, HttpServletResponse response, File file, String contentHash,
+                         MediaType contentType) throws IOException {
+        long length = file.length();
+        long lastModified = file.lastModified();
+        String etag = contentHash != null
+                ? "\"" + contentHash + "\""
+                : "W/\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        // Answers If-None-Match / If-Modified-Since (and If-Match / If-Unmodified-Since) and sets both validators
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return new Outcome(response.getStatus() == HttpServletResponse.SC_PRECONDITION_FAILED
+                    ? PRECONDITION_FAILED : NOT_MODIFIED, 0);
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + file.getName());
+        response.setContentType(contentType.toString());
+
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0 && ifRangeMatches(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                // A malformed Range header is ignored and the whole file sent
+                ranges = List.of();
+            }
+            // Several ranges would need a multipart/byteranges body; resuming clients ask for one
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                if (start >= length || start > end) {
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return new Outcome(RANGE_NOT_SATISFIABLE, 0);
+                }
+                partial = true;
+            }
+        }
+
+        long count = end - start + 1;
+        if (partial) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        response.setContentLengthLong(count);
+        String result = partial ? PARTIAL : FULL;
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return new Outcome(result, 0);
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file itself once the request completes
+            request.setAttribute(SENDFILE_FILENAME, file.getCanonicalPath());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+        } else {
+            transfer(file, start, count, response);
+        }
+        return new Outcome(result, count);
+    }
+
+    private static void transfer(File file, long start, long count, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    throw new IOException("Report file " + file + " ended at " + position + " of " + (start + count));
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+        response.flushBuffer();
+    }
+
+    /**
+     * A Range is only honoured if the client's copy, named by If-Range, is still current.
+     * Weak ETags never match, as partial content of a weakly validated file could be spliced wrongly.
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return !etag.startsWith("W/") && ifRange.equals(etag);
+        }
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return since >= 0 && lastModified / 1000 == since / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
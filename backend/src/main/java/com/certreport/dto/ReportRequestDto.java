@@ -9,6 +9,18 @@ public class ReportRequestDto {
       @JsonProperty("employeeIds")
     private List<String> employeeIds;
     
+    // Optional job priority - higher values are generated first
+    @JsonProperty("priority")
+    private Integer priority;
+    
+    // Gzip the output of CSV and JSON Lines reports
+    @JsonProperty("gzip")
+    private boolean gzip;
+    
+    // PDF renderer of certification reports: "jasper" (default) or "native"
+    @JsonProperty("renderer")
+    private String renderer;
+    
     // Constructors
     public ReportRequestDto() {}
     
@@ -22,11 +34,22 @@ public class ReportRequestDto {
       public List<String> getEmployeeIds() { return employeeIds; }
     public void setEmployeeIds(List<String> employeeIds) { this.employeeIds = employeeIds; }
     
+    public Integer getPriority() { return priority; }
+    public void setPriority(Integer priority) { this.priority = priority; }
+    
+    public boolean isGzip() { return gzip; }
+    public void setGzip(boolean gzip) { this.gzip = gzip; }
+    
+    public String getRenderer() { return renderer; }
+    public void setRenderer(String renderer) { this.renderer = renderer; }
+    
     @Override
     public String toString() {
         return "ReportRequestDto{" +
                 "reportType='" + reportType + '\'' +
                 ", employeeIds=" + employeeIds +
+                (gzip ? ", gzip=true" : "") +
+                (renderer != null ? ", renderer=" + renderer : "") +
                 '}';
     }
 }
@@ -0,0 +1,42 @@
+package com.certreport.dto;
+
+import com.certreport.model.Certification;
+
+import java.time.LocalDateTime;
+
+/**
+ * One flat row of the certification report: an employee with one of their certifications
+ *
+ * Selected column by column by a JPQL constructor expression, so the report row cursor never
+ * creates entities or puts anything in the persistence context. The certification columns are
+ * null for employees without certifications.
+ */
+public record ReportRow(
+    String employeeId,
+    String firstName,
+    String lastName,
+    String email,
+    String department,
+    String position,
+    LocalDateTime hireDate,
+    String certificationId,
+    String certificationName,
+    String certificationCategory,
+    String certificationDescription,
+    Certification.CertificationStatus status,
+    Double completionPercentage,
+    LocalDateTime enrolledAt,
+    LocalDateTime completedAt,
+    LocalDateTime dueDate,
+    String currentStageName,
+    Integer currentStageSequence
+) {
+
+    public boolean hasCertification() {
+        return certificationId != null;
+    }
+
+    public EmployeeDto toEmployeeDto() {
+        return new EmployeeDto(employeeId, firstName, lastName, email, department, position, hireDate);
+    }
+}
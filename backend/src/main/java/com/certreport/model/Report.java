@@ -7,7 +7,7 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "reports")
+@Table(name = "reports", indexes = @Index(name = "idx_reports_cache_key", columnList = "cache_key"))
 public class Report {
       @Id
     private String id;
@@ -44,6 +44,14 @@ public class Report {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
     
+    // Request + data version digest, shared by reports that can be served from one another
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;
+    
+    // SHA-256 of the report file, computed when it is written and served as its download ETag
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     // Constructors
     public Report() {}
       public Report(String name, String type, String parameters) {
@@ -87,7 +95,13 @@ public class Report {
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
     
+    public String getCacheKey() { return cacheKey; }
+    public void setCacheKey(String cacheKey) { this.cacheKey = cacheKey; }
+    
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    
     public enum ReportStatus {
-        QUEUED, IN_PROGRESS, COMPLETED, FAILED
+        QUEUED, IN_PROGRESS, COMPLETED, FAILED, CANCELLED
     }
 }
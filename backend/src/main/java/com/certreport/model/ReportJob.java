@@ -0,0 +1,88 @@
+package com.certreport.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Queued unit of report generation work, dispatched by priority and submit time
+ */
+@Entity
+@Table(name = "report_jobs",
+       indexes = @Index(name = "idx_report_jobs_dispatch", columnList = "status, priority, submitted_at"))
+public class ReportJob {
+    
+    @Id
+    private String id;
+    
+    @Column(name = "report_id", nullable = false)
+    private String reportId;
+    
+    // Higher values are dispatched first
+    @Column(nullable = false)
+    private int priority;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status;
+    
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+    
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    // Run time allowed for the report, from its size; the deadline starts counting when the job is claimed
+    @Column(name = "time_limit_seconds")
+    private Integer timeLimitSeconds;
+    
+    @Column(name = "deadline")
+    private LocalDateTime deadline;
+    
+    // Constructors
+    public ReportJob() {}
+    
+    public ReportJob(String reportId, int priority) {
+        this.id = UUID.randomUUID().toString();
+        this.reportId = reportId;
+        this.priority = priority;
+        this.status = JobStatus.QUEUED;
+        this.submittedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public String getReportId() { return reportId; }
+    public void setReportId(String reportId) { this.reportId = reportId; }
+    
+    public int getPriority() { return priority; }
+    public void setPriority(int priority) { this.priority = priority; }
+    
+    public JobStatus getStatus() { return status; }
+    public void setStatus(JobStatus status) { this.status = status; }
+    
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
+    
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+    
+    public Integer getTimeLimitSeconds() { return timeLimitSeconds; }
+    public void setTimeLimitSeconds(Integer timeLimitSeconds) { this.timeLimitSeconds = timeLimitSeconds; }
+    
+    public LocalDateTime getDeadline() { return deadline; }
+    public void setDeadline(LocalDateTime deadline) { this.deadline = deadline; }
+    
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+}
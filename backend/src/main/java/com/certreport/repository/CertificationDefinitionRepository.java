@@ -29,4 +29,7 @@ public interface CertificationDefinitionRepository extends JpaRepository<Certifi
     
     @Query("SELECT COUNT(c) FROM Certification c WHERE c.certificationDefinition.id = :certificationDefinitionId")
     Long countEnrollmentsByCertificationDefinitionId(@Param("certificationDefinitionId") String certificationDefinitionId);
+    
+    @Query("SELECT COUNT(cd), MAX(cd.updatedAt) FROM CertificationDefinition cd")
+    List<Object[]> findUpdateStamp();
 }
@@ -1,20 +1,46 @@
 package com.certreport.repository;
 
+import com.certreport.dto.ReportRow;
 import com.certreport.model.Certification;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CertificationRepository extends JpaRepository<Certification, String> {
     
+    /**
+     * Certification count and latest update for the given employees, as [count, max updatedAt]
+     */
+    @Query("SELECT COUNT(c), MAX(c.updatedAt) FROM Certification c WHERE c.employee.id IN :employeeIds")
+    List<Object[]> findUpdateStampByEmployeeIds(@Param("employeeIds") List<String> employeeIds);
+    
+    @Query("SELECT COUNT(c), MAX(c.updatedAt) FROM Certification c WHERE id_in_array(c.employee.id, :employeeIds)")
+    List<Object[]> findUpdateStampByEmployeeIdArray(@Param("employeeIds") String[] employeeIds);
+    
+    @Query("SELECT COUNT(c), MAX(c.updatedAt) FROM Certification c")
+    List<Object[]> findUpdateStamp();
+    
+    /**
+     * [employeeId, count, max updatedAt] of certifications per employee
+     */
+    @Query("SELECT c.employee.id, COUNT(c), MAX(c.updatedAt) FROM Certification c WHERE c.employee.id IN :employeeIds GROUP BY c.employee.id")
+    List<Object[]> findUpdateStampsGroupedByEmployee(@Param("employeeIds") List<String> employeeIds);
+    
+    @Query("SELECT c.employee.id, COUNT(c), MAX(c.updatedAt) FROM Certification c WHERE id_in_array(c.employee.id, :employeeIds) GROUP BY c.employee.id")
+    List<Object[]> findUpdateStampsGroupedByEmployeeIdArray(@Param("employeeIds") String[] employeeIds);
+    
     @Query("SELECT c FROM Certification c " +
            "JOIN FETCH c.employee e " +
            "JOIN FETCH c.certificationDefinition cd " +
@@ -60,23 +86,58 @@ public interface CertificationRepository extends JpaRepository<Certification, St
            "ORDER BY e.department, e.lastName, e.firstName, cd.name")
     List<Certification> findByEmployeeIdInWithDetails(@Param("employeeIds") List<String> employeeIds);
     
+    @Query("SELECT c FROM Certification c " +
+           "JOIN FETCH c.employee e " +
+           "JOIN FETCH c.certificationDefinition cd " +
+           "WHERE id_in_array(e.id, :employeeIds) " +
+           "ORDER BY e.department, e.lastName, e.firstName, cd.name")
+    List<Certification> findByEmployeeIdArrayWithDetails(@Param("employeeIds") String[] employeeIds);
+    
     @Query("SELECT COUNT(c) FROM Certification c WHERE c.certificationDefinition.id = :certificationDefinitionId")
     Long countByCertificationDefinitionId(@Param("certificationDefinitionId") String certificationDefinitionId);
     
+    /**
+     * [certificationDefinitionId, enrollment count] per certification definition
+     */
+    @Query("SELECT c.certificationDefinition.id, COUNT(c) FROM Certification c " +
+           "WHERE c.certificationDefinition.id IN :certificationDefinitionIds GROUP BY c.certificationDefinition.id")
+    List<Object[]> countGroupedByCertificationDefinitionIds(@Param("certificationDefinitionIds") List<String> certificationDefinitionIds);
+    
     @Query("SELECT COUNT(c) FROM Certification c WHERE c.employee.id = :employeeId")
     Long countByEmployeeId(@Param("employeeId") String employeeId);
       @Query("SELECT COUNT(c) FROM Certification c WHERE c.status = :status")
     Long countByStatus(@Param("status") Certification.CertificationStatus status);
     
-    // Optimized single query for report data - now fetches all data including tasks
-    @Query("SELECT DISTINCT c FROM Certification c " +
-           "JOIN FETCH c.employee e " +
-           "JOIN FETCH c.certificationDefinition cd " +
-           "LEFT JOIN FETCH c.stages s " +
-           "LEFT JOIN FETCH s.stageDefinition sd " +
-           "LEFT JOIN FETCH s.tasks t " +
-           "LEFT JOIN FETCH t.taskDefinition td " +
-           "WHERE e.id IN :employeeIds " +
-           "ORDER BY e.department, e.lastName, e.firstName, cd.name")
-    List<Certification> findCompleteReportDataByEmployeeIds(@Param("employeeIds") List<String> employeeIds);
+    // Forward-only cursor over report rows in employee order, projected column by column so no entity is
+    // hydrated. Employees without certifications yield one row with null certification columns.
+    String REPORT_ROWS_SELECT = "SELECT new com.certreport.dto.ReportRow(" +
+           "e.id, e.firstName, e.lastName, e.email, e.department, e.position, e.hireDate, " +
+           "c.id, cd.name, cd.category, cd.description, c.status, c.completionPercentage, " +
+           "c.enrolledAt, c.completedAt, c.dueDate, sd.name, sd.sequenceOrder) " +
+           "FROM Employee e " +
+           "LEFT JOIN Certification c ON c.employee = e " +
+           "LEFT JOIN c.certificationDefinition cd " +
+           "LEFT JOIN Stage s ON s.certification = c AND s.status = 'IN_PROGRESS' " +
+           "LEFT JOIN s.stageDefinition sd ";
+    String REPORT_ROWS_ORDER = " ORDER BY e.department, e.lastName, e.firstName, e.id, cd.name, c.id, sd.sequenceOrder";
+    
+    @Query(REPORT_ROWS_SELECT + "WHERE e.id IN :employeeIds" + REPORT_ROWS_ORDER)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ReportRow> streamReportRowsByEmployeeIds(@Param("employeeIds") List<String> employeeIds);
+    
+    @Query(REPORT_ROWS_SELECT + "WHERE id_in_array(e.id, :employeeIds)" + REPORT_ROWS_ORDER)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ReportRow> streamReportRowsByEmployeeIdArray(@Param("employeeIds") String[] employeeIds);
+    
+    @Query("SELECT c.status, COUNT(c) FROM Certification c WHERE c.employee.id IN :employeeIds GROUP BY c.status")
+    List<Object[]> countByStatusForEmployeeIds(@Param("employeeIds") List<String> employeeIds);
+    
+    @Query("SELECT c.status, COUNT(c) FROM Certification c WHERE id_in_array(c.employee.id, :employeeIds) GROUP BY c.status")
+    List<Object[]> countByStatusForEmployeeIdArray(@Param("employeeIds") String[] employeeIds);
 }
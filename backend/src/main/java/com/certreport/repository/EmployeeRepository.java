@@ -20,9 +20,65 @@ public interface EmployeeRepository extends JpaRepository<Employee, String> {
     
     List<Employee> findByDepartment(String department);
     
+    /**
+     * IDs of all employees, for requests that cover everyone
+     */
+    @Query("SELECT e.id FROM Employee e")
+    List<String> findAllIds();
+    
     @Query("SELECT DISTINCT e.department FROM Employee e ORDER BY e.department")
     List<String> findDistinctDepartments();
     
+    /**
+     * [employeeId, department] pairs in report order, used to split a report into department shards
+     */
+    @Query("SELECT e.id, e.department FROM Employee e WHERE e.id IN :employeeIds " +
+           "ORDER BY e.department, e.lastName, e.firstName, e.id")
+    List<Object[]> findIdsAndDepartmentsInReportOrder(@Param("employeeIds") List<String> employeeIds);
+    
+    @Query("SELECT e.id, e.department FROM Employee e WHERE id_in_array(e.id, :employeeIds) " +
+           "ORDER BY e.department, e.lastName, e.firstName, e.id")
+    List<Object[]> findIdsAndDepartmentsInReportOrderByIdArray(@Param("employeeIds") String[] employeeIds);
+    
+    /**
+     * Employee count and latest update for the given IDs; with the certification, stage and task
+     * stamps this forms the data version of a cached report
+     */
+    @Query("SELECT COUNT(e), MAX(e.updatedAt) FROM Employee e WHERE e.id IN :employeeIds")
+    List<Object[]> findUpdateStampByEmployeeIds(@Param("employeeIds") List<String> employeeIds);
+    
+    @Query("SELECT COUNT(e), MAX(e.updatedAt) FROM Employee e WHERE id_in_array(e.id, :employeeIds)")
+    List<Object[]> findUpdateStampByEmployeeIdArray(@Param("employeeIds") String[] employeeIds);
+    
+    @Query("SELECT COUNT(e), MAX(e.updatedAt) FROM Employee e")
+    List<Object[]> findUpdateStamp();
+    
+    /**
+     * [employeeId, 1, updatedAt] per employee, the employee part of a rendered fragment's version
+     */
+    @Query("SELECT e.id, COUNT(e), MAX(e.updatedAt) FROM Employee e WHERE e.id IN :employeeIds GROUP BY e.id")
+    List<Object[]> findUpdateStampsGroupedByEmployee(@Param("employeeIds") List<String> employeeIds);
+    
+    @Query("SELECT e.id, COUNT(e), MAX(e.updatedAt) FROM Employee e WHERE id_in_array(e.id, :employeeIds) GROUP BY e.id")
+    List<Object[]> findUpdateStampsGroupedByEmployeeIdArray(@Param("employeeIds") String[] employeeIds);
+    
+    /**
+     * [department, employees, certifications, completed, in progress, failed] per department, the
+     * summary statistics of a report in one grouped query
+     */
+    String DEPARTMENT_SUMMARY_SELECT = "SELECT e.department, COUNT(DISTINCT e.id), COUNT(c), " +
+           "SUM(CASE WHEN c.status = 'COMPLETED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN c.status = 'IN_PROGRESS' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN c.status = 'FAILED' THEN 1 ELSE 0 END) " +
+           "FROM Employee e LEFT JOIN Certification c ON c.employee = e ";
+    String DEPARTMENT_SUMMARY_GROUP = " GROUP BY e.department ORDER BY e.department";
+    
+    @Query(DEPARTMENT_SUMMARY_SELECT + "WHERE e.id IN :employeeIds" + DEPARTMENT_SUMMARY_GROUP)
+    List<Object[]> summarizeCertificationsByDepartment(@Param("employeeIds") List<String> employeeIds);
+    
+    @Query(DEPARTMENT_SUMMARY_SELECT + "WHERE id_in_array(e.id, :employeeIds)" + DEPARTMENT_SUMMARY_GROUP)
+    List<Object[]> summarizeCertificationsByDepartmentIdArray(@Param("employeeIds") String[] employeeIds);
+    
     // Efficient chunked queries for reporting
     @Query("SELECT e.id FROM Employee e ORDER BY e.department, e.lastName, e.firstName")
     List<String> findEmployeeIdsChunked(Pageable pageable);
@@ -0,0 +1,30 @@
+package com.certreport.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the HQL function {@code id_in_array(id, :ids)}, true when an id is an element of an
+ * array parameter
+ *
+ * It renders as {@code id = any(?)}, which PostgreSQL and H2 both evaluate against a single
+ * array bind value. A query filtered this way binds one parameter however many ids it gets, so
+ * its SQL - and Hibernate's and the database's cached plan for it - is the same for every
+ * report, and it never runs into the driver's limit on bind parameters. PostgreSQL still uses
+ * the primary key index for {@code = any}.
+ */
+public class IdArrayFunctionContributor implements FunctionContributor {
+
+    public static final String ID_IN_ARRAY = "id_in_array";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry()
+                .patternDescriptorBuilder(ID_IN_ARRAY, "(?1 = any(?2))")
+                .setExactArgumentCount(2)
+                .setInvariantType(functionContributions.getTypeConfiguration()
+                        .getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN))
+                .register();
+    }
+}
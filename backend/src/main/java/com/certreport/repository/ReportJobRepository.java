@@ -0,0 +1,40 @@
+package com.certreport.repository;
+
+import com.certreport.model.ReportJob;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, String> {
+    
+    /**
+     * Next queued jobs in dispatch order, row-locked so concurrent dispatchers (also on other
+     * instances) skip them instead of claiming the same job. Lock timeout -2 is SKIP LOCKED.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT j FROM ReportJob j WHERE j.status = com.certreport.model.ReportJob.JobStatus.QUEUED " +
+           "ORDER BY j.priority DESC, j.submittedAt ASC")
+    List<ReportJob> findNextQueuedForUpdate(Pageable pageable);
+    
+    Optional<ReportJob> findFirstByReportIdOrderBySubmittedAtDesc(String reportId);
+    
+    long countByStatus(ReportJob.JobStatus status);
+    
+    List<ReportJob> findByStatusAndStartedAtBefore(ReportJob.JobStatus status, LocalDateTime cutoffTime);
+    
+    @Query("SELECT j FROM ReportJob j WHERE j.reportId IN :reportIds AND j.status IN :statuses")
+    List<ReportJob> findByReportIdInAndStatusIn(@Param("reportIds") List<String> reportIds,
+                                                @Param("statuses") List<ReportJob.JobStatus> statuses);
+}
@@ -2,12 +2,16 @@ package com.certreport.repository;
 
 import com.certreport.model.Report;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ReportRepository extends JpaRepository<Report, String> {
@@ -19,9 +23,49 @@ public interface ReportRepository extends JpaRepository<Report, String> {
     @Query("SELECT r FROM Report r WHERE r.createdAt >= :since ORDER BY r.createdAt DESC")
     List<Report> findRecentReports(LocalDateTime since);
     
+    // Result cache lookups
+    Optional<Report> findFirstByCacheKeyAndStatusOrderByCompletedAtDesc(String cacheKey, Report.ReportStatus status);
+    
+    Optional<Report> findFirstByCacheKeyAndStatusInOrderByCreatedAtDesc(String cacheKey, List<Report.ReportStatus> statuses);
+    
     @Query("SELECT COUNT(r) FROM Report r WHERE r.status = :status")
     Long countByStatus(Report.ReportStatus status);
     
+    // Status transitions of a generating report. A cancel and the worker finishing the report can
+    // race, so each transition only applies to a report that is still active; whichever comes
+    // second updates no row and keeps the first one's outcome.
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Report r SET r.status = 'IN_PROGRESS', r.startedAt = :startedAt " +
+           "WHERE r.id = :id AND r.status IN ('QUEUED', 'IN_PROGRESS')")
+    int markInProgress(@Param("id") String id, @Param("startedAt") LocalDateTime startedAt);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Report r SET r.status = 'COMPLETED', r.filePath = :filePath, r.contentHash = :contentHash, " +
+           "r.completedAt = :completedAt WHERE r.id = :id AND r.status = 'IN_PROGRESS'")
+    int markCompleted(@Param("id") String id, @Param("filePath") String filePath,
+                      @Param("contentHash") String contentHash, @Param("completedAt") LocalDateTime completedAt);
+    
+    /**
+     * Mark a queued or generating report CANCELLED or FAILED
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Report r SET r.status = :status, r.errorMessage = :errorMessage, r.completedAt = :completedAt " +
+           "WHERE r.id = :id AND r.status IN ('QUEUED', 'IN_PROGRESS')")
+    int markStopped(@Param("id") String id, @Param("status") Report.ReportStatus status,
+                    @Param("errorMessage") String errorMessage, @Param("completedAt") LocalDateTime completedAt);
+    
+    /**
+     * Record the page count of a generating report without writing its other columns
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Report r SET r.pageCount = :pageCount WHERE r.id = :id")
+    int updatePageCount(@Param("id") String id, @Param("pageCount") Integer pageCount);
+    
     // Cleanup related queries
     List<Report> findByStatusInAndStartedAtBefore(List<Report.ReportStatus> statuses, LocalDateTime cutoffTime);
     
@@ -33,6 +77,8 @@ public interface ReportRepository extends JpaRepository<Report, String> {
     
     @Query("SELECT r.filePath FROM Report r WHERE r.filePath IS NOT NULL")
     List<String> findAllFilePaths();
+    
+    List<Report> findByFilePathIn(Collection<String> filePaths);
       @Query(value = "SELECT * FROM reports ORDER BY started_at ASC LIMIT :limit", nativeQuery = true)
     List<Report> findOldestReports(@Param("limit") int limit);
 }
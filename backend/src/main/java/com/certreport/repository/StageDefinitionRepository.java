@@ -24,4 +24,7 @@ public interface StageDefinitionRepository extends JpaRepository<StageDefinition
     
     @Query("SELECT COUNT(sd) FROM StageDefinition sd WHERE sd.certificationDefinition.id = :certificationDefinitionId")
     Long countByCertificationDefinitionId(@Param("certificationDefinitionId") String certificationDefinitionId);
+    
+    @Query("SELECT COUNT(sd), MAX(sd.updatedAt) FROM StageDefinition sd")
+    List<Object[]> findUpdateStamp();
 }
@@ -13,6 +13,27 @@ import java.util.Optional;
 @Repository
 public interface StageRepository extends JpaRepository<Stage, String> {
     
+    /**
+     * Stage count and latest update across the given employees' certifications
+     */
+    @Query("SELECT COUNT(s), MAX(s.updatedAt) FROM Stage s WHERE s.certification.employee.id IN :employeeIds")
+    List<Object[]> findUpdateStampByEmployeeIds(@Param("employeeIds") List<String> employeeIds);
+    
+    @Query("SELECT COUNT(s), MAX(s.updatedAt) FROM Stage s WHERE id_in_array(s.certification.employee.id, :employeeIds)")
+    List<Object[]> findUpdateStampByEmployeeIdArray(@Param("employeeIds") String[] employeeIds);
+    
+    @Query("SELECT COUNT(s), MAX(s.updatedAt) FROM Stage s")
+    List<Object[]> findUpdateStamp();
+    
+    /**
+     * [employeeId, count, max updatedAt] of stages per employee
+     */
+    @Query("SELECT s.certification.employee.id, COUNT(s), MAX(s.updatedAt) FROM Stage s WHERE s.certification.employee.id IN :employeeIds GROUP BY s.certification.employee.id")
+    List<Object[]> findUpdateStampsGroupedByEmployee(@Param("employeeIds") List<String> employeeIds);
+    
+    @Query("SELECT s.certification.employee.id, COUNT(s), MAX(s.updatedAt) FROM Stage s WHERE id_in_array(s.certification.employee.id, :employeeIds) GROUP BY s.certification.employee.id")
+    List<Object[]> findUpdateStampsGroupedByEmployeeIdArray(@Param("employeeIds") String[] employeeIds);
+    
     @Query("SELECT s FROM Stage s WHERE s.certification.id = :certificationId ORDER BY s.stageDefinition.sequenceOrder")
     List<Stage> findByCertificationIdOrderBySequence(@Param("certificationId") String certificationId);
     
@@ -14,6 +14,27 @@ import java.util.Optional;
 @Repository
 public interface TaskRepository extends JpaRepository<Task, String> {
     
+    /**
+     * Task count and latest update across the given employees' stages
+     */
+    @Query("SELECT COUNT(t), MAX(t.updatedAt) FROM Task t WHERE t.stage.certification.employee.id IN :employeeIds")
+    List<Object[]> findUpdateStampByEmployeeIds(@Param("employeeIds") List<String> employeeIds);
+    
+    @Query("SELECT COUNT(t), MAX(t.updatedAt) FROM Task t WHERE id_in_array(t.stage.certification.employee.id, :employeeIds)")
+    List<Object[]> findUpdateStampByEmployeeIdArray(@Param("employeeIds") String[] employeeIds);
+    
+    @Query("SELECT COUNT(t), MAX(t.updatedAt) FROM Task t")
+    List<Object[]> findUpdateStamp();
+    
+    /**
+     * [employeeId, count, max updatedAt] of tasks per employee
+     */
+    @Query("SELECT t.stage.certification.employee.id, COUNT(t), MAX(t.updatedAt) FROM Task t WHERE t.stage.certification.employee.id IN :employeeIds GROUP BY t.stage.certification.employee.id")
+    List<Object[]> findUpdateStampsGroupedByEmployee(@Param("employeeIds") List<String> employeeIds);
+    
+    @Query("SELECT t.stage.certification.employee.id, COUNT(t), MAX(t.updatedAt) FROM Task t WHERE id_in_array(t.stage.certification.employee.id, :employeeIds) GROUP BY t.stage.certification.employee.id")
+    List<Object[]> findUpdateStampsGroupedByEmployeeIdArray(@Param("employeeIds") String[] employeeIds);
+    
     @Query("SELECT t FROM Task t WHERE t.stage.id = :stageId ORDER BY t.taskDefinition.sequenceOrder")
     List<Task> findByStageIdOrderBySequence(@Param("stageId") String stageId);
     
@@ -52,6 +73,13 @@ public interface TaskRepository extends JpaRepository<Task, String> {
     @Query("SELECT SUM(t.actualHours) FROM Task t WHERE t.stage.certification.id = :certificationId AND t.status = 'COMPLETED'")
     Double sumActualHoursByCertificationId(@Param("certificationId") String certificationId);
     
+    /**
+     * [stageId, total tasks, completed tasks] per stage, counted without loading any task
+     */
+    @Query("SELECT t.stage.id, COUNT(t), SUM(CASE WHEN t.status = 'COMPLETED' THEN 1 ELSE 0 END) FROM Task t " +
+           "WHERE t.stage.id IN :stageIds GROUP BY t.stage.id")
+    List<Object[]> countTasksGroupedByStage(@Param("stageIds") List<String> stageIds);
+    
     // Efficient batch queries for reporting
     @Query("SELECT t FROM Task t " +
            "JOIN FETCH t.taskDefinition td " +
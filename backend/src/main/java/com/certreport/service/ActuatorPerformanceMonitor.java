@@ -1,6 +1,8 @@
 package com.certreport.service;
 
+import com.certreport.model.ReportJob;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
@@ -37,6 +39,7 @@ public class ActuatorPerformanceMonitor {
     // Micrometer metrics
     private final Timer reportGenerationTimer;
     private final Counter reportsGeneratedCounter;
+    private final Counter pdfBytesExportedCounter;
     private final AtomicLong activeReportsGauge;    public ActuatorPerformanceMonitor(MeterRegistry meterRegistry, MetricsEndpoint metricsEndpoint) {
         this.meterRegistry = meterRegistry;
         this.metricsEndpoint = metricsEndpoint;
@@ -53,6 +56,11 @@ public class ActuatorPerformanceMonitor {
                 .tag("type", "certification")
                 .register(meterRegistry);
                 
+        this.pdfBytesExportedCounter = Counter.builder("report.pdf.export.bytes")
+                .description("Bytes of PDF output written to disk")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+                
         this.activeReportsGauge = meterRegistry.gauge("report.generation.active", new AtomicLong(0));
     }    /**
      * Start monitoring a report generation process with baseline memory capture
@@ -144,6 +152,260 @@ public class ActuatorPerformanceMonitor {
         return new DetailedPerformanceReport(); // Empty report if data not found
     }
 
+    /**
+     * Record a report template compilation (a template cache miss)
+     */
+    public void recordTemplateCompilation(String templateName, long durationNanos) {
+        Timer.builder("report.template.compile.time")
+                .description("Time taken to compile report templates")
+                .tag("template", templateName)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(durationNanos));
+        templateCacheCounter(templateName, "miss").increment();
+    }
+
+    /**
+     * Record a compiled report template served from the cache
+     */
+    public void recordTemplateCacheHit(String templateName) {
+        templateCacheCounter(templateName, "hit").increment();
+    }
+
+    /**
+     * Record bytes of PDF output written to disk, as the export progresses
+     */
+    public void recordPdfBytesExported(long bytes) {
+        pdfBytesExportedCounter.increment(bytes);
+    }
+
+    /**
+     * Record the fill time of one chunk in the memory-efficient generator
+     */
+    public void recordChunkFill(String mode, long durationNanos) {
+        Timer.builder("report.pdf.chunk.fill.time")
+                .description("Time taken to fill one chunk of a memory-efficient report")
+                .tag("mode", mode)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(durationNanos));
+    }
+
+    /**
+     * Record the load and fill time of one department shard of a sharded report
+     */
+    public void recordShardFill(long durationNanos) {
+        Timer.builder("report.pdf.shard.fill.time")
+                .description("Time taken to load and fill one department shard of a report")
+                .register(meterRegistry)
+                .record(Duration.ofNanos(durationNanos));
+    }
+
+    /**
+     * Record how long a report job waited in the queue before a worker picked it up
+     */
+    public void recordJobQueueWait(Duration queueWait) {
+        Timer.builder("report.job.queue.wait")
+                .description("Time report jobs spend queued before execution")
+                .register(meterRegistry)
+                .record(queueWait);
+    }
+
+    /**
+     * Record the execution time of a report job by outcome: completed, failed, cancelled, or
+     * timed_out for a job that failed once its deadline had passed
+     */
+    public void recordJobRun(long durationNanos, ReportJob.JobStatus status, boolean deadlineExceeded, String threads) {
+        String outcome = switch (status) {
+            case COMPLETED -> "completed";
+            case CANCELLED -> "cancelled";
+            default -> deadlineExceeded ? "timed_out" : "failed";
+        };
+        Timer.builder("report.job.run.time")
+                .description("Time taken to execute report jobs")
+                .tag("outcome", outcome)
+                .tag("threads", threads)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(durationNanos));
+    }
+
+    /**
+     * Record how long a report waited for a render permit before Jasper fill/export
+     */
+    public void recordRenderPermitWait(long durationNanos) {
+        Timer.builder("report.render.permit.wait")
+                .description("Time reports wait for a Jasper fill/export slot")
+                .register(meterRegistry)
+                .record(Duration.ofNanos(durationNanos));
+    }
+
+    /**
+     * Record a virtual thread pinned to its carrier thread (blocked inside synchronized or native code)
+     */
+    public void recordVirtualThreadPinned(Duration pinnedFor) {
+        Timer.builder("report.virtual.thread.pinned")
+                .description("Time virtual threads spent pinned to a carrier thread")
+                .register(meterRegistry)
+                .record(pinnedFor);
+    }
+
+    /**
+     * Publish reserved, total and waiting gauges for the report heap budget
+     */
+    public void registerMemoryBudgetGauges(ReportMemoryBudget memoryBudget) {
+        Gauge.builder("report.memory.budget.reserved", memoryBudget, ReportMemoryBudget::getReservedBytes)
+                .description("Heap reserved by running reports")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("report.memory.budget.limit", memoryBudget, ReportMemoryBudget::getBudgetBytes)
+                .description("Heap available to concurrent reports")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("report.memory.budget.waiting", memoryBudget, ReportMemoryBudget::getWaitingReports)
+                .description("Reports waiting for heap budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record how long a report waited for its heap reservation
+     */
+    public void recordMemoryBudgetWait(long durationNanos, boolean admitted) {
+        Timer.builder("report.memory.budget.wait")
+                .description("Time reports wait for heap budget")
+                .tag("outcome", admitted ? "admitted" : "timed_out")
+                .register(meterRegistry)
+                .record(Duration.ofNanos(durationNanos));
+    }
+
+    /**
+     * Record a report result cache lookup (hit, joined or miss)
+     */
+    public void recordResultCacheLookup(String result) {
+        Counter.builder("report.result.cache.requests")
+                .description("Report requests by result cache outcome")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record employee fragments reused from the fragment cache and employees that had to be filled again
+     */
+    public void recordFragmentCacheLookups(int hits, int misses) {
+        Counter.builder("report.fragment.cache.requests")
+                .description("Employee page fragment lookups by cache result")
+                .tag("result", "hit")
+                .register(meterRegistry)
+                .increment(hits);
+        Counter.builder("report.fragment.cache.requests")
+                .description("Employee page fragment lookups by cache result")
+                .tag("result", "miss")
+                .register(meterRegistry)
+                .increment(misses);
+    }
+
+    /**
+     * Record the background write of the fragments of the employees a report filled again, the
+     * extra work a cold or changed report costs for the fragment cache
+     */
+    public void recordFragmentStore(int fragments, long durationNanos) {
+        Timer.builder("report.fragment.cache.store")
+                .description("Time spent writing the fragments of re-filled employees after a report")
+                .register(meterRegistry)
+                .record(Duration.ofNanos(durationNanos));
+        Counter.builder("report.fragment.cache.stored")
+                .description("Employee page fragments written to the fragment cache")
+                .register(meterRegistry)
+                .increment(fragments);
+    }
+
+    /**
+     * Record a report download by outcome (full, partial or not_modified) and the bytes it sent
+     */
+    public void recordReportDownload(String result, long bytes) {
+        Counter.builder("report.download.requests")
+                .description("Report downloads by outcome, including conditional requests answered with 304")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+        Counter.builder("report.download.bytes")
+                .description("Bytes of report files sent to clients")
+                .baseUnit("bytes")
+                .register(meterRegistry)
+                .increment(bytes);
+    }
+
+    /**
+     * Record a CSV or JSON Lines export, which streams rows without a Jasper fill
+     */
+    public void recordTabularExport(String format, long rows, long durationNanos) {
+        Timer.builder("report.tabular.export.time")
+                .description("Time taken to stream a tabular report export")
+                .tag("format", format)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(durationNanos));
+        Counter.builder("report.tabular.export.rows")
+                .description("Rows written by tabular report exports")
+                .tag("format", format)
+                .register(meterRegistry)
+                .increment(rows);
+    }
+
+    /**
+     * Record the export of one page range of a report exported in parallel ranges
+     */
+    public void recordPdfRangeExport(int pages, long durationNanos) {
+        Timer.builder("report.pdf.export.range.time")
+                .description("Time taken to export one page range of a PDF exported in parallel")
+                .register(meterRegistry)
+                .record(Duration.ofNanos(durationNanos));
+        Counter.builder("report.pdf.export.range.pages")
+                .description("Pages exported in parallel page ranges")
+                .register(meterRegistry)
+                .increment(pages);
+    }
+
+    /**
+     * Record the merge of the page ranges of a report exported in parallel into one PDF
+     */
+    public void recordPdfRangeMerge(long durationNanos) {
+        Timer.builder("report.pdf.export.merge.time")
+                .description("Time taken to merge the page ranges of a PDF exported in parallel")
+                .register(meterRegistry)
+                .record(Duration.ofNanos(durationNanos));
+    }
+
+    /**
+     * Record a PDF written by the native renderer, which has no separate fill and export
+     */
+    public void recordNativeRender(int pages, long durationNanos) {
+        Timer.builder("report.pdf.native.render.time")
+                .description("Time taken to render a certifications PDF with the native renderer")
+                .register(meterRegistry)
+                .record(Duration.ofNanos(durationNanos));
+        Counter.builder("report.pdf.native.render.pages")
+                .description("Pages written by the native PDF renderer")
+                .register(meterRegistry)
+                .increment(pages);
+    }
+
+    /**
+     * Record a report whose generation was stopped, by reason (cancelled, deadline)
+     */
+    public void recordReportStopped(String reason) {
+        Counter.builder("report.generation.stopped")
+                .description("Report generations stopped before they finished, by reason")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Counter templateCacheCounter(String templateName, String result) {
+        return Counter.builder("report.template.cache.requests")
+                .description("Compiled report template lookups by cache result")
+                .tag("template", templateName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
     /**
      * Get detailed memory usage from Actuator metrics
      */
@@ -3,6 +3,10 @@ package com.certreport.service;
 import com.certreport.dto.*;
 import com.certreport.model.*;
 import com.certreport.repository.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import net.sf.jasperreports.engine.JRException;
+import org.hibernate.Session;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -11,11 +15,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import java.util.Comparator;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
@@ -23,22 +30,33 @@ public class CertificationService {
     
     // private static final Logger logger = LoggerFactory.getLogger(CertificationService.class);
     
+    // Ids bound per IN list when a report level is loaded by the ids of the level above
+    private static final int ID_BATCH_SIZE = 1000;
+    
+    private static final long[] NO_TASKS = {0, 0};
+    
     private final CertificationRepository certificationRepository;
     private final CertificationDefinitionRepository certificationDefinitionRepository;
     private final StageRepository stageRepository;
     private final TaskRepository taskRepository;
     private final EmployeeRepository employeeRepository;
+    private final EmployeeIdBinder employeeIdBinder;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
     
     public CertificationService(CertificationRepository certificationRepository,
                                CertificationDefinitionRepository certificationDefinitionRepository,
                                StageRepository stageRepository,
                                TaskRepository taskRepository,
-                               EmployeeRepository employeeRepository) {
+                               EmployeeRepository employeeRepository,
+                               EmployeeIdBinder employeeIdBinder) {
         this.certificationRepository = certificationRepository;
         this.certificationDefinitionRepository = certificationDefinitionRepository;
         this.stageRepository = stageRepository;
         this.taskRepository = taskRepository;
         this.employeeRepository = employeeRepository;
+        this.employeeIdBinder = employeeIdBinder;
     }
     
     public CertificationFilterResponseDto filterCertifications(CertificationFilterRequestDto filterRequest) {
@@ -57,9 +75,7 @@ public class CertificationService {
         );
         
         // Convert to DTOs
-        List<CertificationDto> certificationDtos = certificationPage.getContent().stream()
-                .map(this::convertToDetailedDto)
-                .collect(Collectors.toList());
+        List<CertificationDto> certificationDtos = convertToDetailedDtos(certificationPage.getContent());
         
         return new CertificationFilterResponseDto(
                 certificationDtos,
@@ -95,19 +111,15 @@ public class CertificationService {
     
     public Optional<CertificationDto> getCertificationById(String id) {
         return certificationRepository.findById(id)
-                .map(this::convertToDetailedDto);
+                .map(certification -> convertToDetailedDtos(List.of(certification)).get(0));
     }
     
     public List<CertificationDto> getCertificationsByEmployeeId(String employeeId) {
-        return certificationRepository.findByEmployeeId(employeeId).stream()
-                .map(this::convertToDetailedDto)
-                .collect(Collectors.toList());
+        return convertToDetailedDtos(certificationRepository.findByEmployeeId(employeeId));
     }
     
     public List<CertificationDto> getCertificationsByCertificationDefinitionId(String certificationDefinitionId) {
-        return certificationRepository.findByCertificationDefinitionId(certificationDefinitionId).stream()
-                .map(this::convertToDetailedDto)
-                .collect(Collectors.toList());
+        return convertToDetailedDtos(certificationRepository.findByCertificationDefinitionId(certificationDefinitionId));
     }
     
     // Preview methods for filter interface
@@ -134,61 +146,26 @@ public class CertificationService {
     }
     
     // DTO Conversion methods
-    private CertificationDto convertToDetailedDto(Certification certification) {
-        CertificationDto dto = new CertificationDto();
-        dto.setId(certification.getId());
-        dto.setEmployee(convertToDto(certification.getEmployee()));
-        dto.setCertificationDefinition(convertToDto(certification.getCertificationDefinition()));
-        dto.setStatus(certification.getStatus());
-        dto.setCompletionPercentage(certification.getCompletionPercentage());
-        dto.setEnrolledAt(certification.getEnrolledAt());
-        dto.setCompletedAt(certification.getCompletedAt());
-        dto.setDueDate(certification.getDueDate());
-        
-        // Get current stage information
-        Optional<Stage> currentStage = stageRepository.findCurrentStageByCertificationId(certification.getId());
-        if (currentStage.isPresent()) {
-            Stage stage = currentStage.get();
-            dto.setCurrentStageId(stage.getId());
-            dto.setCurrentStageName(stage.getStageDefinition().getName());
-            dto.setCurrentStageSequence(stage.getStageDefinition().getSequenceOrder());
+    /**
+     * Certifications with their stage progress, loaded for the whole list in a few batch queries
+     * rather than a stage query and two task count queries per stage of every certification
+     */
+    private List<CertificationDto> convertToDetailedDtos(List<Certification> certifications) {
+        CertificationDetails details = loadCertificationDetails(certifications);
+        List<CertificationDto> dtos = new ArrayList<>(certifications.size());
+        for (Certification certification : certifications) {
+            dtos.add(convertToReportDto(certification, convertToDto(certification.getEmployee()), details));
         }
-        
-        // Get stage progress
-        List<Stage> stages = stageRepository.findByCertificationIdOrderBySequence(certification.getId());
-        List<StageProgressDto> stageProgress = stages.stream()
-                .map(this::convertToStageProgressDto)
-                .collect(Collectors.toList());
-        dto.setStageProgress(stageProgress);
-        
-        return dto;
+        return dtos;
     }
     
-    private StageProgressDto convertToStageProgressDto(Stage stage) {
-        StageProgressDto dto = new StageProgressDto();
-        dto.setId(stage.getId());
-        dto.setStageDefinitionId(stage.getStageDefinition().getId());
-        dto.setName(stage.getStageDefinition().getName());
-        dto.setDescription(stage.getStageDefinition().getDescription());
-        dto.setSequenceOrder(stage.getStageDefinition().getSequenceOrder());
-        dto.setStatus(stage.getStatus());
-        dto.setCompletionPercentage(stage.getCompletionPercentage());
-        dto.setEstimatedDurationHours(stage.getStageDefinition().getEstimatedDurationHours());
-        dto.setIsMandatory(stage.getStageDefinition().getIsMandatory());
-        dto.setStartedAt(stage.getStartedAt());
-        dto.setCompletedAt(stage.getCompletedAt());
-        dto.setDueDate(stage.getDueDate());
-        
-        // Get task progress for this stage
-        Long completedTasks = taskRepository.countCompletedTasksByStageId(stage.getId());
-        Long totalTasks = taskRepository.countTotalTasksByStageId(stage.getId());
-        dto.setCompletedTasks(completedTasks);
-        dto.setTotalTasks(totalTasks);
-        
-        return dto;
+    private CertificationDefinitionDto convertToDto(CertificationDefinition certificationDefinition) {
+        // Get enrollment count
+        Long enrollmentCount = certificationRepository.countByCertificationDefinitionId(certificationDefinition.getId());
+        return convertToDto(certificationDefinition, enrollmentCount);
     }
     
-    private CertificationDefinitionDto convertToDto(CertificationDefinition certificationDefinition) {
+    private CertificationDefinitionDto convertToDto(CertificationDefinition certificationDefinition, Long enrollmentCount) {
         CertificationDefinitionDto dto = new CertificationDefinitionDto();
         dto.setId(certificationDefinition.getId());
         dto.setName(certificationDefinition.getName());
@@ -197,9 +174,6 @@ public class CertificationService {
         dto.setTotalDurationHours(certificationDefinition.getTotalDurationHours());
         dto.setValidityPeriodMonths(certificationDefinition.getValidityPeriodMonths());
         dto.setIsActive(certificationDefinition.getIsActive());
-        
-        // Get enrollment count
-        Long enrollmentCount = certificationRepository.countByCertificationDefinitionId(certificationDefinition.getId());
         dto.setEnrollmentCount(enrollmentCount);
         
         return dto;
@@ -218,54 +192,155 @@ public class CertificationService {
     }
     
     // Efficient chunked data retrieval for reporting
-      /**
-     * Get certification data for a chunk of employees with all related data in ONE OPTIMIZED query
-     * This method replaces the previous 4-query + in-memory processing approach
-     */    public List<CompleteReportDataDto> getCertificationDataChunk(List<String> employeeIds) {
+    /**
+     * Report data for a chunk of employees, loaded level by level in keyed batch queries
+     *
+     * Certifications (with their employee and definition), their stages and per-stage task counts
+     * are each fetched by the ids of the level above and assembled here with hash lookups. Unlike
+     * fetch-joining the whole tree, no row repeats the employee and certification columns once per
+     * task, and tasks are counted in the database instead of being loaded as entities. The
+     * employees are put in report order first, so their certifications can be loaded in batches
+     * that follow each other in that order.
+     */
+    public List<CompleteReportDataDto> getCertificationDataChunk(List<String> employeeIds) {
         if (employeeIds.isEmpty()) {
             return new ArrayList<>();
         }
         
-        // Single comprehensive query - gets ALL data in one go
-        List<Certification> certifications = certificationRepository.findCompleteReportDataByEmployeeIds(employeeIds);
+        List<String> orderedIds = employeeIdBinder.query(employeeIds, employeeRepository::findIdsAndDepartmentsInReportOrder,
+                employeeRepository::findIdsAndDepartmentsInReportOrderByIdArray).stream()
+                .map(row -> (String) row[0])
+                .toList();
         
-        // Group certifications by employee (minimal in-memory processing)
-        Map<String, List<Certification>> certificationsByEmployee = certifications.stream()
-                .collect(Collectors.groupingBy(cert -> cert.getEmployee().getId()));
+        // Certifications by employee, batch after batch in report order
+        List<Certification> certifications = new ArrayList<>();
+        for (List<String> batch : batches(orderedIds)) {
+            certifications.addAll(employeeIdBinder.query(batch,
+                    certificationRepository::findByEmployeeIdInWithDetails, certificationRepository::findByEmployeeIdArrayWithDetails));
+        }
         
-        // Convert to DTOs efficiently - all data is already loaded
-        List<CompleteReportDataDto> result = new ArrayList<>();
-        for (Map.Entry<String, List<Certification>> entry : certificationsByEmployee.entrySet()) {
-            Employee employee = entry.getValue().get(0).getEmployee(); // Employee is already loaded
-            
-            // Convert employee to DTO
-            EmployeeDto employeeDto = convertToDto(employee);
-            
-            // Convert certifications to DTOs - no additional queries needed since everything is pre-loaded
-            List<CertificationDto> certificationDtos = entry.getValue().stream()
-                    .map(this::convertToDetailedDtoWithPreloadedData)
-                    .collect(Collectors.toList());
-            
-            result.add(new CompleteReportDataDto(employeeDto, certificationDtos));
+        CertificationDetails details = loadCertificationDetails(certifications);
+        
+        // Assemble per employee, keeping the order of the certification query
+        Map<String, CompleteReportDataDto> dataByEmployee = new LinkedHashMap<>();
+        for (Certification certification : certifications) {
+            CompleteReportDataDto data = dataByEmployee.computeIfAbsent(certification.getEmployee().getId(),
+                    id -> new CompleteReportDataDto(convertToDto(certification.getEmployee()), new ArrayList<>()));
+            data.getCertifications().add(convertToReportDto(certification, data.getEmployee(), details));
         }
-          // Handle employees with no certifications
-        List<String> employeesWithCerts = result.stream()
-                .map(data -> data.getEmployee().getId())
-                .collect(Collectors.toList());
+        List<CompleteReportDataDto> result = new ArrayList<>(dataByEmployee.values());
         
-        List<String> employeesWithoutCerts = employeeIds.stream()
-                .filter(id -> !employeesWithCerts.contains(id))
+        // Handle employees with no certifications
+        List<String> employeesWithoutCerts = orderedIds.stream()
+                .filter(id -> !dataByEmployee.containsKey(id))
                 .collect(Collectors.toList());
-          if (!employeesWithoutCerts.isEmpty()) {
-            List<Employee> employeesWithoutCertifications = employeeRepository.findAllById(employeesWithoutCerts);
-            
-            for (Employee employee : employeesWithoutCertifications) {
-                EmployeeDto employeeDto = convertToDto(employee);
-                result.add(new CompleteReportDataDto(employeeDto, new ArrayList<>()));
+        for (List<String> batch : batches(employeesWithoutCerts)) {
+            for (Employee employee : employeeRepository.findAllById(batch)) {
+                result.add(new CompleteReportDataDto(convertToDto(employee), new ArrayList<>()));
             }
         }
         return result;
     }
+    
+    /**
+     * Stages, per-stage task counts and definition enrollment counts of a list of certifications
+     */
+    private record CertificationDetails(Map<String, List<Stage>> stagesByCertification,
+                                        Map<String, long[]> taskCountsByStage,
+                                        Map<String, Long> enrollmentCounts) {}
+    
+    /**
+     * Load everything the certification DTOs need beyond the certifications themselves, keyed by the
+     * ids of the level above. Tasks are only counted - (stageId, total, completed) from one grouped
+     * query per batch of stages - and never loaded.
+     */
+    private CertificationDetails loadCertificationDetails(List<Certification> certifications) {
+        // Stages by certification
+        Map<String, List<Stage>> stagesByCertification = new HashMap<>();
+        List<String> stageIds = new ArrayList<>();
+        for (List<String> batch : batches(certifications.stream().map(Certification::getId).distinct().toList())) {
+            for (Stage stage : stageRepository.findByCertificationIdsWithDetails(batch)) {
+                stagesByCertification.computeIfAbsent(stage.getCertification().getId(), id -> new ArrayList<>()).add(stage);
+                stageIds.add(stage.getId());
+            }
+        }
+        
+        // Task counts by stage
+        Map<String, long[]> taskCountsByStage = new HashMap<>();
+        for (List<String> batch : batches(stageIds)) {
+            for (Object[] row : taskRepository.countTasksGroupedByStage(batch)) {
+                taskCountsByStage.put((String) row[0], new long[] {((Number) row[1]).longValue(), ((Number) row[2]).longValue()});
+            }
+        }
+        
+        // Enrollment counts by definition, rather than one count query per certification
+        Map<String, Long> enrollmentCounts = new HashMap<>();
+        List<String> definitionIds = certifications.stream()
+                .map(cert -> cert.getCertificationDefinition().getId())
+                .distinct()
+                .toList();
+        for (List<String> batch : batches(definitionIds)) {
+            for (Object[] row : certificationRepository.countGroupedByCertificationDefinitionIds(batch)) {
+                enrollmentCounts.put((String) row[0], (Long) row[1]);
+            }
+        }
+        
+        return new CertificationDetails(stagesByCertification, taskCountsByStage, enrollmentCounts);
+    }
+    
+    /**
+     * Ids split into batches small enough for one IN list each
+     */
+    private static List<List<String>> batches(List<String> ids) {
+        List<List<String>> batches = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += ID_BATCH_SIZE) {
+            batches.add(ids.subList(start, Math.min(ids.size(), start + ID_BATCH_SIZE)));
+        }
+        return batches;
+    }
+    
+    /**
+     * Fill a report from a forward-only cursor over the report rows of the given employees.
+     * The cursor (and the read-only transaction holding it) stays open only while the filler runs,
+     * so the data source must be fully consumed inside it.
+     */
+    public <T> T fillFromReportRowCursor(List<String> employeeIds, ReportFiller<T> filler) throws JRException {
+        try (Stream<ReportRow> rows = employeeIdBinder.query(employeeIds, certificationRepository::streamReportRowsByEmployeeIds,
+                certificationRepository::streamReportRowsByEmployeeIdArray)) {
+            return filler.fill(new StreamingCertificationDataSource(rows.iterator()));
+        }
+    }
+    
+    /**
+     * Certification counts by status for the given employees, computed in the database
+     */
+    public Map<Certification.CertificationStatus, Long> getCertificationStatusCounts(List<String> employeeIds) {
+        Map<Certification.CertificationStatus, Long> counts = new EnumMap<>(Certification.CertificationStatus.class);
+        if (employeeIds.isEmpty()) {
+            return counts;
+        }
+        List<Object[]> rows = employeeIdBinder.query(employeeIds, certificationRepository::countByStatusForEmployeeIds,
+                certificationRepository::countByStatusForEmployeeIdArray);
+        for (Object[] row : rows) {
+            counts.put((Certification.CertificationStatus) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+    
+    /**
+     * Cancel action for the query running in the caller's transaction, such as an open report row
+     * cursor. Meant to be run from another thread; cancels the JDBC statement.
+     */
+    public ReportCancellationRegistry.CancelAction currentQueryCanceller() {
+        Session session = entityManager.unwrap(Session.class);
+        return session::cancelQuery;
+    }
+    
+    @FunctionalInterface
+    public interface ReportFiller<T> {
+        T fill(StreamingCertificationDataSource dataSource) throws JRException;
+    }
+    
       /**
      * Get certification data in chunks for memory-efficient processing
      */
@@ -287,10 +362,10 @@ public class CertificationService {
         
         return allData;
     }    /**
-     * Conversion using pre-loaded data from comprehensive query - ZERO additional queries
-     * All data (employee, cert def, stages, stage defs, tasks, task defs) is already loaded
+     * Certification with its batch-loaded stages and counts - no additional queries
      */
-    private CertificationDto convertToDetailedDtoWithPreloadedData(Certification certification) {
+    private CertificationDto convertToReportDto(Certification certification, EmployeeDto employee,
+                                                CertificationDetails details) {
         CertificationDto dto = new CertificationDto();
         dto.setId(certification.getId());
         dto.setStatus(certification.getStatus());
@@ -298,43 +373,36 @@ public class CertificationService {
         dto.setEnrolledAt(certification.getEnrolledAt());
         dto.setCompletedAt(certification.getCompletedAt());
         dto.setDueDate(certification.getDueDate());
+        dto.setEmployee(employee);
         
-        // Convert certification definition (already loaded via JOIN FETCH)
-        if (certification.getCertificationDefinition() != null) {
-            dto.setCertificationDefinition(convertToDto(certification.getCertificationDefinition()));
-        }
+        CertificationDefinition definition = certification.getCertificationDefinition();
+        dto.setCertificationDefinition(convertToDto(definition,
+                details.enrollmentCounts().getOrDefault(definition.getId(), 0L)));
         
-        // Convert employee (already loaded via JOIN FETCH)
-        if (certification.getEmployee() != null) {
-            dto.setEmployee(convertToDto(certification.getEmployee()));
-        }        // Convert stages with all related data (already loaded via LEFT JOIN FETCH)
-        if (certification.getStages() != null && !certification.getStages().isEmpty()) {
-            List<StageProgressDto> stageProgress = certification.getStages().stream()
-                    .sorted(Comparator.comparing(stage -> stage.getStageDefinition().getSequenceOrder()))
-                    .map(this::convertToStageProgressDtoWithPreloadedData)
-                    .collect(Collectors.toList());
-            dto.setStageProgress(stageProgress);
-            
-            // Set current stage information
-            Optional<Stage> currentStage = certification.getStages().stream()
-                    .filter(stage -> stage.getStatus() == Stage.StageStatus.IN_PROGRESS)
-                    .findFirst();
-            
-            if (currentStage.isPresent()) {
-                Stage stage = currentStage.get();
-                dto.setCurrentStageId(stage.getId());
-                dto.setCurrentStageName(stage.getStageDefinition().getName());
-                dto.setCurrentStageSequence(stage.getStageDefinition().getSequenceOrder());
+        // Stages come in sequence order from the stage query
+        List<Stage> stages = details.stagesByCertification().getOrDefault(certification.getId(), List.of());
+        if (!stages.isEmpty()) {
+            List<StageProgressDto> stageProgress = new ArrayList<>(stages.size());
+            for (Stage stage : stages) {
+                long[] taskCounts = details.taskCountsByStage().getOrDefault(stage.getId(), NO_TASKS);
+                stageProgress.add(convertToStageProgressDto(stage, taskCounts[0], taskCounts[1]));
+                
+                if (stage.getStatus() == Stage.StageStatus.IN_PROGRESS && dto.getCurrentStageId() == null) {
+                    dto.setCurrentStageId(stage.getId());
+                    dto.setCurrentStageName(stage.getStageDefinition().getName());
+                    dto.setCurrentStageSequence(stage.getStageDefinition().getSequenceOrder());
+                }
             }
+            dto.setStageProgress(stageProgress);
         }
         
         return dto;
     }
     
     /**
-     * Convert stage with pre-loaded task data - ZERO additional queries
+     * Stage progress from task counts computed in the database
      */
-    private StageProgressDto convertToStageProgressDtoWithPreloadedData(Stage stage) {
+    private StageProgressDto convertToStageProgressDto(Stage stage, long totalTasks, long completedTasks) {
         StageProgressDto dto = new StageProgressDto();
         dto.setId(stage.getId());
         dto.setStageDefinitionId(stage.getStageDefinition().getId());
@@ -348,19 +416,8 @@ public class CertificationService {
         dto.setStartedAt(stage.getStartedAt());
         dto.setCompletedAt(stage.getCompletedAt());
         dto.setDueDate(stage.getDueDate());
-          // Calculate task progress from pre-loaded task data (tasks are already sorted by sequenceOrder)
-        if (stage.getTasks() != null) {
-            long totalTasks = stage.getTasks().size();
-            long completedTasks = stage.getTasks().stream()
-                    .mapToLong(task -> task.getStatus() == Task.TaskStatus.COMPLETED ? 1 : 0)
-                    .sum();
-            
-            dto.setCompletedTasks(completedTasks);
-            dto.setTotalTasks(totalTasks);
-        } else {
-            dto.setCompletedTasks(0L);
-            dto.setTotalTasks(0L);
-        }
-          return dto;
+        dto.setCompletedTasks(completedTasks);
+        dto.setTotalTasks(totalTasks);
+        return dto;
     }
 }
@@ -0,0 +1,45 @@
+package com.certreport.service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * OutputStream that counts the bytes passed through it and reports each write to a listener
+ *
+ * Placed underneath the export buffer, so the listener sees bytes as they are handed to the
+ * file rather than once per small exporter write.
+ */
+class CountingOutputStream extends FilterOutputStream {
+
+    private final LongConsumer bytesWrittenListener;
+    private long bytesWritten;
+
+    CountingOutputStream(OutputStream out, LongConsumer bytesWrittenListener) {
+        super(out);
+        this.bytesWrittenListener = bytesWrittenListener;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        // FilterOutputStream would write the array one byte at a time
+        out.write(b, off, len);
+        count(len);
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void count(long len) {
+        bytesWritten += len;
+        bytesWrittenListener.accept(len);
+    }
+}
@@ -0,0 +1,41 @@
+package com.certreport.service;
+
+import com.certreport.config.ReportQueryProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Chooses how a report query gets its employee IDs: as an IN list or as one array parameter
+ *
+ * An IN list binds one parameter per ID, so every list length is a different SQL string with
+ * its own plan, and lists of tens of thousands of IDs exceed what the JDBC driver can bind
+ * (32767 parameters for PostgreSQL). From the configured length on, the array variant of the
+ * query is used instead, which filters with {@code id = any(?)} and binds a single parameter.
+ */
+@Component
+public class EmployeeIdBinder {
+
+    private final ReportQueryProperties properties;
+
+    public EmployeeIdBinder(ReportQueryProperties properties) {
+        this.properties = properties;
+    }
+
+    public boolean isArrayBound(List<String> employeeIds) {
+        return properties.getIdArrayThreshold() > 0 && employeeIds.size() >= properties.getIdArrayThreshold();
+    }
+
+    /**
+     * Run whichever variant of a query suits the number of IDs
+     *
+     * @param inListQuery the query filtering with {@code IN :employeeIds}
+     * @param arrayQuery the same query filtering with {@code id_in_array(id, :employeeIds)}
+     */
+    public <T> T query(List<String> employeeIds, Function<List<String>, T> inListQuery, Function<String[], T> arrayQuery) {
+        return isArrayBound(employeeIds)
+                ? arrayQuery.apply(employeeIds.toArray(String[]::new))
+                : inListQuery.apply(employeeIds);
+    }
+}
@@ -5,7 +5,10 @@ import com.certreport.model.Employee;
 import com.certreport.repository.EmployeeRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -13,9 +16,11 @@ import java.util.stream.Collectors;
 public class EmployeeService {
     
     private final EmployeeRepository employeeRepository;
+    private final EmployeeIdBinder employeeIdBinder;
     
-    public EmployeeService(EmployeeRepository employeeRepository) {
+    public EmployeeService(EmployeeRepository employeeRepository, EmployeeIdBinder employeeIdBinder) {
         this.employeeRepository = employeeRepository;
+        this.employeeIdBinder = employeeIdBinder;
     }
     
     public List<EmployeeDto> getAllEmployees() {
@@ -24,6 +29,17 @@ public class EmployeeService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * IDs of all employees, without loading the employees themselves
+     */
+    public List<String> getAllEmployeeIds() {
+        return employeeRepository.findAllIds();
+    }
+    
+    public long countEmployees() {
+        return employeeRepository.count();
+    }
+    
     public Optional<EmployeeDto> getEmployeeById(String id) {
         return employeeRepository.findById(id)
                 .map(this::convertToDto);
@@ -55,7 +71,56 @@ public class EmployeeService {
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
-      private EmployeeDto convertToDto(Employee employee) {
+    
+    /**
+     * Employee IDs in report order (department, then name); unknown IDs are dropped
+     */
+    public List<String> getIdsInReportOrder(List<String> employeeIds) {
+        return findIdsAndDepartmentsInReportOrder(employeeIds).stream()
+                .map(row -> (String) row[0])
+                .collect(Collectors.toList());
+    }
+    /**
+     * Split employees into at most roughly {@code maxShards} contiguous shards in report order
+     * (department, then name). Departments are kept whole where possible; a department larger than
+     * a shard is split at employee boundaries, which is safe since each employee starts a new page.
+     */
+    public List<List<String>> partitionByDepartment(List<String> employeeIds, int maxShards) {
+        Map<String, List<String>> employeesByDepartment = new LinkedHashMap<>();
+        for (Object[] row : findIdsAndDepartmentsInReportOrder(employeeIds)) {
+            employeesByDepartment.computeIfAbsent((String) row[1], department -> new ArrayList<>()).add((String) row[0]);
+        }
+        
+        int totalEmployees = employeesByDepartment.values().stream().mapToInt(List::size).sum();
+        int shardSize = Math.max(1, (int) Math.ceil((double) totalEmployees / Math.max(1, maxShards)));
+        
+        List<List<String>> shards = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        for (List<String> department : employeesByDepartment.values()) {
+            if (!current.isEmpty() && current.size() + department.size() > shardSize) {
+                shards.add(current);
+                current = new ArrayList<>();
+            }
+            for (String employeeId : department) {
+                current.add(employeeId);
+                if (current.size() == shardSize) {
+                    shards.add(current);
+                    current = new ArrayList<>();
+                }
+            }
+        }
+        if (!current.isEmpty()) {
+            shards.add(current);
+        }
+        return shards;
+    }
+    
+      private List<Object[]> findIdsAndDepartmentsInReportOrder(List<String> employeeIds) {
+        return employeeIdBinder.query(employeeIds, employeeRepository::findIdsAndDepartmentsInReportOrder,
+                employeeRepository::findIdsAndDepartmentsInReportOrderByIdArray);
+    }
+    
+    private EmployeeDto convertToDto(Employee employee) {
         return new EmployeeDto(
                 employee.getId(),
                 employee.getFirstName(),
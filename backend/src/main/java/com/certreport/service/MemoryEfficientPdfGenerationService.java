@@ -1,18 +1,36 @@
 package com.certreport.service;
 
+import com.certreport.config.PdfGenerationProperties;
 import com.certreport.dto.EmployeeCertificationActivityDto;
 import com.certreport.dto.ReportDataDto;
 import com.certreport.dto.ReportDataAdapter;
 import net.sf.jasperreports.engine.*;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -30,22 +48,134 @@ import java.util.stream.Collectors;
  * 
  * Use when: Memory usage exceeds configured threshold or available memory is limited
  * Default to: Traditional approach in ReportService for optimal performance
+ * 
+ * Virtualized mode (report.pdf.memory-efficient.virtualizer-enabled):
+ * Chunking alone does not bound memory because every chunk's pages end up in one merged
+ * JasperPrint. In virtualized mode the report is filled once with a swap-file virtualizer, so
+ * only the configured number of pages stays on the heap and the rest are paged out to local
+ * disk until the exporter streams them into the PDF file. The caller supplies the fill, so
+ * report rows can come from the report row cursor rather than a list loaded up front.
+ * 
+ * Parallel fill (report.pdf.memory-efficient.parallel-fill-enabled):
+ * Chunk fills are independent, so they run on the dedicated reportFillExecutor pool. The number
+ * of chunks in flight is the configured thread count, capped by how many chunk fills fit in the
+ * currently free heap. Filled chunks are merged in their original order.
+ * 
+ * Both modes export straight into a buffered FileChannel at the final file location, so the
+ * finished PDF is never held on the heap as a byte array.
  */
 @Service
 public class MemoryEfficientPdfGenerationService {
     
     private static final Logger logger = LoggerFactory.getLogger(MemoryEfficientPdfGenerationService.class);
-      @Value("${report.pdf.memory-efficient.chunk-size:50}")
-    private int defaultChunkSize;
     
-    @Value("${report.pdf.memory-efficient.gc-frequency:5}")
-    private int gcFrequency;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    private final ReportTemplateRegistry reportTemplateRegistry;
+    private final PdfGenerationProperties pdfProperties;
+    private final ActuatorPerformanceMonitor actuatorPerformanceMonitor;
+    private final Executor reportFillExecutor;
+    
+    public MemoryEfficientPdfGenerationService(ReportTemplateRegistry reportTemplateRegistry,
+                                               PdfGenerationProperties pdfProperties,
+                                               ActuatorPerformanceMonitor actuatorPerformanceMonitor,
+                                               @Qualifier("reportFillExecutor") Executor reportFillExecutor) {
+        this.reportTemplateRegistry = reportTemplateRegistry;
+        this.pdfProperties = pdfProperties;
+        this.actuatorPerformanceMonitor = actuatorPerformanceMonitor;
+        this.reportFillExecutor = reportFillExecutor;
+    }
+    
+    /**
+     * Generate the PDF straight to a file with filled pages paged out to disk, from activity data
+     * that is already in memory. Large reports should use the {@link ReportFill} variant with a
+     * streaming data source instead, as the adapter list built here grows with the report.
+     * 
+     * @param bytesWrittenListener receives the number of bytes of each write to the file
+     */
+    public PdfExportResult generateVirtualizedReport(List<EmployeeCertificationActivityDto> activityData,
+                                                     Map<String, Object> reportParameters,
+                                                     String filePath,
+                                                     LongConsumer bytesWrittenListener) throws JRException {
+        
+        logger.info("Starting virtualized PDF generation for {} activity records", activityData.size());
+        
+        List<ReportDataAdapter> adapterData = convertToOptimizedDtos(activityData).stream()
+                .map(ReportDataAdapter::new)
+                .collect(Collectors.toList());
+        
+        return generateVirtualizedReport((jasperReport, parameters) ->
+                JasperFillManager.fillReport(jasperReport, parameters, new JRBeanCollectionDataSource(adapterData)),
+                reportParameters, filePath, bytesWrittenListener);
+    }
+    
+    /**
+     * Generate the PDF straight to a file with filled pages paged out to disk
+     * Memory usage: bounded by virtualizer-max-pages-in-memory regardless of report length, as long
+     * as the fill pulls its rows from a streaming data source such as the report row cursor
+     * 
+     * @param fill fills the certifications template; the parameters it is given carry the virtualizer
+     * @param bytesWrittenListener receives the number of bytes of each write to the file
+     */
+    public PdfExportResult generateVirtualizedReport(ReportFill fill,
+                                                     Map<String, Object> reportParameters,
+                                                     String filePath,
+                                                     LongConsumer bytesWrittenListener) throws JRException {
+        
+        JasperReport jasperReport = reportTemplateRegistry.getTemplate(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
+        
+        JRSwapFileVirtualizer virtualizer = createVirtualizer();
+        try {
+            Map<String, Object> parameters = new HashMap<>(reportParameters);
+            parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+            
+            JasperPrint jasperPrint = fill.fill(jasperReport, parameters);
+            
+            // No more pages will be added - lets the exporter read swapped pages without re-serializing them
+            virtualizer.setReadOnly(true);
+            
+            int pageCount = jasperPrint.getPages().size();
+            long bytesWritten = exportToFile(jasperPrint, Path.of(filePath), bytesWrittenListener);
+            
+            logger.info("Virtualized PDF generation completed, {} pages, {}KB", pageCount, bytesWritten / 1024);
+            return new PdfExportResult(pageCount, bytesWritten);
+        } finally {
+            virtualizer.cleanup();
+        }
+    }
+    
+    /**
+     * Fills the certifications template for a virtualized report
+     */
+    @FunctionalInterface
+    public interface ReportFill {
+        JasperPrint fill(JasperReport jasperReport, Map<String, Object> parameters) throws JRException;
+    }
+    
+    /**
+     * Create a swap-file virtualizer from the configured page cache settings.
+     * The caller owns the virtualizer and must call cleanup() once the report has been exported.
+     */
+    public JRSwapFileVirtualizer createVirtualizer() {
+        JRSwapFile swapFile = new JRSwapFile(
+                pdfProperties.getVirtualizerSwapDirectory(),
+                pdfProperties.getVirtualizerBlockSize(),
+                pdfProperties.getVirtualizerMinGrowCount());
+        
+        // swapOwner=true: the swap file is deleted when the virtualizer is cleaned up
+        return new JRSwapFileVirtualizer(pdfProperties.getVirtualizerMaxPagesInMemory(), swapFile, true);
+    }
     
     /**
      * Generate PDF using streaming approach with optimized DTOs
      * Memory usage: ~50% reduction compared to traditional method
-     */    public byte[] generateOptimizedReport(List<EmployeeCertificationActivityDto> activityData, 
-                                        String reportTitle) throws Exception {
+     * 
+     * @param bytesWrittenListener receives the number of bytes of each write to the file
+     */
+    public PdfExportResult generateOptimizedReport(List<EmployeeCertificationActivityDto> activityData, 
+                                                   String reportTitle,
+                                                   String filePath,
+                                                   LongConsumer bytesWrittenListener) throws JRException {
         
         logger.info("Starting optimized PDF generation for {} activity records", activityData.size());
         
@@ -53,43 +183,61 @@ public class MemoryEfficientPdfGenerationService {
         List<ReportDataDto> optimizedData = convertToOptimizedDtos(activityData);
         logger.info("Converted to optimized DTOs, memory savings: ~90%");
         
-        // Load and compile the existing report template with proper field mappings
-        InputStream reportStream = new ClassPathResource("reports/certifications_report.jrxml").getInputStream();
-        JasperReport jasperReport = JasperCompileManager.compileReport(reportStream);
+        // Get the precompiled report template with proper field mappings
+        JasperReport jasperReport = reportTemplateRegistry.getTemplate(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
         
         // Process in chunks to minimize memory usage
-        List<JasperPrint> chunks = new ArrayList<>();
-        int chunkSize = defaultChunkSize;
-        int totalChunks = (int) Math.ceil((double) optimizedData.size() / chunkSize);
+        int chunkSize = pdfProperties.getChunkSize();
+        List<List<ReportDataDto>> chunkData = new ArrayList<>();
+        for (int startIdx = 0; startIdx < optimizedData.size(); startIdx += chunkSize) {
+            chunkData.add(optimizedData.subList(startIdx, Math.min(startIdx + chunkSize, optimizedData.size())));
+        }
         
-        logger.info("Processing {} records in {} chunks of {} records each", 
-                   optimizedData.size(), totalChunks, chunkSize);
+        int concurrency = calculateFillConcurrency(chunkData.size());
+        logger.info("Processing {} records in {} chunks of {} records each, {} at a time", 
+                   optimizedData.size(), chunkData.size(), chunkSize, concurrency);
         
-        for (int i = 0; i < totalChunks; i++) {
-            int startIdx = i * chunkSize;
-            int endIdx = Math.min(startIdx + chunkSize, optimizedData.size());
-            List<ReportDataDto> chunk = optimizedData.subList(startIdx, endIdx);
-            
-            logger.debug("Processing chunk {}/{} with {} records", i + 1, totalChunks, chunk.size());
-            
-            // Process chunk with minimal memory footprint
-            JasperPrint chunkPrint = processChunk(jasperReport, chunk, reportTitle, i == 0);
-            chunks.add(chunkPrint);              // Force garbage collection between chunks to keep memory low
-            if (i % gcFrequency == 0) { // Configurable GC frequency
-                // Note: GC handled automatically by JVM for optimal performance
-                logger.debug("Processed {} chunks, allowing JVM to manage memory", i + 1);
-            }
-        }
+        List<JasperPrint> chunks = concurrency > 1
+                ? fillChunksInParallel(jasperReport, chunkData, reportTitle, concurrency)
+                : fillChunksSequentially(jasperReport, chunkData, reportTitle);
         
         // Merge all chunks into final report
         JasperPrint finalReport = mergeChunks(chunks);
-          // Generate final PDF
-        byte[] pdfBytes = JasperExportManager.exportReportToPdf(finalReport);
+          // Export the final PDF directly to its file
+        long bytesWritten = exportToFile(finalReport, Path.of(filePath), bytesWrittenListener);
         
-        logger.info("Optimized PDF generation completed, size: {}KB", pdfBytes.length / 1024);
+        logger.info("Optimized PDF generation completed, size: {}KB", bytesWritten / 1024);
         
-        return pdfBytes;
+        return new PdfExportResult(finalReport.getPages().size(), bytesWritten);
     }
+    
+    /**
+     * Export to a buffered FileChannel at the target path.
+     * Pages are encoded and flushed to disk as the exporter goes, so heap use does not grow with PDF size.
+     */
+    private long exportToFile(JasperPrint jasperPrint, Path filePath, LongConsumer bytesWrittenListener) throws JRException {
+        try (FileChannel channel = FileChannel.open(filePath,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CountingOutputStream countingStream = new CountingOutputStream(
+                    Channels.newOutputStream(channel), bytesWrittenListener);
+            
+            try (OutputStream out = new BufferedOutputStream(countingStream, EXPORT_BUFFER_SIZE)) {
+                JRPdfExporter exporter = new JRPdfExporter();
+                exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+                exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+                exporter.exportReport();
+            }
+            return countingStream.getBytesWritten();
+        } catch (IOException e) {
+            throw new JRException("Failed to write PDF to " + filePath, e);
+        }
+    }
+    
+    /**
+     * Outcome of a PDF export written to disk
+     */
+    public record PdfExportResult(int pageCount, long bytesWritten) {}
+    
       /**
      * Convert full activity DTOs to lightweight report DTOs
      * Memory savings: ~90% reduction in memory usage
@@ -103,6 +251,114 @@ public class MemoryEfficientPdfGenerationService {
         
         return optimizedData;
     }
+    /**
+     * Fill chunks one after another on the calling thread
+     */
+    private List<JasperPrint> fillChunksSequentially(JasperReport jasperReport, List<List<ReportDataDto>> chunkData,
+                                                     String reportTitle) throws JRException {
+        List<JasperPrint> chunks = new ArrayList<>();
+        int totalChunks = chunkData.size();
+        
+        for (int i = 0; i < totalChunks; i++) {
+            List<ReportDataDto> chunk = chunkData.get(i);
+            logger.debug("Processing chunk {}/{} with {} records", i + 1, totalChunks, chunk.size());
+            
+            // Process chunk with minimal memory footprint
+            chunks.add(timedProcessChunk(jasperReport, chunk, reportTitle, i == 0, "sequential"));
+            if (i % pdfProperties.getGcFrequency() == 0) { // Configurable GC frequency
+                // Note: GC handled automatically by JVM for optimal performance
+                logger.debug("Processed {} chunks, allowing JVM to manage memory", i + 1);
+            }
+        }
+        return chunks;
+    }
+    
+    /**
+     * Fill chunks concurrently on the report fill pool, keeping at most {@code concurrency}
+     * chunks in flight, and return the filled chunks in their original order
+     */
+    private List<JasperPrint> fillChunksInParallel(JasperReport jasperReport, List<List<ReportDataDto>> chunkData,
+                                                   String reportTitle, int concurrency) throws JRException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<CompletableFuture<JasperPrint>> futures = new ArrayList<>(chunkData.size());
+        
+        try {
+            for (int i = 0; i < chunkData.size(); i++) {
+                List<ReportDataDto> chunk = chunkData.get(i);
+                boolean isFirstChunk = i == 0;
+                
+                // Blocks once the limit is reached, so filled-but-unmerged chunks cannot pile up
+                inFlight.acquire();
+                CompletableFuture<JasperPrint> future;
+                try {
+                    future = CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return timedProcessChunk(jasperReport, chunk, reportTitle, isFirstChunk, "parallel");
+                        } catch (JRException e) {
+                            throw new CompletionException(e);
+                        }
+                    }, reportFillExecutor);
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+                future.whenComplete((print, error) -> inFlight.release());
+                futures.add(future);
+            }
+            
+            // Collect in submission order - this is what keeps the page order intact
+            List<JasperPrint> chunks = new ArrayList<>(futures.size());
+            for (CompletableFuture<JasperPrint> future : futures) {
+                chunks.add(future.join());
+            }
+            return chunks;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new JRException("Interrupted while filling report chunks", e);
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof JRException jrException) {
+                throw jrException;
+            }
+            throw new JRException("Failed to fill report chunk", e.getCause());
+        }
+    }
+    
+    /**
+     * Number of chunks to fill at once: the configured thread count (all cores when unset),
+     * reduced so the in-flight chunks fit in the heap that is currently free
+     */
+    private int calculateFillConcurrency(int totalChunks) {
+        if (!pdfProperties.isParallelFillEnabled() || totalChunks < 2) {
+            return 1;
+        }
+        
+        int threads = pdfProperties.getParallelFillThreads() > 0
+                ? pdfProperties.getParallelFillThreads()
+                : Runtime.getRuntime().availableProcessors();
+        
+        Runtime runtime = Runtime.getRuntime();
+        long availableHeap = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        long heapPerChunk = pdfProperties.getParallelFillHeapPerChunkMb() * 1024L * 1024L;
+        int heapLimit = (int) Math.max(1, Math.min(Integer.MAX_VALUE, availableHeap / Math.max(1, heapPerChunk)));
+        
+        int concurrency = Math.min(totalChunks, Math.min(threads, heapLimit));
+        if (heapLimit < threads) {
+            logger.info("Parallel fill limited to {} chunks by available heap ({}MB free)",
+                       concurrency, availableHeap / (1024 * 1024));
+        }
+        return concurrency;
+    }
+    
+    private JasperPrint timedProcessChunk(JasperReport jasperReport, List<ReportDataDto> chunkData,
+                                          String reportTitle, boolean isFirstChunk, String mode) throws JRException {
+        long startNanos = System.nanoTime();
+        JasperPrint chunkPrint = processChunk(jasperReport, chunkData, reportTitle, isFirstChunk);
+        actuatorPerformanceMonitor.recordChunkFill(mode, System.nanoTime() - startNanos);
+        return chunkPrint;
+    }
+    
       /**
      * Process a single chunk of data
      */
@@ -112,7 +368,7 @@ public class MemoryEfficientPdfGenerationService {
         // Create parameters for this chunk
         Map<String, Object> parameters = new HashMap<>();
         parameters.put("REPORT_TITLE", reportTitle);
-        parameters.put("GENERATION_DATE", new Date());
+        parameters.put("GENERATION_DATE", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
         parameters.put("IS_FIRST_CHUNK", isFirstChunk);
         parameters.put("CHUNK_SIZE", chunkData.size());
         
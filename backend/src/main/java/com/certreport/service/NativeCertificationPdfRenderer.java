@@ -0,0 +1,585 @@
+package com.certreport.service;
+
+import com.certreport.dto.ReportRow;
+import com.lowagie.text.pdf.BaseFont;
+import net.sf.jasperreports.engine.JRException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Renders the certifications report straight to PDF, without a Jasper fill or export
+ *
+ * Follows the layout of {@code certifications_report.jrxml} - title band, a new page for every
+ * employee with demographics, summary and activity table, page footer - and writes each page as
+ * PDF objects as soon as it is full. Rows come from the streaming data source, so neither report
+ * data nor filled pages accumulate: only the file offsets of the written objects are kept.
+ *
+ * Columns have fixed widths and text that does not fit is cut off with an ellipsis instead of
+ * stretching the row, which keeps every band at a fixed height. Text is set in the standard
+ * Helvetica fonts every PDF viewer has built in; their glyph widths are looked up once when the
+ * class loads.
+ */
+@Component
+public class NativeCertificationPdfRenderer {
+
+    private static final Charset WIN_ANSI = Charset.forName("windows-1252");
+
+    private static final int PAGE_WIDTH = 842;
+    private static final int PAGE_HEIGHT = 595;
+    private static final int LEFT_MARGIN = 30;
+    private static final int TOP_MARGIN = 25;
+    private static final int BOTTOM_MARGIN = 25;
+    private static final int COLUMN_WIDTH = 782;
+
+    // Band heights of the template
+    private static final int TITLE_HEIGHT = 140;
+    private static final int GROUP_HEADER_HEIGHT = 280;
+    private static final int DETAIL_HEIGHT = 25;
+    private static final int GROUP_FOOTER_HEIGHT = 30;
+    private static final int PAGE_FOOTER_HEIGHT = 45;
+    private static final int CONTENT_BOTTOM = PAGE_HEIGHT - BOTTOM_MARGIN - PAGE_FOOTER_HEIGHT;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    // Fixed objects, written before the first page; the page tree and total page count go last
+    private static final int CATALOG_OBJECT = 1;
+    private static final int PAGES_OBJECT = 2;
+    private static final int RESOURCES_OBJECT = 3;
+    private static final int TOTAL_PAGES_OBJECT = 4;
+    private static final int FIRST_FONT_OBJECT = 5;
+
+    private enum Font {
+        REGULAR("F1", BaseFont.HELVETICA),
+        BOLD("F2", BaseFont.HELVETICA_BOLD),
+        ITALIC("F3", BaseFont.HELVETICA_OBLIQUE);
+
+        private final String resourceName;
+        private final String baseFont;
+        // Glyph widths by WinAnsi code, in thousandths of the font size
+        private final int[] widths = new int[256];
+
+        Font(String resourceName, String baseFont) {
+            this.resourceName = resourceName;
+            this.baseFont = baseFont;
+            try {
+                BaseFont metrics = BaseFont.createFont(baseFont, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+                for (int code = 32; code < 256; code++) {
+                    char c = new String(new byte[] {(byte) code}, WIN_ANSI).charAt(0);
+                    widths[code] = metrics.getWidth(c);
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to load metrics of font " + baseFont, e);
+            }
+        }
+
+        private float width(byte[] text, int length, float size) {
+            int total = 0;
+            for (int i = 0; i < length; i++) {
+                total += widths[text[i] & 0xff];
+            }
+            return total * size / 1000f;
+        }
+    }
+
+    private enum Align { LEFT, CENTER, RIGHT }
+
+    /**
+     * Called as the renderer moves through the report, e.g. to report progress or stop a cancelled render
+     */
+    public interface RenderListener {
+        void rowRendered();
+
+        void pageRendered();
+    }
+
+    public record RenderResult(int pageCount, long rowCount) {}
+
+    /**
+     * Render the certifications report of the rows of a data source to a stream, which is flushed but left open
+     *
+     * @param parameters the title-page totals, under the parameter names of the Jasper template
+     */
+    public RenderResult render(StreamingCertificationDataSource rows, Map<String, Object> parameters,
+                               OutputStream out, RenderListener listener) throws IOException, JRException {
+        LocalDateTime now = LocalDateTime.now();
+        String footerNote = "Certification Audit Report • " + now.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+        PdfDocument document = new PdfDocument(out, footerNote);
+        DecimalFormat percentFormat = new DecimalFormat("#0.0%");
+
+        PageContent page = document.startPage();
+        writeTitle(page, parameters, now);
+
+        String currentEmployeeId = null;
+        int rowInEmployee = 0;
+        while (rows.next()) {
+            ReportRow row = rows.getCurrentRow();
+            String employeeId = row.employeeId();
+            if (!employeeId.equals(currentEmployeeId)) {
+                if (currentEmployeeId != null) {
+                    page = ensureSpace(document, page, GROUP_FOOTER_HEIGHT, listener);
+                    writeEmployeeFooter(page);
+                }
+                // Every employee starts on a new page; the first one goes under the title if it fits
+                if (currentEmployeeId != null || page.remaining() < GROUP_HEADER_HEIGHT + DETAIL_HEIGHT) {
+                    page = nextPage(document, listener);
+                }
+                writeEmployeeHeader(page, row, rows);
+                currentEmployeeId = employeeId;
+                rowInEmployee = 0;
+            }
+
+            page = ensureSpace(document, page, DETAIL_HEIGHT, listener);
+            writeActivityRow(page, row, ++rowInEmployee, percentFormat);
+            listener.rowRendered();
+        }
+        if (currentEmployeeId != null) {
+            page = ensureSpace(document, page, GROUP_FOOTER_HEIGHT, listener);
+            writeEmployeeFooter(page);
+        }
+
+        document.endPage();
+        listener.pageRendered();
+        document.finish(now);
+        return new RenderResult(document.pageCount, rows.getRowCount());
+    }
+
+    private static PageContent ensureSpace(PdfDocument document, PageContent page, int height, RenderListener listener)
+            throws IOException {
+        return page.remaining() < height ? nextPage(document, listener) : page;
+    }
+
+    private static PageContent nextPage(PdfDocument document, RenderListener listener) throws IOException {
+        document.endPage();
+        listener.pageRendered();
+        return document.startPage();
+    }
+
+    private static void writeTitle(PageContent page, Map<String, Object> parameters, LocalDateTime now) {
+        long total = (Long) parameters.get("TOTAL_CERTIFICATIONS");
+        long completed = (Long) parameters.get("COMPLETED_CERTIFICATIONS");
+        String successRate = total > 0 ? String.format("%.1f%%", (double) completed / total * 100) : "N/A";
+
+        page.fillRect(0, 0, COLUMN_WIDTH, 60, 0x1E3A5F);
+        page.fillRect(0, 0, COLUMN_WIDTH, 2, 0x4A90C2);
+        page.text(0, 8, COLUMN_WIDTH, 32, Font.BOLD, 24, 0xFFFFFF, Align.CENTER, true, "Employee Certification Report");
+        page.text(0, 38, COLUMN_WIDTH, 18, Font.ITALIC, 12, 0xB8D4EA, Align.CENTER, true,
+                "Comprehensive Certification Status and Activity Report");
+        page.text(20, 70, 400, 25, Font.BOLD, 16, 0x2C5282, Align.LEFT, true, (String) parameters.get("COMPANY_NAME"));
+        page.text(420, 70, 342, 25, Font.REGULAR, 12, 0x4A5568, Align.RIGHT, true,
+                "Generated: " + now.format(DateTimeFormatter.ofPattern("MMMM dd, yyyy 'at' HH:mm:ss")));
+
+        page.fillAndStrokeRect(0, 105, COLUMN_WIDTH, 30, 0xF7FAFC, 0xCBD5E0, 1f);
+        writeTitleStatistic(page, 10, 120, 80, 30, 0x4299E1, "Total Employees:", parameters.get("TOTAL_EMPLOYEES"));
+        writeTitleStatistic(page, 140, 140, 100, 30, 0x805AD5, "Total Certifications:", total);
+        writeTitleStatistic(page, 290, 120, 70, 40, 0x38A169, "Completed:", completed);
+        writeTitleStatistic(page, 420, 120, 70, 40, 0xED8936, "In Progress:", parameters.get("IN_PROGRESS_CERTIFICATIONS"));
+        writeTitleStatistic(page, 550, 100, 50, 40, 0xE53E3E, "Failed:", parameters.get("FAILED_CERTIFICATIONS"));
+        page.text(660, 110, 115, 20, Font.BOLD, 9, 0x2D3748, Align.CENTER, true, "Success Rate: " + successRate);
+        page.advance(TITLE_HEIGHT);
+    }
+
+    private static void writeTitleStatistic(PageContent page, int x, int width, int labelWidth, int valueWidth,
+                                            int color, String label, Object value) {
+        page.fillRect(x, 110, width, 20, color);
+        page.text(x + 5, 112, labelWidth, 16, Font.BOLD, 9, 0xFFFFFF, Align.LEFT, true, label);
+        page.text(x + 5 + labelWidth, 112, valueWidth, 16, Font.BOLD, 10, 0xFFFFFF, Align.CENTER, true, String.valueOf(value));
+    }
+
+    private static void writeEmployeeHeader(PageContent page, ReportRow row, StreamingCertificationDataSource rows) {
+        writeSectionBar(page, 10, "Employee Demographics");
+        page.fillAndStrokeRect(0, 40, COLUMN_WIDTH, 60, 0xF8FAFC, 0xE2E8F0, 1f);
+        writeField(page, 15, 45, 150, "Employee ID:", row.employeeId());
+        writeField(page, 15, 62, 150, "Full Name:", row.firstName() + " " + row.lastName());
+        writeField(page, 15, 79, 200, "Email:", row.email());
+        writeField(page, 400, 45, 150, "Department:", row.department());
+        writeField(page, 400, 62, 150, "Position:", row.position());
+        writeField(page, 400, 79, 100, "Hire Date:",
+                row.hireDate() != null ? row.hireDate().format(DATE_FORMAT) : "");
+
+        writeSectionBar(page, 110, "Certification Summary");
+        page.fillAndStrokeRect(0, 140, COLUMN_WIDTH, 60, 0xF8FAFC, 0xE2E8F0, 1f);
+        writeSummaryCount(page, 50, 0x10B981, "Completed", rows.getCompletedCount());
+        writeSummaryCount(page, 250, 0xF59E0B, "In Progress", rows.getInProgressCount());
+        writeSummaryCount(page, 450, 0xEF4444, "Failed", rows.getFailedCount());
+
+        writeSectionBar(page, 210, "Certification Activities");
+        page.fillRect(0, 240, COLUMN_WIDTH, 25, 0x3B82F6);
+        page.text(10, 245, 150, 15, Font.BOLD, 10, 0xFFFFFF, Align.CENTER, false, "Certification");
+        page.text(165, 245, 80, 15, Font.BOLD, 10, 0xFFFFFF, Align.CENTER, false, "Status");
+        page.text(250, 245, 100, 15, Font.BOLD, 10, 0xFFFFFF, Align.CENTER, false, "Progress");
+        page.text(355, 245, 120, 15, Font.BOLD, 10, 0xFFFFFF, Align.CENTER, false, "Current Stage");
+        page.text(480, 245, 100, 15, Font.BOLD, 10, 0xFFFFFF, Align.CENTER, false, "Due Date");
+        page.text(585, 245, 190, 15, Font.BOLD, 10, 0xFFFFFF, Align.CENTER, false, "Notes");
+        page.advance(GROUP_HEADER_HEIGHT);
+    }
+
+    private static void writeSectionBar(PageContent page, int y, String title) {
+        page.fillRect(0, y, COLUMN_WIDTH, 30, 0x2B6CB0);
+        page.fillRect(0, y, COLUMN_WIDTH, 3, 0x1A365D);
+        page.text(15, y + 6, 400, 18, Font.BOLD, 12, 0xFFFFFF, Align.LEFT, true, title);
+    }
+
+    private static void writeField(PageContent page, int x, int y, int valueWidth, String label, String value) {
+        page.text(x, y, 80, 15, Font.BOLD, 10, 0x374151, Align.LEFT, false, label);
+        page.text(x + 85, y, valueWidth, 15, Font.REGULAR, 10, 0x000000, Align.LEFT, false, value);
+    }
+
+    private static void writeSummaryCount(PageContent page, int x, int color, String label, long count) {
+        page.text(x, 150, 150, 15, Font.BOLD, 10, color, Align.CENTER, false, label);
+        page.text(x, 165, 150, 20, Font.BOLD, 14, color, Align.CENTER, false, Long.toString(count));
+    }
+
+    private static void writeActivityRow(PageContent page, ReportRow row, int rowInEmployee,
+                                         DecimalFormat percentFormat) {
+        page.fillAndStrokeRect(0, 0, COLUMN_WIDTH, DETAIL_HEIGHT, rowInEmployee % 2 == 0 ? 0xFFFFFF : 0xF8FAFC, 0xE2E8F0, 0.5f);
+        page.text(10, 5, 150, 15, Font.REGULAR, 9, 0x000000, Align.LEFT, true,
+                row.certificationName() != null ? row.certificationName() : "No certifications");
+        page.text(165, 5, 80, 15, Font.BOLD, 9, 0x000000, Align.CENTER, true,
+                row.status() != null ? row.status().toString() : "N/A");
+        page.text(250, 5, 100, 15, Font.REGULAR, 9, 0x000000, Align.CENTER, true,
+                percentFormat.format(row.completionPercentage() != null ? row.completionPercentage() / 100.0 : 0.0));
+        page.text(355, 5, 120, 15, Font.REGULAR, 9, 0x000000, Align.CENTER, true,
+                row.currentStageName() != null ? row.currentStageName() : "Not Started");
+        page.text(480, 5, 100, 15, Font.REGULAR, 9, 0x000000, Align.CENTER, true,
+                row.dueDate() != null ? row.dueDate().format(DATE_FORMAT) : "");
+        page.text(585, 5, 190, 15, Font.REGULAR, 8, 0x000000, Align.LEFT, true,
+                row.enrolledAt() != null ? "Enrolled: " + row.enrolledAt().format(DATE_FORMAT) : "Not enrolled");
+        page.advance(DETAIL_HEIGHT);
+    }
+
+    private static void writeEmployeeFooter(PageContent page) {
+        page.line(0, 10, COLUMN_WIDTH, 0xCBD5E0);
+        page.text(0, 15, COLUMN_WIDTH, 10, Font.ITALIC, 8, 0x9CA3AF, Align.CENTER, false,
+                "End of employee certification report");
+        page.advance(GROUP_FOOTER_HEIGHT);
+    }
+
+    /**
+     * Content stream of one page, in template coordinates: x from the left margin, y from the top
+     * of the band being written
+     */
+    private static final class PageContent {
+
+        private final StringBuilder content = new StringBuilder(16 * 1024);
+        private final byte[] encoded = new byte[512];
+        private float bandTop;
+
+        private void reset() {
+            content.setLength(0);
+            bandTop = TOP_MARGIN;
+        }
+
+        private float remaining() {
+            return CONTENT_BOTTOM - bandTop;
+        }
+
+        private void advance(float height) {
+            bandTop += height;
+        }
+
+        private void fillRect(float x, float y, float width, float height, int color) {
+            color(color, "rg");
+            rect(x, y, width, height);
+            content.append("f\n");
+        }
+
+        private void fillAndStrokeRect(float x, float y, float width, float height, int fillColor, int strokeColor,
+                                       float lineWidth) {
+            color(fillColor, "rg");
+            color(strokeColor, "RG");
+            number(lineWidth).append(" w\n");
+            rect(x, y, width, height);
+            content.append("B\n");
+        }
+
+        private void line(float x, float y, float width, int color) {
+            color(color, "RG");
+            content.append("1 w\n");
+            number(LEFT_MARGIN + x).append(' ');
+            number(PAGE_HEIGHT - bandTop - y).append(" m ");
+            number(LEFT_MARGIN + x + width).append(' ');
+            number(PAGE_HEIGHT - bandTop - y).append(" l S\n");
+        }
+
+        /**
+         * One line of text in a box, cut off with an ellipsis if wider than the box
+         *
+         * @param middle centre the line vertically in the box rather than placing it at the top
+         */
+        private float text(float x, float y, float width, float height, Font font, float size, int color,
+                           Align align, boolean middle, String text) {
+            if (text == null || text.isEmpty()) {
+                return 0;
+            }
+            int length = encode(text);
+            float textWidth = font.width(encoded, length, size);
+            if (textWidth > width) {
+                length = truncate(font, size, width, length);
+                textWidth = font.width(encoded, length, size);
+            }
+
+            float left = switch (align) {
+                case LEFT -> x;
+                case CENTER -> x + (width - textWidth) / 2;
+                case RIGHT -> x + width - textWidth;
+            };
+            float baseline = middle ? middleBaseline(y, height, size) : y + size * 0.9f;
+
+            content.append("BT /").append(font.resourceName).append(' ');
+            number(size).append(" Tf ");
+            color(color, "rg");
+            number(LEFT_MARGIN + left).append(' ');
+            number(PAGE_HEIGHT - bandTop - baseline).append(" Td (");
+            for (int i = 0; i < length; i++) {
+                char c = (char) (encoded[i] & 0xff);
+                if (c == '(' || c == ')' || c == '\\') {
+                    content.append('\\');
+                }
+                content.append(c);
+            }
+            content.append(") Tj ET\n");
+            return left + textWidth;
+        }
+
+        /**
+         * WinAnsi bytes of a line of text into the scratch buffer; characters outside WinAnsi become '?'
+         */
+        private int encode(String text) {
+            byte[] bytes = text.getBytes(WIN_ANSI);
+            int length = Math.min(bytes.length, encoded.length);
+            for (int i = 0; i < length; i++) {
+                byte b = bytes[i];
+                encoded[i] = b == '\r' || b == '\n' || b == '\t' ? (byte) ' ' : b;
+            }
+            return length;
+        }
+
+        /**
+         * Longest prefix that fits the width with an ellipsis appended; returns the new length
+         */
+        private int truncate(Font font, float size, float width, int length) {
+            float available = width - font.widths[0x85] * size / 1000f;
+            float used = 0;
+            int fits = 0;
+            while (fits < length) {
+                float next = font.widths[encoded[fits] & 0xff] * size / 1000f;
+                if (used + next > available) {
+                    break;
+                }
+                used += next;
+                fits++;
+            }
+            encoded[fits] = (byte) 0x85;
+            return fits + 1;
+        }
+
+        private static float middleBaseline(float y, float height, float size) {
+            // Half the cap height of Helvetica below the middle of the box
+            return y + height / 2 + size * 0.35f;
+        }
+
+        private void rect(float x, float y, float width, float height) {
+            number(LEFT_MARGIN + x).append(' ');
+            number(PAGE_HEIGHT - bandTop - y - height).append(' ');
+            number(width).append(' ');
+            number(height).append(" re ");
+        }
+
+        private void color(int rgb, String operator) {
+            number(((rgb >> 16) & 0xff) / 255f).append(' ');
+            number(((rgb >> 8) & 0xff) / 255f).append(' ');
+            number((rgb & 0xff) / 255f).append(' ').append(operator).append(' ');
+        }
+
+        /**
+         * Append a number with at most two decimals, as short as possible
+         */
+        private StringBuilder number(float value) {
+            int hundredths = Math.round(value * 100);
+            if (hundredths < 0) {
+                content.append('-');
+                hundredths = -hundredths;
+            }
+            content.append(hundredths / 100);
+            int fraction = hundredths % 100;
+            if (fraction != 0) {
+                content.append('.');
+                if (fraction < 10) {
+                    content.append('0');
+                }
+                content.append(fraction % 10 == 0 ? fraction / 10 : fraction);
+            }
+            return content;
+        }
+    }
+
+    /**
+     * PDF file being written: object offsets for the cross-reference table, and the pages so far.
+     * "Page N of M" needs the total before it is known, so M is drawn from a form XObject that is
+     * only written after the last page.
+     */
+    private static final class PdfDocument {
+
+        private final OutputStream out;
+        private final String footerNote;
+        private final PageContent page = new PageContent();
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private byte[] compressed = new byte[32 * 1024];
+
+        private long position;
+        private long[] offsets = new long[1024];
+        private int nextObject = FIRST_FONT_OBJECT + Font.values().length;
+        private int[] pageObjects = new int[256];
+        private int pageCount;
+
+        private PdfDocument(OutputStream out, String footerNote) throws IOException {
+            this.out = out;
+            this.footerNote = footerNote;
+
+            // The binary comment tells transfer tools the file is not text
+            write("%PDF-1.4\n%âãÏÓ\n".getBytes(StandardCharsets.ISO_8859_1));
+            writeObject(CATALOG_OBJECT, "<< /Type /Catalog /Pages " + PAGES_OBJECT + " 0 R >>");
+            StringBuilder fonts = new StringBuilder();
+            for (Font font : Font.values()) {
+                int fontObject = FIRST_FONT_OBJECT + font.ordinal();
+                fonts.append('/').append(font.resourceName).append(' ').append(fontObject).append(" 0 R ");
+                writeObject(fontObject, "<< /Type /Font /Subtype /Type1 /BaseFont /" + font.baseFont
+                        + " /Encoding /WinAnsiEncoding >>");
+            }
+            writeObject(RESOURCES_OBJECT, "<< /Font << " + fonts + ">> /XObject << /TotalPages "
+                    + TOTAL_PAGES_OBJECT + " 0 R >> /ProcSet [/PDF /Text] >>");
+        }
+
+        private PageContent startPage() {
+            page.reset();
+            return page;
+        }
+
+        private void endPage() throws IOException {
+            pageCount++;
+            writePageFooter();
+
+            int contentObject = nextObject++;
+            int pageObject = nextObject++;
+            // Text was already encoded to WinAnsi bytes, one char each
+            writeStream(contentObject, "", page.content.toString().getBytes(StandardCharsets.ISO_8859_1));
+            writeObject(pageObject, "<< /Type /Page /Parent " + PAGES_OBJECT + " 0 R /MediaBox [0 0 "
+                    + PAGE_WIDTH + " " + PAGE_HEIGHT + "] /Resources " + RESOURCES_OBJECT
+                    + " 0 R /Contents " + contentObject + " 0 R >>");
+            if (pageCount > pageObjects.length) {
+                pageObjects = Arrays.copyOf(pageObjects, pageObjects.length * 2);
+            }
+            pageObjects[pageCount - 1] = pageObject;
+        }
+
+        private void writePageFooter() {
+            page.bandTop = CONTENT_BOTTOM;
+            page.fillAndStrokeRect(0, 8, COLUMN_WIDTH, 32, 0xF7FAFC, 0xCBD5E0, 1f);
+            page.fillRect(0, 8, COLUMN_WIDTH, 2, 0x4A90C2);
+            page.text(15, 15, 350, 18, Font.BOLD, 9, 0x4A5568, Align.LEFT, true, "CONFIDENTIAL - For Internal Use Only");
+            page.text(370, 15, 240, 18, Font.ITALIC, 8, 0x718096, Align.CENTER, true, footerNote);
+            page.text(15, 25, 750, 12, Font.ITALIC, 7, 0x9CA3AF, Align.CENTER, true,
+                    "This report contains comprehensive certification data with status indicators for audit compliance and performance tracking.");
+
+            // The total is drawn by the shared XObject, so this field is left-aligned rather than right-aligned
+            float end = page.text(680, 15, 90, 18, Font.BOLD, 10, 0x2D3748, Align.LEFT, true, "Page " + pageCount + " of ");
+            page.content.append("q 1 0 0 1 ");
+            page.number(LEFT_MARGIN + end).append(' ');
+            page.number(PAGE_HEIGHT - page.bandTop - PageContent.middleBaseline(15, 18, 10)).append(" cm /TotalPages Do Q\n");
+        }
+
+        /**
+         * Write the total page count, page tree, document information and cross-reference table
+         */
+        private void finish(LocalDateTime createdAt) throws IOException {
+            // Drawn with its origin on the baseline of the page number field
+            page.reset();
+            page.content.append("BT /").append(Font.BOLD.resourceName).append(" 10 Tf ");
+            page.color(0x2D3748, "rg");
+            page.content.append("0 0 Td (").append(pageCount).append(") Tj ET\n");
+            writeStream(TOTAL_PAGES_OBJECT, " /Type /XObject /Subtype /Form /BBox [0 -5 100 15] /Resources << /Font << /"
+                    + Font.BOLD.resourceName + " " + (FIRST_FONT_OBJECT + Font.BOLD.ordinal()) + " 0 R >> >>",
+                    page.content.toString().getBytes(StandardCharsets.ISO_8859_1));
+
+            beginObject(PAGES_OBJECT);
+            write("<< /Type /Pages /Count " + pageCount + " /Kids [");
+            StringBuilder kids = new StringBuilder(16 * 1024);
+            for (int i = 0; i < pageCount; i++) {
+                kids.append(pageObjects[i]).append(" 0 R ");
+                if (kids.length() > 15 * 1024) {
+                    write(kids.toString());
+                    kids.setLength(0);
+                }
+            }
+            write(kids + "] >>\nendobj\n");
+
+            int infoObject = nextObject++;
+            writeObject(infoObject, "<< /Title (Employee Certification Report) /Producer (CertReport native renderer)"
+                    + " /CreationDate (D:" + createdAt.format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")) + ") >>");
+
+            long xrefOffset = position;
+            StringBuilder xref = new StringBuilder(nextObject * 20 + 128);
+            xref.append("xref\n0 ").append(nextObject).append("\n0000000000 65535 f \n");
+            for (int object = 1; object < nextObject; object++) {
+                String offset = Long.toString(offsets[object]);
+                xref.append("0".repeat(10 - offset.length())).append(offset).append(" 00000 n \n");
+            }
+            xref.append("trailer\n<< /Size ").append(nextObject).append(" /Root ").append(CATALOG_OBJECT)
+                .append(" 0 R /Info ").append(infoObject).append(" 0 R >>\nstartxref\n").append(xrefOffset).append("\n%%EOF\n");
+            write(xref.toString());
+            out.flush();
+            deflater.end();
+        }
+
+        private void writeObject(int object, String dictionary) throws IOException {
+            beginObject(object);
+            write(dictionary + "\nendobj\n");
+        }
+
+        private void writeStream(int object, String dictionaryEntries, byte[] data) throws IOException {
+            deflater.reset();
+            deflater.setInput(data);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+
+            beginObject(object);
+            write("<<" + dictionaryEntries + " /Length " + length + " /Filter /FlateDecode >>\nstream\n");
+            out.write(compressed, 0, length);
+            position += length;
+            write("\nendstream\nendobj\n");
+        }
+
+        private void beginObject(int object) throws IOException {
+            if (object >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, object + 1));
+            }
+            offsets[object] = position;
+            write(object + " 0 obj\n");
+        }
+
+        private void write(String ascii) throws IOException {
+            write(ascii.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            out.write(bytes);
+            position += bytes.length;
+        }
+    }
+}
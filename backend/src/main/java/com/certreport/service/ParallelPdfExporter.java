@@ -0,0 +1,183 @@
+package com.certreport.service;
+
+import com.certreport.config.PdfGenerationProperties;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.PdfCopy;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfSmartCopy;
+import com.lowagie.text.pdf.RandomAccessFileOrArray;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.base.JRVirtualPrintPage;
+import net.sf.jasperreports.engine.export.JRExportProgressMonitor;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import net.sf.jasperreports.export.SimplePdfReportConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Exports large filled reports to PDF as page ranges in parallel
+ *
+ * A single JRPdfExporter writes pages one after another on one thread, which makes export a
+ * large share of the time of reports with a thousand pages or more. Here the pages are split
+ * into contiguous ranges that are exported concurrently on the report fill pool, each to its
+ * own temporary PDF. The ranges are then merged in page order with PdfSmartCopy, which writes
+ * identical objects such as font dictionaries once and builds a new cross-reference table.
+ */
+@Component
+public class ParallelPdfExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelPdfExporter.class);
+
+    private final PdfGenerationProperties pdfProperties;
+    private final Executor reportFillExecutor;
+    private final ActuatorPerformanceMonitor actuatorPerformanceMonitor;
+
+    public ParallelPdfExporter(PdfGenerationProperties pdfProperties,
+                               @Qualifier("reportFillExecutor") Executor reportFillExecutor,
+                               ActuatorPerformanceMonitor actuatorPerformanceMonitor) {
+        this.pdfProperties = pdfProperties;
+        this.reportFillExecutor = reportFillExecutor;
+        this.actuatorPerformanceMonitor = actuatorPerformanceMonitor;
+    }
+
+    /**
+     * Whether a filled report is large enough to be exported in ranges.
+     * Virtualized prints are not: their pages are swapped in and out by a single virtualizer.
+     */
+    public boolean isApplicable(JasperPrint jasperPrint) {
+        List<?> pages = jasperPrint.getPages();
+        return pdfProperties.isParallelExportEnabled()
+                && pages.size() >= pdfProperties.getParallelExportThresholdPages()
+                && pages.size() > 1
+                && !(pages.get(0) instanceof JRVirtualPrintPage);
+    }
+
+    /**
+     * Export a filled report to a stream, which is flushed but left open
+     *
+     * @param progressMonitor called after every page exported, from several threads at once
+     */
+    public void export(JasperPrint jasperPrint, OutputStream out, JRExportProgressMonitor progressMonitor)
+            throws JRException {
+        List<int[]> ranges = pageRanges(jasperPrint.getPages().size());
+        List<Path> rangeFiles = new ArrayList<>(ranges.size());
+        long startNanos = System.nanoTime();
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>(ranges.size());
+            for (int[] range : ranges) {
+                Path rangeFile = Files.createTempFile("report-range-", ".pdf");
+                rangeFiles.add(rangeFile);
+                futures.add(CompletableFuture.runAsync(
+                        () -> exportRange(jasperPrint, range[0], range[1], rangeFile, progressMonitor), reportFillExecutor));
+            }
+            try {
+                // Completes once every range has finished, so no range is still writing to a file deleted below
+                CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof JRException jrException) {
+                    throw jrException;
+                }
+                if (cause instanceof RuntimeException runtimeException) {
+                    // e.g. the report was cancelled between pages
+                    throw runtimeException;
+                }
+                throw new JRException("Failed to export page range: " + cause.getMessage(), cause);
+            }
+            long exportedNanos = System.nanoTime();
+
+            mergeRanges(rangeFiles, out);
+            actuatorPerformanceMonitor.recordPdfRangeMerge(System.nanoTime() - exportedNanos);
+            logger.info("Exported {} pages in {} parallel ranges in {} ms (merge {} ms)", jasperPrint.getPages().size(),
+                        ranges.size(), (System.nanoTime() - startNanos) / 1_000_000,
+                        (System.nanoTime() - exportedNanos) / 1_000_000);
+        } catch (IOException | DocumentException e) {
+            throw new JRException("Failed to merge exported page ranges: " + e.getMessage(), e);
+        } finally {
+            for (Path rangeFile : rangeFiles) {
+                try {
+                    Files.deleteIfExists(rangeFile);
+                } catch (IOException e) {
+                    logger.debug("Failed to delete page range file {}: {}", rangeFile, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Contiguous [start, end] page index ranges, one per fill thread unless that would make them
+     * smaller than the configured minimum
+     */
+    private List<int[]> pageRanges(int pageCount) {
+        int threads = pdfProperties.getParallelFillThreads() > 0
+                ? pdfProperties.getParallelFillThreads()
+                : Runtime.getRuntime().availableProcessors();
+        int rangeSize = Math.max(Math.max(1, pdfProperties.getParallelExportMinRangePages()),
+                                 (int) Math.ceil((double) pageCount / threads));
+        List<int[]> ranges = new ArrayList<>();
+        for (int start = 0; start < pageCount; start += rangeSize) {
+            ranges.add(new int[] {start, Math.min(pageCount, start + rangeSize) - 1});
+        }
+        return ranges;
+    }
+
+    private void exportRange(JasperPrint jasperPrint, int startPageIndex, int endPageIndex, Path rangeFile,
+                             JRExportProgressMonitor progressMonitor) {
+        long startNanos = System.nanoTime();
+        SimplePdfReportConfiguration configuration = new SimplePdfReportConfiguration();
+        configuration.setStartPageIndex(startPageIndex);
+        configuration.setEndPageIndex(endPageIndex);
+        configuration.setProgressMonitor(progressMonitor);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(rangeFile), 64 * 1024)) {
+            JRPdfExporter exporter = new JRPdfExporter();
+            exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+            exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+            exporter.setConfiguration(configuration);
+            exporter.exportReport();
+        } catch (JRException e) {
+            throw new CompletionException(e);
+        } catch (IOException e) {
+            throw new CompletionException(new JRException("Failed to write page range to " + rangeFile, e));
+        }
+        actuatorPerformanceMonitor.recordPdfRangeExport(endPageIndex - startPageIndex + 1, System.nanoTime() - startNanos);
+    }
+
+    private static void mergeRanges(List<Path> rangeFiles, OutputStream out) throws IOException, DocumentException {
+        Document document = new Document();
+        PdfCopy copy = new PdfSmartCopy(document, out);
+        // The caller owns the stream
+        copy.setCloseStream(false);
+        document.open();
+        for (Path rangeFile : rangeFiles) {
+            // Partial read: pages are loaded from the file as they are copied
+            PdfReader reader = new PdfReader(new RandomAccessFileOrArray(rangeFile.toString(), false, true), null);
+            try {
+                for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                    copy.addPage(copy.getImportedPage(reader, page));
+                }
+                copy.freeReader(reader);
+            } finally {
+                reader.close();
+            }
+        }
+        document.close();
+        out.flush();
+    }
+}
@@ -0,0 +1,218 @@
+package com.certreport.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports generating on this instance and the means to stop them
+ *
+ * Generation registers what is currently running for a report - a Jasper filler, an open
+ * database cursor - as cancel actions. Cancelling runs these actions, which make the fill and
+ * the query fail straight away, and interrupts the report worker so it also stops waiting for
+ * heap budget or a render permit. A report registered with a deadline is stopped the same way
+ * when the deadline passes.
+ */
+@Component
+public class ReportCancellationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCancellationRegistry.class);
+
+    private final Map<String, Cancellation> running = new ConcurrentHashMap<>();
+
+    private final ScheduledThreadPoolExecutor deadlineTimer;
+
+    public enum Reason { CANCELLED, DEADLINE }
+
+    public ReportCancellationRegistry() {
+        deadlineTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "report-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Most reports finish well before their deadline
+        deadlineTimer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Register a report that starts generating on the calling thread
+     *
+     * @param deadline when generation is stopped if still running, or null for no limit
+     */
+    public Cancellation register(String reportId, LocalDateTime deadline) {
+        Cancellation cancellation = new Cancellation(reportId, Thread.currentThread(), deadline);
+        running.put(reportId, cancellation);
+        if (deadline != null) {
+            long delayMs = Math.max(0, Duration.between(LocalDateTime.now(), deadline).toMillis());
+            cancellation.deadlineTask = deadlineTimer.schedule(
+                    () -> cancellation.cancel(Reason.DEADLINE), delayMs, TimeUnit.MILLISECONDS);
+        }
+        return cancellation;
+    }
+
+    /**
+     * Stop tracking a report once its worker has finished with it; cancelling it is a no-op from here on
+     */
+    public void unregister(Cancellation cancellation) {
+        cancellation.finish();
+        running.remove(cancellation.reportId, cancellation);
+    }
+
+    /**
+     * Cancel a report generating on this instance
+     *
+     * @return false when the report is not generating here
+     */
+    public boolean cancel(String reportId) {
+        Cancellation cancellation = running.get(reportId);
+        if (cancellation == null) {
+            return false;
+        }
+        cancellation.cancel(Reason.CANCELLED);
+        return true;
+    }
+
+    /**
+     * Deadline of a report generating on this instance, if it has one
+     */
+    public Optional<LocalDateTime> getDeadline(String reportId) {
+        return Optional.ofNullable(running.get(reportId)).map(cancellation -> cancellation.deadline);
+    }
+
+    /**
+     * Register an action that stops part of a report's generation. Reports not registered here,
+     * e.g. generated outside a report worker, get a no-op registration.
+     */
+    public Registration onCancel(String reportId, CancelAction action) {
+        Cancellation cancellation = running.get(reportId);
+        return cancellation != null ? cancellation.onCancel(action) : () -> { };
+    }
+
+    public boolean isCancelled(String reportId) {
+        Cancellation cancellation = running.get(reportId);
+        return cancellation != null && cancellation.isCancelled();
+    }
+
+    /**
+     * Throw if the report was cancelled, for checks between generation steps
+     */
+    public void throwIfCancelled(String reportId) {
+        if (isCancelled(reportId)) {
+            throw new CancellationException("Report " + reportId + " was cancelled");
+        }
+    }
+
+    public Set<String> getRunningReportIds() {
+        return Set.copyOf(running.keySet());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deadlineTimer.shutdownNow();
+    }
+
+    @FunctionalInterface
+    public interface CancelAction {
+        void cancel() throws Exception;
+    }
+
+    /**
+     * Handle to remove a cancel action once the step it stops has finished
+     */
+    @FunctionalInterface
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Cancellation state of one report
+     */
+    public static final class Cancellation {
+
+        private final String reportId;
+        private final Thread worker;
+        private final LocalDateTime deadline;
+        private final Set<CancelAction> actions = ConcurrentHashMap.newKeySet();
+        private volatile ScheduledFuture<?> deadlineTask;
+        private Reason reason;
+        private boolean finished;
+
+        private Cancellation(String reportId, Thread worker, LocalDateTime deadline) {
+            this.reportId = reportId;
+            this.worker = worker;
+            this.deadline = deadline;
+        }
+
+        public synchronized boolean isCancelled() {
+            return reason != null;
+        }
+
+        /**
+         * Why generation was stopped, or null while it may go on
+         */
+        public synchronized Reason getReason() {
+            return reason;
+        }
+
+        public LocalDateTime getDeadline() {
+            return deadline;
+        }
+
+        private Registration onCancel(CancelAction action) {
+            actions.add(action);
+            // Cancelled while the step was starting up - it never saw the cancel, so stop it now
+            if (isCancelled()) {
+                run(action);
+            }
+            return () -> actions.remove(action);
+        }
+
+        private void cancel(Reason cancelReason) {
+            synchronized (this) {
+                if (reason != null || finished) {
+                    return;
+                }
+                reason = cancelReason;
+                // Only while the worker still runs this report, never a later job on the same thread
+                worker.interrupt();
+            }
+            if (cancelReason == Reason.DEADLINE) {
+                logger.warn("Report {} passed its deadline of {}, stopping generation", reportId, deadline);
+            } else {
+                logger.info("Cancelling report {}", reportId);
+            }
+            for (CancelAction action : List.copyOf(actions)) {
+                run(action);
+            }
+        }
+
+        private synchronized void finish() {
+            finished = true;
+            if (deadlineTask != null) {
+                deadlineTask.cancel(false);
+            }
+        }
+
+        private void run(CancelAction action) {
+            try {
+                action.cancel();
+            } catch (Exception e) {
+                logger.debug("Cancel action of report {} failed: {}", reportId, e.getMessage());
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.certreport.service;
 
+import com.certreport.config.ReportFileStoreProperties;
 import com.certreport.model.Report;
+import com.certreport.model.ReportJob;
+import com.certreport.repository.ReportJobRepository;
 import com.certreport.repository.ReportRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,9 +12,14 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service for cleaning up stuck reports and managing report lifecycle
@@ -25,9 +33,25 @@ public class ReportCleanupService {
     private static final int STUCK_REPORT_TIMEOUT_MINUTES = 30; // 30 minutes
     private static final int MAX_REPORT_AGE_DAYS = 7; // 7 days
     private static final int MAX_REPORTS_TO_KEEP = 1000; // Maximum number of reports to keep
+    private static final int ORPHAN_GRACE_MINUTES = 10; // Age before an unreferenced file counts as orphaned
 
     @Autowired
     private ReportRepository reportRepository;
+    
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+    
+    @Autowired
+    private ReportFragmentCache reportFragmentCache;
+    
+    @Autowired
+    private ReportPrintStore reportPrintStore;
+    
+    @Autowired
+    private ReportFileStore reportFileStore;
+    
+    @Autowired
+    private ReportFileStoreProperties reportFileStoreProperties;
 
     /**
      * Scheduled cleanup task that runs every 30 minutes
@@ -39,6 +63,9 @@ public class ReportCleanupService {
         cleanupStuckReports();
         cleanupOldReports();
         cleanupOrphanedFiles();
+        cleanupOverQuota();
+        cleanupUnusedFragments();
+        cleanupExpiredPrints();
         
         logger.info("Scheduled report cleanup completed");
     }
@@ -53,8 +80,19 @@ public class ReportCleanupService {
             cutoffTime
         );
         
+        // Reports still waiting in the job queue are not stuck, only behind other work
+        Set<String> stillQueued = stuckReports.isEmpty() ? Set.of() : reportJobRepository.findByReportIdInAndStatusIn(
+                stuckReports.stream().map(Report::getId).collect(Collectors.toList()),
+                List.of(ReportJob.JobStatus.QUEUED)).stream()
+            .map(ReportJob::getReportId)
+            .collect(Collectors.toSet());
+        
         int cleanedCount = 0;
         for (Report report : stuckReports) {
+            if (stillQueued.contains(report.getId())) {
+                continue;
+            }
+            
             logger.warn("Cleaning up stuck report: {} (Status: {}, Started: {})", 
                        report.getId(), report.getStatus(), report.getStartedAt());
             
@@ -66,6 +104,13 @@ public class ReportCleanupService {
             cleanedCount++;
         }
         
+        // Jobs whose worker died (e.g. the instance was restarted mid-report) never finish on their own
+        for (ReportJob job : reportJobRepository.findByStatusAndStartedAtBefore(ReportJob.JobStatus.RUNNING, cutoffTime)) {
+            job.setStatus(ReportJob.JobStatus.FAILED);
+            job.setCompletedAt(LocalDateTime.now());
+            reportJobRepository.save(job);
+        }
+        
         if (cleanedCount > 0) {
             logger.info("Cleaned up {} stuck reports", cleanedCount);
         }
@@ -144,16 +189,32 @@ public class ReportCleanupService {
      */
     public int cleanupOrphanedFiles() {
         // Get all report file paths from database
-        List<String> dbFilePaths = reportRepository.findAllFilePaths();
+        Set<String> dbFilePaths = new HashSet<>(reportRepository.findAllFilePaths());
         
-        // Get all PDF files in the temp directory
-        String tempDir = System.getProperty("java.io.tmpdir");
-        File tempDirFile = new File(tempDir);
+        // Files written in the last few minutes may belong to a report that is about to record them
+        Instant storedBefore = Instant.now().minus(ORPHAN_GRACE_MINUTES, ChronoUnit.MINUTES);
+        int deletedCount = 0;
+        for (ReportFileStore.StoredFile file : reportFileStore.findOrphans(dbFilePaths, storedBefore)) {
+            if (reportFileStore.delete(file.path())) {
+                logger.info("Deleted orphaned file: {}", file.path());
+                deletedCount++;
+            }
+        }
+        deletedCount += cleanupLegacyOrphanedFiles(dbFilePaths, storedBefore);
         
-        if (!tempDirFile.exists() || !tempDirFile.isDirectory()) {
-            return 0;
+        if (deletedCount > 0) {
+            logger.info("Deleted {} orphaned files", deletedCount);
         }
         
+        return deletedCount;
+    }
+
+    /**
+     * Delete unreferenced PDFs that were written straight into the temp directory before the
+     * report file store existed
+     */
+    private int cleanupLegacyOrphanedFiles(Set<String> dbFilePaths, Instant storedBefore) {
+        File tempDirFile = new File(System.getProperty("java.io.tmpdir"));
         File[] pdfFiles = tempDirFile.listFiles((dir, name) -> 
             name.startsWith("CertificationReport_") && name.endsWith(".pdf"));
         
@@ -164,9 +225,7 @@ public class ReportCleanupService {
         int deletedCount = 0;
         for (File file : pdfFiles) {
             String filePath = file.getAbsolutePath();
-            
-            // If file is not referenced in database, delete it
-            if (!dbFilePaths.contains(filePath)) {
+            if (!dbFilePaths.contains(filePath) && file.lastModified() < storedBefore.toEpochMilli()) {
                 if (file.delete()) {
                     logger.info("Deleted orphaned file: {}", filePath);
                     deletedCount++;
@@ -175,27 +234,68 @@ public class ReportCleanupService {
                 }
             }
         }
+        return deletedCount;
+    }
+
+    /**
+     * Delete the oldest reports until their files fit the report file store quota again
+     */
+    public int cleanupOverQuota() {
+        List<ReportFileStore.StoredFile> excessFiles = reportFileStore.findOverQuota();
+        if (excessFiles.isEmpty()) {
+            return 0;
+        }
         
-        if (deletedCount > 0) {
-            logger.info("Deleted {} orphaned files", deletedCount);
+        Set<String> excessPaths = excessFiles.stream()
+            .map(ReportFileStore.StoredFile::path)
+            .collect(Collectors.toSet());
+        int deletedCount = 0;
+        for (Report report : reportRepository.findByFilePathIn(excessPaths)) {
+            deleteReportFile(report);
+            reportRepository.delete(report);
+            excessPaths.remove(report.getFilePath());
+            deletedCount++;
+        }
+        // Files no report refers to any more
+        for (String path : excessPaths) {
+            reportFileStore.delete(path);
         }
         
+        logger.info("Deleted {} reports and {} unreferenced files to bring report files under the {} MB quota ({} MB stored)",
+                   deletedCount, excessPaths.size(), reportFileStoreProperties.getQuotaMb(),
+                   reportFileStore.getTotalBytes() / (1024 * 1024));
         return deletedCount;
     }
 
+    /**
+     * Remove cached employee page fragments that no recent report has used
+     */
+    public int cleanupUnusedFragments() {
+        int evictedCount = reportFragmentCache.evictUnused();
+        if (evictedCount > 0) {
+            logger.info("Evicted {} unused report fragments", evictedCount);
+        }
+        return evictedCount;
+    }
+
+    /**
+     * Remove stored filled reports, and the formats exported from them, past their retention window
+     */
+    public int cleanupExpiredPrints() {
+        int evictedCount = reportPrintStore.evictExpired();
+        if (evictedCount > 0) {
+            logger.info("Evicted {} expired filled reports and exports", evictedCount);
+        }
+        return evictedCount;
+    }
+
     /**
      * Delete the physical file associated with a report
      */
     private void deleteReportFile(Report report) {
-        if (report.getFilePath() != null) {
-            File file = new File(report.getFilePath());
-            if (file.exists()) {
-                if (file.delete()) {
-                    logger.debug("Deleted report file: {}", report.getFilePath());
-                } else {
-                    logger.warn("Failed to delete report file: {}", report.getFilePath());
-                }
-            }
+        reportPrintStore.delete(report.getId());
+        if (report.getFilePath() != null && reportFileStore.delete(report.getFilePath())) {
+            logger.debug("Deleted report file: {}", report.getFilePath());
         }
     }
 
@@ -0,0 +1,231 @@
+package com.certreport.service;
+
+import com.certreport.config.ReportFileStoreProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Directory tree for generated report files, with an in-memory index of what it holds
+ *
+ * Files are spread over hash-named subdirectories of a dedicated root, so no single directory
+ * grows to tens of thousands of entries. They are written to a temporary name next to their final
+ * one and renamed into place when complete, so a crash or a failed report never leaves a
+ * truncated file under a real name. The index keeps every stored file with its size in the order
+ * it was stored, which lets orphan detection and quota enforcement walk it once instead of
+ * listing directories.
+ */
+@Component
+public class ReportFileStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportFileStore.class);
+
+    private static final String TEMP_SUFFIX = ".part";
+    private static final Duration ABANDONED_TEMP_FILE_AGE = Duration.ofHours(1);
+
+    /**
+     * A file in the store
+     */
+    public record StoredFile(String path, long size, Instant storedAt) {}
+
+    private final ReportFileStoreProperties properties;
+    private final Path root;
+
+    // Oldest first; guarded by this
+    private final Map<String, StoredFile> index = new LinkedHashMap<>();
+    private long totalBytes;
+
+    public ReportFileStore(ReportFileStoreProperties properties) {
+        this.properties = properties;
+        this.root = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Index the files already in the store and remove files left half-written by a previous run
+     */
+    @PostConstruct
+    public void loadIndex() throws IOException {
+        Files.createDirectories(root);
+        // Another instance sharing the root may still be writing its recent temporary files
+        Instant abandonedBefore = Instant.now().minus(ABANDONED_TEMP_FILE_AGE);
+        List<StoredFile> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(root, Math.max(0, properties.getShardLevels()) + 1)) {
+            for (Path path : paths.toList()) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                Instant modifiedAt = attributes.lastModifiedTime().toInstant();
+                if (path.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    if (modifiedAt.isBefore(abandonedBefore)) {
+                        Files.deleteIfExists(path);
+                    }
+                    continue;
+                }
+                files.add(new StoredFile(path.toString(), attributes.size(), modifiedAt));
+            }
+        }
+        files.sort(Comparator.comparing(StoredFile::storedAt));
+        synchronized (this) {
+            for (StoredFile file : files) {
+                add(file);
+            }
+        }
+        logger.info("Report file store {}: {} files, {} MB", root, files.size(), getTotalBytes() / (1024 * 1024));
+    }
+
+    /**
+     * Path to write a report file to before it is {@link #commit committed}
+     */
+    public Path newTempFile(String reportId, String fileName) throws IOException {
+        Path directory = shardDirectory(reportId);
+        Files.createDirectories(directory);
+        return directory.resolve(fileName + TEMP_SUFFIX);
+    }
+
+    /**
+     * Move a completely written temporary file to its final name and index it
+     *
+     * @return path of the stored file
+     */
+    public String commit(Path tempFile) throws IOException {
+        String tempName = tempFile.getFileName().toString();
+        Path target = tempFile.resolveSibling(tempName.substring(0, tempName.length() - TEMP_SUFFIX.length()));
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        StoredFile file = new StoredFile(target.toString(), Files.size(target), Instant.now());
+        synchronized (this) {
+            remove(file.path());
+            add(file);
+        }
+        return file.path();
+    }
+
+    /**
+     * Delete a temporary file of a report that failed or was cancelled
+     */
+    public void discard(Path tempFile) {
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            logger.warn("Failed to delete partial report file {}: {}", tempFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete a report file, whether or not it is in the store
+     *
+     * @return whether the file existed and was deleted
+     */
+    public boolean delete(String filePath) {
+        synchronized (this) {
+            remove(filePath);
+        }
+        try {
+            return Files.deleteIfExists(Paths.get(filePath));
+        } catch (IOException e) {
+            logger.warn("Failed to delete report file {}: {}", filePath, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Stored files that no report refers to, in one pass over the index
+     *
+     * @param referencedPaths file paths of all reports
+     * @param storedBefore files stored after this are skipped, as their report may not be saved yet
+     */
+    public synchronized List<StoredFile> findOrphans(Set<String> referencedPaths, Instant storedBefore) {
+        List<StoredFile> orphans = new ArrayList<>();
+        for (StoredFile file : index.values()) {
+            if (file.storedAt().isBefore(storedBefore) && !referencedPaths.contains(file.path())) {
+                orphans.add(file);
+            }
+        }
+        return orphans;
+    }
+
+    /**
+     * The oldest stored files that have to go to bring the store back under its quota
+     */
+    public synchronized List<StoredFile> findOverQuota() {
+        long quotaBytes = properties.getQuotaMb() * 1024 * 1024;
+        List<StoredFile> excess = new ArrayList<>();
+        if (quotaBytes <= 0) {
+            return excess;
+        }
+        long remainingBytes = totalBytes;
+        for (StoredFile file : index.values()) {
+            if (remainingBytes <= quotaBytes) {
+                break;
+            }
+            excess.add(file);
+            remainingBytes -= file.size();
+        }
+        return excess;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int getFileCount() {
+        return index.size();
+    }
+
+    private void add(StoredFile file) {
+        index.put(file.path(), file);
+        totalBytes += file.size();
+    }
+
+    private void remove(String filePath) {
+        StoredFile removed = index.remove(filePath);
+        if (removed != null) {
+            totalBytes -= removed.size();
+        }
+    }
+
+    /**
+     * Subdirectory named after the leading bytes of a hash of the report id, so reports spread
+     * evenly whatever their ids look like
+     */
+    private Path shardDirectory(String reportId) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(reportId.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        Path directory = root;
+        for (int level = 0; level < properties.getShardLevels(); level++) {
+            directory = directory.resolve(HexFormat.of().toHexDigits(hash[level]));
+        }
+        return directory;
+    }
+}
@@ -0,0 +1,256 @@
+package com.certreport.service;
+
+import com.certreport.config.ReportCacheProperties;
+import com.certreport.repository.CertificationDefinitionRepository;
+import com.certreport.repository.CertificationRepository;
+import com.certreport.repository.EmployeeRepository;
+import com.certreport.repository.StageDefinitionRepository;
+import com.certreport.repository.StageRepository;
+import com.certreport.repository.TaskRepository;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+/**
+ * Disk cache of the rendered pages of each employee group in the certifications report
+ *
+ * Every employee group starts on a new page, so an employee's pages depend only on the
+ * template and that employee's data. Fragments are keyed by a digest of the template checksum,
+ * the employee ID and the row counts / latest updatedAt of the employee and their
+ * certifications, stages and tasks; a changed employee simply gets a new key. The certification
+ * and stage definition tables, whose names and descriptions every employee's pages print, are
+ * stamped as a whole, so editing a definition gives every employee a new key.
+ *
+ * Fragments of changed employees are written in the background once their report's PDF is
+ * committed; loading a fragment that is still being written waits for it.
+ */
+@Component
+public class ReportFragmentCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReportFragmentCache.class);
+    
+    private static final String FRAGMENT_SUFFIX = ".jrpages";
+    
+    private final EmployeeRepository employeeRepository;
+    private final CertificationRepository certificationRepository;
+    private final StageRepository stageRepository;
+    private final TaskRepository taskRepository;
+    private final CertificationDefinitionRepository certificationDefinitionRepository;
+    private final StageDefinitionRepository stageDefinitionRepository;
+    private final ReportTemplateRegistry reportTemplateRegistry;
+    private final ReportCacheProperties cacheProperties;
+    private final EmployeeIdBinder employeeIdBinder;
+    private final Executor reportFillExecutor;
+    private final ActuatorPerformanceMonitor actuatorPerformanceMonitor;
+    private final Map<String, CompletableFuture<Void>> pendingStores = new ConcurrentHashMap<>();
+    
+    public ReportFragmentCache(EmployeeRepository employeeRepository,
+                               CertificationRepository certificationRepository,
+                               StageRepository stageRepository,
+                               TaskRepository taskRepository,
+                               CertificationDefinitionRepository certificationDefinitionRepository,
+                               StageDefinitionRepository stageDefinitionRepository,
+                               ReportTemplateRegistry reportTemplateRegistry,
+                               ReportCacheProperties cacheProperties,
+                               EmployeeIdBinder employeeIdBinder,
+                               @Qualifier("reportFillExecutor") Executor reportFillExecutor,
+                               ActuatorPerformanceMonitor actuatorPerformanceMonitor) {
+        this.employeeRepository = employeeRepository;
+        this.certificationRepository = certificationRepository;
+        this.stageRepository = stageRepository;
+        this.taskRepository = taskRepository;
+        this.certificationDefinitionRepository = certificationDefinitionRepository;
+        this.stageDefinitionRepository = stageDefinitionRepository;
+        this.reportTemplateRegistry = reportTemplateRegistry;
+        this.cacheProperties = cacheProperties;
+        this.employeeIdBinder = employeeIdBinder;
+        this.reportFillExecutor = reportFillExecutor;
+        this.actuatorPerformanceMonitor = actuatorPerformanceMonitor;
+    }
+    
+    public boolean isEnabled() {
+        return cacheProperties.isFragmentsEnabled();
+    }
+    
+    /**
+     * Fragment keys for the given employees, in the same order
+     */
+    public Map<String, String> computeFragmentKeys(List<String> employeeIds) throws JRException {
+        String templateVersion = reportTemplateRegistry.getTemplateVersion(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
+        String definitionsVersion = stamp(certificationDefinitionRepository.findUpdateStamp())
+                + "|" + stamp(stageDefinitionRepository.findUpdateStamp());
+        
+        List<Map<String, String>> stampsByTable = List.of(
+                stampsByEmployee(employeeIdBinder.query(employeeIds, employeeRepository::findUpdateStampsGroupedByEmployee,
+                        employeeRepository::findUpdateStampsGroupedByEmployeeIdArray)),
+                stampsByEmployee(employeeIdBinder.query(employeeIds, certificationRepository::findUpdateStampsGroupedByEmployee,
+                        certificationRepository::findUpdateStampsGroupedByEmployeeIdArray)),
+                stampsByEmployee(employeeIdBinder.query(employeeIds, stageRepository::findUpdateStampsGroupedByEmployee,
+                        stageRepository::findUpdateStampsGroupedByEmployeeIdArray)),
+                stampsByEmployee(employeeIdBinder.query(employeeIds, taskRepository::findUpdateStampsGroupedByEmployee,
+                        taskRepository::findUpdateStampsGroupedByEmployeeIdArray)));
+        
+        Map<String, String> keys = new LinkedHashMap<>();
+        for (String employeeId : employeeIds) {
+            MessageDigest digest = sha256();
+            digest.update(templateVersion.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(definitionsVersion.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(employeeId.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            for (Map<String, String> stamps : stampsByTable) {
+                digest.update((byte) 0);
+                digest.update(stamps.getOrDefault(employeeId, "none").getBytes(StandardCharsets.UTF_8));
+            }
+            keys.put(employeeId, HexFormat.of().formatHex(digest.digest()));
+        }
+        return keys;
+    }
+    
+    /**
+     * Load the cached pages of a fragment; a missing or unreadable fragment is a miss
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<List<JRPrintPage>> load(String fragmentKey) {
+        CompletableFuture<Void> pending = pendingStores.get(fragmentKey);
+        if (pending != null) {
+            // store() logs its own failures
+            pending.exceptionally(e -> null).join();
+        }
+        Path path = fragmentPath(fragmentKey);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (ObjectInputStream in = SerializedReportFiles.objectInput(new BufferedInputStream(Files.newInputStream(path)))) {
+            List<JRPrintPage> pages = (List<JRPrintPage>) in.readObject();
+            // Touch the fragment so eviction only removes fragments no report uses anymore
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            return Optional.of(pages);
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            logger.warn("Discarding unreadable report fragment {}: {}", path.getFileName(), e.getMessage());
+            deleteQuietly(path);
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Store the pages of several fragments, by fragment key, on the fill pool, so serializing them
+     * holds up neither the report worker nor a render permit
+     */
+    public void storeInBackground(Map<String, List<JRPrintPage>> fragments) {
+        if (fragments.isEmpty()) {
+            return;
+        }
+        CompletableFuture<Void> pending = CompletableFuture.runAsync(() -> {
+            long startNanos = System.nanoTime();
+            fragments.forEach(this::store);
+            actuatorPerformanceMonitor.recordFragmentStore(fragments.size(), System.nanoTime() - startNanos);
+        }, reportFillExecutor);
+        fragments.keySet().forEach(fragmentKey -> pendingStores.put(fragmentKey, pending));
+        pending.whenComplete((ignored, e) -> fragments.keySet().forEach(fragmentKey -> pendingStores.remove(fragmentKey, pending)));
+    }
+    
+    /**
+     * Store the pages of a fragment; failures only cost a re-fill next time
+     */
+    public void store(String fragmentKey, List<JRPrintPage> pages) {
+        Path path = fragmentPath(fragmentKey);
+        try {
+            SerializedReportFiles.createPrivateDirectories(path.getParent());
+            Path tempFile = Files.createTempFile(path.getParent(), fragmentKey, ".tmp");
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeObject(new ArrayList<>(pages));
+            }
+            Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to store report fragment {}: {}", fragmentKey, e.getMessage());
+        }
+    }
+    
+    /**
+     * Delete fragments that have not been used within the configured age
+     */
+    public int evictUnused() {
+        Path directory = Paths.get(cacheProperties.getFragmentDirectory());
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        
+        Instant cutoff = Instant.now().minus(cacheProperties.getFragmentMaxAgeHours(), ChronoUnit.HOURS);
+        int evicted = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                if (Files.getLastModifiedTime(path).toInstant().isBefore(cutoff) && deleteQuietly(path)) {
+                    evicted++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to evict report fragments: {}", e.getMessage());
+        }
+        return evicted;
+    }
+    
+    private static String stamp(List<Object[]> rows) {
+        Object[] row = rows.get(0);
+        return row[0] + "@" + row[1];
+    }
+    
+    private static Map<String, String> stampsByEmployee(List<Object[]> rows) {
+        Map<String, String> stamps = new HashMap<>();
+        for (Object[] row : rows) {
+            stamps.put((String) row[0], row[1] + "@" + row[2]);
+        }
+        return stamps;
+    }
+    
+    private Path fragmentPath(String fragmentKey) {
+        return Paths.get(cacheProperties.getFragmentDirectory(), fragmentKey + FRAGMENT_SUFFIX);
+    }
+    
+    private static boolean deleteQuietly(Path path) {
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.certreport.service;
+
+import com.certreport.config.ReportJobProperties;
+import com.certreport.model.ReportJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves queued report jobs onto the report worker pool
+ *
+ * Dispatch runs right after a job is committed and on a fixed poll, which also picks up jobs
+ * submitted through other instances. At most report.jobs.worker-threads jobs run at once
+ * (report.jobs.virtual-max-concurrent-jobs on virtual threads); the rest wait in the queue
+ * table rather than in an in-memory executor queue.
+ */
+@Service
+public class ReportJobDispatcher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobDispatcher.class);
+    
+    private final ReportJobService reportJobService;
+    private final ReportService reportService;
+    private final ReportCancellationRegistry reportCancellationRegistry;
+    private final ActuatorPerformanceMonitor actuatorPerformanceMonitor;
+    private final Executor reportTaskExecutor;
+    private final int maxRunningJobs;
+    private final String threads;
+    
+    private final AtomicInteger runningJobs = new AtomicInteger();
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+    
+    public ReportJobDispatcher(ReportJobService reportJobService,
+                               ReportService reportService,
+                               ReportCancellationRegistry reportCancellationRegistry,
+                               ActuatorPerformanceMonitor actuatorPerformanceMonitor,
+                               ReportJobProperties jobProperties,
+                               @Qualifier("reportTaskExecutor") Executor reportTaskExecutor,
+                               Environment environment) {
+        this.reportJobService = reportJobService;
+        this.reportService = reportService;
+        this.reportCancellationRegistry = reportCancellationRegistry;
+        this.actuatorPerformanceMonitor = actuatorPerformanceMonitor;
+        this.reportTaskExecutor = reportTaskExecutor;
+        
+        boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+        this.maxRunningJobs = virtualThreads ? jobProperties.getVirtualMaxConcurrentJobs() : jobProperties.getWorkerThreads();
+        this.threads = virtualThreads ? "virtual" : "platform";
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobSubmitted(ReportJobService.JobSubmittedEvent event) {
+        dispatch();
+    }
+    
+    @Scheduled(fixedDelayString = "${report.jobs.poll-interval-ms:1000}")
+    public void pollQueue() {
+        cancelJobsCancelledElsewhere();
+        dispatch();
+    }
+    
+    /**
+     * Stop reports generating here whose job was cancelled through another instance
+     */
+    public void cancelJobsCancelledElsewhere() {
+        Set<String> runningReportIds = reportCancellationRegistry.getRunningReportIds();
+        if (runningReportIds.isEmpty()) {
+            return;
+        }
+        try {
+            reportJobService.findCancelledReportIds(runningReportIds).forEach(reportCancellationRegistry::cancel);
+        } catch (Exception e) {
+            logger.error("Error checking report jobs for cancellation: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Claim queued jobs while workers are free
+     */
+    public void dispatch() {
+        // Another thread is already dispatching and will pick up anything claimable
+        if (!dispatchLock.tryLock()) {
+            return;
+        }
+        try {
+            while (runningJobs.get() < maxRunningJobs) {
+                Optional<ReportJob> claimed = reportJobService.claimNext();
+                if (claimed.isEmpty()) {
+                    return;
+                }
+                
+                ReportJob job = claimed.get();
+                runningJobs.incrementAndGet();
+                try {
+                    reportTaskExecutor.execute(() -> run(job));
+                } catch (RejectedExecutionException e) {
+                    runningJobs.decrementAndGet();
+                    reportJobService.requeue(job.getId());
+                    logger.warn("Report worker pool rejected job {}, returned it to the queue", job.getId());
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error dispatching report jobs: {}", e.getMessage(), e);
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+    
+    public int getRunningJobCount() {
+        return runningJobs.get();
+    }
+    
+    private void run(ReportJob job) {
+        actuatorPerformanceMonitor.recordJobQueueWait(Duration.between(job.getSubmittedAt(), job.getStartedAt()));
+        logger.info("Running report job {} for report {} (priority {})", job.getId(), job.getReportId(), job.getPriority());
+        
+        long startNanos = System.nanoTime();
+        ReportJob.JobStatus status = ReportJob.JobStatus.FAILED;
+        try {
+            status = switch (reportService.executeReport(job.getReportId(), job.getDeadline())) {
+                case COMPLETED -> ReportJob.JobStatus.COMPLETED;
+                case CANCELLED -> ReportJob.JobStatus.CANCELLED;
+                default -> ReportJob.JobStatus.FAILED;
+            };
+        } catch (Exception e) {
+            logger.error("Report job {} failed: {}", job.getId(), e.getMessage(), e);
+        } finally {
+            long durationNanos = System.nanoTime() - startNanos;
+            // A report that failed once its deadline had passed was stopped by it
+            boolean deadlineExceeded = job.getDeadline() != null && !LocalDateTime.now().isBefore(job.getDeadline());
+            try {
+                status = reportJobService.markFinished(job.getId(), status);
+            } catch (Exception e) {
+                logger.error("Failed to record completion of report job {}: {}", job.getId(), e.getMessage(), e);
+            }
+            actuatorPerformanceMonitor.recordJobRun(durationNanos, status, deadlineExceeded, threads);
+            runningJobs.decrementAndGet();
+        }
+        
+        // A worker just became free
+        dispatch();
+    }
+}
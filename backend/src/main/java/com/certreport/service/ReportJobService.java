@@ -0,0 +1,156 @@
+package com.certreport.service;
+
+import com.certreport.config.ReportJobProperties;
+import com.certreport.model.ReportJob;
+import com.certreport.repository.ReportJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent queue of report generation jobs
+ *
+ * Jobs live in the report_jobs table next to reports, so queued work survives restarts and can
+ * be claimed by any instance. Claiming uses SELECT ... FOR UPDATE SKIP LOCKED, so concurrent
+ * dispatchers never pick the same job.
+ */
+@Service
+@Transactional
+public class ReportJobService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+    
+    private final ReportJobRepository reportJobRepository;
+    private final ReportJobProperties jobProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public ReportJobService(ReportJobRepository reportJobRepository,
+                            ReportJobProperties jobProperties,
+                            ApplicationEventPublisher eventPublisher) {
+        this.reportJobRepository = reportJobRepository;
+        this.jobProperties = jobProperties;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    /**
+     * Queue generation of a report. Dispatch is triggered once the job is committed.
+     * 
+     * @param employeeCount number of employees in the report, which the job's time limit scales with
+     */
+    public ReportJob enqueue(String reportId, Integer priority, long employeeCount) {
+        ReportJob job = new ReportJob(reportId, priority != null ? priority : jobProperties.getDefaultPriority());
+        job.setTimeLimitSeconds(timeLimitSeconds(employeeCount));
+        job = reportJobRepository.save(job);
+        logger.info("Queued report job {} for report {} with priority {} and a {} s time limit",
+                   job.getId(), reportId, job.getPriority(), job.getTimeLimitSeconds());
+        
+        eventPublisher.publishEvent(new JobSubmittedEvent(job.getId()));
+        return job;
+    }
+    
+    /**
+     * Claim the next queued job by priority and submit time, marking it RUNNING.
+     * Always commits on its own, since dispatch runs after the submitting transaction completed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<ReportJob> claimNext() {
+        List<ReportJob> next = reportJobRepository.findNextQueuedForUpdate(PageRequest.of(0, 1));
+        if (next.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        ReportJob job = next.get(0);
+        job.setStatus(ReportJob.JobStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        if (job.getTimeLimitSeconds() != null) {
+            job.setDeadline(job.getStartedAt().plusSeconds(job.getTimeLimitSeconds()));
+        }
+        return Optional.of(reportJobRepository.save(job));
+    }
+    
+    /**
+     * Record how a job's worker ended: COMPLETED, FAILED or CANCELLED
+     *
+     * @return the job's final status, which stays CANCELLED for a job cancelled while it ran
+     */
+    public ReportJob.JobStatus markFinished(String jobId, ReportJob.JobStatus status) {
+        return reportJobRepository.findById(jobId).map(job -> {
+            // A cancelled job stays cancelled, however its worker ended
+            if (job.getStatus() != ReportJob.JobStatus.CANCELLED) {
+                job.setStatus(status);
+            }
+            job.setCompletedAt(LocalDateTime.now());
+            return reportJobRepository.save(job).getStatus();
+        }).orElse(status);
+    }
+    
+    /**
+     * Put a claimed job back at its original queue position, e.g. when no worker could take it
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void requeue(String jobId) {
+        reportJobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(ReportJob.JobStatus.QUEUED);
+            job.setStartedAt(null);
+            job.setDeadline(null);
+            reportJobRepository.save(job);
+        });
+    }
+    
+    /**
+     * Cancel the queued or running job of a report. A queued job will no longer be claimed.
+     *
+     * @return whether the report had a queued or running job
+     */
+    public boolean cancel(String reportId) {
+        List<ReportJob> jobs = reportJobRepository.findByReportIdInAndStatusIn(
+                List.of(reportId), List.of(ReportJob.JobStatus.QUEUED, ReportJob.JobStatus.RUNNING));
+        for (ReportJob job : jobs) {
+            job.setStatus(ReportJob.JobStatus.CANCELLED);
+            job.setCompletedAt(LocalDateTime.now());
+            reportJobRepository.save(job);
+            logger.info("Cancelled report job {} for report {}", job.getId(), reportId);
+        }
+        return !jobs.isEmpty();
+    }
+    
+    /**
+     * Reports among the given ones whose job has been cancelled
+     */
+    @Transactional(readOnly = true)
+    public Set<String> findCancelledReportIds(Collection<String> reportIds) {
+        return reportJobRepository.findByReportIdInAndStatusIn(List.copyOf(reportIds), List.of(ReportJob.JobStatus.CANCELLED))
+            .stream()
+            .map(ReportJob::getReportId)
+            .collect(Collectors.toSet());
+    }
+    
+    @Transactional(readOnly = true)
+    public long getQueuedJobCount() {
+        return reportJobRepository.countByStatus(ReportJob.JobStatus.QUEUED);
+    }
+    
+    /**
+     * Run time allowed for generating a report over the given number of employees
+     */
+    public int timeLimitSeconds(long employeeCount) {
+        long seconds = jobProperties.getDeadlineBaseSeconds() + employeeCount * jobProperties.getDeadlineMsPerEmployee() / 1000;
+        return (int) Math.min(seconds, jobProperties.getDeadlineMaxSeconds());
+    }
+    
+    /**
+     * Published when a job has been added to the queue
+     */
+    public record JobSubmittedEvent(String jobId) {}
+}
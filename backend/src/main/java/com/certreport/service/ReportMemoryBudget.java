@@ -0,0 +1,231 @@
+package com.certreport.service;
+
+import com.certreport.config.ReportMemoryBudgetProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for report generation against a global heap budget
+ *
+ * Each report reserves its estimated heap before loading and filling. Reports that don't fit
+ * wait until running reports release their reservations, and callers can give up after a
+ * bounded wait and retry with the smaller memory-efficient estimate. A single reservation
+ * larger than the whole budget is capped at the budget, so it runs once it is alone.
+ * Reservations shrink as report phases finish, so the loaded rows and filled pages are
+ * not held against the budget after the fill or export no longer needs them.
+ */
+@Component
+public class ReportMemoryBudget {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReportMemoryBudget.class);
+    
+    private final ReportMemoryBudgetProperties properties;
+    private final ActuatorPerformanceMonitor actuatorPerformanceMonitor;
+    private final long budgetBytes;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final AtomicInteger waitingReports = new AtomicInteger();
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private long reservedBytes;
+    
+    public ReportMemoryBudget(ReportMemoryBudgetProperties properties, ActuatorPerformanceMonitor actuatorPerformanceMonitor) {
+        this.properties = properties;
+        this.actuatorPerformanceMonitor = actuatorPerformanceMonitor;
+        this.budgetBytes = properties.getHeapBudgetMb() > 0
+                ? properties.getHeapBudgetMb() * 1024 * 1024
+                : (long) (Runtime.getRuntime().maxMemory() * 0.7);
+        actuatorPerformanceMonitor.registerMemoryBudgetGauges(this);
+    }
+    
+    /**
+     * Estimated heap for filling the whole report in memory
+     */
+    public long estimateFullFill(int employeeCount) {
+        return employeeCount * properties.getFullFillKbPerEmployee() * 1024L;
+    }
+    
+    /**
+     * Share of the full-fill estimate taken by the loaded rows, which the fill has consumed once it is done
+     */
+    public long estimateLoadedData(int employeeCount) {
+        return Math.min(employeeCount * properties.getLoadedDataKbPerEmployee() * 1024L, estimateFullFill(employeeCount));
+    }
+    
+    /**
+     * Estimated heap for the filled pages of an in-memory report, which the export still needs
+     */
+    public long estimateFilledPages(int employeeCount) {
+        return estimateFullFill(employeeCount) - estimateLoadedData(employeeCount);
+    }
+    
+    /**
+     * Estimated heap for the streaming / virtualized path, which keeps only a window of pages in memory
+     */
+    public long estimateMemoryEfficient(int employeeCount) {
+        return employeeCount * properties.getMemoryEfficientKbPerEmployee() * 1024L;
+    }
+    
+    /**
+     * Reserve heap for a report, waiting up to maxWaitMs for running reports to release theirs
+     *
+     * @return the reservation, or null when it did not fit within the wait
+     */
+    public Reservation tryReserve(String reportId, long bytes, long maxWaitMs) throws InterruptedException {
+        return reserve(reportId, bytes, TimeUnit.MILLISECONDS.toNanos(maxWaitMs));
+    }
+    
+    /**
+     * Reserve heap for a report, waiting as long as it takes
+     */
+    public Reservation reserve(String reportId, long bytes) throws InterruptedException {
+        return reserve(reportId, bytes, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Shrink a report's reservation to at most the given bytes once a finished phase no longer
+     * needs the rest. Reports without an open reservation are ignored.
+     */
+    public void shrink(String reportId, long bytes) {
+        Reservation reservation = reservations.get(reportId);
+        if (reservation != null) {
+            reservation.shrinkTo(bytes);
+        }
+    }
+    
+    public long getMaxWaitMs() {
+        return properties.getMaxWaitMs();
+    }
+    
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+    
+    public long getReservedBytes() {
+        lock.lock();
+        try {
+            return reservedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getWaitingReports() {
+        return waitingReports.get();
+    }
+    
+    private Reservation reserve(String reportId, long bytes, long maxWaitNanos) throws InterruptedException {
+        if (!properties.isEnabled()) {
+            return new Reservation(reportId, 0);
+        }
+        
+        long needed = Math.min(bytes, budgetBytes);
+        long waitStart = System.nanoTime();
+        lock.lock();
+        try {
+            if (reservedBytes + needed > budgetBytes) {
+                logger.info("Report {} waiting for {} MB of heap budget ({} of {} MB reserved)",
+                           reportId, needed / (1024 * 1024), reservedBytes / (1024 * 1024), budgetBytes / (1024 * 1024));
+                waitingReports.incrementAndGet();
+                try {
+                    long remainingNanos = maxWaitNanos;
+                    while (reservedBytes + needed > budgetBytes) {
+                        if (remainingNanos <= 0) {
+                            actuatorPerformanceMonitor.recordMemoryBudgetWait(System.nanoTime() - waitStart, false);
+                            return null;
+                        }
+                        remainingNanos = released.awaitNanos(remainingNanos);
+                    }
+                } finally {
+                    waitingReports.decrementAndGet();
+                }
+            }
+            reservedBytes += needed;
+        } finally {
+            lock.unlock();
+        }
+        
+        actuatorPerformanceMonitor.recordMemoryBudgetWait(System.nanoTime() - waitStart, true);
+        Reservation reservation = new Reservation(reportId, needed);
+        reservations.put(reportId, reservation);
+        return reservation;
+    }
+    
+    /**
+     * Heap reserved by one report; shrinking it returns part of the heap to the budget and
+     * closing it returns the rest
+     */
+    public final class Reservation implements AutoCloseable {
+        
+        private final String reportId;
+        private long bytes;
+        private boolean closed;
+        
+        private Reservation(String reportId, long bytes) {
+            this.reportId = reportId;
+            this.bytes = bytes;
+        }
+        
+        public long getBytes() {
+            lock.lock();
+            try {
+                return bytes;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        /**
+         * Return everything above the given bytes to the budget; a reservation never grows back
+         */
+        public void shrinkTo(long bytes) {
+            long freed = release(Math.max(bytes, 0));
+            if (freed > 0) {
+                logger.debug("Report {} released {} MB of heap budget, keeping {} MB",
+                            reportId, freed / (1024 * 1024), Math.max(bytes, 0) / (1024 * 1024));
+            }
+        }
+        
+        @Override
+        public void close() {
+            long freed = release(0);
+            if (freed > 0) {
+                logger.debug("Report {} released {} MB of heap budget", reportId, freed / (1024 * 1024));
+            }
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            } finally {
+                lock.unlock();
+            }
+            reservations.remove(reportId, this);
+        }
+        
+        private long release(long keep) {
+            lock.lock();
+            try {
+                if (closed || keep >= this.bytes) {
+                    return 0;
+                }
+                long freed = this.bytes - keep;
+                this.bytes = keep;
+                reservedBytes -= freed;
+                released.signalAll();
+                return freed;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
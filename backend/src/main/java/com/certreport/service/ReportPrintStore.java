@@ -0,0 +1,326 @@
+package com.certreport.service;
+
+import com.certreport.config.ReportCacheProperties;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.base.JRVirtualPrintPage;
+import net.sf.jasperreports.engine.export.HtmlExporter;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.export.ooxml.JRDocxExporter;
+import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import net.sf.jasperreports.export.SimpleXlsxReportConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Disk store of the filled reports of completed reports and the formats exported from them
+ *
+ * The JasperPrint of a report is kept serialized and gzipped as {@code <reportId>.jrprint}, so
+ * a report can be exported to another format later without loading its data or filling it
+ * again. Exports are written next to it as {@code <reportId>.<extension>} and reused. Both are
+ * removed once older than the retention window. Filled reports are written in the background
+ * after the PDF is committed; loading or deleting a report waits for its write.
+ */
+@Component
+public class ReportPrintStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportPrintStore.class);
+
+    private static final String PRINT_SUFFIX = ".jrprint";
+    private static final String CONTENT_HASH_SUFFIX = ".sha256";
+
+    /**
+     * Formats a stored filled report can be exported to
+     */
+    public enum ExportFormat {
+        PDF("pdf", "application/pdf"),
+        XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+        HTML("html", "text/html"),
+        DOCX("docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document");
+
+        private final String extension;
+        private final String contentType;
+
+        ExportFormat(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() { return extension; }
+        public String getContentType() { return contentType; }
+
+        public static Optional<ExportFormat> fromName(String name) {
+            return Arrays.stream(values())
+                    .filter(format -> format.name().equalsIgnoreCase(name))
+                    .findFirst();
+        }
+    }
+
+    private final ReportCacheProperties cacheProperties;
+    private final Executor reportFillExecutor;
+    private final Map<String, CompletableFuture<Void>> pendingStores = new ConcurrentHashMap<>();
+
+    public ReportPrintStore(ReportCacheProperties cacheProperties,
+                            @Qualifier("reportFillExecutor") Executor reportFillExecutor) {
+        this.cacheProperties = cacheProperties;
+        this.reportFillExecutor = reportFillExecutor;
+    }
+
+    public boolean isEnabled() {
+        return cacheProperties.isPrintsEnabled();
+    }
+
+    /**
+     * Store the filled report of a report on the fill pool, so serializing it holds up neither the
+     * report worker nor a render permit
+     */
+    public void storeInBackground(String reportId, JasperPrint jasperPrint) {
+        if (!isEnabled() || isVirtualized(jasperPrint)) {
+            return;
+        }
+        CompletableFuture<Void> pending = CompletableFuture.runAsync(() -> store(reportId, jasperPrint), reportFillExecutor);
+        pendingStores.put(reportId, pending);
+        pending.whenComplete((ignored, e) -> pendingStores.remove(reportId, pending));
+    }
+
+    /**
+     * Store the filled report of a report; failures only mean other formats are not available
+     */
+    public void store(String reportId, JasperPrint jasperPrint) {
+        if (!isEnabled()) {
+            return;
+        }
+        // Virtualized prints belong to the largest reports; loading one back would put every page in heap
+        if (isVirtualized(jasperPrint)) {
+            logger.debug("Not storing virtualized filled report {}", reportId);
+            return;
+        }
+
+        Path path = printPath(reportId);
+        long startNanos = System.nanoTime();
+        try {
+            SerializedReportFiles.createPrivateDirectories(path.getParent());
+            Path tempFile = Files.createTempFile(path.getParent(), reportId, ".tmp");
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(tempFile), 64 * 1024)))) {
+                out.writeObject(jasperPrint);
+            }
+            Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Stored filled report {} ({} pages, {} KB) in {} ms", reportId, jasperPrint.getPages().size(),
+                        Files.size(path) / 1024, (System.nanoTime() - startNanos) / 1_000_000);
+        } catch (IOException e) {
+            logger.warn("Failed to store filled report {}: {}", reportId, e.getMessage());
+        }
+    }
+
+    /**
+     * Load the stored filled report of a report; a missing or unreadable one is empty
+     */
+    public Optional<JasperPrint> load(String reportId) {
+        awaitPendingStore(reportId);
+        Path path = printPath(reportId);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (ObjectInputStream in = SerializedReportFiles.objectInput(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path), 64 * 1024)))) {
+            return Optional.of((JasperPrint) in.readObject());
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            logger.warn("Discarding unreadable filled report {}: {}", path.getFileName(), e.getMessage());
+            deleteQuietly(path);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * A previous export of a report to the given format, if still on disk
+     */
+    public Optional<File> findExport(String reportId, ExportFormat format) {
+        Path path = exportPath(reportId, format);
+        return Files.isRegularFile(path) ? Optional.of(path.toFile()) : Optional.empty();
+    }
+
+    /**
+     * SHA-256 of an exported file, recorded when it was exported
+     */
+    public Optional<String> findContentHash(File export) {
+        Path path = contentHashPath(export);
+        try {
+            return Files.isRegularFile(path) ? Optional.of(Files.readString(path).trim()) : Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Export a filled report to the given format and keep the file for later downloads.
+     * Several formats of one print may be exported concurrently.
+     */
+    public File export(String reportId, JasperPrint jasperPrint, ExportFormat format) throws JRException {
+        Path path = exportPath(reportId, format);
+        long startNanos = System.nanoTime();
+        try {
+            SerializedReportFiles.createPrivateDirectories(path.getParent());
+            Path tempFile = Files.createTempFile(path.getParent(), reportId, ".tmp");
+            // Hashed as it is written, for the download ETag
+            MessageDigest digest = sha256();
+            try (OutputStream out = new BufferedOutputStream(
+                    new DigestOutputStream(Files.newOutputStream(tempFile), digest), 64 * 1024)) {
+                exportTo(jasperPrint, format, out);
+            } catch (JRException | RuntimeException e) {
+                deleteQuietly(tempFile);
+                throw e;
+            }
+            Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.writeString(contentHashPath(path.toFile()), HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException e) {
+            throw new JRException("Failed to export report " + reportId + " as " + format, e);
+        }
+        logger.info("Exported report {} as {} from its filled report in {} ms, {} KB", reportId, format,
+                   (System.nanoTime() - startNanos) / 1_000_000, path.toFile().length() / 1024);
+        return path.toFile();
+    }
+
+    /**
+     * Delete the filled report of a report and everything exported from it
+     */
+    public void delete(String reportId) {
+        awaitPendingStore(reportId);
+        deleteQuietly(printPath(reportId));
+        for (ExportFormat format : ExportFormat.values()) {
+            deleteQuietly(exportPath(reportId, format));
+            deleteQuietly(contentHashPath(exportPath(reportId, format).toFile()));
+        }
+    }
+
+    /**
+     * Delete filled reports and exports older than the retention window
+     */
+    public int evictExpired() {
+        Path directory = Paths.get(cacheProperties.getPrintDirectory());
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+
+        Instant cutoff = Instant.now().minus(cacheProperties.getPrintRetentionHours(), ChronoUnit.HOURS);
+        int evicted = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                if (Files.getLastModifiedTime(path).toInstant().isBefore(cutoff) && deleteQuietly(path)) {
+                    evicted++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to evict filled reports: {}", e.getMessage());
+        }
+        return evicted;
+    }
+
+    private void awaitPendingStore(String reportId) {
+        CompletableFuture<Void> pending = pendingStores.get(reportId);
+        if (pending != null) {
+            // store() logs its own failures
+            pending.exceptionally(e -> null).join();
+        }
+    }
+
+    private static boolean isVirtualized(JasperPrint jasperPrint) {
+        return !jasperPrint.getPages().isEmpty() && jasperPrint.getPages().get(0) instanceof JRVirtualPrintPage;
+    }
+
+    private static void exportTo(JasperPrint jasperPrint, ExportFormat format, OutputStream out) throws JRException {
+        SimpleExporterInput input = new SimpleExporterInput(jasperPrint);
+        switch (format) {
+            case PDF -> {
+                JRPdfExporter exporter = new JRPdfExporter();
+                exporter.setExporterInput(input);
+                exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+                exporter.exportReport();
+            }
+            case XLSX -> {
+                SimpleXlsxReportConfiguration configuration = new SimpleXlsxReportConfiguration();
+                // One continuous sheet with typed cells is what spreadsheet users expect
+                configuration.setOnePagePerSheet(false);
+                configuration.setDetectCellType(true);
+                configuration.setRemoveEmptySpaceBetweenRows(true);
+                JRXlsxExporter exporter = new JRXlsxExporter();
+                exporter.setExporterInput(input);
+                exporter.setConfiguration(configuration);
+                exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+                exporter.exportReport();
+            }
+            case HTML -> {
+                HtmlExporter exporter = new HtmlExporter();
+                exporter.setExporterInput(input);
+                exporter.setExporterOutput(new SimpleHtmlExporterOutput(out));
+                exporter.exportReport();
+            }
+            case DOCX -> {
+                JRDocxExporter exporter = new JRDocxExporter();
+                exporter.setExporterInput(input);
+                exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+                exporter.exportReport();
+            }
+        }
+    }
+
+    private Path printPath(String reportId) {
+        return Paths.get(cacheProperties.getPrintDirectory(), reportId + PRINT_SUFFIX);
+    }
+
+    private Path exportPath(String reportId, ExportFormat format) {
+        return Paths.get(cacheProperties.getPrintDirectory(), reportId + "." + format.getExtension());
+    }
+
+    private static Path contentHashPath(File export) {
+        return Paths.get(export.getPath() + CONTENT_HASH_SUFFIX);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static boolean deleteQuietly(Path path) {
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.certreport.service;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-memory board of the progress of reports generated on this instance
+ *
+ * Generation reports rows consumed, pages filled and pages/bytes exported to a {@link Tracker},
+ * which turns them into a phase and a percentage. Subscribers are notified only when the phase
+ * or the whole percentage changes, so a report produces at most about a hundred updates no
+ * matter how many rows it has. Finished reports stay on the board for a few minutes so late
+ * subscribers still see the outcome without going to the database.
+ */
+@Component
+public class ReportProgressBoard {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportProgressBoard.class);
+
+    // Share of the overall percentage at which each phase starts
+    private static final int FILL_START_PERCENT = 10;
+    private static final int EXPORT_START_PERCENT = 80;
+
+    private static final int FINISHED_RETENTION_MINUTES = 5;
+
+    public enum Phase { LOADING, FILLING, EXPORTING, COMPLETED, FAILED, CANCELLED }
+
+    /**
+     * Snapshot of a report's progress as sent to subscribers
+     */
+    public record ReportProgress(
+        String reportId,
+        Phase phase,
+        int percent,
+        long rowsConsumed,
+        int pagesFilled,
+        long bytesExported,
+        String message,
+        LocalDateTime updatedAt
+    ) {
+        public boolean isFinished() {
+            return phase == Phase.COMPLETED || phase == Phase.FAILED || phase == Phase.CANCELLED;
+        }
+    }
+
+    private final Map<String, Tracker> trackers = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<ReportProgress>>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Start tracking a report that is about to be generated, replacing any earlier run of it
+     */
+    public Tracker start(String reportId) {
+        Tracker tracker = new Tracker(reportId);
+        trackers.put(reportId, tracker);
+        tracker.publish(true);
+        return tracker;
+    }
+
+    /**
+     * Tracker of a report being generated, started on first use
+     */
+    public Tracker tracker(String reportId) {
+        return trackers.computeIfAbsent(reportId, Tracker::new);
+    }
+
+    public Optional<ReportProgress> getProgress(String reportId) {
+        return Optional.ofNullable(trackers.get(reportId)).map(Tracker::snapshot);
+    }
+
+    /**
+     * Receive every phase or percentage change of a report until the returned handle is run
+     */
+    public Runnable subscribe(String reportId, Consumer<ReportProgress> listener) {
+        subscribers.computeIfAbsent(reportId, id -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> subscribers.computeIfPresent(reportId, (id, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    public void remove(String reportId) {
+        trackers.remove(reportId);
+    }
+
+    /**
+     * Drop finished reports once late subscribers have had a chance to see the outcome
+     */
+    @Scheduled(fixedRate = 60000)
+    public void evictFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(FINISHED_RETENTION_MINUTES);
+        trackers.values().removeIf(tracker -> {
+            ReportProgress progress = tracker.snapshot();
+            return progress.isFinished() && progress.updatedAt().isBefore(cutoff);
+        });
+    }
+
+    private void notifySubscribers(ReportProgress progress) {
+        for (Consumer<ReportProgress> listener : subscribers.getOrDefault(progress.reportId(), List.of())) {
+            try {
+                listener.accept(progress);
+            } catch (RuntimeException e) {
+                logger.debug("Progress subscriber of report {} failed: {}", progress.reportId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Progress counters of one report; safe to update from concurrent shard fills
+     */
+    public final class Tracker {
+
+        private final String reportId;
+        private final AtomicLong rowsConsumed = new AtomicLong();
+        private final AtomicInteger pagesFilled = new AtomicInteger();
+        private final AtomicInteger pagesExported = new AtomicInteger();
+        private final AtomicLong bytesExported = new AtomicLong();
+        private volatile Phase phase = Phase.LOADING;
+        private volatile long expectedRows;
+        private volatile int totalPages;
+        private volatile String message;
+        private volatile LocalDateTime updatedAt = LocalDateTime.now();
+
+        // Last published state, to skip updates that change nothing visible
+        private Phase publishedPhase;
+        private int publishedPercent = -1;
+
+        private Tracker(String reportId) {
+            this.reportId = reportId;
+        }
+
+        /**
+         * Fill is starting; expectedRows is the approximate number of data source rows it will consume
+         */
+        public void filling(long expectedRows) {
+            this.expectedRows = expectedRows;
+            moveTo(Phase.FILLING);
+        }
+
+        /**
+         * Export of the filled report is starting
+         */
+        public void exporting(int totalPages) {
+            this.totalPages = totalPages;
+            moveTo(Phase.EXPORTING);
+        }
+
+        public void completed() {
+            message = null;
+            moveTo(Phase.COMPLETED);
+        }
+
+        public void failed(String message) {
+            this.message = message;
+            moveTo(Phase.FAILED);
+        }
+
+        public void cancelled() {
+            message = null;
+            moveTo(Phase.CANCELLED);
+        }
+
+        public void rowConsumed() {
+            rowsConsumed.incrementAndGet();
+            publish(false);
+        }
+
+        public void pageFilled() {
+            pagesFilled.incrementAndGet();
+            publish(false);
+        }
+
+        public void pageExported() {
+            pagesExported.incrementAndGet();
+            publish(false);
+        }
+
+        /**
+         * Count bytes written to the report file; exporters without page callbacks only report these
+         */
+        public void bytesExported(long bytes) {
+            bytesExported.addAndGet(bytes);
+            if (phase == Phase.LOADING || phase == Phase.FILLING) {
+                moveTo(Phase.EXPORTING);
+            } else {
+                publish(false);
+            }
+        }
+
+        /**
+         * Wrap a fill data source so every row it hands to Jasper is counted
+         */
+        public JRDataSource countRows(JRDataSource dataSource) {
+            return new JRDataSource() {
+                @Override
+                public boolean next() throws JRException {
+                    boolean hasNext = dataSource.next();
+                    if (hasNext) {
+                        rowConsumed();
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public Object getFieldValue(JRField field) throws JRException {
+                    return dataSource.getFieldValue(field);
+                }
+            };
+        }
+
+        public ReportProgress snapshot() {
+            return new ReportProgress(reportId, phase, percent(), rowsConsumed.get(), pagesFilled.get(),
+                    bytesExported.get(), message, updatedAt);
+        }
+
+        private void moveTo(Phase next) {
+            phase = next;
+            publish(true);
+        }
+
+        private int percent() {
+            switch (phase) {
+                case FILLING:
+                    long expected = expectedRows;
+                    double filled = expected > 0 ? Math.min(1.0, (double) rowsConsumed.get() / expected) : 0;
+                    return FILL_START_PERCENT + (int) ((EXPORT_START_PERCENT - FILL_START_PERCENT) * filled);
+                case EXPORTING:
+                    int pages = totalPages;
+                    double exported = pages > 0 ? Math.min(1.0, (double) pagesExported.get() / pages) : 0;
+                    return EXPORT_START_PERCENT + (int) ((99 - EXPORT_START_PERCENT) * exported);
+                case COMPLETED:
+                    return 100;
+                default:
+                    return 0;
+            }
+        }
+
+        private void publish(boolean phaseChanged) {
+            // Cheap check first - this runs for every row consumed
+            if (!phaseChanged && percent() == publishedPercent) {
+                return;
+            }
+            ReportProgress progress;
+            synchronized (this) {
+                int percent = percent();
+                if (phase == publishedPhase && percent == publishedPercent) {
+                    return;
+                }
+                publishedPhase = phase;
+                publishedPercent = percent;
+                updatedAt = LocalDateTime.now();
+                progress = snapshot();
+            }
+            notifySubscribers(progress);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.certreport.service;
+
+import com.certreport.config.ReportJobProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounds the number of reports in Jasper fill/export at the same time
+ *
+ * Report jobs spend most of their time blocked on the database and the file system, which is
+ * why they can run on virtual threads, but fill and export are CPU and heap heavy. Gating just
+ * those steps keeps a large number of concurrent jobs from oversubscribing the CPUs.
+ */
+@Component
+public class ReportRenderLimiter {
+    
+    private final Semaphore permits;
+    private final ActuatorPerformanceMonitor actuatorPerformanceMonitor;
+    
+    public ReportRenderLimiter(ReportJobProperties jobProperties, ActuatorPerformanceMonitor actuatorPerformanceMonitor) {
+        int renderPermits = jobProperties.getRenderPermits() > 0
+                ? jobProperties.getRenderPermits()
+                : Runtime.getRuntime().availableProcessors();
+        this.permits = new Semaphore(renderPermits, true);
+        this.actuatorPerformanceMonitor = actuatorPerformanceMonitor;
+    }
+    
+    /**
+     * Run a fill/export step once a render permit is available
+     */
+    public <T> T render(Callable<T> renderStep) throws Exception {
+        long waitStart = System.nanoTime();
+        permits.acquire();
+        actuatorPerformanceMonitor.recordRenderPermitWait(System.nanoTime() - waitStart);
+        try {
+            return renderStep.call();
+        } finally {
+            permits.release();
+        }
+    }
+    
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+}
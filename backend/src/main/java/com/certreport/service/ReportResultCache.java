@@ -0,0 +1,216 @@
+package com.certreport.service;
+
+import com.certreport.config.ReportCacheProperties;
+import com.certreport.model.Report;
+import com.certreport.repository.CertificationDefinitionRepository;
+import com.certreport.repository.CertificationRepository;
+import com.certreport.repository.EmployeeRepository;
+import com.certreport.repository.ReportRepository;
+import com.certreport.repository.StageDefinitionRepository;
+import com.certreport.repository.StageRepository;
+import com.certreport.repository.TaskRepository;
+import net.sf.jasperreports.engine.JRException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Content-addressed reuse of generated reports
+ *
+ * A report's cache key is a SHA-256 digest of the normalized request (report type, sorted
+ * employee IDs, template checksum) and a data version built from the row counts and latest
+ * updatedAt of the employees, certifications, stages and tasks it covers. The certification and
+ * stage definition tables are stamped as a whole, since the report prints their names and
+ * descriptions. Any change to that data yields a new key, so a completed report with the same
+ * key is still accurate.
+ * Identical requests arriving while one is queued or running join that report instead of
+ * generating their own.
+ *
+ * Requests for all employees get their data version from whole-table aggregates, so computing
+ * their key never loads the employee IDs.
+ *
+ * The lookup and submit are single-flight per instance only: they are serialized by locks in this
+ * JVM. Two instances that receive the same request at the same moment can each miss and queue a
+ * report. Both reports are correct, and later requests reuse the most recently completed one.
+ */
+@Component
+public class ReportResultCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReportResultCache.class);
+    
+    private static final List<Report.ReportStatus> IN_FLIGHT = List.of(Report.ReportStatus.QUEUED, Report.ReportStatus.IN_PROGRESS);
+    
+    // Striped locks keep concurrent identical requests from both missing and both submitting
+    private static final int LOCK_STRIPES = 64;
+    
+    private final ReportRepository reportRepository;
+    private final EmployeeRepository employeeRepository;
+    private final CertificationRepository certificationRepository;
+    private final StageRepository stageRepository;
+    private final TaskRepository taskRepository;
+    private final CertificationDefinitionRepository certificationDefinitionRepository;
+    private final StageDefinitionRepository stageDefinitionRepository;
+    private final ReportTemplateRegistry reportTemplateRegistry;
+    private final ReportCacheProperties cacheProperties;
+    private final ActuatorPerformanceMonitor actuatorPerformanceMonitor;
+    private final EmployeeIdBinder employeeIdBinder;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    
+    public ReportResultCache(ReportRepository reportRepository,
+                             EmployeeRepository employeeRepository,
+                             CertificationRepository certificationRepository,
+                             StageRepository stageRepository,
+                             TaskRepository taskRepository,
+                             CertificationDefinitionRepository certificationDefinitionRepository,
+                             StageDefinitionRepository stageDefinitionRepository,
+                             ReportTemplateRegistry reportTemplateRegistry,
+                             ReportCacheProperties cacheProperties,
+                             ActuatorPerformanceMonitor actuatorPerformanceMonitor,
+                             EmployeeIdBinder employeeIdBinder) {
+        this.reportRepository = reportRepository;
+        this.employeeRepository = employeeRepository;
+        this.certificationRepository = certificationRepository;
+        this.stageRepository = stageRepository;
+        this.taskRepository = taskRepository;
+        this.certificationDefinitionRepository = certificationDefinitionRepository;
+        this.stageDefinitionRepository = stageDefinitionRepository;
+        this.reportTemplateRegistry = reportTemplateRegistry;
+        this.cacheProperties = cacheProperties;
+        this.actuatorPerformanceMonitor = actuatorPerformanceMonitor;
+        this.employeeIdBinder = employeeIdBinder;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+    
+    /**
+     * Compute the cache key for a request, or null when caching is disabled or the template
+     * version cannot be determined
+     *
+     * @param employeeIds requested employees; empty means all employees
+     */
+    public String computeCacheKey(String reportType, List<String> employeeIds) {
+        if (!cacheProperties.isEnabled()) {
+            return null;
+        }
+        
+        String templateVersion;
+        try {
+            templateVersion = reportTemplateRegistry.getTemplateVersion(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
+        } catch (JRException e) {
+            logger.warn("Report template version unavailable, not caching: {}", e.getMessage());
+            return null;
+        }
+        
+        List<String> normalizedIds = employeeIds.stream().distinct().sorted().toList();
+        
+        MessageDigest digest = sha256();
+        update(digest, reportType);
+        update(digest, templateVersion);
+        // All-employee requests are keyed by the marker, the covered employees only feed the data version
+        update(digest, normalizedIds.isEmpty() ? "*" : String.join(",", normalizedIds));
+        update(digest, normalizedIds.isEmpty() ? allEmployeesDataVersion() : dataVersion(normalizedIds));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    /**
+     * Return a completed or in-flight report for the key, or create one with the submitter
+     */
+    public Report getOrSubmit(String cacheKey, Supplier<Report> submitter) {
+        if (cacheKey == null) {
+            return submitter.get();
+        }
+        
+        synchronized (locks[Math.floorMod(cacheKey.hashCode(), LOCK_STRIPES)]) {
+            Optional<Report> completed = reportRepository.findFirstByCacheKeyAndStatusOrderByCompletedAtDesc(
+                    cacheKey, Report.ReportStatus.COMPLETED)
+                .filter(this::isReusable);
+            if (completed.isPresent()) {
+                actuatorPerformanceMonitor.recordResultCacheLookup("hit");
+                logger.info("Serving report {} from cache (key {})", completed.get().getId(), cacheKey.substring(0, 12));
+                return completed.get();
+            }
+            
+            Optional<Report> inFlight = reportRepository.findFirstByCacheKeyAndStatusInOrderByCreatedAtDesc(cacheKey, IN_FLIGHT);
+            if (inFlight.isPresent()) {
+                actuatorPerformanceMonitor.recordResultCacheLookup("joined");
+                logger.info("Joining in-flight report {} (key {})", inFlight.get().getId(), cacheKey.substring(0, 12));
+                return inFlight.get();
+            }
+            
+            actuatorPerformanceMonitor.recordResultCacheLookup("miss");
+            return submitter.get();
+        }
+    }
+    
+    private boolean isReusable(Report report) {
+        if (report.getFilePath() == null || !new File(report.getFilePath()).isFile()) {
+            return false;
+        }
+        return cacheProperties.getMaxAgeHours() <= 0
+                || report.getCompletedAt() == null
+                || report.getCompletedAt().isAfter(LocalDateTime.now().minusHours(cacheProperties.getMaxAgeHours()));
+    }
+    
+    private String dataVersion(List<String> employeeIds) {
+        if (employeeIds.isEmpty()) {
+            return "empty";
+        }
+        return String.join("|",
+                stamp(employeeIdBinder.query(employeeIds, employeeRepository::findUpdateStampByEmployeeIds,
+                        employeeRepository::findUpdateStampByEmployeeIdArray)),
+                stamp(employeeIdBinder.query(employeeIds, certificationRepository::findUpdateStampByEmployeeIds,
+                        certificationRepository::findUpdateStampByEmployeeIdArray)),
+                stamp(employeeIdBinder.query(employeeIds, stageRepository::findUpdateStampByEmployeeIds,
+                        stageRepository::findUpdateStampByEmployeeIdArray)),
+                stamp(employeeIdBinder.query(employeeIds, taskRepository::findUpdateStampByEmployeeIds,
+                        taskRepository::findUpdateStampByEmployeeIdArray)),
+                definitionsVersion());
+    }
+    
+    private String allEmployeesDataVersion() {
+        return String.join("|",
+                stamp(employeeRepository.findUpdateStamp()),
+                stamp(certificationRepository.findUpdateStamp()),
+                stamp(stageRepository.findUpdateStamp()),
+                stamp(taskRepository.findUpdateStamp()),
+                definitionsVersion());
+    }
+    
+    /**
+     * Certification and stage definitions are shared by all employees, so any edit changes every key
+     */
+    private String definitionsVersion() {
+        return String.join("|",
+                stamp(certificationDefinitionRepository.findUpdateStamp()),
+                stamp(stageDefinitionRepository.findUpdateStamp()));
+    }
+    
+    private static String stamp(List<Object[]> rows) {
+        Object[] row = rows.get(0);
+        return row[0] + "@" + row[1];
+    }
+    
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -5,113 +5,195 @@ import com.certreport.dto.ReportRequestDto;
 import com.certreport.dto.CompleteReportDataDto;
 import com.certreport.dto.CertificationDto;
 import com.certreport.dto.EmployeeCertificationActivityDto;
+import com.certreport.model.Certification;
 import com.certreport.model.Report;
 import com.certreport.repository.ReportRepository;
 import com.certreport.config.PdfGenerationProperties;
+import com.certreport.config.ReportJobProperties;
 import io.micrometer.core.instrument.Timer;
 import net.sf.jasperreports.engine.*;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
-import org.springframework.scheduling.annotation.Async;
+import net.sf.jasperreports.engine.export.JRExportProgressMonitor;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.fill.FillListener;
+import net.sf.jasperreports.engine.fill.JRFiller;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.fill.ReportFiller;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import net.sf.jasperreports.export.SimplePdfReportConfiguration;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.InputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
 
 @Service
 public class ReportService {
       private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
     
+    // Key of the "Page X of Y" footer element in certifications_report.jrxml
+    private static final String PAGE_NUMBER_ELEMENT_KEY = "pageNumber";
+    
+    // Key of the generation timestamp in the page footer
+    private static final String GENERATED_AT_ELEMENT_KEY = "generatedAt";
+    
+    // Key of the employee ID field in the EmployeeGroup header, marking the first page of each employee
+    private static final String EMPLOYEE_ID_ELEMENT_KEY = "employeeId";
+    
+    private static final String CANCELLED_MESSAGE = "Report generation was cancelled";
+    
+    // Request value selecting the native PDF renderer over Jasper
+    private static final String NATIVE_RENDERER = "native";
+    
     private final PdfGenerationProperties pdfProperties;
       private final ReportRepository reportRepository;
     private final EmployeeService employeeService;
     private final CertificationService certificationService;
     private final ActuatorPerformanceMonitor actuatorPerformanceMonitor;
-    private final MemoryEfficientPdfGenerationService memoryEfficientPdfGenerationService;    public ReportService(ReportRepository reportRepository, 
+    private final MemoryEfficientPdfGenerationService memoryEfficientPdfGenerationService;
+    private final ReportTemplateRegistry reportTemplateRegistry;
+    private final Executor reportFillExecutor;
+    private final ReportJobService reportJobService;
+    private final Semaphore rowExportPermits;
+    private final ReportRenderLimiter reportRenderLimiter;
+    private final ReportMemoryBudget reportMemoryBudget;
+    private final ReportResultCache reportResultCache;
+    private final ReportFragmentCache reportFragmentCache;
+    private final ReportProgressBoard reportProgressBoard;
+    private final ReportCancellationRegistry reportCancellationRegistry;
+    private final PlatformTransactionManager transactionManager;
+    private final TabularReportExporter tabularReportExporter;
+    private final ReportPrintStore reportPrintStore;
+    private final NativeCertificationPdfRenderer nativePdfRenderer;
+    private final ParallelPdfExporter parallelPdfExporter;
+    private final ReportFileStore reportFileStore;
+    private final ReportSummaryService reportSummaryService;    public ReportService(ReportRepository reportRepository, 
                         EmployeeService employeeService,
                         CertificationService certificationService,
                         ActuatorPerformanceMonitor actuatorPerformanceMonitor,
                         MemoryEfficientPdfGenerationService memoryEfficientPdfGenerationService,
-                        PdfGenerationProperties pdfProperties) {
+                        PdfGenerationProperties pdfProperties,
+                        ReportTemplateRegistry reportTemplateRegistry,
+                        @Qualifier("reportFillExecutor") Executor reportFillExecutor,
+                        ReportJobService reportJobService,
+                        ReportJobProperties jobProperties,
+                        ReportRenderLimiter reportRenderLimiter,
+                        ReportMemoryBudget reportMemoryBudget,
+                        ReportResultCache reportResultCache,
+                        ReportFragmentCache reportFragmentCache,
+                        ReportProgressBoard reportProgressBoard,
+                        ReportCancellationRegistry reportCancellationRegistry,
+                        PlatformTransactionManager transactionManager,
+                        TabularReportExporter tabularReportExporter,
+                        ReportPrintStore reportPrintStore,
+                        NativeCertificationPdfRenderer nativePdfRenderer,
+                        ParallelPdfExporter parallelPdfExporter,
+                        ReportFileStore reportFileStore,
+                        ReportSummaryService reportSummaryService) {
         this.reportRepository = reportRepository;
         this.employeeService = employeeService;
         this.certificationService = certificationService;
         this.actuatorPerformanceMonitor = actuatorPerformanceMonitor;
         this.memoryEfficientPdfGenerationService = memoryEfficientPdfGenerationService;
         this.pdfProperties = pdfProperties;
+        this.reportTemplateRegistry = reportTemplateRegistry;
+        this.reportFillExecutor = reportFillExecutor;
+        this.reportJobService = reportJobService;
+        this.rowExportPermits = new Semaphore(Math.max(1, jobProperties.getMaxConcurrentExports()), true);
+        this.reportRenderLimiter = reportRenderLimiter;
+        this.reportMemoryBudget = reportMemoryBudget;
+        this.reportResultCache = reportResultCache;
+        this.reportFragmentCache = reportFragmentCache;
+        this.reportProgressBoard = reportProgressBoard;
+        this.reportCancellationRegistry = reportCancellationRegistry;
+        this.transactionManager = transactionManager;
+        this.tabularReportExporter = tabularReportExporter;
+        this.reportPrintStore = reportPrintStore;
+        this.nativePdfRenderer = nativePdfRenderer;
+        this.parallelPdfExporter = parallelPdfExporter;
+        this.reportFileStore = reportFileStore;
+        this.reportSummaryService = reportSummaryService;
     }
 
     public Report generateReport(ReportRequestDto request) {
+        String reportType = request.getReportType() != null ? request.getReportType() : "EMPLOYEE_DEMOGRAPHICS";
+        
+        // Identical requests over unchanged data reuse a completed or in-flight report
+        // Gzipped and plain exports of the same rows are different files, as are PDFs of the two renderers
+        String cacheVariant = reportType
+                + (request.isGzip() ? "+gzip" : "")
+                + (NATIVE_RENDERER.equalsIgnoreCase(request.getRenderer()) ? "+native" : "");
+        String cacheKey = reportResultCache.computeCacheKey(cacheVariant, request.getEmployeeIds());
+        return reportResultCache.getOrSubmit(cacheKey, () -> submitReport(request, reportType, cacheKey));
+    }
+    
+    private Report submitReport(ReportRequestDto request, String reportType, String cacheKey) {
         // Generate report name based on type and timestamp
         String reportName = generateReportName(request.getReportType(), request.getEmployeeIds().size());
         
         // Create and save report record with QUEUED status first
-        Report report = new Report(
-                reportName,
-                request.getReportType() != null ? request.getReportType() : "EMPLOYEE_DEMOGRAPHICS",
-                request.toString()
-        );
+        Report report = new Report(reportName, reportType, request.toString());
         report.setStatus(Report.ReportStatus.QUEUED);
         report.setStartedAt(LocalDateTime.now());
+        report.setCacheKey(cacheKey);
         report = reportRepository.save(report);
         
-        // Start async processing
-        generateReportAsync(report);
+        // Hand off to the job queue - generation runs on the report worker pool, not the caller's thread.
+        // The report's deadline scales with its size; no employee IDs means all employees.
+        long employeeCount = request.getEmployeeIds().isEmpty()
+                ? employeeService.countEmployees()
+                : request.getEmployeeIds().size();
+        reportJobService.enqueue(report.getId(), request.getPriority(), employeeCount);
         
         return report;
     }
 
-    private String generateCertificationsPdfReport(List<CompleteReportDataDto> reportData, String reportId) throws JRException {
+    private String generateCertificationsPdfReport(List<CompleteReportDataDto> reportData, ReportSummaryService.ReportSummary summary,
+                                                   String reportId) throws JRException {
         // Record memory snapshot for PDF generation start
         actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "PDF Generation Start");
         
-        // Load the certifications report template
-        InputStream reportTemplate = getClass().getResourceAsStream("/reports/certifications_report.jrxml");
-        if (reportTemplate == null) {
-            throw new RuntimeException("Certifications report template not found at /reports/certifications_report.jrxml");
-        }
-        
-        // Compile report
-        JasperReport jasperReport = JasperCompileManager.compileReport(reportTemplate);
-        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Template Compiled");
+        // Get the precompiled certifications report template
+        JasperReport jasperReport = reportTemplateRegistry.getTemplate(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
+        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Template Loaded");
         
         // Create flattened data structure for individual certification activities
         List<EmployeeCertificationActivityDto> activityData = createActivityDataFromReportData(reportData);
         
         // Prepare data source with flattened activity data
         JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(activityData);
+        ReportProgressBoard.Tracker progress = reportProgressBoard.tracker(reportId);
+        progress.filling(activityData.size());
         
-        // Report parameters
-        Map<String, Object> parameters = new HashMap<>();
-        parameters.put("REPORT_TITLE", "Employee Certification Report");
-        parameters.put("GENERATION_DATE", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-        parameters.put("TOTAL_EMPLOYEES", reportData.size());
-        parameters.put("COMPANY_NAME", "CertReport Systems");
-        
-        // Calculate certification statistics
-        long totalCertifications = reportData.stream()
-                .mapToLong(data -> data.getCertifications() != null ? data.getCertifications().size() : 0)
-                .sum();
-        long completedCertifications = reportData.stream()
-                .mapToLong(CompleteReportDataDto::getCompletedCertificationsCount)
-                .sum();
-        long inProgressCertifications = reportData.stream()
-                .mapToLong(CompleteReportDataDto::getInProgressCertificationsCount)
-                .sum();
-        long failedCertifications = reportData.stream()
-                .mapToLong(CompleteReportDataDto::getFailedCertificationsCount)
-                .sum();
-        
-        parameters.put("TOTAL_CERTIFICATIONS", totalCertifications);
-        parameters.put("COMPLETED_CERTIFICATIONS", completedCertifications);
-        parameters.put("IN_PROGRESS_CERTIFICATIONS", inProgressCertifications);
-        parameters.put("FAILED_CERTIFICATIONS", failedCertifications);
+        // Report parameters, aggregated by the database rather than over the loaded rows
+        Map<String, Object> parameters = createReportParameters(summary);
         
         actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Data Prepared");
         
@@ -120,115 +202,778 @@ public class ReportService {
         
         try {
             // Fill report
-            jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
-                  // Extract actual page count from JasperPrint
-            actualPageCount = jasperPrint.getPages().size();
-            
-            // Save the page count to the report
-            Report report = reportRepository.findById(reportId)
-                    .orElseThrow(() -> new RuntimeException("Report not found: " + reportId));
-            report.setPageCount(actualPageCount);
-            reportRepository.save(report);
-            
+            jasperPrint = fillReport(jasperReport, parameters, dataSource, reportId);
+            actualPageCount = savePageCount(jasperPrint, reportId);
+            releaseLoadedData(reportId, reportData.size());
         } catch (Exception e) {
             logger.error("Error in PDF generation: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to generate PDF: " + e.getMessage(), e);
         }
         
-        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Report Filled");
+        String filePath = exportToPdfFile(jasperPrint, reportId);
+        
+        logger.info("Generated certifications report with {} employees, {} certification activities, {} pages, {} KB", 
+                   reportData.size(), activityData.size(), actualPageCount, new File(filePath).length() / 1024);
+        
+        return filePath;
+    }
+    
+    /**
+     * Generates the certifications PDF from a forward-only database cursor.
+     * Report rows are pulled one employee at a time while Jasper fills, so no report data is
+     * materialized up front and heap use no longer grows with the number of employees.
+     */
+    private String generateStreamingCertificationsPdfReport(List<String> employeeIds, String reportId) throws JRException {
+        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "PDF Generation Start");
+        
+        JasperReport jasperReport = reportTemplateRegistry.getTemplate(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
+        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Template Loaded");
+        
+        // Summary statistics come from a grouped query since the rows are not in memory
+        Map<String, Object> parameters = createReportParameters(reportSummaryService.summarize(employeeIds));
+        ReportProgressBoard.Tracker progress = reportProgressBoard.tracker(reportId);
+        progress.filling(estimateReportRows(parameters));
+        
+        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Data Prepared");
+        
+        // Streamed reports are the largest ones - page filled output out to disk as well
+        JRSwapFileVirtualizer virtualizer = pdfProperties.isVirtualizerEnabled()
+                ? memoryEfficientPdfGenerationService.createVirtualizer()
+                : null;
+        if (virtualizer != null) {
+            parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+        }
+        
+        JasperPrint jasperPrint;
+        int actualPageCount;
+        long rowCount;
+        String filePath;
+        
+        try {
+            try {
+                StreamingFillResult fillResult = loadWithinDeadline(reportId, () ->
+                        certificationService.fillFromReportRowCursor(employeeIds, dataSource -> {
+                            ReportCancellationRegistry.Registration query = cancelQueryOnCancel(reportId);
+                            try {
+                                return new StreamingFillResult(fillReport(jasperReport, parameters, dataSource, reportId),
+                                                               dataSource.getRowCount());
+                            } finally {
+                                query.close();
+                            }
+                        }));
+                jasperPrint = fillResult.jasperPrint();
+                rowCount = fillResult.rowCount();
+                actualPageCount = savePageCount(jasperPrint, reportId);
+            } catch (Exception e) {
+                logger.error("Error in streaming PDF generation: {}", e.getMessage(), e);
+                throw new RuntimeException("Failed to generate PDF: " + e.getMessage(), e);
+            }
+            
+            if (virtualizer != null) {
+                virtualizer.setReadOnly(true);
+                releaseVirtualizedFill(reportId, employeeIds.size());
+            }
+            filePath = exportToPdfFile(jasperPrint, reportId);
+        } finally {
+            if (virtualizer != null) {
+                virtualizer.cleanup();
+            }
+        }
+        
+        logger.info("Generated streaming certifications report with {} employees, {} certification activities, {} pages, {} KB", 
+                   employeeIds.size(), rowCount, actualPageCount, new File(filePath).length() / 1024);
+        
+        return filePath;
+    }
+    
+    private record StreamingFillResult(JasperPrint jasperPrint, long rowCount) {}
+    
+    /**
+     * Generates the certifications PDF as independent department shards.
+     * Each shard streams and fills its own employees on the report fill pool, so load and fill
+     * scale with the number of cores. Filled shards are concatenated in department order,
+     * renumbered and exported as one document. Title-page totals cover the whole request and the
+     * title band is printed by the first shard only.
+     */
+    private String generateShardedCertificationsPdfReport(List<String> employeeIds, String reportId) throws JRException {
+        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "PDF Generation Start");
+        
+        JasperReport jasperReport = reportTemplateRegistry.getTemplate(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
+        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Template Loaded");
+        
+        Map<String, Object> parameters = createReportParameters(reportSummaryService.summarize(employeeIds));
+        int maxShards = pdfProperties.getShardingMaxShards() > 0
+                ? pdfProperties.getShardingMaxShards()
+                : Runtime.getRuntime().availableProcessors();
+        List<List<String>> shards = employeeService.partitionByDepartment(employeeIds, maxShards);
+        ReportProgressBoard.Tracker progress = reportProgressBoard.tracker(reportId);
+        progress.filling(estimateReportRows(parameters));
+        
+        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Data Prepared");
+        logger.info("Generating report {} for {} employees in {} department shards", reportId, employeeIds.size(), shards.size());
+        
+        List<CompletableFuture<JasperPrint>> futures = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            List<String> shard = shards.get(i);
+            Map<String, Object> shardParameters = new HashMap<>(parameters);
+            shardParameters.put("SHOW_TITLE", i == 0);
+            futures.add(CompletableFuture.supplyAsync(() -> fillShard(jasperReport, shardParameters, shard, reportId), reportFillExecutor));
+        }
+        
+        JasperPrint jasperPrint;
+        int actualPageCount;
+        try {
+            // Joined in submission order so shards stay in department order
+            List<JasperPrint> shardPrints = new ArrayList<>(futures.size());
+            for (CompletableFuture<JasperPrint> future : futures) {
+                shardPrints.add(future.join());
+            }
+            jasperPrint = concatenateShards(shardPrints);
+            actualPageCount = savePageCount(jasperPrint, reportId);
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            logger.error("Error in sharded PDF generation: {}", cause.getMessage(), cause);
+            throw new RuntimeException("Failed to generate PDF: " + cause.getMessage(), cause);
+        }
+        
+        String filePath = exportToPdfFile(jasperPrint, reportId);
+        
+        logger.info("Generated sharded certifications report with {} employees, {} shards, {} pages, {} KB", 
+                   employeeIds.size(), shards.size(), actualPageCount, new File(filePath).length() / 1024);
+        
+        return filePath;
+    }
+    
+    private JasperPrint fillShard(JasperReport jasperReport, Map<String, Object> parameters, List<String> employeeIds,
+                                  String reportId) {
+        long startNanos = System.nanoTime();
+        try {
+            JasperPrint shardPrint = loadWithinDeadline(reportId, () ->
+                    certificationService.fillFromReportRowCursor(employeeIds, dataSource -> {
+                        ReportCancellationRegistry.Registration query = cancelQueryOnCancel(reportId);
+                        try {
+                            return fillReport(jasperReport, parameters, dataSource, reportId);
+                        } finally {
+                            query.close();
+                        }
+                    }));
+            actuatorPerformanceMonitor.recordShardFill(System.nanoTime() - startNanos);
+            return shardPrint;
+        } catch (JRException e) {
+            throw new CompletionException(e);
+        }
+    }
+    
+    /**
+     * Run a loading step in a read-only transaction timed out at the report's deadline, so every
+     * query it issues carries a JDBC timeout of the time left. Steps of reports without a deadline
+     * run in their own transaction as before.
+     */
+    private <T> T loadWithinDeadline(String reportId, LoadingStep<T> step) throws JRException {
+        Optional<LocalDateTime> deadline = reportCancellationRegistry.getDeadline(reportId);
+        if (deadline.isEmpty()) {
+            return step.load();
+        }
+        long remainingSeconds = Duration.between(LocalDateTime.now(), deadline.get()).toSeconds();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.setTimeout((int) Math.max(1, Math.min(Integer.MAX_VALUE, remainingSeconds)));
+        try {
+            return transaction.execute(status -> {
+                try {
+                    return step.load();
+                } catch (JRException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof JRException jrException) {
+                throw jrException;
+            }
+            throw e;
+        }
+    }
+    
+    @FunctionalInterface
+    private interface LoadingStep<T> {
+        T load() throws JRException;
+    }
+    
+    /**
+     * Result of a summary query run alongside the report data load
+     */
+    private static ReportSummaryService.ReportSummary awaitSummary(CompletableFuture<ReportSummaryService.ReportSummary> summary) {
+        try {
+            return summary.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Cancelling the report cancels the JDBC statement of the report row cursor open in the caller's transaction
+     */
+    private ReportCancellationRegistry.Registration cancelQueryOnCancel(String reportId) {
+        return reportCancellationRegistry.onCancel(reportId, certificationService.currentQueryCanceller());
+    }
+    
+    /**
+     * Fill a report, reporting rows consumed and pages generated to the report's progress tracker.
+     * Cancelling the report cancels the fill.
+     */
+    private JasperPrint fillReport(JasperReport jasperReport, Map<String, Object> parameters, JRDataSource dataSource,
+                                   String reportId) throws JRException {
+        ReportProgressBoard.Tracker progress = reportProgressBoard.tracker(reportId);
+        ReportFiller filler = JRFiller.createReportFiller(DefaultJasperReportsContext.getInstance(), jasperReport);
+        filler.addFillListener(new FillListener() {
+            @Override
+            public void pageGenerated(JasperPrint jasperPrint, int pageIndex) {
+                progress.pageFilled();
+            }
+            
+            @Override
+            public void pageUpdated(JasperPrint jasperPrint, int pageIndex) {
+                // Page footers and totals being resolved, not new pages
+            }
+        });
+        ReportCancellationRegistry.Registration fill = reportCancellationRegistry.onCancel(reportId, filler::cancelFill);
+        try {
+            return filler.fill(parameters, progress.countRows(dataSource));
+        } finally {
+            fill.close();
+        }
+    }
+    
+    /**
+     * Approximate number of data source rows for a report: one per certification, at least one per employee
+     */
+    private long estimateReportRows(Map<String, Object> parameters) {
+        return Math.max((Long) parameters.get("TOTAL_CERTIFICATIONS"), (Integer) parameters.get("TOTAL_EMPLOYEES"));
+    }
+    
+    /**
+     * Append the pages of all shards to the first one and rewrite the page footers,
+     * which each shard numbered on its own
+     */
+    private JasperPrint concatenateShards(List<JasperPrint> shardPrints) {
+        JasperPrint master = shardPrints.get(0);
+        for (int i = 1; i < shardPrints.size(); i++) {
+            for (JRPrintPage page : shardPrints.get(i).getPages()) {
+                master.addPage(page);
+            }
+        }
         
-        // Export to PDF
+        rewritePageFooters(master);
+        return master;
+    }
+    
+    /**
+     * Number the pages of a spliced report across all its parts and give every page the
+     * generation timestamp of the first page, which parts filled separately (or cached) differ in
+     */
+    private void rewritePageFooters(JasperPrint jasperPrint) {
+        List<JRPrintPage> pages = jasperPrint.getPages();
+        String generatedAt = null;
+        for (int pageIndex = 0; pageIndex < pages.size(); pageIndex++) {
+            for (JRPrintElement element : pages.get(pageIndex).getElements()) {
+                if (element instanceof JRPrintText text && PAGE_NUMBER_ELEMENT_KEY.equals(text.getKey())) {
+                    text.setText("Page " + (pageIndex + 1) + " of " + pages.size());
+                } else if (element instanceof JRPrintText text && GENERATED_AT_ELEMENT_KEY.equals(text.getKey())) {
+                    if (generatedAt == null) {
+                        generatedAt = text.getFullText();
+                    } else {
+                        text.setText(generatedAt);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Generate the report from cached per-employee page fragments, filling only employees whose
+     * data changed since their fragment was rendered
+     *
+     * The first employee is always filled again together with the title band, whose totals cover
+     * the whole request. Changed employees are filled in department shards, split back into
+     * employees at their group headers; all pages are then spliced in report order and the page
+     * footers rewritten. The re-filled fragments are stored for the next run after the export.
+     */
+    private String generateIncrementalCertificationsPdfReport(List<String> employeeIds, String reportId) throws JRException {
+        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "PDF Generation Start");
+        
+        JasperReport jasperReport = reportTemplateRegistry.getTemplate(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
+        Map<String, Object> parameters = createReportParameters(reportSummaryService.summarize(employeeIds));
+        
+        List<String> orderedIds = employeeService.getIdsInReportOrder(employeeIds);
+        if (orderedIds.isEmpty()) {
+            // Nothing to splice - a plain fill yields the same (empty) report
+            return generateShardedCertificationsPdfReport(employeeIds, reportId);
+        }
+        Map<String, String> fragmentKeys = reportFragmentCache.computeFragmentKeys(orderedIds);
+        
+        Map<String, List<JRPrintPage>> fragments = new HashMap<>();
+        List<String> changedIds = new ArrayList<>();
+        for (String employeeId : orderedIds.subList(1, orderedIds.size())) {
+            Optional<List<JRPrintPage>> cached = reportFragmentCache.load(fragmentKeys.get(employeeId));
+            if (cached.isPresent()) {
+                fragments.put(employeeId, cached.get());
+            } else {
+                changedIds.add(employeeId);
+            }
+        }
+        actuatorPerformanceMonitor.recordFragmentCacheLookups(fragments.size(), changedIds.size());
+        ReportProgressBoard.Tracker progress = reportProgressBoard.tracker(reportId);
+        progress.filling(estimateReportRows(parameters) * (changedIds.size() + 1) / orderedIds.size());
+        logger.info("Report {}: reusing {} cached employee fragments, filling {} changed employees",
+                   reportId, fragments.size(), changedIds.size());
+        
+        // Title fill for the first employee, department shards for the changed ones
+        Map<String, Object> titleParameters = new HashMap<>(parameters);
+        titleParameters.put("SHOW_TITLE", true);
+        CompletableFuture<JasperPrint> titleFuture = CompletableFuture.supplyAsync(
+                () -> fillShard(jasperReport, titleParameters, List.of(orderedIds.get(0)), reportId), reportFillExecutor);
+        
+        List<CompletableFuture<JasperPrint>> shardFutures = new ArrayList<>();
+        if (!changedIds.isEmpty()) {
+            int maxShards = pdfProperties.getShardingMaxShards() > 0
+                    ? pdfProperties.getShardingMaxShards()
+                    : Runtime.getRuntime().availableProcessors();
+            Map<String, Object> shardParameters = new HashMap<>(parameters);
+            shardParameters.put("SHOW_TITLE", false);
+            for (List<String> shard : employeeService.partitionByDepartment(changedIds, maxShards)) {
+                shardFutures.add(CompletableFuture.supplyAsync(() -> fillShard(jasperReport, shardParameters, shard, reportId), reportFillExecutor));
+            }
+        }
+        
+        JasperPrint jasperPrint;
+        Map<String, List<JRPrintPage>> refilledFragments = new HashMap<>();
+        try {
+            for (CompletableFuture<JasperPrint> shardFuture : shardFutures) {
+                Map<String, List<JRPrintPage>> filled = splitPagesByEmployee(shardFuture.join().getPages());
+                for (Map.Entry<String, List<JRPrintPage>> fragment : filled.entrySet()) {
+                    refilledFragments.put(fragmentKeys.get(fragment.getKey()), fragment.getValue());
+                    fragments.put(fragment.getKey(), fragment.getValue());
+                }
+            }
+            jasperPrint = titleFuture.join();
+        } catch (CompletionException e) {
+            titleFuture.cancel(true);
+            shardFutures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            logger.error("Error in incremental PDF generation: {}", cause.getMessage(), cause);
+            throw new RuntimeException("Failed to generate PDF: " + cause.getMessage(), cause);
+        }
+        
+        for (String employeeId : orderedIds.subList(1, orderedIds.size())) {
+            // Employees without report rows have no pages
+            for (JRPrintPage page : fragments.getOrDefault(employeeId, List.of())) {
+                jasperPrint.addPage(page);
+            }
+        }
+        rewritePageFooters(jasperPrint);
+        int actualPageCount = savePageCount(jasperPrint, reportId);
+        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Fragments Spliced");
+        
+        String filePath = exportToPdfFile(jasperPrint, reportId);
+        
+        // Written once the PDF is committed. The rewritten footers they now carry are rewritten
+        // again whenever a fragment is spliced into a later report.
+        reportFragmentCache.storeInBackground(refilledFragments);
+        
+        logger.info("Generated incremental certifications report with {} employees ({} re-filled), {} pages, {} KB",
+                   orderedIds.size(), changedIds.size() + 1, actualPageCount, new File(filePath).length() / 1024);
+        
+        return filePath;
+    }
+    
+    /**
+     * Split filled pages into employees; each employee starts on a new page with its group header
+     */
+    private Map<String, List<JRPrintPage>> splitPagesByEmployee(List<JRPrintPage> pages) {
+        Map<String, List<JRPrintPage>> pagesByEmployee = new LinkedHashMap<>();
+        List<JRPrintPage> current = null;
+        for (JRPrintPage page : pages) {
+            for (JRPrintElement element : page.getElements()) {
+                if (element instanceof JRPrintText text && EMPLOYEE_ID_ELEMENT_KEY.equals(text.getKey())) {
+                    current = pagesByEmployee.computeIfAbsent(text.getFullText(), id -> new ArrayList<>());
+                    break;
+                }
+            }
+            if (current != null) {
+                current.add(page);
+            }
+        }
+        return pagesByEmployee;
+    }
+    
+    /**
+     * Report parameters with the precomputed summary statistics, so the template shows them
+     * without accumulating anything over the rows
+     */
+    private Map<String, Object> createReportParameters(ReportSummaryService.ReportSummary summary) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("REPORT_TITLE", "Employee Certification Report");
+        parameters.put("GENERATION_DATE", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        parameters.put("TOTAL_EMPLOYEES", Math.toIntExact(summary.employees()));
+        parameters.put("COMPANY_NAME", "CertReport Systems");
+        parameters.put("TOTAL_CERTIFICATIONS", summary.certifications());
+        parameters.put("COMPLETED_CERTIFICATIONS", summary.completed());
+        parameters.put("IN_PROGRESS_CERTIFICATIONS", summary.inProgress());
+        parameters.put("FAILED_CERTIFICATIONS", summary.failed());
+        parameters.put("TOTAL_DEPARTMENTS", summary.departments().size());
+        parameters.put("DEPARTMENT_SUMMARIES", summary.departments());
+        return parameters;
+    }
+    
+    /**
+     * Save the actual page count from the filled report to the report record
+     */
+    private int savePageCount(JasperPrint jasperPrint, String reportId) {
+        int actualPageCount = jasperPrint.getPages().size();
+        
+        reportRepository.updatePageCount(reportId, actualPageCount);
+        
+        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Report Filled");
+        return actualPageCount;
+    }
+    
+    private String exportToPdfFile(JasperPrint jasperPrint, String reportId) throws JRException {
         String fileName = String.format("CertificationReport_%s_%s.pdf", 
                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss")),
                 reportId.substring(0, 8));
-        String filePath = System.getProperty("java.io.tmpdir") + File.separator + fileName;
+        Path tempFile = newReportFile(reportId, fileName);
+        
+        ReportProgressBoard.Tracker progress = reportProgressBoard.tracker(reportId);
+        progress.exporting(jasperPrint.getPages().size());
         
-        JasperExportManager.exportReportToPdfFile(jasperPrint, filePath);
+        // Exported page by page through a counting stream so progress can follow the export
+        JRExportProgressMonitor progressMonitor = () -> {
+            // The exporter has no cancel of its own; stop it between pages
+            reportCancellationRegistry.throwIfCancelled(reportId);
+            progress.pageExported();
+        };
+        try (OutputStream out = new BufferedOutputStream(new CountingOutputStream(
+                new FileOutputStream(tempFile.toFile()), bytesExportedListener(reportId)))) {
+            if (parallelPdfExporter.isApplicable(jasperPrint)) {
+                // Large report: page ranges are exported concurrently and merged
+                parallelPdfExporter.export(jasperPrint, out, progressMonitor);
+            } else {
+                SimplePdfReportConfiguration configuration = new SimplePdfReportConfiguration();
+                configuration.setProgressMonitor(progressMonitor);
+                JRPdfExporter exporter = new JRPdfExporter();
+                exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+                exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+                exporter.setConfiguration(configuration);
+                exporter.exportReport();
+            }
+        } catch (IOException e) {
+            reportFileStore.discard(tempFile);
+            throw new JRException("Failed to write PDF to " + tempFile, e);
+        } catch (JRException | RuntimeException e) {
+            reportFileStore.discard(tempFile);
+            throw e;
+        }
+        String filePath = commitReportFile(tempFile);
         
-        // Get actual file size
-        File generatedFile = new File(filePath);
-        long fileSizeBytes = generatedFile.exists() ? generatedFile.length() : 0;
+        // Kept so the report can be exported to other formats later without filling it again;
+        // written after the PDF is committed and off the render permit
+        reportPrintStore.storeInBackground(reportId, jasperPrint);
         
         // Record final memory snapshot
         actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "PDF Generation Complete");
         
-        logger.info("Generated certifications report with {} employees, {} certification activities, {} pages, {} KB", 
-                   reportData.size(), activityData.size(), actualPageCount, fileSizeBytes / 1024);
-        
         return filePath;
     }
       /**
      * Intelligently selects PDF generation approach based on memory constraints.
      * Falls back to traditional approach if memory-efficient processing is disabled or fails.
      */
-    private String generateMemoryConstrainedCertificationsPdfReport(List<CompleteReportDataDto> reportData, String reportId) throws Exception {        if (!pdfProperties.isEnabled()) {
+    private String generateMemoryConstrainedCertificationsPdfReport(List<CompleteReportDataDto> reportData,
+                                                                    ReportSummaryService.ReportSummary summary,
+                                                                    String reportId) throws Exception {        if (!pdfProperties.isEnabled()) {
             logger.info("Memory-efficient PDF processing disabled, using traditional approach");
-            return generateCertificationsPdfReport(reportData, reportId);
+            return generateCertificationsPdfReport(reportData, summary, reportId);
         }
           // Check if we should use optimized approach based on memory threshold
         // Note: This memory check is for intelligent algorithm selection, not performance monitoring
-        Runtime runtime = Runtime.getRuntime();
-        long estimatedMemoryUsage = reportData.size() * 580_000; // ~580KB per employee (from analysis)
-        long availableMemory = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
-          if (estimatedMemoryUsage > pdfProperties.getThresholdMb() * 1024 * 1024 || availableMemory < estimatedMemoryUsage * 2) {
-            logger.info("Using memory-efficient PDF generation due to memory constraints. Estimated: {}MB, Available: {}MB", 
-                       estimatedMemoryUsage / (1024 * 1024), availableMemory / (1024 * 1024));
+        if (exceedsMemoryThreshold(reportData.size())) {
             
             try {
-                return generateWithMemoryEfficientService(reportData, reportId);
+                return generateWithMemoryEfficientService(reportData, summary, reportId);
             } catch (Exception e) {
                 logger.warn("Memory-efficient PDF generation failed, falling back to traditional approach: {}", e.getMessage());
-                return generateCertificationsPdfReport(reportData, reportId);
+                return generateCertificationsPdfReport(reportData, summary, reportId);
             }
         } else {
             logger.info("Using traditional PDF generation for optimal performance");
-            return generateCertificationsPdfReport(reportData, reportId);
+            return generateCertificationsPdfReport(reportData, summary, reportId);
         }
     }
+    /**
+     * Once the fill has consumed the loaded rows, only the filled pages stay on the heap through export
+     */
+    private void releaseLoadedData(String reportId, int employeeCount) {
+        reportMemoryBudget.shrink(reportId, reportMemoryBudget.estimateFilledPages(employeeCount));
+    }
+    
+    /**
+     * Exporting a virtualized print keeps only the virtualizer's in-memory pages on the heap, about
+     * one employee each, so the rest of the fill's reservation goes back to the budget
+     */
+    private void releaseVirtualizedFill(String reportId, int employeeCount) {
+        reportMemoryBudget.shrink(reportId, reportMemoryBudget.estimateMemoryEfficient(
+                Math.min(employeeCount, pdfProperties.getVirtualizerMaxPagesInMemory())));
+    }
+    
+    /**
+     * Whether filling the report in memory would go over the memory-efficient threshold or leave
+     * too little of the currently free heap
+     */
+    private boolean exceedsMemoryThreshold(int employeeCount) {
+        Runtime runtime = Runtime.getRuntime();
+        long estimatedMemoryUsage = reportMemoryBudget.estimateFullFill(employeeCount);
+        long availableMemory = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        if (estimatedMemoryUsage > pdfProperties.getThresholdMb() * 1024 * 1024 || availableMemory < estimatedMemoryUsage * 2) {
+            logger.info("Using memory-efficient PDF generation due to memory constraints. Estimated: {}MB, Available: {}MB", 
+                       estimatedMemoryUsage / (1024 * 1024), availableMemory / (1024 * 1024));
+            return true;
+        }
+        return false;
+    }
+    
       /**
      * Use the MemoryEfficientPdfGenerationService for memory-constrained PDF creation
      */
-    private String generateWithMemoryEfficientService(List<CompleteReportDataDto> reportData, String reportId) throws Exception {
+    private String generateWithMemoryEfficientService(List<CompleteReportDataDto> reportData,
+                                                      ReportSummaryService.ReportSummary summary,
+                                                      String reportId) throws Exception {
+        if (pdfProperties.isVirtualizerEnabled()) {
+            // Rows are read again from the cursor rather than copied into activity and adapter lists
+            return generateWithVirtualizer(reportData.stream().map(data -> data.getEmployee().getId()).toList(),
+                                           summary, reportId);
+        }
+        
         actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Memory-Efficient PDF Generation Start");
           // Convert to activity data for memory-efficient service
         List<EmployeeCertificationActivityDto> activityData = createActivityDataFromReportData(reportData);
-          // Generate memory-efficient PDF
-        byte[] pdfBytes = memoryEfficientPdfGenerationService.generateOptimizedReport(
-            activityData, 
-            "Employee Certification Report"
-        );
-          // Save to file
+        reportProgressBoard.tracker(reportId).filling(activityData.size());
+        
         String fileName = String.format("CertificationReport_MemoryEfficient_%s_%s.pdf", 
                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss")),
                 reportId.substring(0, 8));
-        String filePath = System.getProperty("java.io.tmpdir") + File.separator + fileName;
+        Path tempFile = newReportFile(reportId, fileName);
         
-        try (java.io.FileOutputStream fos = new java.io.FileOutputStream(filePath)) {
-            fos.write(pdfBytes);
+        // Generate memory-efficient PDF straight into the report file
+        MemoryEfficientPdfGenerationService.PdfExportResult result;
+        try {
+            result = memoryEfficientPdfGenerationService.generateOptimizedReport(
+                activityData, 
+                "Employee Certification Report",
+                tempFile.toString(),
+                bytesExportedListener(reportId)
+            );
+        } catch (JRException | RuntimeException e) {
+            reportFileStore.discard(tempFile);
+            throw e;
         }
+        String filePath = commitReportFile(tempFile);
         
-        // Update report with page count (estimate based on content)
-        Report report = reportRepository.findById(reportId).orElseThrow();
-        int estimatedPageCount = Math.max(1, activityData.size() / 20); // ~20 activities per page
-        report.setPageCount(estimatedPageCount);
-        reportRepository.save(report);
+        // Update report with the actual page count
+        reportRepository.updatePageCount(reportId, result.pageCount());
           actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Memory-Efficient PDF Generation Complete");
         
-        logger.info("Generated memory-efficient PDF with {} employees, {} activities, ~{} pages, {} KB",
-                   reportData.size(), activityData.size(), estimatedPageCount, pdfBytes.length / 1024);
+        logger.info("Generated memory-efficient PDF with {} employees, {} activities, {} pages, {} KB",
+                   reportData.size(), activityData.size(), result.pageCount(), result.bytesWritten() / 1024);
         
         return filePath;
     }
 
+    /**
+     * Fill once from the report row cursor with filled pages swapped to local disk and export
+     * directly to the report file, so neither the report data, the merged JasperPrint nor the
+     * PDF bytes are held on the heap
+     */
+    private String generateWithVirtualizer(List<String> employeeIds,
+                                           ReportSummaryService.ReportSummary summary,
+                                           String reportId) throws JRException {
+        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Memory-Efficient PDF Generation Start");
+        
+        Map<String, Object> parameters = createReportParameters(summary);
+        reportProgressBoard.tracker(reportId).filling(estimateReportRows(parameters));
+        
+        String fileName = String.format("CertificationReport_MemoryEfficient_%s_%s.pdf", 
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss")),
+                reportId.substring(0, 8));
+        Path tempFile = newReportFile(reportId, fileName);
+        
+        MemoryEfficientPdfGenerationService.PdfExportResult result;
+        try {
+            // The cursor is closed once the fill is done; export reads the swapped pages only
+            result = memoryEfficientPdfGenerationService.generateVirtualizedReport(
+                (jasperReport, fillParameters) -> loadWithinDeadline(reportId, () ->
+                        certificationService.fillFromReportRowCursor(employeeIds, dataSource -> {
+                            ReportCancellationRegistry.Registration query = cancelQueryOnCancel(reportId);
+                            try {
+                                JasperPrint jasperPrint = fillReport(jasperReport, fillParameters, dataSource, reportId);
+                                releaseVirtualizedFill(reportId, employeeIds.size());
+                                return jasperPrint;
+                            } finally {
+                                query.close();
+                            }
+                        })),
+                parameters,
+                tempFile.toString(),
+                bytesExportedListener(reportId)
+            );
+        } catch (JRException | RuntimeException e) {
+            reportFileStore.discard(tempFile);
+            throw e;
+        }
+        String filePath = commitReportFile(tempFile);
+        
+        reportRepository.updatePageCount(reportId, result.pageCount());
+        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Memory-Efficient PDF Generation Complete");
+        
+        logger.info("Generated virtualized PDF with {} employees, {} pages, {} KB",
+                   employeeIds.size(), result.pageCount(), result.bytesWritten() / 1024);
+        
+        return filePath;
+    }
+
+    /**
+     * Temporary path in the report file store to write a report file to
+     */
+    private Path newReportFile(String reportId, String fileName) throws JRException {
+        try {
+            return reportFileStore.newTempFile(reportId, fileName);
+        } catch (IOException e) {
+            throw new JRException("Failed to create report file " + fileName, e);
+        }
+    }
+    
+    /**
+     * Move a completely written report file to its final name in the report file store
+     */
+    private String commitReportFile(Path tempFile) throws JRException {
+        try {
+            return reportFileStore.commit(tempFile);
+        } catch (IOException e) {
+            reportFileStore.discard(tempFile);
+            throw new JRException("Failed to store report file " + tempFile, e);
+        }
+    }
+    
+    /**
+     * Bytes written to the report file go to the export metric and the report's progress
+     */
+    private LongConsumer bytesExportedListener(String reportId) {
+        ReportProgressBoard.Tracker progress = reportProgressBoard.tracker(reportId);
+        return bytes -> {
+            actuatorPerformanceMonitor.recordPdfBytesExported(bytes);
+            progress.bytesExported(bytes);
+        };
+    }
+
     public Report getReportStatus(String reportId) {
         return reportRepository.findById(reportId)
                 .orElseThrow(() -> new RuntimeException("Report not found: " + reportId));
     }
     
+    /**
+     * Cancel a queued or generating report
+     *
+     * A queued job is taken out of the queue. Generation on this instance is stopped right away;
+     * on another instance, once its dispatcher next polls the queue. Heap reservations and render
+     * permits are released as the worker unwinds.
+     *
+     * @return the report, CANCELLED unless it had already finished
+     */
+    public Report cancelReport(String reportId) {
+        Report report = getReportStatus(reportId);
+        if (report.getStatus() != Report.ReportStatus.QUEUED && report.getStatus() != Report.ReportStatus.IN_PROGRESS) {
+            return report;
+        }
+        
+        // Job first, so a worker that has just claimed it still finds the cancel on its next poll
+        reportJobService.cancel(reportId);
+        boolean runningHere = reportCancellationRegistry.cancel(reportId);
+        
+        if (reportRepository.markStopped(reportId, Report.ReportStatus.CANCELLED, CANCELLED_MESSAGE, LocalDateTime.now()) == 0) {
+            // The worker finished first; its outcome and file stand
+            return getReportStatus(reportId);
+        }
+        report = getReportStatus(reportId);
+        if (!runningHere) {
+            reportProgressBoard.remove(reportId);
+        }
+        
+        logger.info("Cancelled report {}{}", reportId, runningHere ? " during generation" : "");
+        return report;
+    }
+    
     public List<Report> getAllReports() {
         return reportRepository.findAllByOrderByCreatedAtDesc();
     }
     
+    /**
+     * Files of a completed report in the given formats
+     *
+     * The format a report was generated in is its own file. Other formats are exported from the
+     * report's stored filled report - concurrently, and only the first time they are asked for -
+     * without loading data or filling again.
+     */
+    public Map<ReportPrintStore.ExportFormat, File> getReportFiles(String reportId,
+                                                                   Collection<ReportPrintStore.ExportFormat> formats) throws Exception {
+        File generated = getReportFile(reportId);
+        Map<ReportPrintStore.ExportFormat, File> files = new EnumMap<>(ReportPrintStore.ExportFormat.class);
+        List<ReportPrintStore.ExportFormat> missing = new ArrayList<>();
+        for (ReportPrintStore.ExportFormat format : formats) {
+            if (generated.getName().endsWith("." + format.getExtension())) {
+                files.put(format, generated);
+            } else {
+                reportPrintStore.findExport(reportId, format)
+                        .ifPresentOrElse(file -> files.put(format, file), () -> missing.add(format));
+            }
+        }
+        if (missing.isEmpty()) {
+            return files;
+        }
+        
+        JasperPrint jasperPrint = reportPrintStore.load(reportId).orElseThrow(() -> new IllegalStateException(
+                "Report " + reportId + " has no stored filled report to export " + missing + " from; generate it again"));
+        // Exports are CPU bound like generation, so they share its render permits
+        files.putAll(reportRenderLimiter.render(() -> {
+            Map<ReportPrintStore.ExportFormat, CompletableFuture<File>> futures = new EnumMap<>(ReportPrintStore.ExportFormat.class);
+            for (ReportPrintStore.ExportFormat format : missing) {
+                futures.put(format, CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return reportPrintStore.export(reportId, jasperPrint, format);
+                    } catch (JRException e) {
+                        throw new CompletionException(e);
+                    }
+                }, reportFillExecutor));
+            }
+            Map<ReportPrintStore.ExportFormat, File> exported = new EnumMap<>(ReportPrintStore.ExportFormat.class);
+            try {
+                for (Map.Entry<ReportPrintStore.ExportFormat, CompletableFuture<File>> future : futures.entrySet()) {
+                    exported.put(future.getKey(), future.getValue().join());
+                }
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+            return exported;
+        }));
+        return files;
+    }
+    
+    public File getReportFile(String reportId, ReportPrintStore.ExportFormat format) throws Exception {
+        return getReportFiles(reportId, List.of(format)).get(format);
+    }
+    
     public File getReportFile(String reportId) {
         Report report = getReportStatus(reportId);
         if (report.getStatus() != Report.ReportStatus.COMPLETED || report.getFilePath() == null) {
@@ -247,11 +992,49 @@ public class ReportService {
         return file;
     }
     
+    /**
+     * SHA-256 of a file of a completed report, used as its download ETag
+     *
+     * The report's own file is hashed when generation completes; other formats when they are exported.
+     */
+    public Optional<String> getContentHash(String reportId, File file) {
+        Report report = getReportStatus(reportId);
+        if (file.getPath().equals(report.getFilePath())) {
+            return Optional.ofNullable(report.getContentHash());
+        }
+        return reportPrintStore.findContentHash(file);
+    }
+    
+    /**
+     * Hash the finished report file once, while it is still in the page cache, so downloads
+     * never have to read it for an ETag
+     */
+    private static String contentHashOf(String filePath) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
     private String generateReportName(String reportType, int employeeCount) {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
         String type = reportType != null ? reportType.toLowerCase().replace("_", " ") : "employee demographics";
-        return String.format("%s_report_%d_employees_%s.pdf", 
-            type.replace(" ", "_"), employeeCount, timestamp);
+        String extension = TabularReportExporter.Format.forReportType(reportType)
+                .map(TabularReportExporter.Format::getExtension)
+                .orElse("pdf");
+        return String.format("%s_report_%d_employees_%s.%s", 
+            type.replace(" ", "_"), employeeCount, timestamp, extension);
     }
 
     private List<String> parseEmployeeIdsFromParameters(String parameters) {
@@ -280,8 +1063,32 @@ public class ReportService {
         return new ArrayList<>();
     }
 
-    @Async
-    public CompletableFuture<Void> generateReportAsync(Report report) {
+    /**
+     * Generate a queued report on the calling thread. Invoked by the job dispatcher on a report
+     * worker thread; failures are recorded on the report rather than thrown.
+     * 
+     * @param deadline when generation is stopped and the report failed, or null for no limit
+     * @return the final status of the report
+     */
+    public Report.ReportStatus executeReport(String reportId, LocalDateTime deadline) {
+        // Registered before anything else, so any cancel from here on reaches this worker
+        ReportCancellationRegistry.Cancellation cancellation = reportCancellationRegistry.register(reportId, deadline);
+        try {
+            return executeReport(reportId, cancellation);
+        } finally {
+            reportCancellationRegistry.unregister(cancellation);
+            // Don't carry a cancel interrupt over into the worker's next job
+            Thread.interrupted();
+        }
+    }
+    
+    private Report.ReportStatus executeReport(String reportId, ReportCancellationRegistry.Cancellation cancellation) {
+        Report report = getReportStatus(reportId);
+        if (report.getStatus() == Report.ReportStatus.CANCELLED) {
+            logger.info("Report {} was cancelled before generation started", reportId);
+            return report.getStatus();
+        }
+        
         // Start Actuator monitoring for execution time AND memory
         Timer.Sample timerSample = actuatorPerformanceMonitor.startReportGeneration(
             report.getId(),
@@ -296,31 +1103,38 @@ public class ReportService {
             if (employeeIds.isEmpty()) {
                 logger.warn("No employee IDs found in report parameters for report {}", report.getId());
                 // Get all employees if no specific IDs provided
-                List<EmployeeDto> allEmployees = employeeService.getAllEmployees();
-                employeeIds = allEmployees.stream().map(EmployeeDto::getId).collect(Collectors.toList());
+                employeeIds = employeeService.getAllEmployeeIds();
             }
-              logger.info("Starting async report generation for {} employees", employeeIds.size());
+              logger.info("Starting report generation for {} employees", employeeIds.size());
             
-            // Update report status
+            // Update report status, unless a cancel got there first
+            LocalDateTime startedAt = LocalDateTime.now();
+            if (reportRepository.markInProgress(reportId, startedAt) == 0) {
+                logger.info("Report {} was cancelled before generation started", reportId);
+                actuatorPerformanceMonitor.completeReportGeneration(timerSample, reportId, 0, 0L);
+                return getReportStatus(reportId).getStatus();
+            }
             report.setStatus(Report.ReportStatus.IN_PROGRESS);
-            reportRepository.save(report);
-            
-            // Record memory snapshot before data processing starts
-            actuatorPerformanceMonitor.recordDataProcessingStart(report.getId());
-            
-            // Build complete report data with certification details
-            List<CompleteReportDataDto> completeReportData = buildCompleteReportData(employeeIds);
+            report.setStartedAt(startedAt);
+            reportProgressBoard.start(reportId);
             
-            // Record memory snapshot after data loading completes
-            actuatorPerformanceMonitor.recordDataProcessingComplete(report.getId());
-              // Record memory snapshot before PDF generation
-            actuatorPerformanceMonitor.recordPdfGenerationStart(report.getId());
-              // Generate PDF using memory-efficient approach when beneficial
-            String filePath = generateMemoryConstrainedCertificationsPdfReport(completeReportData, report.getId());
+            // Tabular reports skip Jasper entirely: rows go from the cursor to the file in constant memory,
+            // so they need neither a heap reservation nor a render permit
+            Optional<TabularReportExporter.Format> tabularFormat = TabularReportExporter.Format.forReportType(report.getType());
+            String filePath = tabularFormat.isPresent()
+                    ? exportTabularReport(employeeIds, tabularFormat.get(), isGzipRequested(report.getParameters()), reportId)
+                    : isNativeRendererRequested(report.getParameters())
+                    ? generateNativeCertificationsPdf(employeeIds, reportId)
+                    : generateCertificationsPdf(employeeIds, reportId);
             
             // Record memory snapshot after PDF generation completes
             actuatorPerformanceMonitor.recordPdfGenerationComplete(report.getId());
             
+            // A cancel after the last check in fill/export still wins over the finished file
+            if (cancellation.isCancelled()) {
+                throw new CancellationException("Report " + reportId + " was cancelled");
+            }
+            
             // Reload the report to get the updated page count (set inside generateCertificationsPdfReport)
             report = reportRepository.findById(report.getId()).orElseThrow();
             
@@ -333,20 +1147,50 @@ public class ReportService {
                     new File(filePath).length()
                 );
             
-            // Update report with completion (page count already set in generateCertificationsPdfReport)
+            // Update report with completion (page count already set in generateCertificationsPdfReport),
+            // unless a cancel was saved since the check above; then the cancel stands and the file goes
+            String contentHash = contentHashOf(filePath);
+            LocalDateTime completedAt = LocalDateTime.now();
+            if (reportRepository.markCompleted(reportId, filePath, contentHash, completedAt) == 0) {
+                reportFileStore.delete(filePath);
+                reportProgressBoard.tracker(reportId).cancelled();
+                logger.info("Report {} was cancelled as its generation completed, discarded {}", reportId, filePath);
+                return getReportStatus(reportId).getStatus();
+            }
             report.setStatus(Report.ReportStatus.COMPLETED);
             report.setFilePath(filePath);
-            report.setCompletedAt(LocalDateTime.now());
-            reportRepository.save(report);
+            report.setContentHash(contentHash);
+            report.setCompletedAt(completedAt);
+            reportProgressBoard.tracker(reportId).completed();
             
-            logger.info("Successfully completed async report generation for report {} - {} pages, {} KB, {} ms", 
+            logger.info("Successfully completed report generation for report {} - {} pages, {} KB, {} ms", 
                        report.getId(), 
                        report.getPageCount(),
                        new File(filePath).length() / 1024,
                        performanceReport.durationMs);
             
         } catch (Exception e) {
-            logger.error("Error generating report {}: {}", report.getId(), e.getMessage(), e);
+            ReportCancellationRegistry.Reason stopReason = cancellation.getReason();
+            if (stopReason == null && isDeadlineTimeout(e, cancellation.getDeadline())) {
+                // A query timed out at the deadline just before the deadline timer fired
+                stopReason = ReportCancellationRegistry.Reason.DEADLINE;
+            }
+            boolean cancelled = stopReason == ReportCancellationRegistry.Reason.CANCELLED;
+            boolean deadlineExceeded = stopReason == ReportCancellationRegistry.Reason.DEADLINE;
+            String errorMessage = e.getMessage();
+            if (stopReason != null) {
+                // The stop interrupted this worker - clear it so the outcome can still be saved
+                Thread.interrupted();
+                actuatorPerformanceMonitor.recordReportStopped(deadlineExceeded ? "deadline" : "cancelled");
+            }
+            if (cancelled) {
+                logger.info("Report {} was cancelled during generation", report.getId());
+            } else if (deadlineExceeded) {
+                errorMessage = deadlineMessage(report.getStartedAt(), cancellation.getDeadline());
+                logger.warn("Report {} stopped: {}", report.getId(), errorMessage);
+            } else {
+                logger.error("Error generating report {}: {}", report.getId(), e.getMessage(), e);
+            }
             
             // Complete Actuator monitoring even on failure to capture error metrics
             try {
@@ -356,14 +1200,326 @@ public class ReportService {
                            report.getId(), monitoringException.getMessage());
             }
             
-            // Update report with error status
-            report.setStatus(Report.ReportStatus.FAILED);
-            report.setErrorMessage(e.getMessage());
-            report.setCompletedAt(LocalDateTime.now());
-            reportRepository.save(report);
+            // Update report with error status, unless a cancel was saved first
+            Report.ReportStatus stoppedStatus = cancelled ? Report.ReportStatus.CANCELLED : Report.ReportStatus.FAILED;
+            String stoppedMessage = cancelled ? CANCELLED_MESSAGE : errorMessage;
+            LocalDateTime completedAt = LocalDateTime.now();
+            if (reportRepository.markStopped(reportId, stoppedStatus, stoppedMessage, completedAt) > 0) {
+                report.setStatus(stoppedStatus);
+                report.setErrorMessage(stoppedMessage);
+                report.setCompletedAt(completedAt);
+            } else {
+                report = getReportStatus(reportId);
+                cancelled = report.getStatus() == Report.ReportStatus.CANCELLED;
+            }
+            if (cancelled) {
+                reportProgressBoard.tracker(reportId).cancelled();
+            } else {
+                reportProgressBoard.tracker(reportId).failed(errorMessage);
+            }
+        }
+        
+        return report.getStatus();
+    }
+    
+    /**
+     * Generate the certifications PDF, choosing between sharded, incremental, streaming and
+     * in-memory generation by report size and the heap available
+     */
+    private String generateCertificationsPdf(List<String> employeeIds, String reportId) throws Exception {
+        boolean sharded = pdfProperties.isShardingEnabled() && employeeIds.size() >= pdfProperties.getShardingThresholdEmployees();
+        boolean streaming = !sharded && pdfProperties.isStreamingEnabled() && employeeIds.size() >= pdfProperties.getStreamingThresholdEmployees();
+        
+        // Reserve heap before loading anything. Reports that would hold everything in memory get a bounded
+        // wait for their full estimate and are otherwise downgraded to a memory-efficient path.
+        ReportMemoryBudget.Reservation reservation = null;
+        if (!streaming) {
+            reservation = reportMemoryBudget.tryReserve(reportId,
+                    reportMemoryBudget.estimateFullFill(employeeIds.size()), reportMemoryBudget.getMaxWaitMs());
+        }
+        boolean downgraded = !streaming && reservation == null;
+        if (reservation == null) {
+            reservation = reportMemoryBudget.reserve(reportId, reportMemoryBudget.estimateMemoryEfficient(employeeIds.size()));
+        }
+        if (downgraded) {
+            logger.info("Heap budget exhausted, downgrading report {} to memory-efficient generation", reportId);
+        }
+        // Checked before the fragment path, which fills and splices every page on the heap as well
+        boolean overThreshold = !streaming && !sharded && !downgraded
+                && pdfProperties.isEnabled() && exceedsMemoryThreshold(employeeIds.size());
+        boolean fragments = !streaming && !downgraded && !overThreshold && reportFragmentCache.isEnabled();
+        boolean virtualized = !streaming && !sharded && pdfProperties.isVirtualizerEnabled() && (downgraded || overThreshold);
+        if ((sharded && !downgraded) || fragments) {
+            // Shards fill from row cursors, so none of the full estimate's loaded rows are ever held
+            reservation.shrinkTo(reportMemoryBudget.estimateFilledPages(employeeIds.size()));
+        } else if (virtualized) {
+            // Admitted at the full estimate but filled with pages swapped to disk
+            reservation.shrinkTo(reportMemoryBudget.estimateMemoryEfficient(employeeIds.size()));
+        }
+        
+        // Fill/export is CPU bound, so it runs under a render permit while loading does not
+        String filePath;
+        try {
+            if (sharded && !downgraded) {
+                // Very large report: department shards are loaded and filled concurrently
+                logger.info("Using department shards for {} employees", employeeIds.size());
+                actuatorPerformanceMonitor.recordPdfGenerationStart(reportId);
+                filePath = reportRenderLimiter.render(() -> generateShardedCertificationsPdfReport(employeeIds, reportId));
+            } else if (fragments) {
+                // Regular report: only employees whose data changed are filled again
+                logger.info("Using cached employee fragments for {} employees", employeeIds.size());
+                actuatorPerformanceMonitor.recordPdfGenerationStart(reportId);
+                filePath = reportRenderLimiter.render(() -> generateIncrementalCertificationsPdfReport(employeeIds, reportId));
+            } else if (virtualized) {
+                // Memory-constrained report: filled from a database cursor with pages swapped to disk
+                logger.info("Using virtualized fill from the row cursor for {} employees", employeeIds.size());
+                actuatorPerformanceMonitor.recordPdfGenerationStart(reportId);
+                ReportSummaryService.ReportSummary summary = reportSummaryService.summarize(employeeIds);
+                filePath = reportRenderLimiter.render(() -> generateWithVirtualizer(employeeIds, summary, reportId));
+            } else if (streaming || sharded) {
+                // Large report: data is pulled from a database cursor during fill, nothing is loaded up front
+                logger.info("Using streaming data source for {} employees", employeeIds.size());
+                actuatorPerformanceMonitor.recordPdfGenerationStart(reportId);
+                filePath = reportRenderLimiter.render(() -> generateStreamingCertificationsPdfReport(employeeIds, reportId));
+            } else {
+                // Record memory snapshot before data processing starts
+                actuatorPerformanceMonitor.recordDataProcessingStart(reportId);
+                
+                // Summary statistics are aggregated by the database while the report data loads
+                CompletableFuture<ReportSummaryService.ReportSummary> summaryFuture =
+                        reportSummaryService.summarizeAsync(employeeIds);
+                
+                // Build complete report data with certification details
+                List<CompleteReportDataDto> completeReportData =
+                        loadWithinDeadline(reportId, () -> buildCompleteReportData(employeeIds));
+                reportCancellationRegistry.throwIfCancelled(reportId);
+                ReportSummaryService.ReportSummary summary = awaitSummary(summaryFuture);
+                
+                // Record memory snapshot after data loading completes
+                actuatorPerformanceMonitor.recordDataProcessingComplete(reportId);
+                  // Record memory snapshot before PDF generation
+                actuatorPerformanceMonitor.recordPdfGenerationStart(reportId);
+                  // Generate PDF using memory-efficient approach when beneficial
+                filePath = reportRenderLimiter.render(() -> downgraded
+                        ? generateWithMemoryEfficientService(completeReportData, summary, reportId)
+                        : generateMemoryConstrainedCertificationsPdfReport(completeReportData, summary, reportId));
+            }
+        } finally {
+            // Whatever is still reserved is garbage once the PDF is written
+            reservation.close();
+        }
+        
+        return filePath;
+    }
+    
+    /**
+     * Render the certifications PDF with the native renderer, which writes pages straight from the
+     * row cursor. Heap use is flat whatever the report size, so no heap is reserved; rendering is
+     * still CPU bound and runs under a render permit.
+     */
+    private String generateNativeCertificationsPdf(List<String> employeeIds, String reportId) throws Exception {
+        logger.info("Using native PDF renderer for {} employees", employeeIds.size());
+        actuatorPerformanceMonitor.recordPdfGenerationStart(reportId);
+        return reportRenderLimiter.render(() -> generateNativeCertificationsPdfReport(employeeIds, reportId));
+    }
+    
+    private String generateNativeCertificationsPdfReport(List<String> employeeIds, String reportId) throws JRException {
+        String fileName = String.format("CertificationReport_%s_%s.pdf", 
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss")),
+                reportId.substring(0, 8));
+        Path tempFile = newReportFile(reportId, fileName);
+        
+        Map<String, Object> parameters = createReportParameters(reportSummaryService.summarize(employeeIds));
+        ReportProgressBoard.Tracker progress = reportProgressBoard.tracker(reportId);
+        progress.filling(estimateReportRows(parameters));
+        
+        long startNanos = System.nanoTime();
+        NativeCertificationPdfRenderer.RenderResult result;
+        // Bytes only go to the metric; progress follows rows until the file is complete
+        try (OutputStream out = new BufferedOutputStream(new CountingOutputStream(
+                new FileOutputStream(tempFile.toFile()), actuatorPerformanceMonitor::recordPdfBytesExported), 64 * 1024)) {
+            result = loadWithinDeadline(reportId, () ->
+                    certificationService.fillFromReportRowCursor(employeeIds, dataSource -> {
+                        ReportCancellationRegistry.Registration query = cancelQueryOnCancel(reportId);
+                        try {
+                            return nativePdfRenderer.render(dataSource, parameters, out,
+                                    new NativeCertificationPdfRenderer.RenderListener() {
+                                        @Override
+                                        public void rowRendered() {
+                                            progress.rowConsumed();
+                                            reportCancellationRegistry.throwIfCancelled(reportId);
+                                        }
+                                        
+                                        @Override
+                                        public void pageRendered() {
+                                            progress.pageFilled();
+                                        }
+                                    });
+                        } catch (IOException e) {
+                            throw new JRException("Failed to write PDF to " + tempFile, e);
+                        } finally {
+                            query.close();
+                        }
+                    }));
+        } catch (IOException e) {
+            reportFileStore.discard(tempFile);
+            throw new JRException("Failed to write PDF to " + tempFile, e);
+        } catch (JRException | RuntimeException e) {
+            reportFileStore.discard(tempFile);
+            throw e;
+        }
+        long durationNanos = System.nanoTime() - startNanos;
+        String filePath = commitReportFile(tempFile);
+        progress.bytesExported(new File(filePath).length());
+        
+        reportRepository.updatePageCount(reportId, result.pageCount());
+        // Same snapshot as after a Jasper fill, for comparing the heap the two renderers need
+        actuatorPerformanceMonitor.recordMemorySnapshot(reportId, "Report Filled");
+        actuatorPerformanceMonitor.recordNativeRender(result.pageCount(), durationNanos);
+        
+        logger.info("Rendered native certifications report with {} employees, {} certification activities, {} pages, {} KB in {} ms", 
+                   employeeIds.size(), result.rowCount(), result.pageCount(), new File(filePath).length() / 1024,
+                   durationNanos / 1_000_000);
+        return filePath;
+    }
+    
+    /**
+     * Stream the report rows to a CSV or JSON Lines file, optionally gzipped
+     */
+    private String exportTabularReport(List<String> employeeIds, TabularReportExporter.Format format, boolean gzip,
+                                       String reportId) throws JRException {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        String fileName = String.format("CertificationReport_%s_%s.%s%s",
+            reportId, timestamp, format.getExtension(), gzip ? ".gz" : "");
+        Path tempFile = newReportFile(reportId, fileName);
+        
+        ReportProgressBoard.Tracker progress = reportProgressBoard.tracker(reportId);
+        progress.filling(estimateReportRows(createReportParameters(reportSummaryService.summarize(employeeIds))));
+        logger.info("Exporting report {} as {} for {} employees", reportId, format, employeeIds.size());
+        
+        long startNanos = System.nanoTime();
+        long rowCount;
+        try (OutputStream out = new FileOutputStream(tempFile.toFile())) {
+            rowCount = loadWithinDeadline(reportId, () -> {
+                try {
+                    return tabularReportExporter.export(employeeIds, format, gzip, out, () -> {
+                        progress.rowConsumed();
+                        reportCancellationRegistry.throwIfCancelled(reportId);
+                    });
+                } catch (IOException e) {
+                    throw new JRException("Failed to write " + format + " rows to " + tempFile, e);
+                }
+            });
+        } catch (IOException e) {
+            reportFileStore.discard(tempFile);
+            throw new JRException("Failed to write " + format + " rows to " + tempFile, e);
+        } catch (JRException | RuntimeException e) {
+            // Don't leave a truncated file behind for a cancelled or failed export
+            reportFileStore.discard(tempFile);
+            throw e;
         }
+        String filePath = commitReportFile(tempFile);
+        actuatorPerformanceMonitor.recordTabularExport(format.getExtension(), rowCount, System.nanoTime() - startNanos);
+        progress.bytesExported(new File(filePath).length());
+        
+        logger.info("Exported report {} as {}: {} rows, {} KB", reportId, format, rowCount, new File(filePath).length() / 1024);
+        return filePath;
+    }
+    
+    /**
+     * Stream the CSV or JSON Lines rows of a request straight into a response, without queueing a
+     * report or writing a file
+     *
+     * The export gets the time limit of a queued job of its size: its queries time out and its
+     * rows stop at the deadline. Only report.jobs.max-concurrent-exports exports hold a row cursor
+     * at once; others wait for a slot until their deadline.
+     *
+     * @return number of rows written
+     */
+    public long exportReportRows(ReportRequestDto request, TabularReportExporter.Format format, OutputStream out)
+            throws IOException {
+        List<String> requestedIds = request.getEmployeeIds() != null ? request.getEmployeeIds() : List.of();
+        List<String> employeeIds = requestedIds.isEmpty() ? employeeService.getAllEmployeeIds() : requestedIds;
         
-        return CompletableFuture.completedFuture(null);
+        // Registered like a report, so the deadline reaches the loading step and the row loop
+        String exportId = "export-" + UUID.randomUUID();
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime deadline = startedAt.plusSeconds(reportJobService.timeLimitSeconds(employeeIds.size()));
+        ReportCancellationRegistry.Cancellation cancellation = reportCancellationRegistry.register(exportId, deadline);
+        try {
+            if (!rowExportPermits.tryAcquire(Duration.between(LocalDateTime.now(), deadline).toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("No row export slot became free within the " + exportTimeLimit(startedAt, deadline));
+            }
+            try {
+                long startNanos = System.nanoTime();
+                long rowCount = loadWithinDeadline(exportId, () -> {
+                    try {
+                        return tabularReportExporter.export(employeeIds, format, request.isGzip(), out,
+                                () -> reportCancellationRegistry.throwIfCancelled(exportId));
+                    } catch (IOException e) {
+                        throw new JRException("Failed to stream " + format + " rows", e);
+                    }
+                });
+                actuatorPerformanceMonitor.recordTabularExport(format.getExtension(), rowCount, System.nanoTime() - startNanos);
+                logger.info("Streamed {} {} rows for {} employees", rowCount, format, employeeIds.size());
+                return rowCount;
+            } finally {
+                rowExportPermits.release();
+            }
+        } catch (InterruptedException | JRException | RuntimeException e) {
+            if (cancellation.getReason() != null || isDeadlineTimeout(e, deadline)) {
+                actuatorPerformanceMonitor.recordReportStopped("deadline");
+                String message = "Row export exceeded its " + exportTimeLimit(startedAt, deadline);
+                logger.warn("Stopped streaming {} rows for {} employees: {}", format, employeeIds.size(), message);
+                throw new IOException(message, e);
+            }
+            if (e instanceof JRException && e.getCause() instanceof IOException ioException) {
+                // Typically the client went away
+                throw ioException;
+            }
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Failed to stream " + format + " rows: " + e.getMessage(), e);
+        } finally {
+            reportCancellationRegistry.unregister(cancellation);
+            // The deadline interrupts the request thread; don't carry that over
+            Thread.interrupted();
+        }
+    }
+    
+    private static String exportTimeLimit(LocalDateTime startedAt, LocalDateTime deadline) {
+        return "time limit of " + Duration.between(startedAt, deadline).toSeconds() + " s";
+    }
+    
+    private boolean isGzipRequested(String parameters) {
+        return parameters != null && parameters.contains("gzip=true");
+    }
+    
+    private boolean isNativeRendererRequested(String parameters) {
+        return parameters != null && parameters.toLowerCase().contains("renderer=" + NATIVE_RENDERER);
+    }
+    
+    private static boolean isDeadlineTimeout(Throwable e, LocalDateTime deadline) {
+        if (deadline == null || LocalDateTime.now().isBefore(deadline)) {
+            return false;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransactionTimedOutException || cause instanceof QueryTimeoutException
+                    || cause instanceof jakarta.persistence.QueryTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String deadlineMessage(LocalDateTime startedAt, LocalDateTime deadline) {
+        if (startedAt == null) {
+            return "Report generation exceeded its deadline of " + deadline;
+        }
+        // Rounded up - the job was claimed a moment before the report was marked started
+        long limitSeconds = (Duration.between(startedAt, deadline).toMillis() + 999) / 1000;
+        return "Report generation exceeded its deadline of " + limitSeconds + " s";
     }
       /**
      * Builds complete report data with detailed certification information using efficient batch queries
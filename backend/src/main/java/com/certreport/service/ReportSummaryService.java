@@ -0,0 +1,82 @@
+package com.certreport.service;
+
+import com.certreport.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Summary statistics of a certifications report, aggregated in the database
+ *
+ * The title-page totals and the per-department subtotals come from one query grouped by
+ * department, so neither the report service nor the template has to accumulate them over the
+ * report rows. The query can run on the report fill pool while the rows themselves are loaded.
+ */
+@Service
+public class ReportSummaryService {
+
+    /**
+     * Certification counts of the employees of one department
+     */
+    public record DepartmentSummary(String department, long employees, long certifications,
+                                    long completed, long inProgress, long failed) {}
+
+    /**
+     * Certification counts of the employees of a report, in total and by department in report order
+     */
+    public record ReportSummary(long employees, long certifications, long completed, long inProgress, long failed,
+                                Map<String, DepartmentSummary> departments) {}
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeIdBinder employeeIdBinder;
+    private final Executor reportFillExecutor;
+
+    public ReportSummaryService(EmployeeRepository employeeRepository,
+                                EmployeeIdBinder employeeIdBinder,
+                                @Qualifier("reportFillExecutor") Executor reportFillExecutor) {
+        this.employeeRepository = employeeRepository;
+        this.employeeIdBinder = employeeIdBinder;
+        this.reportFillExecutor = reportFillExecutor;
+    }
+
+    public ReportSummary summarize(List<String> employeeIds) {
+        Map<String, DepartmentSummary> departments = new LinkedHashMap<>();
+        long employees = 0;
+        long certifications = 0;
+        long completed = 0;
+        long inProgress = 0;
+        long failed = 0;
+        if (!employeeIds.isEmpty()) {
+            List<Object[]> rows = employeeIdBinder.query(employeeIds, employeeRepository::summarizeCertificationsByDepartment,
+                    employeeRepository::summarizeCertificationsByDepartmentIdArray);
+            for (Object[] row : rows) {
+                DepartmentSummary department = new DepartmentSummary((String) row[0], count(row[1]), count(row[2]),
+                        count(row[3]), count(row[4]), count(row[5]));
+                departments.put(department.department(), department);
+                employees += department.employees();
+                certifications += department.certifications();
+                completed += department.completed();
+                inProgress += department.inProgress();
+                failed += department.failed();
+            }
+        }
+        return new ReportSummary(employees, certifications, completed, inProgress, failed, departments);
+    }
+
+    /**
+     * Run the summary query on the report fill pool, e.g. while the report rows are loaded
+     */
+    public CompletableFuture<ReportSummary> summarizeAsync(List<String> employeeIds) {
+        return CompletableFuture.supplyAsync(() -> summarize(employeeIds), reportFillExecutor);
+    }
+
+    // SUM over no rows is null
+    private static long count(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+}
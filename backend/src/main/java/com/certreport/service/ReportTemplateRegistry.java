@@ -0,0 +1,187 @@
+package com.certreport.service;
+
+import jakarta.annotation.PostConstruct;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of compiled JasperReports templates
+ *
+ * Compiling a .jrxml runs the JDT compiler and costs hundreds of milliseconds per call, so
+ * templates are compiled once (eagerly at startup for the known templates) and the resulting
+ * JasperReport objects are shared. JasperReport instances are immutable after compilation and
+ * safe to fill concurrently from multiple threads.
+ *
+ * Cache entries are keyed by template name and the SHA-256 checksum of the template source,
+ * so a changed template on the classpath is never served stale. The checksum is computed again
+ * whenever the template's last-modified time changes, so an edited template file is picked up
+ * on its next use without a restart.
+ */
+@Service
+public class ReportTemplateRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportTemplateRegistry.class);
+
+    public static final String CERTIFICATIONS_REPORT = "certifications_report";
+
+    private static final String TEMPLATE_LOCATION = "reports/%s.jrxml";
+    private static final List<String> PRECOMPILED_TEMPLATES = List.of(CERTIFICATIONS_REPORT);
+
+    private final ActuatorPerformanceMonitor actuatorPerformanceMonitor;
+
+    // Template name -> last-modified time and checksum of the source currently on the classpath
+    private final Map<String, TemplateSource> sourcesByName = new ConcurrentHashMap<>();
+    private final Map<TemplateKey, JasperReport> compiledTemplates = new ConcurrentHashMap<>();
+
+    public ReportTemplateRegistry(ActuatorPerformanceMonitor actuatorPerformanceMonitor) {
+        this.actuatorPerformanceMonitor = actuatorPerformanceMonitor;
+    }
+
+    /**
+     * Compile the known templates at startup so the first report request does not pay for it
+     */
+    @PostConstruct
+    public void precompileTemplates() {
+        for (String templateName : PRECOMPILED_TEMPLATES) {
+            try {
+                getTemplate(templateName);
+            } catch (JRException e) {
+                // Do not prevent startup - the template is compiled again on first use
+                logger.error("Failed to precompile report template {}: {}", templateName, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Get the compiled template, compiling it on first access
+     */
+    public JasperReport getTemplate(String templateName) throws JRException {
+        TemplateKey key = new TemplateKey(templateName, getTemplateVersion(templateName));
+
+        JasperReport cached = compiledTemplates.get(key);
+        if (cached != null) {
+            actuatorPerformanceMonitor.recordTemplateCacheHit(templateName);
+            return cached;
+        }
+
+        try {
+            return compiledTemplates.computeIfAbsent(key, this::compile);
+        } catch (TemplateCompilationException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Checksum of the template source, usable as a template version in cache keys
+     */
+    public String getTemplateVersion(String templateName) throws JRException {
+        try {
+            long lastModified = lastModified(templateName);
+            TemplateSource source = sourcesByName.compute(templateName, (name, current) ->
+                    current != null && current.lastModified() == lastModified
+                            ? current
+                            : new TemplateSource(lastModified, checksum(readTemplateSource(name))));
+            // Templates compiled from an earlier source will not be asked for again
+            compiledTemplates.keySet().removeIf(key ->
+                    key.name().equals(templateName) && !key.checksum().equals(source.checksum()));
+            return source.checksum();
+        } catch (TemplateCompilationException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Drop all compiled templates, forcing recompilation on next access
+     */
+    public void evictAll() {
+        sourcesByName.clear();
+        compiledTemplates.clear();
+        logger.info("Evicted all compiled report templates");
+    }
+
+    public int getCachedTemplateCount() {
+        return compiledTemplates.size();
+    }
+
+    private JasperReport compile(TemplateKey key) {
+        long startNanos = System.nanoTime();
+        try (InputStream source = new ByteArrayInputStream(readTemplateSource(key.name()))) {
+            JasperReport jasperReport = JasperCompileManager.compileReport(source);
+            long durationNanos = System.nanoTime() - startNanos;
+
+            actuatorPerformanceMonitor.recordTemplateCompilation(key.name(), durationNanos);
+            logger.info("Compiled report template {} (checksum {}) in {} ms",
+                       key.name(), key.checksum().substring(0, 12), durationNanos / 1_000_000);
+            return jasperReport;
+        } catch (JRException e) {
+            throw new TemplateCompilationException(e);
+        } catch (IOException e) {
+            throw new TemplateCompilationException(new JRException("Failed to read report template " + key.name(), e));
+        }
+    }
+
+    /**
+     * Last-modified time of the template resource, or 0 where it cannot be told and the first
+     * checksum is kept
+     */
+    private long lastModified(String templateName) {
+        try {
+            return new ClassPathResource(String.format(TEMPLATE_LOCATION, templateName)).lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private byte[] readTemplateSource(String templateName) {
+        ClassPathResource resource = new ClassPathResource(String.format(TEMPLATE_LOCATION, templateName));
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new TemplateCompilationException(
+                new JRException("Report template not found at /" + resource.getPath(), e));
+        }
+    }
+
+    private static String checksum(byte[] source) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(source));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record TemplateKey(String name, String checksum) {}
+
+    private record TemplateSource(long lastModified, String checksum) {}
+
+    /**
+     * Carries a checked JRException out of ConcurrentHashMap.computeIfAbsent
+     */
+    private static class TemplateCompilationException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TemplateCompilationException(JRException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized JRException getCause() {
+            return (JRException) super.getCause();
+        }
+    }
+}
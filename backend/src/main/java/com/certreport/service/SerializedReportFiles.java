@@ -0,0 +1,61 @@
+package com.certreport.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Set;
+
+/**
+ * Reading and creating the serialized JasperReports objects the report caches keep on disk
+ *
+ * Deserializing a file instantiates whatever classes it names, so anyone able to place a file in
+ * a cache directory could run code in the application. Streams only accept JasperReports and JDK
+ * classes, and cache directories are created readable and writable by the application's user only.
+ */
+final class SerializedReportFiles {
+
+    private static final ObjectInputFilter JASPER_CLASSES_ONLY =
+            ObjectInputFilter.Config.createFilter("net.sf.jasperreports.**;java.**;!*");
+
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    private SerializedReportFiles() {
+    }
+
+    /**
+     * ObjectInputStream that rejects classes outside JasperReports and the JDK
+     */
+    static ObjectInputStream objectInput(InputStream in) throws IOException {
+        ObjectInputStream objectInput = new ObjectInputStream(in);
+        objectInput.setObjectInputFilter(JASPER_CLASSES_ONLY);
+        return objectInput;
+    }
+
+    /**
+     * Create a cache directory accessible to the application's user only. An existing directory
+     * must be owned by that user and is narrowed to owner-only access.
+     */
+    static void createPrivateDirectories(Path directory) throws IOException {
+        if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory);
+            return;
+        }
+        if (!Files.isDirectory(directory)) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        }
+        UserPrincipal user = directory.getFileSystem().getUserPrincipalLookupService()
+                .lookupPrincipalByName(System.getProperty("user.name"));
+        if (!Files.getOwner(directory).equals(user)) {
+            throw new IOException("Cache directory " + directory + " is not owned by " + user.getName());
+        }
+        if (!Files.getPosixFilePermissions(directory).equals(OWNER_ONLY)) {
+            Files.setPosixFilePermissions(directory, OWNER_ONLY);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.certreport.service;
+
+import com.certreport.dto.ReportRow;
+import com.certreport.model.Certification;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * JRDataSource that emits certification report rows straight from a forward-only database cursor
+ *
+ * Rows arrive ordered by employee as flat {@link ReportRow} projections, so nothing is hydrated
+ * or tracked by the persistence context and the rows are handed to the report as they are. Only
+ * the rows of the current employee are buffered - enough to compute the per-employee summary
+ * counts the template shows - so heap use stays flat regardless of the number of employees in
+ * the report.
+ */
+public class StreamingCertificationDataSource implements JRDataSource {
+
+    private final Iterator<ReportRow> cursor;
+    private final Deque<ReportRow> employeeRows = new ArrayDeque<>();
+
+    private ReportRow lookahead;
+    private ReportRow current;
+    private long completedCount;
+    private long inProgressCount;
+    private long failedCount;
+    private long rowCount;
+    private long employeeCount;
+
+    public StreamingCertificationDataSource(Iterator<ReportRow> cursor) {
+        this.cursor = cursor;
+        this.lookahead = cursor.hasNext() ? cursor.next() : null;
+    }
+
+    @Override
+    public boolean next() throws JRException {
+        if (employeeRows.isEmpty() && !readNextEmployee()) {
+            current = null;
+            return false;
+        }
+        current = employeeRows.poll();
+        rowCount++;
+        return true;
+    }
+
+    @Override
+    public Object getFieldValue(JRField field) throws JRException {
+        ReportRow row = current;
+        return switch (field.getName()) {
+            case "employee.id" -> row.employeeId();
+            case "employee.firstName" -> row.firstName();
+            case "employee.lastName" -> row.lastName();
+            case "employee.email" -> row.email();
+            case "employee.department" -> row.department();
+            case "employee.position" -> row.position();
+            case "employee.hireDate" -> row.hireDate();
+            case "certificationId" -> row.certificationId();
+            case "certificationName" -> row.certificationName();
+            case "certificationCategory" -> row.certificationCategory();
+            case "certificationDescription" -> row.certificationDescription();
+            case "status" -> row.status() != null ? row.status().toString() : null;
+            case "completionPercentage" -> row.completionPercentage();
+            case "currentStageName" -> row.currentStageName();
+            case "currentStageSequence" -> row.currentStageSequence();
+            case "enrolledAt" -> row.enrolledAt();
+            case "completedAt" -> row.completedAt();
+            case "dueDate" -> row.dueDate();
+            case "completedCertificationsCount" -> completedCount;
+            case "inProgressCertificationsCount" -> inProgressCount;
+            case "failedCertificationsCount" -> failedCount;
+            default -> throw new JRException("Unknown field in certification report: " + field.getName());
+        };
+    }
+
+    /**
+     * Row the data source is positioned on, for consumers that take whole rows rather than fields
+     */
+    public ReportRow getCurrentRow() {
+        return current;
+    }
+
+    /**
+     * Completed certifications of the employee of the current row
+     */
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    /**
+     * In-progress certifications of the employee of the current row
+     */
+    public long getInProgressCount() {
+        return inProgressCount;
+    }
+
+    /**
+     * Failed certifications of the employee of the current row
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Number of rows handed to the report so far
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Number of employees read from the cursor so far
+     */
+    public long getEmployeeCount() {
+        return employeeCount;
+    }
+
+    /**
+     * Buffer all rows of the next employee and compute their summary counts
+     */
+    private boolean readNextEmployee() {
+        if (lookahead == null) {
+            return false;
+        }
+
+        String employeeId = lookahead.employeeId();
+        String lastCertificationId = null;
+        completedCount = 0;
+        inProgressCount = 0;
+        failedCount = 0;
+
+        while (lookahead != null && lookahead.employeeId().equals(employeeId)) {
+            ReportRow row = lookahead;
+            // A certification with several in-progress stages yields several rows - keep the first
+            if (!row.hasCertification() || !row.certificationId().equals(lastCertificationId)) {
+                employeeRows.add(row);
+                lastCertificationId = row.certificationId();
+                count(row.status());
+            }
+            lookahead = cursor.hasNext() ? cursor.next() : null;
+        }
+
+        employeeCount++;
+        return true;
+    }
+
+    private void count(Certification.CertificationStatus status) {
+        if (status == Certification.CertificationStatus.COMPLETED) {
+            completedCount++;
+        } else if (status == Certification.CertificationStatus.IN_PROGRESS) {
+            inProgressCount++;
+        } else if (status == Certification.CertificationStatus.FAILED) {
+            failedCount++;
+        }
+    }
+}
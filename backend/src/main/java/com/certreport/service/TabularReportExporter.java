@@ -0,0 +1,247 @@
+package com.certreport.service;
+
+import com.certreport.dto.EmployeeCertificationActivityDto;
+import com.certreport.dto.ReportRow;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import net.sf.jasperreports.engine.JRException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the flattened employee-certification rows of a report as CSV or JSON Lines
+ *
+ * Rows come straight from the forward-only report row cursor and are written as they arrive,
+ * so heap use does not grow with the report. There is no Jasper fill or export - analysts who
+ * load reports into a spreadsheet only need the rows. CSV lines are written from the projected
+ * {@link ReportRow} columns; JSON lines keep the shape of {@link EmployeeCertificationActivityDto},
+ * with the employee as a nested object.
+ */
+@Component
+public class TabularReportExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Same format as the @JsonFormat of the activity DTO
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private static final List<String> CSV_COLUMNS = List.of(
+        "employeeId", "firstName", "lastName", "email", "department", "position", "hireDate",
+        "certificationId", "certificationName", "certificationCategory", "certificationDescription",
+        "status", "completionPercentage", "currentStageName", "currentStageSequence",
+        "enrolledAt", "completedAt", "dueDate",
+        "completedCertificationsCount", "inProgressCertificationsCount", "failedCertificationsCount"
+    );
+
+    /**
+     * Tabular report types and how they are written
+     */
+    public enum Format {
+        CSV("CERTIFICATION_CSV", "csv", "text/csv"),
+        JSONL("CERTIFICATION_JSONL", "jsonl", "application/x-ndjson");
+
+        private final String reportType;
+        private final String extension;
+        private final String contentType;
+
+        Format(String reportType, String extension, String contentType) {
+            this.reportType = reportType;
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getReportType() { return reportType; }
+        public String getExtension() { return extension; }
+        public String getContentType() { return contentType; }
+
+        /**
+         * Tabular format of a report type; empty for types rendered to PDF
+         */
+        public static Optional<Format> forReportType(String reportType) {
+            return Arrays.stream(values())
+                    .filter(format -> format.reportType.equalsIgnoreCase(reportType))
+                    .findFirst();
+        }
+
+        /**
+         * Tabular format of a report file, compressed or not; empty for PDFs
+         */
+        public static Optional<Format> forFileName(String fileName) {
+            String name = fileName.endsWith(".gz") ? fileName.substring(0, fileName.length() - 3) : fileName;
+            return Arrays.stream(values())
+                    .filter(format -> name.endsWith("." + format.extension))
+                    .findFirst();
+        }
+    }
+
+    private final CertificationService certificationService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter jsonRowWriter;
+
+    public TabularReportExporter(CertificationService certificationService, ObjectMapper objectMapper) {
+        this.certificationService = certificationService;
+        this.objectMapper = objectMapper;
+        // Flushing after every row would turn each one into a write to the file or socket
+        this.jsonRowWriter = objectMapper.writerFor(EmployeeCertificationActivityDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Write the report rows of the given employees to a stream, which is flushed but left open
+     *
+     * @param onRow called after every row written, e.g. to report progress or stop a cancelled export
+     * @return number of rows written
+     */
+    public long export(List<String> employeeIds, Format format, boolean gzip, OutputStream out, Runnable onRow)
+            throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(compressed != null ? compressed : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        RowWriter rowWriter = format == Format.CSV ? csvRowWriter(writer) : jsonLinesRowWriter(writer);
+
+        long rowCount = 0;
+        if (!employeeIds.isEmpty()) {
+            try {
+                rowCount = certificationService.fillFromReportRowCursor(employeeIds, dataSource -> {
+                    while (dataSource.next()) {
+                        try {
+                            rowWriter.write(dataSource);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        onRow.run();
+                    }
+                    return dataSource.getRowCount();
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (JRException e) {
+                throw new IOException("Failed to read report rows: " + e.getMessage(), e);
+            }
+        }
+
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+        return rowCount;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(StreamingCertificationDataSource rows) throws IOException;
+    }
+
+    private RowWriter csvRowWriter(Writer writer) throws IOException {
+        writeCsvLine(writer, CSV_COLUMNS);
+        return rows -> {
+            ReportRow row = rows.getCurrentRow();
+            writeCsvLine(writer, Arrays.asList(
+                row.employeeId(), row.firstName(), row.lastName(), row.email(),
+                row.department(), row.position(), row.hireDate(),
+                row.certificationId(), row.certificationName(), row.certificationCategory(),
+                row.certificationDescription(), row.status(), row.completionPercentage(),
+                row.currentStageName(), row.currentStageSequence(),
+                row.enrolledAt(), row.completedAt(), row.dueDate(),
+                rows.getCompletedCount(), rows.getInProgressCount(), rows.getFailedCount()
+            ));
+        };
+    }
+
+    private RowWriter jsonLinesRowWriter(Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        // One object per line rather than the default space between root values
+        generator.setRootValueSeparator(null);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        return rows -> {
+            jsonRowWriter.writeValue(generator, toActivityDto(rows));
+            generator.writeRaw('\n');
+            // Only hands the line to the buffered writer, which decides when to hit the stream
+            generator.flush();
+        };
+    }
+
+    private static EmployeeCertificationActivityDto toActivityDto(StreamingCertificationDataSource rows) {
+        ReportRow row = rows.getCurrentRow();
+        EmployeeCertificationActivityDto dto = new EmployeeCertificationActivityDto(row.toEmployeeDto(), null,
+                rows.getCompletedCount(), rows.getInProgressCount(), rows.getFailedCount());
+        if (row.hasCertification()) {
+            dto.setCertificationId(row.certificationId());
+            dto.setCertificationName(row.certificationName());
+            dto.setCertificationCategory(row.certificationCategory());
+            dto.setCertificationDescription(row.certificationDescription());
+            dto.setStatus(row.status() != null ? row.status().toString() : null);
+            dto.setCompletionPercentage(row.completionPercentage());
+            dto.setCurrentStageName(row.currentStageName());
+            dto.setCurrentStageSequence(row.currentStageSequence());
+            dto.setEnrolledAt(row.enrolledAt());
+            dto.setCompletedAt(row.completedAt());
+            dto.setDueDate(row.dueDate());
+        }
+        return dto;
+    }
+
+    private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvField(writer, values.get(i));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * RFC 4180 field: quoted only when it contains a separator, quote or line break. Text that a
+     * spreadsheet would evaluate as a formula gets a leading apostrophe, so it opens as plain text.
+     */
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text;
+        if (value instanceof LocalDateTime dateTime) {
+            text = DATE_TIME_FORMAT.format(dateTime);
+        } else if (value instanceof String string && isFormulaLike(string)) {
+            text = "'" + string;
+        } else {
+            text = value.toString();
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Whether a text field starts with a character that makes spreadsheets treat it as a formula;
+     * numbers are written as they are, so negative values stay numeric
+     */
+    private static boolean isFormulaLike(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        char first = text.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+}
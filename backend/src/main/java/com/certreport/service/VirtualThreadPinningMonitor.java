@@ -0,0 +1,67 @@
+package com.certreport.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Streams JFR jdk.VirtualThreadPinned events into Micrometer while virtual threads are enabled
+ *
+ * A pinned virtual thread blocks its carrier (e.g. JDBC I/O inside a synchronized block), so a
+ * rising report.virtual.thread.pinned count means the virtual-thread mode is losing throughput
+ * against the platform-thread pool.
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    
+    // Same threshold as the JDK's default recording settings
+    private static final Duration PINNED_THRESHOLD = Duration.ofMillis(20);
+    
+    private final ActuatorPerformanceMonitor actuatorPerformanceMonitor;
+    private final Environment environment;
+    private RecordingStream recordingStream;
+    
+    public VirtualThreadPinningMonitor(ActuatorPerformanceMonitor actuatorPerformanceMonitor, Environment environment) {
+        this.actuatorPerformanceMonitor = actuatorPerformanceMonitor;
+        this.environment = environment;
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return;
+        }
+        
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(PINNED_THRESHOLD).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, event -> {
+            actuatorPerformanceMonitor.recordVirtualThreadPinned(event.getDuration());
+            if (logger.isDebugEnabled() && event.getStackTrace() != null && !event.getStackTrace().getFrames().isEmpty()) {
+                RecordedFrame top = event.getStackTrace().getFrames().get(0);
+                logger.debug("Virtual thread pinned for {} ms at {}.{}", event.getDuration().toMillis(),
+                        top.getMethod().getType().getName(), top.getMethod().getName());
+            }
+        });
+        recordingStream.startAsync();
+        logger.info("Monitoring virtual thread pinning (threshold {} ms)", PINNED_THRESHOLD.toMillis());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+}
@@ -17,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 import java.sql.Connection;
@@ -661,4 +662,109 @@ public class DatabaseOptimizationTest {
         
         assertNotNull(report);
     }
+    
+    /**
+     * Report data load time at 1k/5k/20k employees: the batched level-by-level loader against the
+     * single fetch-join over certifications, stages and tasks it replaced
+     */
+    @Test
+    @Order(8)
+    public void benchmarkReportDataLoading() {
+        logger.info("================================================================");
+        logger.info("🔍 REPORT DATA LOADING: BATCHED LEVELS VS CARTESIAN JOIN FETCH");
+        logger.info("================================================================");
+        
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.setStatisticsEnabled(true);
+        
+        List<String> allEmployeeIds = employeeRepository.findAll().stream()
+            .map(employee -> employee.getId())
+            .collect(Collectors.toList());
+        
+        for (int size : new int[] {1000, 5000, 20000}) {
+            if (allEmployeeIds.size() < size) {
+                logger.warn("Only {} employees in the database, skipping {} employee load", allEmployeeIds.size(), size);
+                continue;
+            }
+            List<String> employeeIds = allEmployeeIds.subList(0, size);
+            
+            statistics.clear();
+            long startTime = System.currentTimeMillis();
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+            try {
+                List<?> certifications = entityManager.createQuery(
+                        "SELECT DISTINCT c FROM Certification c " +
+                        "JOIN FETCH c.employee e " +
+                        "JOIN FETCH c.certificationDefinition cd " +
+                        "LEFT JOIN FETCH c.stages s " +
+                        "LEFT JOIN FETCH s.stageDefinition sd " +
+                        "LEFT JOIN FETCH s.tasks t " +
+                        "LEFT JOIN FETCH t.taskDefinition td " +
+                        "WHERE e.id IN :employeeIds " +
+                        "ORDER BY e.department, e.lastName, e.firstName, cd.name")
+                    .setParameter("employeeIds", employeeIds)
+                    .getResultList();
+                assertFalse(certifications.isEmpty());
+            } finally {
+                entityManager.close();
+            }
+            long joinFetchTime = System.currentTimeMillis() - startTime;
+            long joinFetchEntities = statistics.getEntityLoadCount();
+            
+            statistics.clear();
+            startTime = System.currentTimeMillis();
+            List<CompleteReportDataDto> reportData = certificationService.getCertificationDataChunk(employeeIds);
+            long batchedTime = System.currentTimeMillis() - startTime;
+            
+            logger.info("{} employees:", size);
+            logger.info("- Join fetch (entities only): {}ms, {} entities loaded", joinFetchTime, joinFetchEntities);
+            logger.info("- Batched levels (including DTOs): {}ms, {} entities loaded, {} queries",
+                       batchedTime, statistics.getEntityLoadCount(), statistics.getQueryExecutionCount());
+            
+            assertEquals(size, reportData.size());
+        }
+        
+        logger.info("================================================================");
+    }
+
+    @Test
+    @Order(9)
+    public void benchmarkEmployeeIdBinding() {
+        logger.info("================================================================");
+        logger.info("🔍 EMPLOYEE ID BINDING: IN LIST VS ARRAY PARAMETER");
+        logger.info("================================================================");
+        
+        List<String> allEmployeeIds = employeeRepository.findAll().stream()
+            .map(employee -> employee.getId())
+            .collect(Collectors.toList());
+        
+        for (int size : new int[] {100, 1000, 5000, 10000, 50000}) {
+            // Pad with IDs that match nothing, so every size can be measured on any data set
+            List<String> employeeIds = new java.util.ArrayList<>(allEmployeeIds.subList(0, Math.min(size, allEmployeeIds.size())));
+            for (int i = employeeIds.size(); i < size; i++) {
+                employeeIds.add("MISSING" + i);
+            }
+            
+            long startTime = System.currentTimeMillis();
+            List<Object[]> arrayRows = employeeRepository.summarizeCertificationsByDepartmentIdArray(
+                employeeIds.toArray(String[]::new));
+            long arrayTime = System.currentTimeMillis() - startTime;
+            
+            String inListResult;
+            startTime = System.currentTimeMillis();
+            try {
+                List<Object[]> inListRows = employeeRepository.summarizeCertificationsByDepartment(employeeIds);
+                inListResult = (System.currentTimeMillis() - startTime) + "ms";
+                assertEquals(inListRows.size(), arrayRows.size());
+            } catch (RuntimeException e) {
+                // The driver cannot bind more than 32767 parameters in one statement
+                inListResult = "failed (" + e.getClass().getSimpleName() + ")";
+            }
+            
+            logger.info("{} IDs: IN list {}, array {}ms", size, inListResult, arrayTime);
+        }
+        
+        logger.info("================================================================");
+    }
 }
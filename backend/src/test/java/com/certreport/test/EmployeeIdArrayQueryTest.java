@@ -0,0 +1,156 @@
+package com.certreport.test;
+
+import com.certreport.dto.CompleteReportDataDto;
+import com.certreport.dto.ReportRow;
+import com.certreport.model.Certification;
+import com.certreport.repository.CertificationRepository;
+import com.certreport.repository.EmployeeRepository;
+import com.certreport.repository.StageRepository;
+import com.certreport.repository.TaskRepository;
+import com.certreport.service.CertificationService;
+import com.certreport.service.EmployeeIdBinder;
+import com.certreport.service.EmployeeService;
+import com.certreport.service.ReportSummaryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that the array-bound variants of the report queries return the same results as the IN-list ones
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "report.query.id-array-threshold=2")
+@Transactional(readOnly = true)
+public class EmployeeIdArrayQueryTest {
+
+    private static final List<String> EMPLOYEE_IDS = List.of("EMP007", "EMP001", "EMP003", "EMP002", "UNKNOWN");
+    private static final String[] EMPLOYEE_ID_ARRAY = EMPLOYEE_IDS.toArray(String[]::new);
+
+    @Autowired
+    private EmployeeIdBinder employeeIdBinder;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ReportSummaryService reportSummaryService;
+
+    @Autowired
+    private CertificationService certificationService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CertificationRepository certificationRepository;
+
+    @Autowired
+    private StageRepository stageRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Test
+    void testThresholdSelectsArrayBinding() {
+        assertFalse(employeeIdBinder.isArrayBound(List.of("EMP001")));
+        assertTrue(employeeIdBinder.isArrayBound(EMPLOYEE_IDS));
+    }
+
+    @Test
+    void testReportRowsMatchInListQuery() {
+        List<ReportRow> inListRows;
+        try (Stream<ReportRow> rows = certificationRepository.streamReportRowsByEmployeeIds(EMPLOYEE_IDS)) {
+            inListRows = rows.toList();
+        }
+        List<ReportRow> arrayRows;
+        try (Stream<ReportRow> rows = certificationRepository.streamReportRowsByEmployeeIdArray(EMPLOYEE_ID_ARRAY)) {
+            arrayRows = rows.toList();
+        }
+
+        assertFalse(inListRows.isEmpty());
+        assertEquals(inListRows, arrayRows);
+    }
+
+    @Test
+    void testOrderingAndSummaryMatchInListQuery() {
+        List<String> inListOrder = employeeRepository.findIdsAndDepartmentsInReportOrder(EMPLOYEE_IDS).stream()
+                .map(row -> (String) row[0])
+                .toList();
+
+        // Array bound through the service, as the list is over the threshold
+        assertEquals(inListOrder, employeeService.getIdsInReportOrder(EMPLOYEE_IDS));
+        assertEquals(EMPLOYEE_IDS.size() - 1, inListOrder.size());
+
+        List<Object[]> inListSummary = employeeRepository.summarizeCertificationsByDepartment(EMPLOYEE_IDS);
+        List<Object[]> arraySummary = employeeRepository.summarizeCertificationsByDepartmentIdArray(EMPLOYEE_ID_ARRAY);
+        assertEquals(inListSummary.size(), arraySummary.size());
+        for (int i = 0; i < inListSummary.size(); i++) {
+            assertArrayEquals(inListSummary.get(i), arraySummary.get(i));
+        }
+        assertEquals(inListOrder.size(), reportSummaryService.summarize(EMPLOYEE_IDS).employees());
+    }
+
+    @Test
+    void testUpdateStampsMatchInListQuery() {
+        assertArrayEquals(single(employeeRepository.findUpdateStampByEmployeeIds(EMPLOYEE_IDS)),
+                single(employeeRepository.findUpdateStampByEmployeeIdArray(EMPLOYEE_ID_ARRAY)));
+        assertArrayEquals(single(certificationRepository.findUpdateStampByEmployeeIds(EMPLOYEE_IDS)),
+                single(certificationRepository.findUpdateStampByEmployeeIdArray(EMPLOYEE_ID_ARRAY)));
+        assertArrayEquals(single(stageRepository.findUpdateStampByEmployeeIds(EMPLOYEE_IDS)),
+                single(stageRepository.findUpdateStampByEmployeeIdArray(EMPLOYEE_ID_ARRAY)));
+        assertArrayEquals(single(taskRepository.findUpdateStampByEmployeeIds(EMPLOYEE_IDS)),
+                single(taskRepository.findUpdateStampByEmployeeIdArray(EMPLOYEE_ID_ARRAY)));
+    }
+
+    @Test
+    void testGroupedUpdateStampsMatchInListQuery() {
+        assertRowsEqual(employeeRepository.findUpdateStampsGroupedByEmployee(EMPLOYEE_IDS),
+                employeeRepository.findUpdateStampsGroupedByEmployeeIdArray(EMPLOYEE_ID_ARRAY));
+        assertRowsEqual(certificationRepository.findUpdateStampsGroupedByEmployee(EMPLOYEE_IDS),
+                certificationRepository.findUpdateStampsGroupedByEmployeeIdArray(EMPLOYEE_ID_ARRAY));
+        assertRowsEqual(stageRepository.findUpdateStampsGroupedByEmployee(EMPLOYEE_IDS),
+                stageRepository.findUpdateStampsGroupedByEmployeeIdArray(EMPLOYEE_ID_ARRAY));
+        assertRowsEqual(taskRepository.findUpdateStampsGroupedByEmployee(EMPLOYEE_IDS),
+                taskRepository.findUpdateStampsGroupedByEmployeeIdArray(EMPLOYEE_ID_ARRAY));
+    }
+
+    @Test
+    void testCertificationDataAndStatusCountsMatchInListQuery() {
+        assertEquals(certificationRepository.findByEmployeeIdInWithDetails(EMPLOYEE_IDS).stream().map(Certification::getId).toList(),
+                certificationRepository.findByEmployeeIdArrayWithDetails(EMPLOYEE_ID_ARRAY).stream().map(Certification::getId).toList());
+        assertRowsEqual(certificationRepository.countByStatusForEmployeeIds(EMPLOYEE_IDS),
+                certificationRepository.countByStatusForEmployeeIdArray(EMPLOYEE_ID_ARRAY));
+
+        // Array bound through the service
+        List<CompleteReportDataDto> reportData = certificationService.getCertificationDataChunk(EMPLOYEE_IDS);
+        assertEquals(EMPLOYEE_IDS.size() - 1, reportData.size());
+        assertEquals(certificationRepository.findByEmployeeIdInWithDetails(EMPLOYEE_IDS).size(),
+                reportData.stream().mapToInt(data -> data.getCertifications().size()).sum());
+    }
+
+    private static void assertRowsEqual(List<Object[]> expected, List<Object[]> actual) {
+        Comparator<Object[]> byFirstColumn = Comparator.comparing(row -> String.valueOf(row[0]));
+        List<Object[]> sortedExpected = expected.stream().sorted(byFirstColumn).toList();
+        List<Object[]> sortedActual = actual.stream().sorted(byFirstColumn).toList();
+        assertEquals(sortedExpected.size(), sortedActual.size());
+        for (int i = 0; i < sortedExpected.size(); i++) {
+            assertArrayEquals(sortedExpected.get(i), sortedActual.get(i));
+        }
+    }
+
+    private static Object[] single(List<Object[]> rows) {
+        assertEquals(1, rows.size(), () -> rows.stream().map(Arrays::toString).toList().toString());
+        return rows.get(0);
+    }
+}
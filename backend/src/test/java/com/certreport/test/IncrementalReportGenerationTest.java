@@ -0,0 +1,244 @@
+package com.certreport.test;
+
+import com.certreport.dto.ReportRequestDto;
+import com.certreport.model.Certification;
+import com.certreport.model.CertificationDefinition;
+import com.certreport.model.Report;
+import com.certreport.repository.CertificationDefinitionRepository;
+import com.certreport.repository.CertificationRepository;
+import com.certreport.repository.ReportRepository;
+import com.certreport.service.ReportFragmentCache;
+import com.certreport.service.ReportService;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for regenerating reports from cached per-employee page fragments
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    // Own database, so report workers of other cached test contexts cannot pick up these jobs
+    "spring.datasource.url=jdbc:h2:mem:incremental-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "report.result-cache.enabled=false",
+    "report.result-cache.fragment-directory=${java.io.tmpdir}/report-fragments-test"
+})
+public class IncrementalReportGenerationTest {
+
+    private static final List<String> EMPLOYEES = List.of("EMP001", "EMP002", "EMP003", "EMP004", "EMP005");
+
+    private static final Pattern TIMESTAMP = Pattern.compile("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}");
+
+    private static final Pattern GENERATED = Pattern.compile("Generated: [^\\n]*?\\d{2}:\\d{2}:\\d{2}");
+
+    private static final Path FRAGMENT_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "report-fragments-test");
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private CertificationRepository certificationRepository;
+
+    @Autowired
+    private CertificationDefinitionRepository certificationDefinitionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReportFragmentCache reportFragmentCache;
+
+    @BeforeEach
+    void clearFragments() {
+        FileSystemUtils.deleteRecursively(FRAGMENT_DIRECTORY.toFile());
+    }
+
+    @Test
+    void testRegenerationReusesUnchangedEmployeesAndRefillsChangedOnes() throws Exception {
+        // Given: a first report renders and stores every employee after the title employee
+        long storesBefore = fragmentStores();
+        double storedBefore = meterRegistry.counter("report.fragment.cache.stored").count();
+        Report first = generate();
+        awaitFragmentStore(storesBefore);
+        assertEquals(4, fragmentCount());
+        assertEquals(4, meterRegistry.counter("report.fragment.cache.stored").count() - storedBefore);
+        List<String> firstPages = pageTexts(first);
+
+        // When: regenerating without data changes
+        double hitsBefore = fragmentLookups("hit");
+        Report second = generate();
+
+        // Then: all fragments are reused and the output matches page for page, apart from generation times
+        assertEquals(4, fragmentLookups("hit") - hitsBefore);
+        List<String> secondPages = pageTexts(second);
+        assertEquals(withoutTimestamps(firstPages), withoutTimestamps(secondPages));
+        assertEquals(1, secondPages.stream().map(this::footerTimestamp).distinct().count(),
+            "Cached pages should carry the footer timestamp of the new report");
+
+        // When: one employee's certification changes
+        Certification certification = certificationRepository.findByEmployeeId("EMP004").get(0);
+        certification.setUpdatedAt(LocalDateTime.now().plusMinutes(5));
+        certificationRepository.save(certification);
+        double missesBefore = fragmentLookups("miss");
+        storesBefore = fragmentStores();
+        Report third = generate();
+        awaitFragmentStore(storesBefore);
+
+        // Then: only that employee is filled again, the pages stay numbered across the splice
+        assertEquals(1, fragmentLookups("miss") - missesBefore);
+        assertEquals(5, fragmentCount());
+        List<String> thirdPages = pageTexts(third);
+        assertEquals(firstPages.size(), thirdPages.size());
+        for (int page = 1; page <= thirdPages.size(); page++) {
+            assertTrue(thirdPages.get(page - 1).contains("Page " + page + " of " + thirdPages.size()));
+        }
+        assertEquals(1, thirdPages.stream().filter(text -> text.contains("CertReport Systems")).count());
+    }
+
+    @Test
+    void testEditedCertificationDefinitionRefillsEveryEmployee() throws Exception {
+        // Given
+        generate();
+        Map<String, String> keysBefore = reportFragmentCache.computeFragmentKeys(EMPLOYEES);
+
+        // When: a definition the report prints is renamed
+        CertificationDefinition definition = certificationDefinitionRepository.findAll().get(0);
+        definition.setName(definition.getName() + " (revised)");
+        certificationDefinitionRepository.save(definition);
+        double missesBefore = fragmentLookups("miss");
+        generate();
+
+        // Then: no cached pages are reused
+        Map<String, String> keysAfter = reportFragmentCache.computeFragmentKeys(EMPLOYEES);
+        for (String employeeId : EMPLOYEES) {
+            assertNotEquals(keysBefore.get(employeeId), keysAfter.get(employeeId));
+        }
+        assertEquals(4, fragmentLookups("miss") - missesBefore);
+    }
+
+    @Test
+    void testFragmentWithClassesOutsideJasperReportsIsNotDeserialized() throws Exception {
+        // Given: the cache directory, created owner-only, and a planted fragment naming another class
+        long storesBefore = fragmentStores();
+        generate();
+        awaitFragmentStore(storesBefore);
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(FRAGMENT_DIRECTORY)));
+        Path planted = FRAGMENT_DIRECTORY.resolve("planted.jrpages");
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(planted))) {
+            out.writeObject(new ArrayList<>(List.of(new Gadget())));
+        }
+
+        // When / Then: the stream is rejected before the class is instantiated, and the file is dropped
+        assertTrue(reportFragmentCache.load("planted").isEmpty());
+        assertFalse(Gadget.deserialized);
+        assertFalse(Files.exists(planted));
+    }
+
+    private static class Gadget implements Serializable {
+        private static final long serialVersionUID = 1L;
+        static volatile boolean deserialized;
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            deserialized = true;
+        }
+    }
+
+    private Report generate() throws InterruptedException {
+        ReportRequestDto request = new ReportRequestDto("CERTIFICATION", EMPLOYEES);
+        Report report = waitForReportCompletion(reportService.generateReport(request).getId());
+        assertEquals(Report.ReportStatus.COMPLETED, report.getStatus(), report.getErrorMessage());
+        return report;
+    }
+
+    private List<String> pageTexts(Report report) throws Exception {
+        PdfReader reader = new PdfReader(reportService.getReportFile(report.getId()).getPath());
+        try {
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            List<String> pages = new ArrayList<>();
+            for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                pages.add(extractor.getTextFromPage(page));
+            }
+            return pages;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private List<String> withoutTimestamps(List<String> pages) {
+        return pages.stream()
+                .map(text -> TIMESTAMP.matcher(GENERATED.matcher(text).replaceAll("")).replaceAll(""))
+                .toList();
+    }
+
+    private String footerTimestamp(String pageText) {
+        Matcher matcher = TIMESTAMP.matcher(pageText);
+        assertTrue(matcher.find());
+        return matcher.group();
+    }
+
+    private long fragmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(FRAGMENT_DIRECTORY)) {
+            return files.filter(path -> path.toString().endsWith(".jrpages")).count();
+        }
+    }
+
+    private long fragmentStores() {
+        return meterRegistry.timer("report.fragment.cache.store").count();
+    }
+
+    /**
+     * Fragments are written in the background after the report completes
+     */
+    private void awaitFragmentStore(long storesBefore) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (fragmentStores() == storesBefore && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(storesBefore + 1, fragmentStores());
+    }
+
+    private double fragmentLookups(String result) {
+        return meterRegistry.counter("report.fragment.cache.requests", "result", result).count();
+    }
+
+    private Report waitForReportCompletion(String reportId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60000;
+        Report report = reportRepository.findById(reportId).orElseThrow();
+        while ((report.getStatus() == Report.ReportStatus.QUEUED || report.getStatus() == Report.ReportStatus.IN_PROGRESS)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            report = reportRepository.findById(reportId).orElseThrow();
+        }
+        return report;
+    }
+}
@@ -2,11 +2,14 @@ package com.certreport.test;
 
 import com.certreport.dto.*;
 import com.certreport.model.*;
+import com.certreport.repository.ReportRepository;
 import com.certreport.service.*;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -18,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 @SpringBootTest
 @ActiveProfiles("test")
+@TestPropertySource(properties = "report.result-cache.enabled=false") // always generate a fresh report
 @Transactional
 public class Iteration3BasicTest {
 
@@ -29,8 +33,12 @@ public class Iteration3BasicTest {
       @Autowired
     private CertificationService certificationService;
     
+    @Autowired
+    private ReportRepository reportRepository;
+    
     @Test
-    void testBasicReportCreation() {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // the report worker must see the committed report
+    void testBasicReportCreation() throws InterruptedException {
         // Given: Request for certification report
         ReportRequestDto request = new ReportRequestDto();
         request.setReportType("CERTIFICATION");
@@ -43,7 +51,21 @@ public class Iteration3BasicTest {
         assertNotNull(report);
         assertNotNull(report.getId());
         assertEquals("CERTIFICATION", report.getType());
-        assertEquals(Report.ReportStatus.COMPLETED, report.getStatus());
+        assertEquals(Report.ReportStatus.QUEUED, report.getStatus());
+        
+        // And: the queued job completes on a report worker
+        assertEquals(Report.ReportStatus.COMPLETED, waitForReportCompletion(report.getId(), 30000).getStatus());
+    }
+
+    private Report waitForReportCompletion(String reportId, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        Report report = reportRepository.findById(reportId).orElseThrow();
+        while ((report.getStatus() == Report.ReportStatus.QUEUED || report.getStatus() == Report.ReportStatus.IN_PROGRESS)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            report = reportRepository.findById(reportId).orElseThrow();
+        }
+        return report;
     }
 
     @Test
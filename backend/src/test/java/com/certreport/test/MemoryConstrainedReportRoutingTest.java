@@ -0,0 +1,93 @@
+package com.certreport.test;
+
+import com.certreport.dto.ReportRequestDto;
+import com.certreport.model.Report;
+import com.certreport.repository.ReportRepository;
+import com.certreport.service.ReportService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that reports over the memory-efficient threshold are virtualized even with the fragment cache enabled
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    // Own database, so report workers of other cached test contexts cannot pick up these jobs
+    "spring.datasource.url=jdbc:h2:mem:memory-routing-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "report.result-cache.enabled=false",
+    "report.result-cache.fragments-enabled=true",
+    "report.result-cache.fragment-directory=${java.io.tmpdir}/report-fragments-routing-test",
+    // Every report is over the threshold
+    "report.pdf.memory-efficient.threshold-mb=0",
+    "report.pdf.memory-efficient.virtualizer-enabled=true"
+})
+public class MemoryConstrainedReportRoutingTest {
+
+    private static final Path FRAGMENT_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "report-fragments-routing-test");
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testReportOverThresholdIsVirtualizedInsteadOfSplicedFromFragments() throws Exception {
+        // Given
+        FileSystemUtils.deleteRecursively(FRAGMENT_DIRECTORY.toFile());
+        double lookupsBefore = fragmentLookups("hit") + fragmentLookups("miss");
+        ReportRequestDto request = new ReportRequestDto("CERTIFICATION", List.of("EMP001", "EMP002", "EMP003"));
+
+        // When
+        Report report = waitForReportCompletion(reportService.generateReport(request).getId());
+
+        // Then: written by the virtualized memory-efficient path, without touching the fragment cache
+        assertEquals(Report.ReportStatus.COMPLETED, report.getStatus(), report.getErrorMessage());
+        assertTrue(Path.of(report.getFilePath()).getFileName().toString().startsWith("CertificationReport_MemoryEfficient_"),
+            report.getFilePath());
+        assertTrue(Files.size(Path.of(report.getFilePath())) > 0);
+        assertEquals(lookupsBefore, fragmentLookups("hit") + fragmentLookups("miss"));
+        assertEquals(0, fragmentCount());
+    }
+
+    private long fragmentCount() throws Exception {
+        if (!Files.exists(FRAGMENT_DIRECTORY)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(FRAGMENT_DIRECTORY)) {
+            return files.count();
+        }
+    }
+
+    private double fragmentLookups(String result) {
+        return meterRegistry.counter("report.fragment.cache.requests", "result", result).count();
+    }
+
+    private Report waitForReportCompletion(String reportId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60000;
+        Report report = reportRepository.findById(reportId).orElseThrow();
+        while ((report.getStatus() == Report.ReportStatus.QUEUED || report.getStatus() == Report.ReportStatus.IN_PROGRESS)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            report = reportRepository.findById(reportId).orElseThrow();
+        }
+        return report;
+    }
+}
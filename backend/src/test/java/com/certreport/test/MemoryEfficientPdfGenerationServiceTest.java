@@ -0,0 +1,265 @@
+package com.certreport.test;
+
+import com.certreport.config.PdfGenerationProperties;
+import com.certreport.dto.EmployeeCertificationActivityDto;
+import com.certreport.dto.EmployeeDto;
+import com.certreport.dto.ReportRow;
+import com.certreport.service.ActuatorPerformanceMonitor;
+import com.certreport.service.MemoryEfficientPdfGenerationService;
+import com.certreport.service.MemoryEfficientPdfGenerationService.PdfExportResult;
+import com.certreport.service.ReportSummaryService.DepartmentSummary;
+import com.certreport.service.ReportTemplateRegistry;
+import com.certreport.service.StreamingCertificationDataSource;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperFillManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MemoryEfficientPdfGenerationServiceTest {
+
+    @Mock
+    private ActuatorPerformanceMonitor actuatorPerformanceMonitor;
+
+    @TempDir
+    Path tempDir;
+
+    private Path swapDirectory;
+    private PdfGenerationProperties properties;
+    private ExecutorService fillExecutor;
+    private MemoryEfficientPdfGenerationService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        swapDirectory = Files.createDirectory(tempDir.resolve("swap"));
+
+        properties = new PdfGenerationProperties();
+        properties.setVirtualizerSwapDirectory(swapDirectory.toString());
+        properties.setVirtualizerMaxPagesInMemory(2);
+        properties.setParallelFillThreads(3);
+
+        fillExecutor = Executors.newFixedThreadPool(3);
+        service = new MemoryEfficientPdfGenerationService(
+            new ReportTemplateRegistry(actuatorPerformanceMonitor), properties,
+            actuatorPerformanceMonitor, fillExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fillExecutor.shutdownNow();
+    }
+
+    @Test
+    void testVirtualizedReportIsWrittenToFile() throws Exception {
+        // Given: enough employees to produce more pages than the in-memory page limit
+        List<EmployeeCertificationActivityDto> activityData = createActivityData(20);
+        String filePath = tempDir.resolve("virtualized.pdf").toString();
+
+        // When
+        PdfExportResult result = service.generateVirtualizedReport(activityData, createParameters(20), filePath, bytes -> {});
+
+        // Then
+        File pdf = new File(filePath);
+        assertTrue(pdf.exists());
+        assertEquals(pdf.length(), result.bytesWritten());
+        assertTrue(result.pageCount() > 2,
+            "Expected more pages than the virtualizer keeps in memory, got " + result.pageCount());
+    }
+
+    @Test
+    void testVirtualizedReportIsFilledFromStreamingDataSource() throws Exception {
+        // Given: report rows read one by one, as from the report row cursor
+        List<ReportRow> rows = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            rows.add(new ReportRow(String.format("EMP%03d", i), "First" + i, "Last" + i, "employee" + i + "@company.com",
+                "Engineering", "Developer", LocalDateTime.now(),
+                null, null, null, null, null, null, null, null, null, null, null));
+        }
+        StreamingCertificationDataSource dataSource = new StreamingCertificationDataSource(rows.iterator());
+        String filePath = tempDir.resolve("streamed.pdf").toString();
+
+        // When
+        PdfExportResult result = service.generateVirtualizedReport((jasperReport, parameters) -> {
+            assertNotNull(parameters.get(JRParameter.REPORT_VIRTUALIZER));
+            return JasperFillManager.fillReport(jasperReport, parameters, dataSource);
+        }, createParameters(20), filePath, bytes -> {});
+
+        // Then: every row went into the file, with the pages beyond the limit swapped out meanwhile
+        assertEquals(20, dataSource.getRowCount());
+        assertEquals(new File(filePath).length(), result.bytesWritten());
+        assertTrue(result.pageCount() > 2,
+            "Expected more pages than the virtualizer keeps in memory, got " + result.pageCount());
+        try (Stream<Path> swapFiles = Files.list(swapDirectory)) {
+            assertEquals(0, swapFiles.count());
+        }
+    }
+
+    @Test
+    void testTitlePageShowsDepartmentSubtotals() throws Exception {
+        // Given
+        Map<String, Object> parameters = createParameters(20);
+        Map<String, DepartmentSummary> departments = new LinkedHashMap<>();
+        departments.put("Engineering", new DepartmentSummary("Engineering", 12, 30, 11, 17, 2));
+        departments.put("Sales", new DepartmentSummary("Sales", 8, 19, 13, 5, 1));
+        parameters.put("TOTAL_DEPARTMENTS", departments.size());
+        parameters.put("DEPARTMENT_SUMMARIES", departments);
+        String filePath = tempDir.resolve("subtotals.pdf").toString();
+
+        // When
+        service.generateVirtualizedReport(createActivityData(20), parameters, filePath, bytes -> {});
+
+        // Then: one row per department, in order, under the totals
+        PdfReader reader = new PdfReader(filePath);
+        try {
+            String titlePage = new PdfTextExtractor(reader).getTextFromPage(1);
+            assertTrue(titlePage.contains("Subtotals by Department (2)"), titlePage);
+            assertTrue(titlePage.matches("(?s).*Engineering\\s+12\\s+30\\s+11\\s+17\\s+2.*Sales\\s+8\\s+19\\s+13\\s+5\\s+1.*"),
+                titlePage);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void testSwapFileIsRemovedAfterExport() throws Exception {
+        // When
+        service.generateVirtualizedReport(createActivityData(10), createParameters(10),
+            tempDir.resolve("cleanup.pdf").toString(), bytes -> {});
+
+        // Then
+        try (Stream<Path> swapFiles = Files.list(swapDirectory)) {
+            assertEquals(0, swapFiles.count());
+        }
+    }
+
+    @Test
+    void testSwapFileIsRemovedWhenExportFails() throws Exception {
+        // Given: an output path in a directory that does not exist
+        String filePath = tempDir.resolve("missing").resolve("report.pdf").toString();
+
+        // When / Then
+        assertThrows(JRException.class, () ->
+            service.generateVirtualizedReport(createActivityData(5), createParameters(5), filePath, bytes -> {}));
+
+        try (Stream<Path> swapFiles = Files.list(swapDirectory)) {
+            assertEquals(0, swapFiles.count());
+        }
+    }
+
+    @Test
+    void testOptimizedReportStreamsBytesToFile() throws Exception {
+        // Given
+        String filePath = tempDir.resolve("optimized.pdf").toString();
+        AtomicLong reportedBytes = new AtomicLong();
+        AtomicLong writeCount = new AtomicLong();
+
+        // When
+        PdfExportResult result = service.generateOptimizedReport(createActivityData(20),
+            "Employee Certification Report", filePath, bytes -> {
+                reportedBytes.addAndGet(bytes);
+                writeCount.incrementAndGet();
+            });
+
+        // Then: the listener saw every byte that reached the file
+        long fileSize = new File(filePath).length();
+        assertTrue(fileSize > 0);
+        assertEquals(fileSize, result.bytesWritten());
+        assertEquals(fileSize, reportedBytes.get());
+        assertTrue(writeCount.get() >= 1);
+        assertTrue(result.pageCount() >= 1);
+    }
+
+    @Test
+    void testParallelFillKeepsChunkOrder() throws Exception {
+        // Given: 4 employees per chunk, each employee starts a new page
+        properties.setChunkSize(4);
+        String filePath = tempDir.resolve("parallel.pdf").toString();
+
+        // When
+        PdfExportResult result = service.generateOptimizedReport(createActivityData(20),
+            "Employee Certification Report", filePath, bytes -> {});
+
+        // Then: chunks were filled on the pool and merged back in their original order
+        verify(actuatorPerformanceMonitor, times(5)).recordChunkFill(eq("parallel"), anyLong());
+        assertEquals(20, result.pageCount());
+
+        PdfReader reader = new PdfReader(filePath);
+        try {
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            for (int page = 1; page <= result.pageCount(); page++) {
+                String expectedEmployee = String.format("EMP%03d", page);
+                assertTrue(extractor.getTextFromPage(page).contains(expectedEmployee),
+                    "Expected " + expectedEmployee + " on page " + page);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void testSequentialFillWhenParallelDisabled() throws Exception {
+        // Given
+        properties.setChunkSize(4);
+        properties.setParallelFillEnabled(false);
+
+        // When
+        PdfExportResult result = service.generateOptimizedReport(createActivityData(20),
+            "Employee Certification Report", tempDir.resolve("sequential.pdf").toString(), bytes -> {});
+
+        // Then
+        verify(actuatorPerformanceMonitor, times(5)).recordChunkFill(eq("sequential"), anyLong());
+        verify(actuatorPerformanceMonitor, never()).recordChunkFill(eq("parallel"), anyLong());
+        assertEquals(20, result.pageCount());
+    }
+
+    private List<EmployeeCertificationActivityDto> createActivityData(int employeeCount) {
+        List<EmployeeCertificationActivityDto> activityData = new ArrayList<>();
+        for (int i = 1; i <= employeeCount; i++) {
+            EmployeeDto employee = new EmployeeDto(String.format("EMP%03d", i), "First" + i, "Last" + i,
+                "employee" + i + "@company.com", "Engineering", "Developer", LocalDateTime.now());
+            EmployeeCertificationActivityDto activity =
+                new EmployeeCertificationActivityDto(employee, null, 0L, 0L, 0L);
+            activityData.add(activity);
+        }
+        return activityData;
+    }
+
+    private Map<String, Object> createParameters(int totalEmployees) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("REPORT_TITLE", "Employee Certification Report");
+        parameters.put("GENERATION_DATE", "2025-01-01 00:00:00");
+        parameters.put("TOTAL_EMPLOYEES", totalEmployees);
+        parameters.put("COMPANY_NAME", "CertReport Systems");
+        parameters.put("TOTAL_CERTIFICATIONS", 0L);
+        parameters.put("COMPLETED_CERTIFICATIONS", 0L);
+        parameters.put("IN_PROGRESS_CERTIFICATIONS", 0L);
+        parameters.put("FAILED_CERTIFICATIONS", 0L);
+        return parameters;
+    }
+}
@@ -0,0 +1,98 @@
+package com.certreport.test;
+
+import com.certreport.dto.ReportRequestDto;
+import com.certreport.model.Report;
+import com.certreport.repository.ReportRepository;
+import com.certreport.service.ReportService;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for certifications PDFs written by the native renderer instead of Jasper
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    // Own database, so report workers of other cached test contexts cannot pick up these jobs
+    "spring.datasource.url=jdbc:h2:mem:native-pdf-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+public class NativePdfRendererTest {
+
+    private static final List<String> EMPLOYEE_IDS = List.of("EMP001", "EMP002", "EMP003");
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Test
+    void testNativeReportHasTitleAndPagesForEveryEmployee() throws Exception {
+        // Given
+        ReportRequestDto request = new ReportRequestDto("CERTIFICATION", EMPLOYEE_IDS);
+        request.setRenderer("native");
+
+        // When
+        Report report = waitForReportCompletion(reportService.generateReport(request).getId());
+
+        // Then
+        assertEquals(Report.ReportStatus.COMPLETED, report.getStatus(), report.getErrorMessage());
+        PdfReader reader = new PdfReader(report.getFilePath());
+        try {
+            assertEquals(report.getPageCount(), reader.getNumberOfPages());
+            assertTrue(reader.getNumberOfPages() >= EMPLOYEE_IDS.size());
+
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            assertTrue(extractor.getTextFromPage(1).contains("Employee Certification Report"));
+            StringBuilder text = new StringBuilder();
+            for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                String pageText = extractor.getTextFromPage(page);
+                assertTrue(pageText.contains("CONFIDENTIAL"), "page " + page + " has no footer");
+                text.append(pageText);
+            }
+            for (String employeeId : EMPLOYEE_IDS) {
+                assertTrue(text.toString().contains(employeeId), employeeId + " missing from report");
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void testNativeAndJasperReportsAreCachedSeparately() throws Exception {
+        // Given
+        ReportRequestDto jasperRequest = new ReportRequestDto("CERTIFICATION", List.of("EMP004"));
+        ReportRequestDto nativeRequest = new ReportRequestDto("CERTIFICATION", List.of("EMP004"));
+        nativeRequest.setRenderer("native");
+
+        // When
+        Report jasperReport = waitForReportCompletion(reportService.generateReport(jasperRequest).getId());
+        Report nativeReport = waitForReportCompletion(reportService.generateReport(nativeRequest).getId());
+
+        // Then
+        assertEquals(Report.ReportStatus.COMPLETED, jasperReport.getStatus(), jasperReport.getErrorMessage());
+        assertEquals(Report.ReportStatus.COMPLETED, nativeReport.getStatus(), nativeReport.getErrorMessage());
+        assertNotEquals(jasperReport.getId(), nativeReport.getId());
+        assertNotEquals(jasperReport.getFilePath(), nativeReport.getFilePath());
+    }
+
+    private Report waitForReportCompletion(String reportId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60000;
+        Report report = reportRepository.findById(reportId).orElseThrow();
+        while ((report.getStatus() == Report.ReportStatus.QUEUED || report.getStatus() == Report.ReportStatus.IN_PROGRESS)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            report = reportRepository.findById(reportId).orElseThrow();
+        }
+        return report;
+    }
+}
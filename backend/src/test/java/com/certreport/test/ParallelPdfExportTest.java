@@ -0,0 +1,93 @@
+package com.certreport.test;
+
+import com.certreport.dto.ReportRequestDto;
+import com.certreport.model.Report;
+import com.certreport.repository.ReportRepository;
+import com.certreport.service.ReportService;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for exporting filled reports as parallel page ranges merged into one PDF
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    // Own database, so report workers of other cached test contexts cannot pick up these jobs
+    "spring.datasource.url=jdbc:h2:mem:parallel-export-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "report.result-cache.enabled=false",
+    "report.pdf.memory-efficient.parallel-export-threshold-pages=2",
+    "report.pdf.memory-efficient.parallel-export-min-range-pages=1",
+    "report.pdf.memory-efficient.parallel-fill-threads=3"
+})
+public class ParallelPdfExportTest {
+
+    private static final List<String> EMPLOYEE_IDS = IntStream.rangeClosed(1, 8)
+            .mapToObj(i -> String.format("EMP%03d", i))
+            .collect(Collectors.toList());
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testRangesAreMergedIntoOneDocumentInPageOrder() throws Exception {
+        // Given
+        ReportRequestDto request = new ReportRequestDto("CERTIFICATION", EMPLOYEE_IDS);
+
+        // When
+        Report report = waitForReportCompletion(reportService.generateReport(request).getId());
+
+        // Then: one readable document with every page, still in page order
+        assertEquals(Report.ReportStatus.COMPLETED, report.getStatus(), report.getErrorMessage());
+        PdfReader reader = new PdfReader(report.getFilePath());
+        try {
+            int pageCount = reader.getNumberOfPages();
+            assertEquals(report.getPageCount(), pageCount);
+            assertTrue(pageCount >= EMPLOYEE_IDS.size());
+
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            for (int page = 1; page <= pageCount; page++) {
+                assertTrue(extractor.getTextFromPage(page).contains("Page " + page + " of " + pageCount),
+                        "page " + page + " out of order");
+            }
+        } finally {
+            reader.close();
+        }
+
+        // And: every range export was timed
+        Timer rangeTimer = meterRegistry.find("report.pdf.export.range.time").timer();
+        assertNotNull(rangeTimer);
+        assertTrue(rangeTimer.count() >= 3);
+        assertNotNull(meterRegistry.find("report.pdf.export.merge.time").timer());
+    }
+
+    private Report waitForReportCompletion(String reportId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60000;
+        Report report = reportRepository.findById(reportId).orElseThrow();
+        while ((report.getStatus() == Report.ReportStatus.QUEUED || report.getStatus() == Report.ReportStatus.IN_PROGRESS)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            report = reportRepository.findById(reportId).orElseThrow();
+        }
+        return report;
+    }
+}
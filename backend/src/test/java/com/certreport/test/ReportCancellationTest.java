@@ -0,0 +1,182 @@
+package com.certreport.test;
+
+import com.certreport.dto.ReportRequestDto;
+import com.certreport.model.Report;
+import com.certreport.model.ReportJob;
+import com.certreport.repository.ReportJobRepository;
+import com.certreport.repository.ReportRepository;
+import com.certreport.service.ReportCancellationRegistry;
+import com.certreport.service.ReportMemoryBudget;
+import com.certreport.service.ReportService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for cancelling queued and in-progress reports
+ *
+ * A single report worker and a heap budget held by the test keep the first report waiting in
+ * generation and the second one in the queue, so both can be cancelled deterministically.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    // Own database, so report workers of other cached test contexts cannot pick up these jobs
+    "spring.datasource.url=jdbc:h2:mem:cancellation-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "report.result-cache.enabled=false",
+    "report.jobs.worker-threads=1",
+    "report.memory-budget.heap-budget-mb=1",
+    "report.memory-budget.max-wait-ms=100"
+})
+public class ReportCancellationTest {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+
+    @Autowired
+    private ReportMemoryBudget reportMemoryBudget;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @SuppressWarnings("try") // the blocker only has to be held
+    void testCancelInProgressAndQueuedReports() throws Exception {
+        Report running;
+        Report queued;
+        try (ReportMemoryBudget.Reservation blocker = reportMemoryBudget.reserve("blocker", reportMemoryBudget.getBudgetBytes())) {
+            // Given: one report waiting for heap inside generation, one waiting for the only worker
+            running = reportService.generateReport(request("EMP001", "EMP002"));
+            waitForStatus(running.getId(), Report.ReportStatus.IN_PROGRESS);
+            waitUntil(() -> reportMemoryBudget.getWaitingReports() == 1);
+            queued = reportService.generateReport(request("EMP003"));
+
+            // When
+            Report cancelledQueued = reportService.cancelReport(queued.getId());
+            Report cancelledRunning = reportService.cancelReport(running.getId());
+
+            // Then: both are cancelled and the waiting worker gives up its place in the heap queue
+            assertEquals(Report.ReportStatus.CANCELLED, cancelledQueued.getStatus());
+            assertEquals(Report.ReportStatus.CANCELLED, cancelledRunning.getStatus());
+            waitUntil(() -> reportMemoryBudget.getWaitingReports() == 0);
+            assertEquals(reportMemoryBudget.getBudgetBytes(), reportMemoryBudget.getReservedBytes());
+        }
+
+        // And: releasing the heap does not bring either report back to life
+        Report report = waitForStatus(running.getId(), Report.ReportStatus.CANCELLED);
+        assertNull(report.getFilePath());
+        assertEquals(0, reportMemoryBudget.getReservedBytes());
+        Thread.sleep(1500); // more than one dispatcher poll
+        assertEquals(Report.ReportStatus.CANCELLED, reportRepository.findById(queued.getId()).orElseThrow().getStatus());
+        assertEquals(ReportJob.JobStatus.CANCELLED,
+            reportJobRepository.findFirstByReportIdOrderBySubmittedAtDesc(queued.getId()).orElseThrow().getStatus());
+        assertEquals(ReportJob.JobStatus.CANCELLED,
+            reportJobRepository.findFirstByReportIdOrderBySubmittedAtDesc(running.getId()).orElseThrow().getStatus());
+        assertNotNull(meterRegistry.find("report.job.run.time").tag("outcome", "cancelled").timer());
+
+        // And: a finished report can no longer be cancelled
+        Report completed = reportService.generateReport(request("EMP004"));
+        waitForStatus(completed.getId(), Report.ReportStatus.COMPLETED);
+        assertEquals(Report.ReportStatus.COMPLETED, reportService.cancelReport(completed.getId()).getStatus());
+    }
+
+    @Test
+    void testCancelRunsActionsAndOnlyInterruptsWhileRegistered() throws Exception {
+        // Given
+        ReportCancellationRegistry registry = new ReportCancellationRegistry();
+        AtomicInteger cancelledSteps = new AtomicInteger();
+        ReportCancellationRegistry.Cancellation cancellation = registry.register("REP001", null);
+        ReportCancellationRegistry.Registration finishedStep = registry.onCancel("REP001", cancelledSteps::incrementAndGet);
+        registry.onCancel("REP001", cancelledSteps::incrementAndGet);
+        finishedStep.close();
+
+        // When
+        assertTrue(registry.cancel("REP001"));
+
+        // Then: only the step still running is stopped, and the worker is interrupted
+        assertTrue(cancellation.isCancelled());
+        assertEquals(1, cancelledSteps.get());
+        assertTrue(Thread.interrupted());
+
+        // And: steps starting after the cancel are stopped straight away
+        registry.onCancel("REP001", cancelledSteps::incrementAndGet);
+        assertEquals(2, cancelledSteps.get());
+
+        // And: once the worker is done with the report, cancelling it does nothing
+        registry.unregister(cancellation);
+        assertFalse(registry.cancel("REP001"));
+        ReportCancellationRegistry.Cancellation next = registry.register("REP002", null);
+        registry.unregister(next);
+        assertFalse(registry.cancel("REP002"));
+        assertFalse(Thread.interrupted());
+    }
+
+    @Test
+    void testOnlyTheFirstOfCancelAndCompletionApplies() {
+        // Given: two generating reports
+        Report cancelledFirst = reportRepository.save(inProgressReport());
+        Report completedFirst = reportRepository.save(inProgressReport());
+
+        // When: a cancel lands just before the worker saves its result
+        assertEquals(1, reportRepository.markStopped(cancelledFirst.getId(), Report.ReportStatus.CANCELLED,
+                "cancelled", LocalDateTime.now()));
+        int completedAfterCancel = reportRepository.markCompleted(cancelledFirst.getId(), "report.pdf", "hash", LocalDateTime.now());
+
+        // Then: the cancel stands and no file is recorded
+        assertEquals(0, completedAfterCancel);
+        Report cancelled = reportRepository.findById(cancelledFirst.getId()).orElseThrow();
+        assertEquals(Report.ReportStatus.CANCELLED, cancelled.getStatus());
+        assertNull(cancelled.getFilePath());
+
+        // When: the worker saves its result just before a cancel
+        assertEquals(1, reportRepository.markCompleted(completedFirst.getId(), "report.pdf", "hash", LocalDateTime.now()));
+        int stoppedAfterCompletion = reportRepository.markStopped(completedFirst.getId(), Report.ReportStatus.CANCELLED,
+                "cancelled", LocalDateTime.now());
+
+        // Then: the finished report keeps its file
+        assertEquals(0, stoppedAfterCompletion);
+        Report completed = reportService.cancelReport(completedFirst.getId());
+        assertEquals(Report.ReportStatus.COMPLETED, completed.getStatus());
+        assertEquals("report.pdf", completed.getFilePath());
+    }
+
+    private Report inProgressReport() {
+        Report report = new Report("Race", "CERTIFICATION", "employeeIds=[EMP001]");
+        report.setStatus(Report.ReportStatus.IN_PROGRESS);
+        report.setStartedAt(LocalDateTime.now());
+        return report;
+    }
+
+    private ReportRequestDto request(String... employeeIds) {
+        return new ReportRequestDto("CERTIFICATION", List.of(employeeIds));
+    }
+
+    private Report waitForStatus(String reportId, Report.ReportStatus status) throws InterruptedException {
+        waitUntil(() -> reportRepository.findById(reportId).orElseThrow().getStatus() == status);
+        return reportRepository.findById(reportId).orElseThrow();
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for condition");
+            Thread.sleep(50);
+        }
+    }
+}
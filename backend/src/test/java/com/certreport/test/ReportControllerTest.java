@@ -3,8 +3,12 @@ package com.certreport.test;
 import com.certreport.controller.ReportController;
 import com.certreport.dto.ReportRequestDto;
 import com.certreport.model.Report;
+import com.certreport.service.ActuatorPerformanceMonitor;
 import com.certreport.service.ReportService;
 import com.certreport.service.ReportCleanupService;
+import com.certreport.service.ReportProgressBoard;
+import com.certreport.service.ReportPrintStore;
+import com.certreport.service.TabularReportExporter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,15 +18,21 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Collections;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.Matchers.containsString;
 
 @WebMvcTest(ReportController.class)
 public class ReportControllerTest {    @Autowired
@@ -34,9 +44,18 @@ public class ReportControllerTest {    @Autowired
     @MockitoBean
     private ReportCleanupService reportCleanupService;
 
+    @MockitoBean
+    private ReportProgressBoard reportProgressBoard;
+
+    @MockitoBean
+    private ActuatorPerformanceMonitor actuatorPerformanceMonitor;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ReportController reportController;
+
     private Report testReport;
     private ReportRequestDto testRequest;
 
@@ -149,6 +168,218 @@ public class ReportControllerTest {    @Autowired
         verify(reportService).getReportStatus(reportId);
     }
 
+    @Test
+    void testGetReportStatus_FromProgressBoard() throws Exception {
+        // Given: the report is being filled on this instance
+        String reportId = "REP001";
+        when(reportProgressBoard.getProgress(reportId)).thenReturn(Optional.of(new ReportProgressBoard.ReportProgress(
+                reportId, ReportProgressBoard.Phase.FILLING, 45, 1200, 30, 0, null, LocalDateTime.now())));
+
+        // When & Then: real progress, and no database read
+        mockMvc.perform(get("/api/reports/{id}/status", reportId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("IN_PROGRESS"))
+                .andExpect(jsonPath("$.progress").value(45));
+
+        verify(reportService, never()).getReportStatus(anyString());
+    }
+
+    @Test
+    void testStreamReportStatus_SendsCurrentStatusAndClosesWhenFinished() throws Exception {
+        // Given: a completed report that is no longer on the progress board
+        String reportId = "REP001";
+        testReport.setStatus(Report.ReportStatus.COMPLETED);
+        when(reportService.getReportStatus(reportId)).thenReturn(testReport);
+        when(reportProgressBoard.subscribe(eq(reportId), any())).thenReturn(() -> { });
+
+        // When
+        var result = mockMvc.perform(get("/api/reports/{id}/events", reportId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("event:status")))
+                .andExpect(content().string(containsString("\"status\":\"COMPLETED\"")))
+                .andExpect(content().string(containsString("\"progress\":100")));
+    }
+
+    @Test
+    void testStreamReportStatus_RefreshesReportsGeneratingElsewhereFromDatabase() throws Exception {
+        // Given: a report generating on another instance, so not on this instance's progress board
+        String reportId = "REP001";
+        testReport.setStatus(Report.ReportStatus.IN_PROGRESS);
+        when(reportService.getReportStatus(reportId)).thenReturn(testReport);
+        when(reportProgressBoard.subscribe(eq(reportId), any())).thenReturn(() -> { });
+        var result = mockMvc.perform(get("/api/reports/{id}/events", reportId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When: the other instance finishes it
+        Report completed = new Report();
+        completed.setId(reportId);
+        completed.setStatus(Report.ReportStatus.COMPLETED);
+        when(reportService.getReportStatus(reportId)).thenReturn(completed);
+        reportController.refreshRemoteStreams();
+
+        // Then: the stream gets the final status from the database and closes
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"status\":\"IN_PROGRESS\"")))
+                .andExpect(content().string(containsString("\"status\":\"COMPLETED\"")));
+    }
+
+    @Test
+    void testStreamReportStatus_NotFound() throws Exception {
+        // Given
+        String reportId = "NONEXISTENT";
+        when(reportService.getReportStatus(reportId))
+                .thenThrow(new RuntimeException("Report not found: " + reportId));
+        when(reportProgressBoard.subscribe(eq(reportId), any())).thenReturn(() -> { });
+
+        // When & Then
+        mockMvc.perform(get("/api/reports/{id}/events", reportId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCancelReport_Success() throws Exception {
+        // Given
+        String reportId = "REP001";
+        testReport.setStatus(Report.ReportStatus.CANCELLED);
+        when(reportService.cancelReport(reportId)).thenReturn(testReport);
+
+        // When & Then
+        mockMvc.perform(delete("/api/reports/{id}/run", reportId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+
+        verify(reportService).cancelReport(reportId);
+    }
+
+    @Test
+    void testCancelReport_AlreadyFinished() throws Exception {
+        // Given
+        String reportId = "REP001";
+        testReport.setStatus(Report.ReportStatus.COMPLETED);
+        when(reportService.cancelReport(reportId)).thenReturn(testReport);
+
+        // When & Then
+        mockMvc.perform(delete("/api/reports/{id}/run", reportId))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.reportId").value(reportId));
+    }
+
+    @Test
+    void testExportReportRows_StreamsCsv() throws Exception {
+        // Given
+        testRequest.setReportType("CERTIFICATION_CSV");
+        when(reportService.exportReportRows(any(ReportRequestDto.class), eq(TabularReportExporter.Format.CSV), any()))
+                .thenAnswer(invocation -> {
+                    OutputStream out = invocation.getArgument(2);
+                    out.write("employeeId,firstName\r\nEMP001,Ada\r\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        // When
+        var result = mockMvc.perform(post("/api/reports/export")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("text/csv")))
+                .andExpect(header().string("Content-Disposition", containsString("certification_report.csv")))
+                .andExpect(content().string(containsString("EMP001,Ada")));
+    }
+
+    @Test
+    void testExportReportRows_RejectsPdfReportTypes() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/reports/export")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testRequest)))
+                .andExpect(status().isBadRequest());
+
+        verify(reportService, never()).exportReportRows(any(), any(), any());
+    }
+
+    @Test
+    void testDownloadReport_InAnotherFormat() throws Exception {
+        // Given
+        File xlsx = File.createTempFile("REP001", ".xlsx");
+        xlsx.deleteOnExit();
+        when(reportService.getReportFile("REP001", ReportPrintStore.ExportFormat.XLSX)).thenReturn(xlsx);
+
+        // When & Then
+        mockMvc.perform(get("/api/reports/{id}/download", "REP001").param("format", "xlsx"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("spreadsheetml")));
+
+        mockMvc.perform(get("/api/reports/{id}/download", "REP001").param("format", "odt"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unsupported export format: odt"));
+        verify(reportService, never()).getReportFile("REP001");
+    }
+
+    @Test
+    void testDownloadReport_RevalidatesWithContentHashETag() throws Exception {
+        // Given
+        File pdf = File.createTempFile("REP001", ".pdf");
+        pdf.deleteOnExit();
+        Files.writeString(pdf.toPath(), "%PDF-1.4 report");
+        when(reportService.getReportFile("REP001")).thenReturn(pdf);
+        when(reportService.getContentHash("REP001", pdf)).thenReturn(Optional.of("abc123"));
+
+        // When & Then
+        mockMvc.perform(get("/api/reports/{id}/download", "REP001"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc123\""))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(content().string("%PDF-1.4 report"));
+
+        mockMvc.perform(get("/api/reports/{id}/download", "REP001").header("If-None-Match", "\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(actuatorPerformanceMonitor).recordReportDownload("full", 15);
+        verify(actuatorPerformanceMonitor).recordReportDownload("not_modified", 0);
+    }
+
+    @Test
+    void testDownloadReport_ServesByteRange() throws Exception {
+        // Given
+        File pdf = File.createTempFile("REP001", ".pdf");
+        pdf.deleteOnExit();
+        Files.writeString(pdf.toPath(), "0123456789");
+        when(reportService.getReportFile("REP001")).thenReturn(pdf);
+        when(reportService.getContentHash("REP001", pdf)).thenReturn(Optional.of("abc123"));
+
+        // When & Then
+        mockMvc.perform(get("/api/reports/{id}/download", "REP001").header("Range", "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+
+        mockMvc.perform(get("/api/reports/{id}/download", "REP001").header("Range", "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("789"));
+
+        // A stale If-Range gets the whole file
+        mockMvc.perform(get("/api/reports/{id}/download", "REP001")
+                        .header("Range", "bytes=2-5").header("If-Range", "\"old\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0123456789"));
+
+        mockMvc.perform(get("/api/reports/{id}/download", "REP001").header("Range", "bytes=20-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */10"));
+    }
+
     @Test
     void testGenerateReport_ServiceError() throws Exception {
         // Given
@@ -0,0 +1,145 @@
+package com.certreport.test;
+
+import com.certreport.dto.ReportRequestDto;
+import com.certreport.model.Report;
+import com.certreport.model.ReportJob;
+import com.certreport.repository.ReportJobRepository;
+import com.certreport.repository.ReportRepository;
+import com.certreport.service.ReportCancellationRegistry;
+import com.certreport.service.ReportMemoryBudget;
+import com.certreport.service.ReportProgressBoard;
+import com.certreport.service.ReportService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for report deadlines
+ *
+ * A heap budget held by the test keeps the report waiting inside generation past its one second
+ * deadline, which must stop it and free the worker without any cancel request.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    // Own database, so report workers of other cached test contexts cannot pick up these jobs
+    "spring.datasource.url=jdbc:h2:mem:deadline-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "report.result-cache.enabled=false",
+    "report.jobs.worker-threads=1",
+    "report.jobs.deadline-base-seconds=1",
+    "report.jobs.deadline-ms-per-employee=0",
+    "report.jobs.deadline-max-seconds=1",
+    "report.memory-budget.heap-budget-mb=1",
+    "report.memory-budget.max-wait-ms=100"
+})
+public class ReportDeadlineTest {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+
+    @Autowired
+    private ReportMemoryBudget reportMemoryBudget;
+
+    @Autowired
+    private ReportProgressBoard reportProgressBoard;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @SuppressWarnings("try") // the blocker only has to be held
+    void testReportPastItsDeadlineIsStoppedAndFreesItsWorker() throws Exception {
+        try (ReportMemoryBudget.Reservation blocker = reportMemoryBudget.reserve("blocker", reportMemoryBudget.getBudgetBytes())) {
+            // Given: a report stuck waiting for heap inside generation
+            Report report = reportService.generateReport(request("EMP001", "EMP002"));
+
+            // When: its deadline passes while the heap is still held
+            Report stopped = waitForStatus(report.getId(), Report.ReportStatus.FAILED);
+
+            // Then: it failed on the deadline and left the heap queue
+            assertTrue(stopped.getErrorMessage().contains("exceeded its deadline"), stopped.getErrorMessage());
+            assertNull(stopped.getFilePath());
+            assertEquals(0, reportMemoryBudget.getWaitingReports());
+            assertEquals(ReportProgressBoard.Phase.FAILED, reportProgressBoard.getProgress(report.getId()).orElseThrow().phase());
+
+            // And: the job run is counted as timed out, not as an ordinary failure, once the job is finished
+            waitUntil(() -> meterRegistry.find("report.job.run.time").tag("outcome", "timed_out").timer() != null);
+            assertNull(meterRegistry.find("report.job.run.time").tag("outcome", "failed").timer());
+            ReportJob job = reportJobRepository.findFirstByReportIdOrderBySubmittedAtDesc(report.getId()).orElseThrow();
+            assertEquals(ReportJob.JobStatus.FAILED, job.getStatus());
+            assertEquals(1, job.getTimeLimitSeconds());
+            assertEquals(job.getStartedAt().plusSeconds(1), job.getDeadline());
+        }
+        assertEquals(0, reportMemoryBudget.getReservedBytes());
+    }
+
+    @Test
+    void testDeadlineCancelsRegisteredSteps() throws Exception {
+        // Given
+        ReportCancellationRegistry registry = new ReportCancellationRegistry();
+        List<String> stopped = new CopyOnWriteArrayList<>();
+        List<String> workerOutcome = new CopyOnWriteArrayList<>();
+        LocalDateTime deadline = LocalDateTime.now().plus(Duration.ofMillis(200));
+        Thread worker = new Thread(() -> {
+            ReportCancellationRegistry.Cancellation cancellation = registry.register("REP001", deadline);
+            registry.onCancel("REP001", () -> stopped.add("fill"));
+            try {
+                Thread.sleep(30000);
+            } catch (InterruptedException e) {
+                workerOutcome.add("interrupted");
+            }
+            workerOutcome.add(String.valueOf(cancellation.getReason()));
+            registry.unregister(cancellation);
+        });
+
+        // When
+        worker.start();
+        worker.join(10000);
+
+        // Then: the deadline woke the worker and stopped the step, without a cancel request.
+        // The worker is interrupted before cancel actions run, so it may finish first.
+        assertFalse(worker.isAlive());
+        assertEquals(List.of("interrupted", "DEADLINE"), workerOutcome);
+        long waitUntil = System.currentTimeMillis() + 5000;
+        while (stopped.isEmpty() && System.currentTimeMillis() < waitUntil) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of("fill"), stopped);
+        assertTrue(registry.getDeadline("REP001").isEmpty());
+        registry.shutdown();
+    }
+
+    private ReportRequestDto request(String... employeeIds) {
+        return new ReportRequestDto("CERTIFICATION", List.of(employeeIds));
+    }
+
+    private Report waitForStatus(String reportId, Report.ReportStatus status) throws InterruptedException {
+        waitUntil(() -> reportRepository.findById(reportId).orElseThrow().getStatus() == status);
+        return reportRepository.findById(reportId).orElseThrow();
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for condition");
+            Thread.sleep(50);
+        }
+    }
+}
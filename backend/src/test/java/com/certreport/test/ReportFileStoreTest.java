@@ -0,0 +1,97 @@
+package com.certreport.test;
+
+import com.certreport.config.ReportFileStoreProperties;
+import com.certreport.service.ReportFileStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the sharded, indexed store of generated report files
+ */
+public class ReportFileStoreTest {
+
+    @TempDir
+    Path root;
+
+    private ReportFileStoreProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReportFileStoreProperties();
+        properties.setDirectory(root.toString());
+        properties.setShardLevels(2);
+    }
+
+    @Test
+    void testFilesAreRenamedIntoShardDirectoriesAndIndexed() throws Exception {
+        // Given
+        ReportFileStore store = new ReportFileStore(properties);
+        store.loadIndex();
+
+        // When
+        Path tempFile = store.newTempFile("REP001", "report.pdf");
+        Files.writeString(tempFile, "12345");
+        String stored = store.commit(tempFile);
+
+        // Then: two levels of shard directories below the root, and no temporary file left
+        Path storedPath = Paths.get(stored);
+        assertEquals(root, storedPath.getParent().getParent().getParent());
+        assertEquals("report.pdf", storedPath.getFileName().toString());
+        assertFalse(Files.exists(tempFile));
+        assertEquals(1, store.getFileCount());
+        assertEquals(5, store.getTotalBytes());
+
+        // And: a new store finds it again, and drops abandoned temporary files
+        Path abandoned = store.newTempFile("REP002", "abandoned.pdf");
+        Files.writeString(abandoned, "partial");
+        Files.setLastModifiedTime(abandoned, FileTime.from(Instant.now().minusSeconds(7200)));
+        ReportFileStore reopened = new ReportFileStore(properties);
+        reopened.loadIndex();
+        assertEquals(1, reopened.getFileCount());
+        assertEquals(5, reopened.getTotalBytes());
+        assertFalse(Files.exists(abandoned));
+
+        // And: deleting takes it out of the index
+        assertTrue(reopened.delete(stored));
+        assertEquals(0, reopened.getFileCount());
+        assertEquals(0, reopened.getTotalBytes());
+    }
+
+    @Test
+    void testOrphansAndFilesOverQuotaAreFoundOldestFirst() throws Exception {
+        // Given: three 600 KB files against a 1 MB quota
+        properties.setQuotaMb(1);
+        ReportFileStore store = new ReportFileStore(properties);
+        store.loadIndex();
+        String first = store(store, "REP001", "first.pdf", 600 * 1024);
+        String second = store(store, "REP002", "second.pdf", 600 * 1024);
+        String third = store(store, "REP003", "third.pdf", 600 * 1024);
+
+        // When & Then: only files stored before the cutoff and not referenced are orphans
+        Instant afterAll = Instant.now().plusSeconds(1);
+        assertEquals(List.of(second), store.findOrphans(Set.of(first, third), afterAll).stream()
+                .map(ReportFileStore.StoredFile::path).toList());
+        assertTrue(store.findOrphans(Set.of(), Instant.EPOCH).isEmpty());
+
+        // And: the oldest files go until the rest fit
+        assertEquals(List.of(first, second), store.findOverQuota().stream()
+                .map(ReportFileStore.StoredFile::path).toList());
+    }
+
+    private static String store(ReportFileStore store, String reportId, String fileName, int size) throws Exception {
+        Path tempFile = store.newTempFile(reportId, fileName);
+        Files.write(tempFile, new byte[size]);
+        return store.commit(tempFile);
+    }
+}
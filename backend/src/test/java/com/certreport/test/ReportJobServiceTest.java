@@ -0,0 +1,82 @@
+package com.certreport.test;
+
+import com.certreport.model.ReportJob;
+import com.certreport.repository.ReportJobRepository;
+import com.certreport.service.ReportJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the persistent report job queue.
+ * Jobs are created inside the test transaction, so no report worker ever sees them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class ReportJobServiceTest {
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+
+    @Test
+    void testQueuedJobsAreOrderedByPriorityThenSubmitTime() {
+        // Given
+        ReportJob low = reportJobService.enqueue("REPORT-LOW", 1, 10);
+        ReportJob firstHigh = reportJobService.enqueue("REPORT-HIGH-1", 9, 10);
+        ReportJob secondHigh = reportJobService.enqueue("REPORT-HIGH-2", 9, 10);
+        ReportJob defaultPriority = reportJobService.enqueue("REPORT-DEFAULT", null, 10);
+        secondHigh.setSubmittedAt(firstHigh.getSubmittedAt().plusSeconds(1));
+        reportJobRepository.save(secondHigh);
+
+        // When
+        List<ReportJob> queued = reportJobRepository.findNextQueuedForUpdate(PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(5, defaultPriority.getPriority());
+        assertEquals(List.of(firstHigh.getId(), secondHigh.getId(), defaultPriority.getId(), low.getId()),
+                queued.stream().map(ReportJob::getId).toList());
+        assertEquals(4, reportJobService.getQueuedJobCount());
+    }
+
+    @Test
+    void testFinishedJobsLeaveTheQueue() {
+        // Given
+        ReportJob completed = reportJobService.enqueue("REPORT-1", 5, 10);
+        ReportJob failed = reportJobService.enqueue("REPORT-2", 5, 10);
+
+        // When
+        reportJobService.markFinished(completed.getId(), ReportJob.JobStatus.COMPLETED);
+        reportJobService.markFinished(failed.getId(), ReportJob.JobStatus.FAILED);
+
+        // Then
+        assertEquals(ReportJob.JobStatus.COMPLETED, reportJobRepository.findById(completed.getId()).orElseThrow().getStatus());
+        assertEquals(ReportJob.JobStatus.FAILED, reportJobRepository.findById(failed.getId()).orElseThrow().getStatus());
+        assertNotNull(reportJobRepository.findById(completed.getId()).orElseThrow().getCompletedAt());
+        assertTrue(reportJobRepository.findNextQueuedForUpdate(PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void testTimeLimitScalesWithReportSize() {
+        // When: defaults of 60 s plus 200 ms per employee, at most 1200 s
+        ReportJob empty = reportJobService.enqueue("REPORT-EMPTY", 5, 0);
+        ReportJob regular = reportJobService.enqueue("REPORT-REGULAR", 5, 1000);
+        ReportJob huge = reportJobService.enqueue("REPORT-HUGE", 5, 100000);
+
+        // Then: the deadline is only set once a worker claims the job
+        assertEquals(60, empty.getTimeLimitSeconds());
+        assertEquals(260, regular.getTimeLimitSeconds());
+        assertEquals(1200, huge.getTimeLimitSeconds());
+        assertNull(regular.getDeadline());
+    }
+}
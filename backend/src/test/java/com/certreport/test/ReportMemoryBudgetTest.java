@@ -0,0 +1,169 @@
+package com.certreport.test;
+
+import com.certreport.config.ReportMemoryBudgetProperties;
+import com.certreport.service.ActuatorPerformanceMonitor;
+import com.certreport.service.ReportMemoryBudget;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for heap budget admission of concurrent reports
+ */
+public class ReportMemoryBudgetTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private ActuatorPerformanceMonitor monitor;
+    private ReportMemoryBudgetProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        monitor = mock(ActuatorPerformanceMonitor.class);
+        properties = new ReportMemoryBudgetProperties();
+        properties.setHeapBudgetMb(100);
+    }
+
+    @Test
+    void testReservationsWithinBudgetAreAdmittedAndReleased() throws Exception {
+        // Given
+        ReportMemoryBudget budget = new ReportMemoryBudget(properties, monitor);
+
+        // When
+        ReportMemoryBudget.Reservation first = budget.tryReserve("R1", 60 * MB, 0);
+        ReportMemoryBudget.Reservation second = budget.tryReserve("R2", 40 * MB, 0);
+
+        // Then
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(100 * MB, budget.getReservedBytes());
+
+        first.close();
+        first.close();
+        second.close();
+        assertEquals(0, budget.getReservedBytes());
+        verify(monitor).registerMemoryBudgetGauges(budget);
+    }
+
+    @Test
+    void testReservationThatDoesNotFitTimesOut() throws Exception {
+        // Given
+        ReportMemoryBudget budget = new ReportMemoryBudget(properties, monitor);
+        ReportMemoryBudget.Reservation running = budget.tryReserve("R1", 80 * MB, 0);
+
+        // When
+        ReportMemoryBudget.Reservation waiting = budget.tryReserve("R2", 40 * MB, 50);
+
+        // Then
+        assertNull(waiting);
+        assertEquals(80 * MB, budget.getReservedBytes());
+        assertEquals(0, budget.getWaitingReports());
+        verify(monitor).recordMemoryBudgetWait(anyLong(), eq(false));
+        running.close();
+    }
+
+    @Test
+    void testWaitingReportIsAdmittedWhenHeapIsReleased() throws Exception {
+        // Given
+        ReportMemoryBudget budget = new ReportMemoryBudget(properties, monitor);
+        ReportMemoryBudget.Reservation running = budget.tryReserve("R1", 80 * MB, 0);
+
+        // When
+        CompletableFuture<ReportMemoryBudget.Reservation> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return budget.reserve("R2", 40 * MB);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.currentTimeMillis() + 5000;
+        while (budget.getWaitingReports() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, budget.getWaitingReports());
+        running.close();
+
+        // Then
+        ReportMemoryBudget.Reservation admitted = waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(40 * MB, budget.getReservedBytes());
+        admitted.close();
+    }
+
+    @Test
+    void testShrinkingReservationAdmitsWaitingReportBeforeClose() throws Exception {
+        // Given: a full-fill reservation whose loaded rows take 30 MB
+        ReportMemoryBudget budget = new ReportMemoryBudget(properties, monitor);
+        ReportMemoryBudget.Reservation running = budget.tryReserve("R1", 80 * MB, 0);
+        CompletableFuture<ReportMemoryBudget.Reservation> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return budget.reserve("R2", 40 * MB);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.currentTimeMillis() + 5000;
+        while (budget.getWaitingReports() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, budget.getWaitingReports());
+
+        // When: the fill has consumed the rows
+        budget.shrink("R1", 50 * MB);
+
+        // Then: the waiting report runs alongside the export, and shrinking never grows a reservation
+        ReportMemoryBudget.Reservation admitted = waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(50 * MB, running.getBytes());
+        assertEquals(90 * MB, budget.getReservedBytes());
+        running.shrinkTo(70 * MB);
+        assertEquals(50 * MB, running.getBytes());
+
+        // When: the export no longer needs the filled pages
+        running.shrinkTo(0);
+        running.close();
+
+        // Then
+        assertEquals(40 * MB, budget.getReservedBytes());
+        budget.shrink("R1", 0);
+        admitted.close();
+        assertEquals(0, budget.getReservedBytes());
+    }
+
+    @Test
+    void testReservationLargerThanBudgetIsCapped() throws Exception {
+        ReportMemoryBudget budget = new ReportMemoryBudget(properties, monitor);
+
+        ReportMemoryBudget.Reservation huge = budget.tryReserve("R1", 500 * MB, 0);
+
+        assertNotNull(huge);
+        assertEquals(100 * MB, huge.getBytes());
+        assertNull(budget.tryReserve("R2", 1, 0));
+        huge.close();
+    }
+
+    @Test
+    void testDisabledBudgetAdmitsEverything() throws Exception {
+        properties.setEnabled(false);
+        ReportMemoryBudget budget = new ReportMemoryBudget(properties, monitor);
+
+        assertNotNull(budget.tryReserve("R1", 500 * MB, 0));
+        assertNotNull(budget.tryReserve("R2", 500 * MB, 0));
+        assertEquals(0, budget.getReservedBytes());
+    }
+
+    @Test
+    void testEstimatesUseConfiguredPerEmployeeSizes() {
+        ReportMemoryBudget budget = new ReportMemoryBudget(properties, monitor);
+
+        assertEquals(10 * 580 * 1024L, budget.estimateFullFill(10));
+        assertEquals(10 * 64 * 1024L, budget.estimateMemoryEfficient(10));
+        assertEquals(10 * 200 * 1024L, budget.estimateLoadedData(10));
+        assertEquals(10 * 380 * 1024L, budget.estimateFilledPages(10));
+    }
+}
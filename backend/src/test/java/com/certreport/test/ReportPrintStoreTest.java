@@ -0,0 +1,157 @@
+package com.certreport.test;
+
+import com.certreport.dto.ReportRequestDto;
+import com.certreport.model.Report;
+import com.certreport.repository.ReportRepository;
+import com.certreport.service.ReportCleanupService;
+import com.certreport.service.ReportPrintStore;
+import com.certreport.service.ReportPrintStore.ExportFormat;
+import com.certreport.service.ReportService;
+import net.sf.jasperreports.engine.JasperPrint;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for exporting completed reports to other formats from their stored filled report
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    // Own database, so report workers of other cached test contexts cannot pick up these jobs
+    "spring.datasource.url=jdbc:h2:mem:print-store-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "report.result-cache.enabled=false",
+    "report.result-cache.print-directory=${java.io.tmpdir}/report-prints-test"
+})
+public class ReportPrintStoreTest {
+
+    private static final Path PRINT_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "report-prints-test");
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private ReportPrintStore reportPrintStore;
+
+    @Autowired
+    private ReportCleanupService reportCleanupService;
+
+    @Test
+    void testCompletedReportExportsToOtherFormatsWithoutFillingAgain() throws Exception {
+        // Given: a completed PDF report
+        ReportRequestDto request = new ReportRequestDto("CERTIFICATION", List.of("EMP001", "EMP002", "EMP003"));
+        Report report = waitForReportCompletion(reportService.generateReport(request).getId());
+        assertEquals(Report.ReportStatus.COMPLETED, report.getStatus(), report.getErrorMessage());
+        JasperPrint stored = reportPrintStore.load(report.getId()).orElseThrow();
+        assertEquals(report.getPageCount(), stored.getPages().size());
+
+        // When
+        Map<ExportFormat, File> files = reportService.getReportFiles(report.getId(),
+                List.of(ExportFormat.PDF, ExportFormat.XLSX, ExportFormat.HTML, ExportFormat.DOCX));
+
+        // Then: PDF is the generated file, the others were exported from the stored print
+        assertEquals(report.getFilePath(), files.get(ExportFormat.PDF).getPath());
+        for (ExportFormat format : List.of(ExportFormat.XLSX, ExportFormat.DOCX)) {
+            byte[] content = Files.readAllBytes(files.get(format).toPath());
+            // Office Open XML documents are zip archives
+            assertEquals('P', content[0]);
+            assertEquals('K', content[1]);
+        }
+        assertTrue(Files.readString(files.get(ExportFormat.HTML).toPath()).contains("<html"));
+
+        // And: later requests reuse the exported files
+        long exportedAt = files.get(ExportFormat.XLSX).lastModified();
+        Thread.sleep(20);
+        assertEquals(exportedAt, reportService.getReportFile(report.getId(), ExportFormat.XLSX).lastModified());
+
+        // And: each file has the content hash recorded when it was written, for download ETags
+        assertEquals(sha256Of(files.get(ExportFormat.PDF)),
+                reportService.getContentHash(report.getId(), files.get(ExportFormat.PDF)).orElseThrow());
+        assertEquals(sha256Of(files.get(ExportFormat.XLSX)),
+                reportService.getContentHash(report.getId(), files.get(ExportFormat.XLSX)).orElseThrow());
+
+        // And: deleting the report removes the stored print and its exports
+        assertTrue(reportCleanupService.deleteReport(report.getId()));
+        assertTrue(reportPrintStore.load(report.getId()).isEmpty());
+        assertFalse(files.get(ExportFormat.XLSX).exists());
+    }
+
+    @Test
+    void testReportWithoutStoredPrintCannotBeExported() throws Exception {
+        // Given: a tabular report, which is never filled
+        ReportRequestDto request = new ReportRequestDto("CERTIFICATION_CSV", List.of("EMP001"));
+        Report report = waitForReportCompletion(reportService.generateReport(request).getId());
+        assertEquals(Report.ReportStatus.COMPLETED, report.getStatus(), report.getErrorMessage());
+
+        // When & Then
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> reportService.getReportFile(report.getId(), ExportFormat.PDF));
+        assertTrue(error.getMessage().contains("no stored filled report"));
+    }
+
+    @Test
+    void testStoredPrintWithClassesOutsideJasperReportsIsNotDeserialized() throws Exception {
+        // Given: the print directory, created owner-only, and a planted print naming another class
+        ReportRequestDto request = new ReportRequestDto("CERTIFICATION", List.of("EMP001"));
+        Report report = waitForReportCompletion(reportService.generateReport(request).getId());
+        assertEquals(Report.ReportStatus.COMPLETED, report.getStatus(), report.getErrorMessage());
+        assertTrue(reportPrintStore.load(report.getId()).isPresent());
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(PRINT_DIRECTORY)));
+        Path planted = PRINT_DIRECTORY.resolve("planted.jrprint");
+        try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(Files.newOutputStream(planted)))) {
+            out.writeObject(new Gadget());
+        }
+
+        // When / Then: the stream is rejected before the class is instantiated, and the file is dropped
+        assertTrue(reportPrintStore.load("planted").isEmpty());
+        assertFalse(Gadget.deserialized);
+        assertFalse(Files.exists(planted));
+    }
+
+    private static class Gadget implements Serializable {
+        private static final long serialVersionUID = 1L;
+        static volatile boolean deserialized;
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            deserialized = true;
+        }
+    }
+
+    private static String sha256Of(File file) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file.toPath())));
+    }
+
+    private Report waitForReportCompletion(String reportId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60000;
+        Report report = reportRepository.findById(reportId).orElseThrow();
+        while ((report.getStatus() == Report.ReportStatus.QUEUED || report.getStatus() == Report.ReportStatus.IN_PROGRESS)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            report = reportRepository.findById(reportId).orElseThrow();
+        }
+        return report;
+    }
+}
@@ -0,0 +1,133 @@
+package com.certreport.test;
+
+import com.certreport.dto.ReportRequestDto;
+import com.certreport.model.Report;
+import com.certreport.repository.ReportRepository;
+import com.certreport.service.ReportProgressBoard;
+import com.certreport.service.ReportProgressBoard.Phase;
+import com.certreport.service.ReportProgressBoard.ReportProgress;
+import com.certreport.service.ReportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the report progress board and the progress reported by real report generation
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    // Own database, so report workers of other cached test contexts cannot pick up these jobs
+    "spring.datasource.url=jdbc:h2:mem:progress-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "report.result-cache.enabled=false"
+})
+public class ReportProgressBoardTest {
+
+    @Autowired
+    private ReportProgressBoard reportProgressBoard;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Test
+    void testSubscribersOnlySeePhaseAndPercentChanges() {
+        // Given
+        ReportProgressBoard board = new ReportProgressBoard();
+        List<ReportProgress> updates = new CopyOnWriteArrayList<>();
+        board.subscribe("REP001", updates::add);
+
+        // When: 1000 rows over 10 pages, then a 10 page export
+        ReportProgressBoard.Tracker tracker = board.start("REP001");
+        tracker.filling(1000);
+        for (int row = 0; row < 1000; row++) {
+            tracker.rowConsumed();
+            if (row % 100 == 99) {
+                tracker.pageFilled();
+            }
+        }
+        tracker.exporting(10);
+        for (int page = 0; page < 10; page++) {
+            tracker.pageExported();
+            tracker.bytesExported(4096);
+        }
+        tracker.completed();
+
+        // Then: one update per whole percent at most, never going backwards
+        assertTrue(updates.size() <= 102, "Expected at most one update per percent, got " + updates.size());
+        for (int i = 1; i < updates.size(); i++) {
+            assertTrue(updates.get(i).percent() >= updates.get(i - 1).percent());
+        }
+        assertEquals(Phase.LOADING, updates.get(0).phase());
+        assertTrue(updates.stream().anyMatch(update -> update.phase() == Phase.FILLING && update.percent() == 45));
+        assertTrue(updates.stream().anyMatch(update -> update.phase() == Phase.EXPORTING));
+
+        ReportProgress last = updates.get(updates.size() - 1);
+        assertEquals(Phase.COMPLETED, last.phase());
+        assertEquals(100, last.percent());
+        assertEquals(1000, last.rowsConsumed());
+        assertEquals(10, last.pagesFilled());
+        assertEquals(40960, last.bytesExported());
+    }
+
+    @Test
+    void testUnsubscribeAndFailure() {
+        // Given
+        ReportProgressBoard board = new ReportProgressBoard();
+        List<ReportProgress> updates = new CopyOnWriteArrayList<>();
+        Runnable unsubscribe = board.subscribe("REP002", updates::add);
+        ReportProgressBoard.Tracker tracker = board.start("REP002");
+
+        // When
+        unsubscribe.run();
+        tracker.failed("Template not found");
+
+        // Then: the board still knows the outcome, the former subscriber was not told
+        assertEquals(1, updates.size());
+        ReportProgress progress = board.getProgress("REP002").orElseThrow();
+        assertEquals(Phase.FAILED, progress.phase());
+        assertEquals("Template not found", progress.message());
+        assertTrue(progress.isFinished());
+    }
+
+    @Test
+    void testGeneratedReportPublishesRealCounters() throws Exception {
+        // Given
+        ReportRequestDto request = new ReportRequestDto();
+        request.setReportType("CERTIFICATION");
+        request.setEmployeeIds(List.of("EMP001", "EMP002", "EMP003"));
+
+        // When
+        Report report = waitForReportCompletion(reportService.generateReport(request).getId());
+
+        // Then: the finished report stays on the board with what generation actually did
+        assertEquals(Report.ReportStatus.COMPLETED, report.getStatus(), report.getErrorMessage());
+        ReportProgress progress = reportProgressBoard.getProgress(report.getId()).orElseThrow();
+        assertEquals(Phase.COMPLETED, progress.phase());
+        assertEquals(100, progress.percent());
+        assertTrue(progress.rowsConsumed() > 0);
+        assertTrue(progress.pagesFilled() > 0);
+        assertEquals(new File(report.getFilePath()).length(), progress.bytesExported());
+    }
+
+    private Report waitForReportCompletion(String reportId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60000;
+        Report report = reportRepository.findById(reportId).orElseThrow();
+        while ((report.getStatus() == Report.ReportStatus.QUEUED || report.getStatus() == Report.ReportStatus.IN_PROGRESS)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            report = reportRepository.findById(reportId).orElseThrow();
+        }
+        return report;
+    }
+}
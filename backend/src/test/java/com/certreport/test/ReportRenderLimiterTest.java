@@ -0,0 +1,101 @@
+package com.certreport.test;
+
+import com.certreport.config.ReportJobProperties;
+import com.certreport.service.ActuatorPerformanceMonitor;
+import com.certreport.service.ReportRenderLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the render permit limiter used around Jasper fill/export
+ */
+public class ReportRenderLimiterTest {
+
+    private ActuatorPerformanceMonitor monitor;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = mock(ActuatorPerformanceMonitor.class);
+        executor = Executors.newFixedThreadPool(6);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testRenderStepsNeverExceedPermits() throws Exception {
+        // Given
+        ReportRenderLimiter limiter = new ReportRenderLimiter(propertiesWithPermits(2), monitor);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(6);
+
+        // When
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            int task = i;
+            results.add(executor.submit(() -> {
+                started.countDown();
+                return limiter.render(() -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    Thread.sleep(50);
+                    active.decrementAndGet();
+                    return task;
+                });
+            }));
+        }
+
+        // Then
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, maxActive.get());
+        assertEquals(2, limiter.getAvailablePermits());
+        verify(monitor, times(6)).recordRenderPermitWait(anyLong());
+    }
+
+    @Test
+    void testPermitIsReleasedWhenRenderFails() {
+        // Given
+        ReportRenderLimiter limiter = new ReportRenderLimiter(propertiesWithPermits(1), monitor);
+
+        // When
+        assertThrows(IllegalStateException.class, () -> limiter.render(() -> {
+            throw new IllegalStateException("fill failed");
+        }));
+
+        // Then
+        assertEquals(1, limiter.getAvailablePermits());
+    }
+
+    @Test
+    void testDefaultsToOnePermitPerCpu() {
+        ReportRenderLimiter limiter = new ReportRenderLimiter(new ReportJobProperties(), monitor);
+
+        assertEquals(Runtime.getRuntime().availableProcessors(), limiter.getAvailablePermits());
+    }
+
+    private ReportJobProperties propertiesWithPermits(int permits) {
+        ReportJobProperties properties = new ReportJobProperties();
+        properties.setRenderPermits(permits);
+        return properties;
+    }
+}
@@ -0,0 +1,158 @@
+package com.certreport.test;
+
+import com.certreport.dto.ReportRequestDto;
+import com.certreport.model.Certification;
+import com.certreport.model.CertificationDefinition;
+import com.certreport.model.Report;
+import com.certreport.repository.CertificationDefinitionRepository;
+import com.certreport.repository.CertificationRepository;
+import com.certreport.repository.ReportRepository;
+import com.certreport.service.ReportResultCache;
+import com.certreport.service.ReportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for result cache keys and reuse of completed / in-flight reports.
+ * Reports stay in the test transaction, so report workers never pick them up.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class ReportResultCacheTest {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportResultCache reportResultCache;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private CertificationRepository certificationRepository;
+
+    @Autowired
+    private CertificationDefinitionRepository certificationDefinitionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testCacheKeyIgnoresEmployeeOrderAndDuplicates() {
+        String key = reportResultCache.computeCacheKey("CERTIFICATION", List.of("EMP002", "EMP001"));
+
+        assertNotNull(key);
+        assertEquals(64, key.length());
+        assertEquals(key, reportResultCache.computeCacheKey("CERTIFICATION", List.of("EMP001", "EMP002", "EMP001")));
+        assertNotEquals(key, reportResultCache.computeCacheKey("CERTIFICATION", List.of("EMP001", "EMP003")));
+        assertNotEquals(key, reportResultCache.computeCacheKey("EMPLOYEE_DEMOGRAPHICS", List.of("EMP001", "EMP002")));
+    }
+
+    @Test
+    void testCacheKeyChangesWhenCertificationDataChanges() {
+        // Given
+        String before = reportResultCache.computeCacheKey("CERTIFICATION", List.of("EMP001"));
+        Certification certification = certificationRepository.findByEmployeeId("EMP001").get(0);
+
+        // When
+        certification.setUpdatedAt(LocalDateTime.now().plusMinutes(5));
+        certificationRepository.saveAndFlush(certification);
+
+        // Then
+        assertNotEquals(before, reportResultCache.computeCacheKey("CERTIFICATION", List.of("EMP001")));
+    }
+
+    @Test
+    void testAllEmployeeCacheKeyChangesWhenCertificationDataChanges() {
+        // Given
+        String before = reportResultCache.computeCacheKey("CERTIFICATION", List.of());
+        Certification certification = certificationRepository.findByEmployeeId("EMP001").get(0);
+
+        // When
+        certification.setUpdatedAt(LocalDateTime.now().plusMinutes(5));
+        certificationRepository.saveAndFlush(certification);
+
+        // Then
+        String after = reportResultCache.computeCacheKey("CERTIFICATION", List.of());
+        assertNotEquals(before, after);
+        assertNotEquals(after, reportResultCache.computeCacheKey("CERTIFICATION", List.of("EMP001")));
+    }
+
+    @Test
+    void testCacheKeysChangeWhenCertificationDefinitionIsEdited() {
+        // Given
+        String before = reportResultCache.computeCacheKey("CERTIFICATION", List.of("EMP001"));
+        String allBefore = reportResultCache.computeCacheKey("CERTIFICATION", List.of());
+        CertificationDefinition definition = certificationRepository.findByEmployeeId("EMP001").get(0).getCertificationDefinition();
+
+        // When: a definition the report prints is re-described
+        definition.setDescription(definition.getDescription() + " (revised)");
+        definition.setUpdatedAt(LocalDateTime.now().plusMinutes(5));
+        certificationDefinitionRepository.saveAndFlush(definition);
+
+        // Then
+        assertNotEquals(before, reportResultCache.computeCacheKey("CERTIFICATION", List.of("EMP001")));
+        assertNotEquals(allBefore, reportResultCache.computeCacheKey("CERTIFICATION", List.of()));
+    }
+
+    @Test
+    void testIdenticalRequestJoinsInFlightReport() {
+        // When
+        Report first = reportService.generateReport(request("EMP004", "EMP003"));
+        Report second = reportService.generateReport(request("EMP003", "EMP004"));
+        Report other = reportService.generateReport(request("EMP005"));
+
+        // Then
+        assertEquals(first.getId(), second.getId());
+        assertNotEquals(first.getId(), other.getId());
+        assertNotNull(first.getCacheKey());
+    }
+
+    @Test
+    void testCompletedReportIsServedWhileItsFileExists() throws Exception {
+        // Given
+        Report completed = reportService.generateReport(request("EMP006"));
+        Path file = Files.createTempFile("cached-report", ".pdf");
+        markCompleted(completed, file.toString());
+
+        // When
+        Report cached = reportService.generateReport(request("EMP006"));
+
+        // Then
+        assertEquals(completed.getId(), cached.getId());
+        assertEquals(Report.ReportStatus.COMPLETED, cached.getStatus());
+
+        // And: once the file is gone the report is generated again
+        Files.delete(file);
+        Report regenerated = reportService.generateReport(request("EMP006"));
+        assertNotEquals(completed.getId(), regenerated.getId());
+        assertEquals(Report.ReportStatus.QUEUED, regenerated.getStatus());
+    }
+
+    private void markCompleted(Report report, String filePath) {
+        report.setStatus(Report.ReportStatus.COMPLETED);
+        report.setFilePath(filePath);
+        report.setCompletedAt(LocalDateTime.now());
+        reportRepository.saveAndFlush(report);
+        entityManager.clear();
+        assertTrue(new File(filePath).isFile());
+    }
+
+    private ReportRequestDto request(String... employeeIds) {
+        return new ReportRequestDto("CERTIFICATION", List.of(employeeIds));
+    }
+}
@@ -8,7 +8,22 @@ import com.certreport.service.EmployeeService;
 import com.certreport.service.CertificationService;
 import com.certreport.service.ActuatorPerformanceMonitor;
 import com.certreport.service.MemoryEfficientPdfGenerationService;
+import com.certreport.service.ReportTemplateRegistry;
+import com.certreport.service.ReportJobService;
+import com.certreport.service.ReportRenderLimiter;
+import com.certreport.service.ReportMemoryBudget;
+import com.certreport.service.ReportResultCache;
+import com.certreport.service.ReportFragmentCache;
+import com.certreport.service.ReportProgressBoard;
+import com.certreport.service.ReportCancellationRegistry;
+import com.certreport.service.TabularReportExporter;
+import com.certreport.service.ReportPrintStore;
+import com.certreport.service.NativeCertificationPdfRenderer;
+import com.certreport.service.ParallelPdfExporter;
+import com.certreport.service.ReportFileStore;
+import com.certreport.service.ReportSummaryService;
 import com.certreport.config.PdfGenerationProperties;
+import com.certreport.config.ReportJobProperties;
 import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,12 +33,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.quality.Strictness;
 import org.mockito.junit.jupiter.MockitoSettings;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -51,6 +69,57 @@ public class ReportServiceTest {
     @Mock
     private PdfGenerationProperties pdfProperties;
 
+    @Mock
+    private ReportTemplateRegistry reportTemplateRegistry;
+
+    @Mock
+    private Executor reportFillExecutor;
+
+    @Mock
+    private ReportJobService reportJobService;
+
+    @Mock
+    private ReportJobProperties jobProperties;
+
+    @Mock
+    private ReportRenderLimiter reportRenderLimiter;
+
+    @Mock
+    private ReportMemoryBudget reportMemoryBudget;
+
+    @Mock
+    private ReportResultCache reportResultCache;
+
+    @Mock
+    private ReportFragmentCache reportFragmentCache;
+
+    @Mock
+    private ReportProgressBoard reportProgressBoard;
+
+    @Mock
+    private ReportCancellationRegistry reportCancellationRegistry;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TabularReportExporter tabularReportExporter;
+
+    @Mock
+    private ReportPrintStore reportPrintStore;
+
+    @Mock
+    private NativeCertificationPdfRenderer nativePdfRenderer;
+
+    @Mock
+    private ParallelPdfExporter parallelPdfExporter;
+
+    @Mock
+    private ReportFileStore reportFileStore;
+
+    @Mock
+    private ReportSummaryService reportSummaryService;
+
     @InjectMocks
     private ReportService reportService;
 
@@ -73,6 +142,9 @@ public class ReportServiceTest {
         when(pdfProperties.getChunkSize()).thenReturn(50);
         when(pdfProperties.getGcFrequency()).thenReturn(5);
 
+        // No cached results - every request is submitted
+        when(reportResultCache.getOrSubmit(any(), any())).thenAnswer(invocation -> invocation.<Supplier<Report>>getArgument(1).get());
+
         // Mock repository findById for all test report IDs to reduce log noise
         when(reportRepository.findById("REP001")).thenReturn(Optional.of(testReport));
         when(reportRepository.findById("REP002")).thenReturn(Optional.of(testReport));
@@ -170,8 +242,26 @@ public class ReportServiceTest {
         assertNotNull(result);
         assertEquals("REP002", result.getId());
         assertEquals("EMPLOYEE_DEMOGRAPHICS", result.getType());
-        // Note: Status might change during async processing, so we verify the initial save call
+        assertEquals(Report.ReportStatus.QUEUED, result.getStatus());
         verify(reportRepository, atLeastOnce()).save(any(Report.class));
+        verify(reportJobService).enqueue("REP002", null, 2L);
+    }
+
+    @Test
+    void testGenerateReport_PassesPriorityToJobQueue() {
+        // Given
+        Report savedReport = new Report();
+        savedReport.setId("REP002");
+        savedReport.setStatus(Report.ReportStatus.QUEUED);
+        when(reportRepository.save(any(Report.class))).thenReturn(savedReport);
+        testRequest.setPriority(9);
+
+        // When
+        reportService.generateReport(testRequest);
+
+        // Then: generation is queued, not run on the caller's thread
+        verify(reportJobService).enqueue("REP002", 9, 2L);
+        verify(actuatorPerformanceMonitor, never()).startReportGeneration(anyString(), anyInt(), anyInt());
     }
 
     @Test
@@ -0,0 +1,62 @@
+package com.certreport.test;
+
+import com.certreport.model.Certification;
+import com.certreport.service.CertificationService;
+import com.certreport.service.ReportSummaryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the database-side report summary against the per-status certification counts
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class ReportSummaryServiceTest {
+
+    private static final List<String> EMPLOYEE_IDS = List.of("EMP001", "EMP002", "EMP003", "EMP007");
+
+    @Autowired
+    private ReportSummaryService reportSummaryService;
+
+    @Autowired
+    private CertificationService certificationService;
+
+    @Test
+    void testTotalsMatchStatusCountsAndDepartmentSubtotals() throws Exception {
+        // Given
+        Map<Certification.CertificationStatus, Long> statusCounts = certificationService.getCertificationStatusCounts(EMPLOYEE_IDS);
+
+        // When: summarizing on the fill pool, as alongside a report data load
+        ReportSummaryService.ReportSummary summary = reportSummaryService.summarizeAsync(EMPLOYEE_IDS).get();
+
+        // Then: totals agree with the per-status counts, employees without certifications included
+        assertEquals(EMPLOYEE_IDS.size(), summary.employees());
+        assertEquals(statusCounts.values().stream().mapToLong(Long::longValue).sum(), summary.certifications());
+        assertEquals(statusCounts.getOrDefault(Certification.CertificationStatus.COMPLETED, 0L), summary.completed());
+        assertEquals(statusCounts.getOrDefault(Certification.CertificationStatus.IN_PROGRESS, 0L), summary.inProgress());
+        assertEquals(statusCounts.getOrDefault(Certification.CertificationStatus.FAILED, 0L), summary.failed());
+
+        // And: the department subtotals add up to the totals
+        assertFalse(summary.departments().isEmpty());
+        assertEquals(summary.employees(), summary.departments().values().stream()
+                .mapToLong(ReportSummaryService.DepartmentSummary::employees).sum());
+        assertEquals(summary.certifications(), summary.departments().values().stream()
+                .mapToLong(ReportSummaryService.DepartmentSummary::certifications).sum());
+    }
+
+    @Test
+    void testEmptyRequestHasNoDepartments() {
+        ReportSummaryService.ReportSummary summary = reportSummaryService.summarize(List.of());
+
+        assertEquals(0, summary.employees());
+        assertEquals(0, summary.certifications());
+        assertTrue(summary.departments().isEmpty());
+    }
+}
@@ -0,0 +1,101 @@
+package com.certreport.test;
+
+import com.certreport.service.ActuatorPerformanceMonitor;
+import com.certreport.service.ReportTemplateRegistry;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReportTemplateRegistryTest {
+
+    @Mock
+    private ActuatorPerformanceMonitor actuatorPerformanceMonitor;
+
+    private ReportTemplateRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ReportTemplateRegistry(actuatorPerformanceMonitor);
+    }
+
+    @Test
+    void testTemplateIsCompiledOnceAndServedFromCache() throws JRException {
+        // When
+        JasperReport first = registry.getTemplate(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
+        JasperReport second = registry.getTemplate(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
+
+        // Then
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals(1, registry.getCachedTemplateCount());
+        verify(actuatorPerformanceMonitor, times(1))
+            .recordTemplateCompilation(eq(ReportTemplateRegistry.CERTIFICATIONS_REPORT), anyLong());
+        verify(actuatorPerformanceMonitor, times(1))
+            .recordTemplateCacheHit(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
+    }
+
+    @Test
+    void testTemplateVersionIsStableChecksum() throws JRException {
+        // When
+        String version = registry.getTemplateVersion(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
+
+        // Then
+        assertEquals(64, version.length());
+        assertEquals(version, registry.getTemplateVersion(ReportTemplateRegistry.CERTIFICATIONS_REPORT));
+    }
+
+    @Test
+    void testEvictAllForcesRecompilation() throws JRException {
+        // Given
+        JasperReport first = registry.getTemplate(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
+
+        // When
+        registry.evictAll();
+        JasperReport second = registry.getTemplate(ReportTemplateRegistry.CERTIFICATIONS_REPORT);
+
+        // Then
+        assertNotSame(first, second);
+        verify(actuatorPerformanceMonitor, times(2))
+            .recordTemplateCompilation(eq(ReportTemplateRegistry.CERTIFICATIONS_REPORT), anyLong());
+    }
+
+    @Test
+    void testChangedTemplateGetsNewVersionWithoutRestart() throws Exception {
+        // Given: a template written next to the real ones on the test classpath
+        Path template = new ClassPathResource("reports/" + ReportTemplateRegistry.CERTIFICATIONS_REPORT + ".jrxml")
+                .getFile().toPath().resolveSibling("registry_reload_test.jrxml");
+        try {
+            Files.writeString(template, "<jasperReport/>");
+            Files.setLastModifiedTime(template, FileTime.fromMillis(1_000_000));
+            String before = registry.getTemplateVersion("registry_reload_test");
+
+            // When: the file is edited
+            Files.writeString(template, "<jasperReport name=\"edited\"/>");
+            Files.setLastModifiedTime(template, FileTime.fromMillis(2_000_000));
+
+            // Then
+            assertNotEquals(before, registry.getTemplateVersion("registry_reload_test"));
+        } finally {
+            Files.deleteIfExists(template);
+        }
+    }
+
+    @Test
+    void testUnknownTemplateFails() {
+        assertThrows(JRException.class, () -> registry.getTemplate("does_not_exist"));
+    }
+}
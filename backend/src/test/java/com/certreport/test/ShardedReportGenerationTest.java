@@ -0,0 +1,136 @@
+package com.certreport.test;
+
+import com.certreport.dto.EmployeeDto;
+import com.certreport.dto.ReportRequestDto;
+import com.certreport.model.Report;
+import com.certreport.repository.ReportRepository;
+import com.certreport.service.EmployeeService;
+import com.certreport.service.ReportService;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for department-sharded report generation
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "report.pdf.memory-efficient.sharding-threshold-employees=5",
+    "report.pdf.memory-efficient.sharding-max-shards=3"
+})
+public class ShardedReportGenerationTest {
+
+    private static final List<String> ALL_EMPLOYEES = IntStream.rangeClosed(1, 15)
+            .mapToObj(i -> String.format("EMP%03d", i))
+            .collect(Collectors.toList());
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Test
+    void testPartitionKeepsReportOrderAndShardSize() {
+        // When
+        List<List<String>> shards = employeeService.partitionByDepartment(ALL_EMPLOYEES, 3);
+
+        // Then: every employee appears once, departments in order, no shard above the target size
+        List<String> flattened = shards.stream().flatMap(List::stream).collect(Collectors.toList());
+        assertEquals(15, flattened.size());
+        assertTrue(flattened.containsAll(ALL_EMPLOYEES));
+        assertTrue(shards.stream().allMatch(shard -> !shard.isEmpty() && shard.size() <= 5));
+
+        Map<String, String> departmentById = employeeService.getEmployeesByIds(ALL_EMPLOYEES).stream()
+                .collect(Collectors.toMap(EmployeeDto::getId, EmployeeDto::getDepartment));
+        List<String> departments = flattened.stream().map(departmentById::get).collect(Collectors.toList());
+        List<String> sortedDepartments = new ArrayList<>(departments);
+        sortedDepartments.sort(String::compareTo);
+        assertEquals(sortedDepartments, departments);
+    }
+
+    @Test
+    void testShardedReportHasContinuousPageNumbersAndOneTitle() throws Exception {
+        // Given
+        ReportRequestDto request = new ReportRequestDto();
+        request.setReportType("CERTIFICATION");
+        request.setEmployeeIds(ALL_EMPLOYEES);
+
+        // When
+        Report report = waitForReportCompletion(reportService.generateReport(request).getId());
+
+        // Then
+        assertEquals(Report.ReportStatus.COMPLETED, report.getStatus(), report.getErrorMessage());
+        int pageCount = report.getPageCount();
+        assertTrue(pageCount >= 15, "Expected at least one page per employee, got " + pageCount);
+
+        PdfReader reader = new PdfReader(reportService.getReportFile(report.getId()).getPath());
+        try {
+            assertEquals(pageCount, reader.getNumberOfPages());
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            int pagesWithTitle = 0;
+            for (int page = 1; page <= pageCount; page++) {
+                String text = extractor.getTextFromPage(page);
+                assertTrue(text.contains("Page " + page + " of " + pageCount),
+                    "Page " + page + " footer is not numbered across shards");
+                if (text.contains("CertReport Systems")) {
+                    pagesWithTitle++;
+                }
+            }
+            assertEquals(1, pagesWithTitle);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void testUnshardedReportPageFooter() throws Exception {
+        // Given: below the sharding threshold
+        ReportRequestDto request = new ReportRequestDto();
+        request.setReportType("CERTIFICATION");
+        request.setEmployeeIds(List.of("EMP001", "EMP002"));
+
+        // When
+        Report report = waitForReportCompletion(reportService.generateReport(request).getId());
+
+        // Then
+        assertEquals(Report.ReportStatus.COMPLETED, report.getStatus(), report.getErrorMessage());
+        int pageCount = report.getPageCount();
+        PdfReader reader = new PdfReader(reportService.getReportFile(report.getId()).getPath());
+        try {
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            for (int page = 1; page <= pageCount; page++) {
+                assertTrue(extractor.getTextFromPage(page).contains("Page " + page + " of " + pageCount));
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private Report waitForReportCompletion(String reportId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60000;
+        Report report = reportRepository.findById(reportId).orElseThrow();
+        while ((report.getStatus() == Report.ReportStatus.QUEUED || report.getStatus() == Report.ReportStatus.IN_PROGRESS)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            report = reportRepository.findById(reportId).orElseThrow();
+        }
+        return report;
+    }
+}
@@ -0,0 +1,127 @@
+package com.certreport.test;
+
+import com.certreport.dto.CompleteReportDataDto;
+import com.certreport.model.Certification;
+import com.certreport.service.CertificationService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the cursor-backed report data source emits the same rows as the in-memory path
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class StreamingCertificationDataSourceTest {
+
+    private static final List<String> EMPLOYEE_IDS = List.of("EMP001", "EMP002", "EMP003", "EMP007");
+
+    @Autowired
+    private CertificationService certificationService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void testStreamedRowsMatchMaterializedData() throws JRException {
+        // Given: the materialized report data for the same employees
+        List<CompleteReportDataDto> materialized = certificationService.getCertificationDataChunk(EMPLOYEE_IDS);
+        long expectedRows = materialized.stream()
+                .mapToLong(data -> data.hasCertifications() ? data.getCertifications().size() : 1)
+                .sum();
+
+        // When: streaming rows through the data source
+        List<String> employeeOrder = new ArrayList<>();
+        long streamedRows = certificationService.fillFromReportRowCursor(EMPLOYEE_IDS, dataSource -> {
+            while (dataSource.next()) {
+                String employeeId = (String) dataSource.getFieldValue(field("employee.id"));
+                if (employeeOrder.isEmpty() || !employeeOrder.get(employeeOrder.size() - 1).equals(employeeId)) {
+                    employeeOrder.add(employeeId);
+                }
+            }
+            return dataSource.getRowCount();
+        });
+
+        // Then: every row is emitted once and each employee's rows are contiguous
+        assertEquals(expectedRows, streamedRows);
+        assertEquals(EMPLOYEE_IDS.size(), employeeOrder.size());
+        assertTrue(employeeOrder.containsAll(EMPLOYEE_IDS));
+    }
+
+    @Test
+    void testPerEmployeeSummaryCounts() throws JRException {
+        // When: reading the rows of an employee with one completed and one in-progress certification
+        List<Long[]> counts = certificationService.fillFromReportRowCursor(List.of("EMP001"), dataSource -> {
+            List<Long[]> rows = new ArrayList<>();
+            while (dataSource.next()) {
+                rows.add(new Long[] {
+                    (Long) dataSource.getFieldValue(field("completedCertificationsCount")),
+                    (Long) dataSource.getFieldValue(field("inProgressCertificationsCount")),
+                    (Long) dataSource.getFieldValue(field("failedCertificationsCount"))
+                });
+            }
+            return rows;
+        });
+
+        // Then
+        assertEquals(2, counts.size());
+        for (Long[] row : counts) {
+            assertArrayEquals(new Long[] {1L, 1L, 0L}, row);
+        }
+    }
+
+    @Test
+    void testEmployeeWithoutCertificationsYieldsSingleRow() throws JRException {
+        Object certificationName = certificationService.fillFromReportRowCursor(List.of("EMP007"), dataSource -> {
+            assertTrue(dataSource.next());
+            Object name = dataSource.getFieldValue(field("certificationName"));
+            assertFalse(dataSource.next());
+            return name;
+        });
+
+        assertNull(certificationName);
+    }
+
+    @Test
+    void testRowsAreProjectedWithoutManagedEntities() throws JRException {
+        long rows = certificationService.fillFromReportRowCursor(EMPLOYEE_IDS, dataSource -> {
+            while (dataSource.next()) {
+                assertNotNull(dataSource.getCurrentRow().employeeId());
+            }
+            return dataSource.getRowCount();
+        });
+
+        assertTrue(rows > 0);
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void testStatusCountsFromDatabase() {
+        Map<Certification.CertificationStatus, Long> counts =
+                certificationService.getCertificationStatusCounts(List.of("EMP001", "EMP002"));
+
+        assertEquals(2L, counts.get(Certification.CertificationStatus.COMPLETED));
+        assertEquals(2L, counts.get(Certification.CertificationStatus.IN_PROGRESS));
+        assertNull(counts.get(Certification.CertificationStatus.FAILED));
+    }
+
+    private static JRDesignField field(String name) {
+        JRDesignField field = new JRDesignField();
+        field.setName(name);
+        return field;
+    }
+}
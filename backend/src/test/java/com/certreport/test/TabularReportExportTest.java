@@ -0,0 +1,168 @@
+package com.certreport.test;
+
+import com.certreport.dto.ReportRequestDto;
+import com.certreport.model.Employee;
+import com.certreport.model.Report;
+import com.certreport.repository.EmployeeRepository;
+import com.certreport.repository.ReportRepository;
+import com.certreport.service.ReportProgressBoard;
+import com.certreport.service.ReportService;
+import com.certreport.service.TabularReportExporter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for CSV and JSON Lines reports, which stream rows without a Jasper fill
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    // Own database, so report workers of other cached test contexts cannot pick up these jobs
+    "spring.datasource.url=jdbc:h2:mem:tabular-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "report.result-cache.enabled=false"
+})
+public class TabularReportExportTest {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ReportProgressBoard reportProgressBoard;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testCsvReportHasHeaderAndOneLinePerRow() throws Exception {
+        // Given
+        ReportRequestDto request = new ReportRequestDto("CERTIFICATION_CSV", List.of("EMP001", "EMP002", "EMP003"));
+
+        // When
+        Report report = waitForReportCompletion(reportService.generateReport(request).getId());
+
+        // Then
+        assertEquals(Report.ReportStatus.COMPLETED, report.getStatus(), report.getErrorMessage());
+        assertTrue(report.getFilePath().endsWith(".csv"));
+        String csv = Files.readString(Path.of(report.getFilePath()), StandardCharsets.UTF_8);
+        List<String> lines = csv.lines().toList();
+        assertTrue(lines.get(0).startsWith("employeeId,firstName,lastName,email,department"));
+
+        long rows = reportProgressBoard.getProgress(report.getId()).orElseThrow().rowsConsumed();
+        assertTrue(rows >= 3);
+        assertEquals(rows + 1, lines.size());
+        Set<String> employeeIds = lines.stream().skip(1).map(line -> line.substring(0, line.indexOf(','))).collect(Collectors.toSet());
+        assertEquals(Set.of("EMP001", "EMP002", "EMP003"), employeeIds);
+    }
+
+    @Test
+    void testCsvFieldsThatLookLikeFormulasAreWrittenAsText() throws Exception {
+        // Given: an employee whose names a spreadsheet would evaluate
+        Employee employee = employeeRepository.findById("EMP003").orElseThrow();
+        String firstName = employee.getFirstName();
+        String lastName = employee.getLastName();
+        employee.setFirstName("=HYPERLINK(\"http://example.com\")");
+        employee.setLastName("-2+3,cmd");
+        employeeRepository.save(employee);
+
+        try {
+            // When
+            ReportRequestDto request = new ReportRequestDto("CERTIFICATION_CSV", List.of("EMP003"));
+            Report report = waitForReportCompletion(reportService.generateReport(request).getId());
+
+            // Then: both are prefixed with an apostrophe, and quoted where the value needs it
+            assertEquals(Report.ReportStatus.COMPLETED, report.getStatus(), report.getErrorMessage());
+            List<String> rows = Files.readString(Path.of(report.getFilePath()), StandardCharsets.UTF_8)
+                    .lines().skip(1).toList();
+            assertFalse(rows.isEmpty());
+            for (String row : rows) {
+                assertTrue(row.startsWith("EMP003,\"'=HYPERLINK(\"\"http://example.com\"\")\",\"'-2+3,cmd\","), row);
+            }
+        } finally {
+            employee.setFirstName(firstName);
+            employee.setLastName(lastName);
+            employeeRepository.save(employee);
+        }
+    }
+
+    @Test
+    void testGzippedJsonLinesReportHasOneObjectPerLine() throws Exception {
+        // Given
+        ReportRequestDto request = new ReportRequestDto("CERTIFICATION_JSONL", List.of("EMP001", "EMP002"));
+        request.setGzip(true);
+
+        // When
+        Report report = waitForReportCompletion(reportService.generateReport(request).getId());
+
+        // Then
+        assertEquals(Report.ReportStatus.COMPLETED, report.getStatus(), report.getErrorMessage());
+        assertTrue(report.getFilePath().endsWith(".jsonl.gz"));
+        List<JsonNode> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(report.getFilePath())), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                rows.add(objectMapper.readTree(line));
+            }
+        }
+        assertFalse(rows.isEmpty());
+        for (JsonNode row : rows) {
+            assertTrue(Set.of("EMP001", "EMP002").contains(row.path("employee").path("id").asText()));
+            assertTrue(row.has("completedCertificationsCount"));
+        }
+    }
+
+    @Test
+    void testStreamedExportWithoutEmployeeIdsCoversAllEmployees() throws Exception {
+        // Given
+        ReportRequestDto request = new ReportRequestDto("CERTIFICATION_CSV", List.of());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rowCount = reportService.exportReportRows(request, TabularReportExporter.Format.CSV, out);
+
+        // Then: one line per row, for employees across the whole table
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(rowCount + 1, lines.size());
+        Set<String> allIds = employeeRepository.findAll().stream().map(Employee::getId).collect(Collectors.toSet());
+        Set<String> exportedIds = lines.stream().skip(1).map(line -> line.substring(0, line.indexOf(','))).collect(Collectors.toSet());
+        assertTrue(exportedIds.size() > 3, exportedIds.toString());
+        assertTrue(allIds.containsAll(exportedIds));
+    }
+
+    private Report waitForReportCompletion(String reportId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60000;
+        Report report = reportRepository.findById(reportId).orElseThrow();
+        while ((report.getStatus() == Report.ReportStatus.QUEUED || report.getStatus() == Report.ReportStatus.IN_PROGRESS)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            report = reportRepository.findById(reportId).orElseThrow();
+        }
+        return report;
+    }
+}
@@ -68,7 +68,7 @@ const ReportList: React.FC<ReportListProps> = ({
   const startIndex = (currentPage - 1) * pageSize;
   const endIndex = startIndex + pageSize;
   const paginatedReports = reports.slice(startIndex, endIndex);
-  const getStatusBadge = (status: Report['status']) => {
+  const getStatusBadge = (status: Report['status'], progress?: number) => {
     // Simple, direct status styling without complex config objects
     let bgClass, textClass, icon;
     
@@ -93,6 +93,11 @@ const ReportList: React.FC<ReportListProps> = ({
         textClass = 'text-red-700';
         icon = '❌';
         break;
+      case 'CANCELLED':
+        bgClass = 'bg-gray-50 border-gray-200';
+        textClass = 'text-gray-500';
+        icon = '⛔';
+        break;
       default:
         bgClass = 'bg-gray-50 border-gray-200';
         textClass = 'text-gray-700';
@@ -103,6 +108,9 @@ const ReportList: React.FC<ReportListProps> = ({
         <span className="mr-2">{icon}</span>
         {(status === 'QUEUED' || status === 'IN_PROGRESS') && <LoadingSpinner size="sm" className="mr-2" />}
         <span className="capitalize">{status.toLowerCase().replace('_', ' ')}</span>
+        {status === 'IN_PROGRESS' && progress !== undefined && progress > 0 && (
+          <span className="ml-1">{progress}%</span>
+        )}
       </div>
     );
   };
@@ -271,7 +279,7 @@ const ReportList: React.FC<ReportListProps> = ({
                       {report.name}
                     </h4>
                     <div className="flex items-center space-x-2 mt-1">
-                      {getStatusBadge(report.status)}
+                      {getStatusBadge(report.status, report.progress)}
                       {index === 0 && (
                         <span className="inline-flex items-center px-2 py-0.5 rounded-full text-xs font-medium bg-blue-100 text-blue-800">
                           Latest
@@ -352,7 +360,7 @@ const ReportList: React.FC<ReportListProps> = ({
                   </>
                 )}
                 
-                {(report.status === 'FAILED' || report.status === 'QUEUED') && onDelete && (
+                {(report.status === 'FAILED' || report.status === 'QUEUED' || report.status === 'CANCELLED') && onDelete && (
                   <ActionButton
                     onClick={async () => {
                       setDeletingReports(prev => new Set(prev).add(report.id));
@@ -1,4 +1,4 @@
-import React, { createContext, useContext, useState, useCallback } from 'react';
+import React, { createContext, useContext, useState, useCallback, useEffect, useRef } from 'react';
 import type { ReactNode } from 'react';
 import type { Employee, Report, ReportRequest } from '../types';
 import { apiClient } from '../services/api';
@@ -142,7 +142,48 @@ export const ReportProvider: React.FC<ReportProviderProps> = ({ children }) => {
     } catch (err) {
       setError(err instanceof Error ? err.message : 'Failed to refresh report status');
     }
-  }, []);  const downloadReport = useCallback(async (reportId: string) => {
+  }, []);
+
+  // Queued and generating reports follow their status stream; finished ones are reloaded in full
+  const statusStreams = useRef(new Map<string, () => void>());
+
+  useEffect(() => {
+    const streams = statusStreams.current;
+    const active = new Set(reports
+      .filter(report => report.status === 'QUEUED' || report.status === 'IN_PROGRESS')
+      .map(report => report.id));
+    streams.forEach((close, reportId) => {
+      if (!active.has(reportId)) {
+        close();
+        streams.delete(reportId);
+      }
+    });
+    active.forEach(reportId => {
+      if (streams.has(reportId)) {
+        return;
+      }
+      streams.set(reportId, apiClient.subscribeToReportStatus(reportId, event => {
+        if (event.status === 'QUEUED' || event.status === 'IN_PROGRESS') {
+          setReports(prev => prev.map(report =>
+            report.id === reportId ? { ...report, status: event.status, progress: event.progress } : report
+          ));
+        } else {
+          // File path, page count and error message come with the full report
+          refreshReportStatus(reportId);
+        }
+      }));
+    });
+  }, [reports, refreshReportStatus]);
+
+  useEffect(() => {
+    const streams = statusStreams.current;
+    return () => {
+      streams.forEach(close => close());
+      streams.clear();
+    };
+  }, []);
+
+  const downloadReport = useCallback(async (reportId: string) => {
     try {
       setLoading(true);
       const blob = await apiClient.downloadReport(reportId);
@@ -1,6 +1,6 @@
 // API Client using native fetch - no Axios as per specifications
 
-import type { Employee, Report, ReportRequest, CertificationDefinition, CertificationFilter, CertificationFilterResponse } from '../types';
+import type { Employee, Report, ReportRequest, ReportStatusEvent, CertificationDefinition, CertificationFilter, CertificationFilterResponse } from '../types';
 
 const API_BASE_URL = 'http://localhost:8080/api';
 
@@ -42,6 +42,23 @@ class ApiClient {
     });
   }  async getReport(id: string): Promise<Report> {
     return this.fetchWithErrorHandling<Report>(`/reports/${id}`);
+  }
+
+  // Server-Sent Events stream of a report's status until it finishes; returns a function that closes it.
+  // EventSource reconnects by itself if the stream times out before the report finishes.
+  subscribeToReportStatus(id: string, onStatus: (event: ReportStatusEvent) => void): () => void {
+    if (typeof EventSource === 'undefined') {
+      return () => {};
+    }
+    const source = new EventSource(`${API_BASE_URL}/reports/${id}/events`);
+    source.addEventListener('status', (event) => {
+      const status = JSON.parse((event as MessageEvent<string>).data) as ReportStatusEvent;
+      if (status.status === 'COMPLETED' || status.status === 'FAILED' || status.status === 'CANCELLED') {
+        source.close();
+      }
+      onStatus(status);
+    });
+    return () => source.close();
   }async downloadReport(id: string): Promise<Blob> {
     const response = await fetch(`${API_BASE_URL}/reports/${id}/download`);    if (!response.ok) {
       // Try to parse error response as JSON
@@ -85,7 +85,7 @@ export interface Report {
   id: string;
   name: string; // Changed from fileName to match backend
   type: string;
-  status: 'QUEUED' | 'IN_PROGRESS' | 'COMPLETED' | 'FAILED'; // Updated to match backend
+  status: 'QUEUED' | 'IN_PROGRESS' | 'COMPLETED' | 'FAILED' | 'CANCELLED'; // Updated to match backend
   parameters?: string;
   filePath?: string;
   pageCount?: number;
@@ -93,6 +93,16 @@ export interface Report {
   startedAt?: string;
   completedAt?: string;
   errorMessage?: string;
+  progress?: number; // Percentage while generating, from the status stream
+}
+
+// Status update streamed from /reports/{id}/events
+export interface ReportStatusEvent {
+  reportId: string;
+  status: Report['status'];
+  progress: number;
+  completedAt?: string;
+  message?: string;
 }
 
 export interface ApiResponse<T> {